@@ -47,6 +47,7 @@ import org.apache.activemq.artemis.core.paging.impl.PagingStoreFactoryNIO;
 import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.impl.journal.DescribeJournal;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompactCursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.PageUpdateTXEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
@@ -233,8 +234,8 @@ public class PrintData extends OptionalLocking {
 
          ActiveMQBuffer buff = ActiveMQBuffers.wrappedBuffer(data);
 
-         if (record.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR) {
-            CursorAckRecordEncoding encoding = new CursorAckRecordEncoding();
+         if (record.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR || record.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT) {
+            CursorAckRecordEncoding encoding = record.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR ? new CursorAckRecordEncoding() : new CompactCursorAckRecordEncoding();
             encoding.decode(buff);
 
             Set<PagePosition> set = cursorInfo.getCursorRecords().get(encoding.queueID);
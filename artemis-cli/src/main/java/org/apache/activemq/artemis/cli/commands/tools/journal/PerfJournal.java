@@ -49,6 +49,9 @@ public class PerfJournal extends LockAbstract {
    @Option(name = "--journal-type", description = "Journal Type to be used (default from broker.xml)")
    public String journalType = null;
 
+   @Option(name = "--direct-io", description = "Open the files with O_DIRECT on the IO_URING journal (default from broker.xml)")
+   public boolean directIO = false;
+
 
    @Override
    public Object execute(ActionContext context) throws Exception {
@@ -67,14 +70,18 @@ public class PerfJournal extends LockAbstract {
          fileConfiguration.setJournalType(JournalType.getType(journalType));
       }
 
+      if (directIO) {
+         fileConfiguration.setJournalDirectIO(true);
+      }
+
       System.out.println("");
       System.out.println("Auto tuning journal ...");
 
-      System.out.println("Performing " + tries + " tests writing " + writes + " blocks of " + size + " on each test, sync=" + fileConfiguration.isJournalDatasync() + " with journalType = " + fileConfiguration.getJournalType());
+      System.out.println("Performing " + tries + " tests writing " + writes + " blocks of " + size + " on each test, sync=" + fileConfiguration.isJournalDatasync() + " with journalType = " + fileConfiguration.getJournalType() + (fileConfiguration.getJournalType() == JournalType.IO_URING ? ", direct=" + fileConfiguration.isJournalDirectIO() : ""));
 
       fileConfiguration.getJournalLocation().mkdirs();
 
-      long time = SyncCalculation.syncTest(fileConfiguration.getJournalLocation(), size, writes, tries, verbose, fileConfiguration.isJournalDatasync(), fileConfiguration.getJournalType());
+      long time = SyncCalculation.syncTest(fileConfiguration.getJournalLocation(), size, writes, tries, verbose, fileConfiguration.isJournalDatasync(), fileConfiguration.isJournalDirectIO(), fileConfiguration.getJournalType());
 
       long nanosecondsWait = SyncCalculation.toNanos(time, writes, verbose);
       double writesPerMillisecond = (double) writes / (double) time;
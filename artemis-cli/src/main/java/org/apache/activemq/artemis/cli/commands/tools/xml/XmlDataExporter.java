@@ -69,6 +69,7 @@ import org.apache.activemq.artemis.core.persistence.impl.journal.DescribeJournal
 import org.apache.activemq.artemis.core.persistence.impl.journal.DescribeJournal.ReferenceDescribe;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
 import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompactCursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.PageUpdateTXEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.PersistentAddressBindingEncoding;
@@ -237,8 +238,8 @@ public final class XmlDataExporter extends OptionalLocking {
             }
          } else if (info.getUserRecordType() == JournalRecordIds.ACKNOWLEDGE_REF) {
             acks.add(info);
-         } else if (info.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR) {
-            CursorAckRecordEncoding encoding = new CursorAckRecordEncoding();
+         } else if (info.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR || info.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT) {
+            CursorAckRecordEncoding encoding = info.userRecordType == JournalRecordIds.ACKNOWLEDGE_CURSOR ? new CursorAckRecordEncoding() : new CompactCursorAckRecordEncoding();
             encoding.decode(buff);
 
             Set<PagePosition> set = cursorRecords.get(encoding.queueID);
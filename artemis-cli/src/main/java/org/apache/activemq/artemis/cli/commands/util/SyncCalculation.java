@@ -29,6 +29,7 @@ import org.apache.activemq.artemis.core.io.SequentialFileFactory;
 import org.apache.activemq.artemis.core.io.aio.AIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.uring.IOUringSequentialFileFactory;
 import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.artemis.core.server.JournalType;
 import org.apache.activemq.artemis.jlibaio.LibaioContext;
@@ -51,7 +52,22 @@ public class SyncCalculation {
                                boolean verbose,
                                boolean fsync,
                                JournalType journalType) throws Exception {
-      SequentialFileFactory factory = newFactory(datafolder, fsync, journalType, blockSize * blocks);
+      return syncTest(datafolder, blockSize, blocks, tries, verbose, fsync, false, journalType);
+   }
+
+   /**
+    * Same as {@link #syncTest(File, int, int, int, boolean, boolean, JournalType)},
+    * direct only applies to {@link JournalType#IO_URING}.
+    */
+   public static long syncTest(File datafolder,
+                               int blockSize,
+                               int blocks,
+                               int tries,
+                               boolean verbose,
+                               boolean fsync,
+                               boolean direct,
+                               JournalType journalType) throws Exception {
+      SequentialFileFactory factory = newFactory(datafolder, fsync, direct, journalType, blockSize * blocks);
 
       if (verbose) {
          System.out.println("Using " + factory.getClass().getName() + " to calculate sync times");
@@ -169,13 +185,17 @@ public class SyncCalculation {
       return timeWait;
    }
 
-   private static SequentialFileFactory newFactory(File datafolder, boolean datasync, JournalType journalType, int fileSize) {
+   private static SequentialFileFactory newFactory(File datafolder, boolean datasync, boolean direct, JournalType journalType, int fileSize) {
       SequentialFileFactory factory;
 
       if (journalType == JournalType.ASYNCIO && !LibaioContext.isLoaded()) {
          journalType = JournalType.NIO;
       }
 
+      if (journalType == JournalType.IO_URING && !IOUringSequentialFileFactory.isSupported()) {
+         journalType = JournalType.NIO;
+      }
+
       switch (journalType) {
 
          case NIO:
@@ -188,6 +208,11 @@ public class SyncCalculation {
             factory.start();
             ((AIOSequentialFileFactory) factory).disableBufferReuse();
             return factory;
+         case IO_URING:
+            factory = new IOUringSequentialFileFactory(datafolder, 1).setDirect(direct).setDatasync(datasync);
+            factory.start();
+            ((IOUringSequentialFileFactory) factory).disableBufferReuse();
+            return factory;
          case MAPPED:
             factory = MappedSequentialFileFactory.unbuffered(datafolder, fileSize, null)
                .setDatasync(datasync)
@@ -19,8 +19,10 @@ package org.apache.activemq.artemis.api.core;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.util.concurrent.FastThreadLocal;
 import org.apache.activemq.artemis.utils.DataConstants;
 
 /**
@@ -99,6 +101,11 @@ public final class SimpleString implements CharSequence, Serializable, Comparabl
       this.data = data;
    }
 
+   private SimpleString(final byte[] data, final int hash) {
+      this.data = data;
+      this.hash = hash;
+   }
+
    public SimpleString(final char c) {
       data = new byte[2];
 
@@ -151,6 +158,30 @@ public final class SimpleString implements CharSequence, Serializable, Comparabl
       return new SimpleString(data);
    }
 
+   /**
+    * As {@link #readNullableSimpleString(ByteBuf)}, reusing an equal instance from {@code pool} if there's one.
+    */
+   public static SimpleString readNullableSimpleString(ByteBuf buffer, ByteBufSimpleStringPool pool) {
+      int b = buffer.readByte();
+      if (b == DataConstants.NULL) {
+         return null;
+      }
+      return readSimpleString(buffer, pool);
+   }
+
+   /**
+    * As {@link #readSimpleString(ByteBuf)}, reusing an equal instance from {@code pool} if there's one.
+    */
+   public static SimpleString readSimpleString(ByteBuf buffer, ByteBufSimpleStringPool pool) {
+      int len = buffer.readInt();
+      if (pool == null || len > pool.maxLength) {
+         byte[] data = new byte[len];
+         buffer.readBytes(data);
+         return new SimpleString(data);
+      }
+      return pool.getOrCreate(buffer, len);
+   }
+
    public static void writeNullableSimpleString(ByteBuf buffer, SimpleString val) {
       if (val == null) {
          buffer.writeByte(DataConstants.NULL);
@@ -450,4 +481,130 @@ public final class SimpleString implements CharSequence, Serializable, Comparabl
          dst[d++] = (char) (low | high);
       }
    }
+
+   /**
+    * A bounded pool of the {@link SimpleString}s read from buffers, for the few thousand addresses, queue names and
+    * property keys each message carries over and over again: it saves allocating and hashing a new instance
+    * each time one of them is decoded.
+    * <p>
+    * Both levels are direct mapped on the hash of the bytes and an entry is simply replaced when another string
+    * maps to its slot: each thread first looks in a small cache of its own, which is cheap on Netty event loops, then
+    * in a table shared by all threads.
+    */
+   public static final class ByteBufSimpleStringPool {
+
+      public static final int DEFAULT_CAPACITY = 4096;
+
+      public static final int DEFAULT_THREAD_CAPACITY = 256;
+
+      /**
+       * In bytes, longer strings are not pooled.
+       */
+      public static final int DEFAULT_MAX_LENGTH = 256;
+
+      public static final ByteBufSimpleStringPool DEFAULT = new ByteBufSimpleStringPool(DEFAULT_CAPACITY, DEFAULT_THREAD_CAPACITY, DEFAULT_MAX_LENGTH);
+
+      private final AtomicReferenceArray<SimpleString> shared;
+
+      private final int sharedMask;
+
+      private final int threadMask;
+
+      private final FastThreadLocal<SimpleString[]> threadEntries;
+
+      private final int maxLength;
+
+      /**
+       * @param capacity       the size of the table shared by all threads, rounded up to a power of 2
+       * @param threadCapacity the size of the cache of each thread, rounded up to a power of 2, 0 to only use the
+       *                       shared table
+       * @param maxLength      the length in bytes of the longest string to be pooled
+       */
+      public ByteBufSimpleStringPool(final int capacity, final int threadCapacity, final int maxLength) {
+         if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be greater than 0");
+         }
+         if (threadCapacity < 0) {
+            throw new IllegalArgumentException("threadCapacity must not be negative");
+         }
+         this.shared = new AtomicReferenceArray<>(powerOfTwo(capacity));
+         this.sharedMask = shared.length() - 1;
+         this.maxLength = maxLength;
+         if (threadCapacity == 0) {
+            this.threadMask = -1;
+            this.threadEntries = null;
+         } else {
+            final int threadSize = powerOfTwo(threadCapacity);
+            this.threadMask = threadSize - 1;
+            this.threadEntries = new FastThreadLocal<SimpleString[]>() {
+               @Override
+               protected SimpleString[] initialValue() {
+                  return new SimpleString[threadSize];
+               }
+            };
+         }
+      }
+
+      private static int powerOfTwo(final int value) {
+         return value == 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+      }
+
+      /**
+       * Reads the {@code length} bytes at the reader index of {@code buffer} as a SimpleString.
+       */
+      public SimpleString getOrCreate(final ByteBuf buffer, final int length) {
+         final int offset = buffer.readerIndex();
+
+         // the same hash as SimpleString::hashCode, it is kept by the new instance
+         int hash = 0;
+         for (int i = offset; i < offset + length; i++) {
+            hash = (hash << 5) - hash + buffer.getByte(i);
+         }
+         final int spread = hash ^ (hash >>> 16);
+
+         final SimpleString[] local = threadEntries == null ? null : threadEntries.get();
+         if (local != null) {
+            SimpleString entry = local[spread & threadMask];
+            if (matches(entry, hash, buffer, offset, length)) {
+               buffer.skipBytes(length);
+               return entry;
+            }
+         }
+
+         final int sharedIndex = spread & sharedMask;
+         SimpleString entry = shared.get(sharedIndex);
+         if (!matches(entry, hash, buffer, offset, length)) {
+            final byte[] data = new byte[length];
+            buffer.getBytes(offset, data);
+            entry = new SimpleString(data, hash);
+            shared.lazySet(sharedIndex, entry);
+         }
+
+         if (local != null) {
+            local[spread & threadMask] = entry;
+         }
+         buffer.skipBytes(length);
+         return entry;
+      }
+
+      private static boolean matches(final SimpleString entry,
+                                     final int hash,
+                                     final ByteBuf buffer,
+                                     final int offset,
+                                     final int length) {
+         if (entry == null || entry.hashCode() != hash) {
+            return false;
+         }
+         final byte[] data = entry.data;
+         if (data.length != length) {
+            return false;
+         }
+         for (int i = 0; i < length; i++) {
+            if (data[i] != buffer.getByte(offset + i)) {
+               return false;
+            }
+         }
+         return true;
+      }
+   }
 }
@@ -0,0 +1,168 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.collections;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A growable set of non negative ints backed by bits, where setting and reading a bit doesn't lock.
+ * <p>
+ * Bits are stored in fixed size segments of atomic words, allocated the first time one of their bits is set, so a
+ * sparse set only pays for the segments it uses. Growing only copies the references to the segments, a bit set
+ * while the set grows is never lost.
+ */
+public final class ConcurrentBitSet {
+
+   private static final int WORDS_PER_SEGMENT = 16;
+
+   private static final int BITS_PER_SEGMENT = WORDS_PER_SEGMENT * Long.SIZE;
+
+   private static final AtomicLongArray[] EMPTY = new AtomicLongArray[0];
+
+   private volatile AtomicLongArray[] segments;
+
+   public ConcurrentBitSet() {
+      this.segments = EMPTY;
+   }
+
+   /**
+    * @param expectedSize the number of bits expected to be used, to size the segment table up front
+    */
+   public ConcurrentBitSet(final int expectedSize) {
+      if (expectedSize < 0) {
+         throw new IllegalArgumentException("expectedSize must not be negative");
+      }
+      this.segments = expectedSize == 0 ? EMPTY : new AtomicLongArray[(expectedSize + BITS_PER_SEGMENT - 1) / BITS_PER_SEGMENT];
+   }
+
+   /**
+    * @return {@code true} if the bit wasn't set yet
+    */
+   public boolean set(final int index) {
+      if (index < 0) {
+         throw new IndexOutOfBoundsException("index < 0: " + index);
+      }
+      final AtomicLongArray segment = segment(index / BITS_PER_SEGMENT);
+      final int word = (index % BITS_PER_SEGMENT) >>> 6;
+      final long mask = 1L << index;
+      long current;
+      do {
+         current = segment.get(word);
+         if ((current & mask) != 0) {
+            return false;
+         }
+      }
+      while (!segment.compareAndSet(word, current, current | mask));
+      return true;
+   }
+
+   public boolean get(final int index) {
+      if (index < 0) {
+         return false;
+      }
+      final AtomicLongArray[] segments = this.segments;
+      final int segmentIndex = index / BITS_PER_SEGMENT;
+      if (segmentIndex >= segments.length) {
+         return false;
+      }
+      final AtomicLongArray segment = segments[segmentIndex];
+      return segment != null && (segment.get((index % BITS_PER_SEGMENT) >>> 6) & (1L << index)) != 0;
+   }
+
+   /**
+    * @return the number of bits set
+    */
+   public int cardinality() {
+      int cardinality = 0;
+      for (AtomicLongArray segment : segments) {
+         if (segment != null) {
+            for (int i = 0; i < WORDS_PER_SEGMENT; i++) {
+               cardinality += Long.bitCount(segment.get(i));
+            }
+         }
+      }
+      return cardinality;
+   }
+
+   public boolean isEmpty() {
+      for (AtomicLongArray segment : segments) {
+         if (segment != null) {
+            for (int i = 0; i < WORDS_PER_SEGMENT; i++) {
+               if (segment.get(i) != 0) {
+                  return false;
+               }
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * Releases every segment. A bit set concurrently with this call may be lost.
+    */
+   public synchronized void clear() {
+      segments = EMPTY;
+   }
+
+   private AtomicLongArray segment(final int segmentIndex) {
+      final AtomicLongArray[] segments = this.segments;
+      if (segmentIndex < segments.length) {
+         final AtomicLongArray segment = segments[segmentIndex];
+         if (segment != null) {
+            return segment;
+         }
+      }
+      return allocateSegment(segmentIndex);
+   }
+
+   private synchronized AtomicLongArray allocateSegment(final int segmentIndex) {
+      AtomicLongArray[] segments = this.segments;
+      if (segmentIndex >= segments.length) {
+         segments = Arrays.copyOf(segments, Math.max(segmentIndex + 1, segments.length * 2));
+      }
+      AtomicLongArray segment = segments[segmentIndex];
+      if (segment == null) {
+         segment = new AtomicLongArray(WORDS_PER_SEGMENT);
+         segments[segmentIndex] = segment;
+      }
+      // written back after the segment, so a reader seeing the new table sees the segment too
+      this.segments = segments;
+      return segment;
+   }
+
+   @Override
+   public String toString() {
+      StringBuilder builder = new StringBuilder("ConcurrentBitSet{");
+      final AtomicLongArray[] segments = this.segments;
+      boolean first = true;
+      for (int s = 0; s < segments.length; s++) {
+         if (segments[s] != null) {
+            for (int bit = 0; bit < BITS_PER_SEGMENT; bit++) {
+               if ((segments[s].get(bit >>> 6) & (1L << bit)) != 0) {
+                  if (!first) {
+                     builder.append(", ");
+                  }
+                  builder.append(s * BITS_PER_SEGMENT + bit);
+                  first = false;
+               }
+            }
+         }
+      }
+      return builder.append('}').toString();
+   }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.collections;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.function.Consumer;
+
+/**
+ * An unbounded multi producer, single consumer FIFO queue.
+ * <p>
+ * Elements are stored in linked chunks of fixed size arrays: producers claim a slot with a single atomic
+ * increment and only allocate when they are the first to claim a slot of a new chunk, so there is no
+ * allocation per element as there is on a {@link java.util.concurrent.ConcurrentLinkedQueue}.
+ * <p>
+ * {@link #poll()} and {@link #drain(Consumer, int)} must only be called by one thread at a time.
+ * They may return no element while a producer is still writing the element it claimed a slot for, producers are
+ * expected to notify the consumer after {@link #offer(Object)} returns.
+ *
+ * @param <E> the type of the elements
+ */
+public final class MpscChunkedQueue<E> {
+
+   public static final int DEFAULT_CHUNK_SIZE = 64;
+
+   @SuppressWarnings("rawtypes")
+   private static final AtomicReferenceFieldUpdater<MpscChunkedQueue, Chunk> PRODUCER_CHUNK = AtomicReferenceFieldUpdater.newUpdater(MpscChunkedQueue.class, Chunk.class, "producerChunk");
+
+   private final int chunkSize;
+
+   private final AtomicLong producerIndex = new AtomicLong(0);
+
+   // never behind the chunk of any slot claimed after reading it
+   private volatile Chunk<E> producerChunk;
+
+   // only accessed by the consumer
+   private Chunk<E> consumerChunk;
+
+   // written by the consumer only, volatile so size and isEmpty can be read by anyone
+   private volatile long consumerIndex;
+
+   public MpscChunkedQueue() {
+      this(DEFAULT_CHUNK_SIZE);
+   }
+
+   public MpscChunkedQueue(final int chunkSize) {
+      if (chunkSize <= 0) {
+         throw new IllegalArgumentException("chunkSize must be greater than 0");
+      }
+      this.chunkSize = chunkSize;
+      Chunk<E> first = new Chunk<>(0, chunkSize);
+      this.producerChunk = first;
+      this.consumerChunk = first;
+   }
+
+   public void offer(final E element) {
+      Objects.requireNonNull(element);
+      // read the chunk before claiming the index, so the chunk can't be ahead of the index
+      Chunk<E> chunk = producerChunk;
+      long index = producerIndex.getAndIncrement();
+      chunk = chunkOf(chunk, index);
+      chunk.slots.lazySet((int) (index - chunk.base), element);
+   }
+
+   private Chunk<E> chunkOf(Chunk<E> chunk, final long index) {
+      while (index >= chunk.base + chunkSize) {
+         Chunk<E> next = chunk.next;
+         if (next == null) {
+            Chunk<E> created = new Chunk<>(chunk.base + chunkSize, chunkSize);
+            next = chunk.casNext(created) ? created : chunk.next;
+         }
+         chunk = next;
+      }
+
+      Chunk<E> current = producerChunk;
+      if (current.base < chunk.base) {
+         // if this fails someone else has moved it, further or not, the next producer moving past will fix it
+         PRODUCER_CHUNK.compareAndSet(this, current, chunk);
+      }
+      return chunk;
+   }
+
+   /**
+    * @return the head of the queue, or null if it is empty or its head is still being written
+    */
+   public E poll() {
+      Chunk<E> chunk = consumerChunk;
+      long index = consumerIndex;
+      int offset = (int) (index - chunk.base);
+      if (offset == chunkSize) {
+         Chunk<E> next = chunk.next;
+         if (next == null) {
+            return null;
+         }
+         // the previous chunk is garbage from now on
+         consumerChunk = chunk = next;
+         offset = 0;
+      }
+
+      E element = chunk.slots.get(offset);
+      if (element == null) {
+         return null;
+      }
+      chunk.slots.lazySet(offset, null);
+      consumerIndex = index + 1;
+      return element;
+   }
+
+   /**
+    * Polls up to {@code limit} elements, handing them to {@code consumer} in order.
+    *
+    * @return how many elements were drained
+    */
+   public int drain(final Consumer<? super E> consumer, final int limit) {
+      int drained = 0;
+      E element;
+      while (drained < limit && (element = poll()) != null) {
+         consumer.accept(element);
+         drained++;
+      }
+      return drained;
+   }
+
+   public boolean isEmpty() {
+      return consumerIndex == producerIndex.get();
+   }
+
+   /**
+    * @return the number of elements offered and not polled yet, only an estimate while the queue is being used
+    */
+   public int size() {
+      long size = producerIndex.get() - consumerIndex;
+      return size <= 0 ? 0 : (int) Math.min(size, Integer.MAX_VALUE);
+   }
+
+   private static final class Chunk<E> {
+
+      @SuppressWarnings("rawtypes")
+      private static final AtomicReferenceFieldUpdater<Chunk, Chunk> NEXT = AtomicReferenceFieldUpdater.newUpdater(Chunk.class, Chunk.class, "next");
+
+      final long base;
+
+      final AtomicReferenceArray<E> slots;
+
+      volatile Chunk<E> next;
+
+      Chunk(final long base, final int size) {
+         this.base = base;
+         this.slots = new AtomicReferenceArray<>(size);
+      }
+
+      boolean casNext(final Chunk<E> next) {
+         return NEXT.compareAndSet(this, null, next);
+      }
+   }
+}
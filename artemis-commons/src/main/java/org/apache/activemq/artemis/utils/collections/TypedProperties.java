@@ -25,6 +25,7 @@ import java.util.Map.Entry;
 import java.util.Set;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.activemq.artemis.api.core.ActiveMQPropertyConversionException;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.logs.ActiveMQUtilBundle;
@@ -49,6 +50,9 @@ import static org.apache.activemq.artemis.utils.DataConstants.STRING;
  * This implementation follows section 3.5.4 of the <i>Java Message Service</i> specification
  * (Version 1.1 April 12, 2002).
  * <p>
+ * When decoded with {@link #decode(ByteBuf, boolean) lazy} set, the properties are kept in their encoded form together
+ * with an index of where each key and value starts: a value is only decoded when it is read and the encoded form is
+ * written back as it is. The properties are only turned into a map once they are changed or all of them are needed.
  */
 public class TypedProperties {
 
@@ -60,13 +64,28 @@ public class TypedProperties {
 
    private boolean internalProperties;
 
+   // Lazy decoding: the encoded entries, from the first key to the end of the last value. Never changed once set.
+   private byte[] encoded;
+
+   // Lazy decoding: 3 ints for each entry of encoded, the hash of its key, where its key starts and where its value starts
+   private int[] index;
+
+   // Lazy decoding: the values already decoded, by entry
+   private Object[] decodedValues;
+
+   private ByteBuf encodedBuffer;
+
    public TypedProperties() {
    }
 
    /**
     *  Return the number of properties
     * */
-   public int size() {
+   public synchronized int size() {
+      final int[] index = this.index;
+      if (index != null) {
+         return index.length / 3;
+      }
       return properties.size();
    }
 
@@ -74,13 +93,32 @@ public class TypedProperties {
       // The estimate is basically the encode size + 2 object references for each entry in the map
       // Note we don't include the attributes or anything else since they already included in the memory estimate
       // of the ServerMessage
+      final int[] index = this.index;
+      if (index != null) {
+         // the encoded copy and its index
+         return size + DataConstants.SIZE_INT * index.length;
+      }
 
       return properties == null ? 0 : size + 2 * DataConstants.SIZE_INT * properties.size();
    }
 
    public TypedProperties(final TypedProperties other) {
-      properties = other.properties == null ? null : new HashMap<>(other.properties);
-      size = other.size;
+      synchronized (other) {
+         properties = other.properties == null ? null : new HashMap<>(other.properties);
+         // the encoded entries are never changed, they can be shared until one of the copies is changed
+         encoded = other.encoded;
+         index = other.index;
+         size = other.size;
+         internalProperties = other.internalProperties;
+      }
+   }
+
+   /**
+    * @return true if the properties are still in their encoded form, as a {@link #decode(ByteBuf, boolean) lazy}
+    * decode left them
+    */
+   public boolean isLazy() {
+      return index != null;
    }
 
    public boolean hasInternalProperties() {
@@ -143,7 +181,12 @@ public class TypedProperties {
    }
 
    public void putTypedProperties(final TypedProperties otherProps) {
-      if (otherProps == null || otherProps.properties == null) {
+      if (otherProps == null) {
+         return;
+      }
+
+      otherProps.materialize();
+      if (otherProps.properties == null) {
          return;
       }
 
@@ -312,10 +355,15 @@ public class TypedProperties {
       return doRemoveProperty(key);
    }
 
-   public boolean containsProperty(final SimpleString key) {
+   public synchronized boolean containsProperty(final SimpleString key) {
       if (size == 0) {
          return false;
+      }
 
+      final byte[] encoded = this.encoded;
+      final int[] index = this.index;
+      if (encoded != null && index != null) {
+         return indexOf(key, encoded, index) >= 0;
       } else {
          return properties.containsKey(key);
       }
@@ -325,11 +373,22 @@ public class TypedProperties {
       if (size == 0) {
          return Collections.emptySet();
       } else {
+         materialize();
          return properties.keySet();
       }
    }
 
-   public synchronized void decode(final ByteBuf buffer) {
+   public void decode(final ByteBuf buffer) {
+      decode(buffer, false);
+   }
+
+   /**
+    * @param lazy if true only the keys are looked at: the encoded properties are copied and values are decoded as
+    *             they are read
+    */
+   public synchronized void decode(final ByteBuf buffer, final boolean lazy) {
+      clearEncoded();
+
       byte b = buffer.readByte();
 
       if (b == DataConstants.NULL) {
@@ -337,86 +396,214 @@ public class TypedProperties {
       } else {
          int numHeaders = buffer.readInt();
 
-         //optimize the case of no collisions to avoid any resize (it doubles the map size!!!) when load factor is reached
-         properties = new HashMap<>(numHeaders, 1.0f);
-         size = 0;
+         if (lazy) {
+            decodeIndex(buffer, numHeaders);
+         } else {
+            decodeEntries(buffer, numHeaders);
+         }
+      }
+   }
 
-         for (int i = 0; i < numHeaders; i++) {
-            int len = buffer.readInt();
-            byte[] data = new byte[len];
-            buffer.readBytes(data);
-            SimpleString key = new SimpleString(data);
+   private void decodeEntries(final ByteBuf buffer, final int numHeaders) {
+      //optimize the case of no collisions to avoid any resize (it doubles the map size!!!) when load factor is reached
+      final Map<SimpleString, PropertyValue> properties = new HashMap<>(numHeaders, 1.0f);
+      int size = 0;
 
-            byte type = buffer.readByte();
+      for (int i = 0; i < numHeaders; i++) {
+         SimpleString key = SimpleString.readSimpleString(buffer, SimpleString.ByteBufSimpleStringPool.DEFAULT);
+         PropertyValue value = readValue(buffer);
 
-            PropertyValue val;
+         if (key.startsWith(AMQ_PROPNAME)) {
+            internalProperties = true;
+         }
 
-            switch (type) {
-               case NULL: {
-                  val = NullValue.INSTANCE;
-                  doPutValue(key, val);
-                  break;
-               }
-               case CHAR: {
-                  val = new CharValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case BOOLEAN: {
-                  val = BooleanValue.of(buffer.readBoolean());
-                  doPutValue(key, val);
-                  break;
-               }
-               case BYTE: {
-                  val = ByteValue.valueOf(buffer.readByte());
-                  doPutValue(key, val);
-                  break;
-               }
-               case BYTES: {
-                  val = new BytesValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case SHORT: {
-                  val = new ShortValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case INT: {
-                  val = new IntValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case LONG: {
-                  val = new LongValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case FLOAT: {
-                  val = new FloatValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case DOUBLE: {
-                  val = new DoubleValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               case STRING: {
-                  val = new StringValue(buffer);
-                  doPutValue(key, val);
-                  break;
-               }
-               default: {
-                  throw ActiveMQUtilBundle.BUNDLE.invalidType(type);
-               }
-            }
+         PropertyValue oldValue = properties.put(key, value);
+         if (oldValue != null) {
+            size += value.encodeSize() - oldValue.encodeSize();
+         } else {
+            size += SimpleString.sizeofString(key) + value.encodeSize();
          }
       }
+
+      // the map is only published once complete, a lazy decode keeps using the encoded entries until then
+      this.properties = properties;
+      this.size = size;
+   }
+
+   private void decodeIndex(final ByteBuf buffer, final int numHeaders) {
+      final int start = buffer.readerIndex();
+      final int[] index = new int[numHeaders * 3];
+      final byte[] internalPrefix = AMQ_PROPNAME.getData();
+
+      for (int i = 0; i < numHeaders; i++) {
+         final int len = buffer.readInt();
+         final int keyStart = buffer.readerIndex();
+
+         // the same hash as SimpleString::hashCode
+         int hash = 0;
+         for (int b = keyStart; b < keyStart + len; b++) {
+            hash = (hash << 5) - hash + buffer.getByte(b);
+         }
+
+         if (!internalProperties && len >= internalPrefix.length && startsWith(buffer, keyStart, internalPrefix)) {
+            internalProperties = true;
+         }
+
+         buffer.skipBytes(len);
+         final int valueStart = buffer.readerIndex();
+         skipValue(buffer);
+
+         index[i * 3] = hash;
+         index[i * 3 + 1] = keyStart - start;
+         index[i * 3 + 2] = valueStart - start;
+      }
+
+      final byte[] encoded = new byte[buffer.readerIndex() - start];
+      buffer.getBytes(start, encoded);
+
+      properties = null;
+      size = encoded.length;
+      this.index = index;
+      this.encoded = encoded;
+   }
+
+   private static boolean startsWith(final ByteBuf buffer, final int offset, final byte[] prefix) {
+      for (int i = 0; i < prefix.length; i++) {
+         if (buffer.getByte(offset + i) != prefix[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static int indexOf(final SimpleString key, final byte[] encoded, final int[] index) {
+      final byte[] data = key.getData();
+      final int hash = key.hashCode();
+
+      for (int i = 0; i < index.length; i += 3) {
+         final int keyStart = index[i + 1];
+         if (index[i] == hash && index[i + 2] - keyStart == data.length && keyEquals(encoded, keyStart, data)) {
+            return i / 3;
+         }
+      }
+      return -1;
+   }
+
+   private static boolean keyEquals(final byte[] encoded, final int offset, final byte[] data) {
+      for (int i = 0; i < data.length; i++) {
+         if (encoded[offset + i] != data[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private Object decodeValue(final int entry) {
+      if (decodedValues == null) {
+         decodedValues = new Object[index.length / 3];
+      }
+
+      Object value = decodedValues[entry];
+      if (value == null) {
+         if (encodedBuffer == null) {
+            encodedBuffer = Unpooled.wrappedBuffer(encoded);
+         }
+         encodedBuffer.readerIndex(index[entry * 3 + 2]);
+         value = readValue(encodedBuffer).getValue();
+         decodedValues[entry] = value;
+      }
+      return value;
+   }
+
+   /**
+    * Turns the encoded properties of a lazy decode into the map, before they are changed.
+    */
+   private synchronized void materialize() {
+      final byte[] encoded = this.encoded;
+      if (encoded == null) {
+         return;
+      }
+
+      decodeEntries(Unpooled.wrappedBuffer(encoded), index.length / 3);
+      clearEncoded();
+   }
+
+   private void clearEncoded() {
+      encoded = null;
+      index = null;
+      decodedValues = null;
+      encodedBuffer = null;
+   }
+
+   private static PropertyValue readValue(final ByteBuf buffer) {
+      byte type = buffer.readByte();
+
+      switch (type) {
+         case NULL:
+            return NullValue.INSTANCE;
+         case CHAR:
+            return new CharValue(buffer);
+         case BOOLEAN:
+            return BooleanValue.of(buffer.readBoolean());
+         case BYTE:
+            return ByteValue.valueOf(buffer.readByte());
+         case BYTES:
+            return new BytesValue(buffer);
+         case SHORT:
+            return new ShortValue(buffer);
+         case INT:
+            return new IntValue(buffer);
+         case LONG:
+            return new LongValue(buffer);
+         case FLOAT:
+            return new FloatValue(buffer);
+         case DOUBLE:
+            return new DoubleValue(buffer);
+         case STRING:
+            return new StringValue(buffer);
+         default:
+            throw ActiveMQUtilBundle.BUNDLE.invalidType(type);
+      }
+   }
+
+   private static void skipValue(final ByteBuf buffer) {
+      byte type = buffer.readByte();
+
+      switch (type) {
+         case NULL:
+            break;
+         case BOOLEAN:
+         case BYTE:
+            buffer.skipBytes(DataConstants.SIZE_BYTE);
+            break;
+         case CHAR:
+         case SHORT:
+            buffer.skipBytes(DataConstants.SIZE_SHORT);
+            break;
+         case INT:
+         case FLOAT:
+            buffer.skipBytes(DataConstants.SIZE_INT);
+            break;
+         case LONG:
+         case DOUBLE:
+            buffer.skipBytes(DataConstants.SIZE_LONG);
+            break;
+         case BYTES:
+         case STRING:
+            buffer.skipBytes(buffer.readInt());
+            break;
+         default:
+            throw ActiveMQUtilBundle.BUNDLE.invalidType(type);
+      }
    }
 
    public synchronized void encode(final ByteBuf buffer) {
-      if (properties == null) {
+      if (encoded != null) {
+         // nothing was changed since the lazy decode
+         buffer.writeByte(DataConstants.NOT_NULL);
+         buffer.writeInt(index.length / 3);
+         buffer.writeBytes(encoded);
+      } else if (properties == null) {
          buffer.writeByte(DataConstants.NULL);
       } else {
          buffer.writeByte(DataConstants.NOT_NULL);
@@ -434,15 +621,19 @@ public class TypedProperties {
    }
 
    public int getEncodeSize() {
-      if (properties == null) {
+      if (properties == null && index == null) {
          return DataConstants.SIZE_BYTE;
       } else {
          return DataConstants.SIZE_BYTE + DataConstants.SIZE_INT + size;
       }
    }
 
-   public void clear() {
-      if (properties != null) {
+   public synchronized void clear() {
+      if (encoded != null) {
+         clearEncoded();
+         properties = new HashMap<>();
+         size = 0;
+      } else if (properties != null) {
          properties.clear();
       }
    }
@@ -451,6 +642,8 @@ public class TypedProperties {
    public String toString() {
       StringBuilder sb = new StringBuilder("TypedProperties[");
 
+      materialize();
+
       if (properties != null) {
 
          Iterator<Entry<SimpleString, PropertyValue>> iter = properties.entrySet().iterator();
@@ -501,6 +694,7 @@ public class TypedProperties {
    // Private ------------------------------------------------------------------------------------
 
    private void checkCreateProperties() {
+      materialize();
       if (properties == null) {
          properties = new HashMap<>();
       }
@@ -520,6 +714,13 @@ public class TypedProperties {
    }
 
    private synchronized Object doRemoveProperty(final SimpleString key) {
+      if (encoded != null) {
+         if (indexOf(key, encoded, index) < 0) {
+            return null;
+         }
+         materialize();
+      }
+
       if (properties == null) {
          return null;
       }
@@ -535,11 +736,16 @@ public class TypedProperties {
       }
    }
 
-   private synchronized Object doGetProperty(final Object key) {
+   private synchronized Object doGetProperty(final SimpleString key) {
       if (size == 0) {
          return null;
       }
 
+      if (encoded != null) {
+         final int entry = indexOf(key, encoded, index);
+         return entry < 0 ? null : decodeValue(entry);
+      }
+
       PropertyValue val = properties.get(key);
 
       if (val == null) {
@@ -910,11 +1116,16 @@ public class TypedProperties {
       }
    }
 
-   public boolean isEmpty() {
+   public synchronized boolean isEmpty() {
+      final int[] index = this.index;
+      if (index != null) {
+         return index.length == 0;
+      }
       return properties.isEmpty();
    }
 
    public Map<String, Object> getMap() {
+      materialize();
       Map<String, Object> m = new HashMap<>();
       for (Entry<SimpleString, PropertyValue> entry : properties.entrySet()) {
          Object val = entry.getValue().getValue();
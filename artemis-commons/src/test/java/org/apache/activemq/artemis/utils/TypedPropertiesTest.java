@@ -17,6 +17,9 @@
 package org.apache.activemq.artemis.utils;
 
 import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
@@ -221,6 +224,141 @@ public class TypedPropertiesTest {
       TypedPropertiesTest.assertEqualsTypeProperties(emptyProps, decodedProps);
    }
 
+   @Test
+   public void testLazyDecode() throws Exception {
+      SimpleString bytesKey = RandomUtil.randomSimpleString();
+      SimpleString intKey = RandomUtil.randomSimpleString();
+      SimpleString stringKey = RandomUtil.randomSimpleString();
+      SimpleString nullKey = RandomUtil.randomSimpleString();
+      props.putByteProperty(RandomUtil.randomSimpleString(), RandomUtil.randomByte());
+      props.putBytesProperty(bytesKey, RandomUtil.randomBytes());
+      props.putBooleanProperty(RandomUtil.randomSimpleString(), RandomUtil.randomBoolean());
+      props.putShortProperty(RandomUtil.randomSimpleString(), RandomUtil.randomShort());
+      props.putIntProperty(intKey, RandomUtil.randomInt());
+      props.putLongProperty(RandomUtil.randomSimpleString(), RandomUtil.randomLong());
+      props.putFloatProperty(RandomUtil.randomSimpleString(), RandomUtil.randomFloat());
+      props.putDoubleProperty(RandomUtil.randomSimpleString(), RandomUtil.randomDouble());
+      props.putCharProperty(RandomUtil.randomSimpleString(), RandomUtil.randomChar());
+      props.putSimpleStringProperty(stringKey, RandomUtil.randomSimpleString());
+      props.putNullValue(nullKey);
+
+      ActiveMQBuffer buffer = ActiveMQBuffers.dynamicBuffer(1024);
+      props.encode(buffer.byteBuf());
+
+      TypedProperties decodedProps = new TypedProperties();
+      decodedProps.decode(buffer.byteBuf().duplicate(), true);
+      Assert.assertTrue(decodedProps.isLazy());
+      Assert.assertEquals(props.size(), decodedProps.size());
+      Assert.assertEquals(props.getEncodeSize(), decodedProps.getEncodeSize());
+
+      // reading values doesn't need the map
+      Assert.assertEquals(props.getIntProperty(intKey), decodedProps.getIntProperty(intKey));
+      Assert.assertEquals(props.getSimpleStringProperty(stringKey), decodedProps.getSimpleStringProperty(stringKey));
+      Assert.assertArrayEquals(props.getBytesProperty(bytesKey), decodedProps.getBytesProperty(bytesKey));
+      Assert.assertTrue(decodedProps.containsProperty(nullKey));
+      Assert.assertNull(decodedProps.getProperty(nullKey));
+      Assert.assertFalse(decodedProps.containsProperty(key));
+      Assert.assertNull(decodedProps.getProperty(key));
+      Assert.assertNull(decodedProps.removeProperty(key));
+      Assert.assertTrue(decodedProps.isLazy());
+
+      // nothing changed, the encoded properties are written back as they were
+      ActiveMQBuffer reencoded = ActiveMQBuffers.dynamicBuffer(1024);
+      decodedProps.encode(reencoded.byteBuf());
+      Assert.assertEquals(buffer.byteBuf(), reencoded.byteBuf());
+
+      decodedProps.putIntProperty(intKey, 1);
+      Assert.assertFalse(decodedProps.isLazy());
+      Assert.assertEquals(Integer.valueOf(1), decodedProps.getIntProperty(intKey));
+      Assert.assertEquals(props.getSimpleStringProperty(stringKey), decodedProps.getSimpleStringProperty(stringKey));
+      Assert.assertEquals(props.getEncodeSize(), decodedProps.getEncodeSize());
+
+      decodedProps = new TypedProperties();
+      decodedProps.decode(buffer.byteBuf(), true);
+      TypedPropertiesTest.assertEqualsTypeProperties(props, decodedProps);
+   }
+
+   @Test
+   public void testLazyDecodeCopy() throws Exception {
+      props.putSimpleStringProperty(key, RandomUtil.randomSimpleString());
+      ActiveMQBuffer buffer = ActiveMQBuffers.dynamicBuffer(1024);
+      props.encode(buffer.byteBuf());
+
+      TypedProperties decodedProps = new TypedProperties();
+      decodedProps.decode(buffer.byteBuf(), true);
+
+      TypedProperties copy = new TypedProperties(decodedProps);
+      Assert.assertTrue(copy.isLazy());
+      copy.removeProperty(key);
+      Assert.assertFalse(copy.containsProperty(key));
+
+      Assert.assertTrue(decodedProps.isLazy());
+      Assert.assertEquals(props.getProperty(key), decodedProps.getProperty(key));
+   }
+
+   @Test
+   public void testLazyDecodeInternalProperties() throws Exception {
+      props.putSimpleStringProperty(RandomUtil.randomSimpleString(), RandomUtil.randomSimpleString());
+      ActiveMQBuffer buffer = ActiveMQBuffers.dynamicBuffer(1024);
+      props.encode(buffer.byteBuf());
+      TypedProperties decodedProps = new TypedProperties();
+      decodedProps.decode(buffer.byteBuf(), true);
+      Assert.assertFalse(decodedProps.hasInternalProperties());
+
+      props.putLongProperty(new SimpleString("_AMQ_SCHED_DELIVERY"), 1L);
+      buffer.clear();
+      props.encode(buffer.byteBuf());
+      decodedProps = new TypedProperties();
+      decodedProps.decode(buffer.byteBuf(), true);
+      Assert.assertTrue(decodedProps.hasInternalProperties());
+   }
+
+   @Test
+   public void testReadWhileMaterializing() throws Exception {
+      final int entries = 20;
+      for (int i = 0; i < entries; i++) {
+         props.putIntProperty(new SimpleString("key" + i), i);
+      }
+      ActiveMQBuffer buffer = ActiveMQBuffers.dynamicBuffer(1024);
+      props.encode(buffer.byteBuf());
+
+      final SimpleString lastKey = new SimpleString("key" + (entries - 1));
+      final AtomicReference<TypedProperties> current = new AtomicReference<>();
+      final AtomicReference<Throwable> failure = new AtomicReference<>();
+      final CountDownLatch done = new CountDownLatch(1);
+
+      Thread reader = new Thread(() -> {
+         try {
+            while (done.getCount() > 0) {
+               TypedProperties decoded = current.get();
+               if (decoded != null) {
+                  // the changes made by the writer only touch key0
+                  Assert.assertTrue(decoded.containsProperty(lastKey));
+                  Assert.assertEquals(entries, decoded.size());
+                  Assert.assertFalse(decoded.isEmpty());
+               }
+            }
+         } catch (Throwable t) {
+            failure.set(t);
+         }
+      });
+      reader.start();
+
+      try {
+         for (int i = 0; i < 10_000 && failure.get() == null; i++) {
+            TypedProperties decoded = new TypedProperties();
+            decoded.decode(buffer.byteBuf().duplicate(), true);
+            current.set(decoded);
+            decoded.putIntProperty(new SimpleString("key0"), -i);
+         }
+      } finally {
+         done.countDown();
+         reader.join(TimeUnit.SECONDS.toMillis(10));
+      }
+
+      Assert.assertNull(failure.get());
+   }
+
    @Before
    public void setUp() throws Exception {
       props = new TypedProperties();
@@ -0,0 +1,97 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.collections;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ConcurrentBitSetTest {
+
+   @Test
+   public void testSetAndGet() {
+      ConcurrentBitSet bits = new ConcurrentBitSet(10);
+      assertTrue(bits.isEmpty());
+      assertFalse(bits.get(-1));
+      assertFalse(bits.get(100000));
+
+      assertTrue(bits.set(0));
+      assertTrue(bits.set(63));
+      assertTrue(bits.set(64));
+      assertTrue(bits.set(5000));
+      assertFalse(bits.set(63));
+
+      assertTrue(bits.get(0));
+      assertTrue(bits.get(63));
+      assertTrue(bits.get(64));
+      assertTrue(bits.get(5000));
+      assertFalse(bits.get(1));
+      assertFalse(bits.get(4999));
+      assertFalse(bits.get(5064));
+      assertEquals(4, bits.cardinality());
+      assertFalse(bits.isEmpty());
+      assertEquals("ConcurrentBitSet{0, 63, 64, 5000}", bits.toString());
+
+      bits.clear();
+      assertTrue(bits.isEmpty());
+      assertFalse(bits.get(5000));
+      assertTrue(bits.set(5000));
+   }
+
+   @Test(expected = IndexOutOfBoundsException.class)
+   public void testNegativeIndex() {
+      new ConcurrentBitSet().set(-1);
+   }
+
+   @Test
+   public void testConcurrentSet() throws Exception {
+      final int threads = 8;
+      final int bitsPerThread = 20000;
+      final ConcurrentBitSet bits = new ConcurrentBitSet();
+      final AtomicInteger newlySet = new AtomicInteger();
+      final CountDownLatch start = new CountDownLatch(1);
+      Thread[] setters = new Thread[threads];
+      for (int t = 0; t < threads; t++) {
+         setters[t] = new Thread(() -> {
+            try {
+               start.await();
+            } catch (InterruptedException e) {
+               return;
+            }
+            // every thread sets every bit, in the same order so the set keeps growing while they race
+            for (int i = 0; i < bitsPerThread; i++) {
+               if (bits.set(i)) {
+                  newlySet.incrementAndGet();
+               }
+            }
+         });
+         setters[t].start();
+      }
+      start.countDown();
+      for (Thread setter : setters) {
+         setter.join();
+      }
+
+      assertEquals(bitsPerThread, newlySet.get());
+      assertEquals(bitsPerThread, bits.cardinality());
+   }
+}
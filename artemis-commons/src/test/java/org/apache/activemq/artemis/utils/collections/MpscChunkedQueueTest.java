@@ -0,0 +1,122 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.utils.collections;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MpscChunkedQueueTest {
+
+   @Test
+   public void testFifoAcrossChunks() {
+      MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>(4);
+      assertTrue(queue.isEmpty());
+      assertNull(queue.poll());
+
+      for (int i = 0; i < 10; i++) {
+         queue.offer(i);
+      }
+      assertFalse(queue.isEmpty());
+      assertEquals(10, queue.size());
+
+      for (int i = 0; i < 10; i++) {
+         assertEquals(Integer.valueOf(i), queue.poll());
+      }
+      assertNull(queue.poll());
+      assertTrue(queue.isEmpty());
+      assertEquals(0, queue.size());
+
+      // keeps working once the consumer moved to a new chunk
+      queue.offer(10);
+      assertEquals(Integer.valueOf(10), queue.poll());
+   }
+
+   @Test
+   public void testDrainLimit() {
+      MpscChunkedQueue<Integer> queue = new MpscChunkedQueue<>(4);
+      for (int i = 0; i < 10; i++) {
+         queue.offer(i);
+      }
+
+      List<Integer> drained = new ArrayList<>();
+      assertEquals(6, queue.drain(drained::add, 6));
+      assertEquals(4, queue.drain(drained::add, 6));
+      assertEquals(0, queue.drain(drained::add, 6));
+
+      for (int i = 0; i < 10; i++) {
+         assertEquals(Integer.valueOf(i), drained.get(i));
+      }
+   }
+
+   @Test(expected = NullPointerException.class)
+   public void testNullElement() {
+      new MpscChunkedQueue<>().offer(null);
+   }
+
+   @Test
+   public void testConcurrentProducers() throws Exception {
+      final int producers = 8;
+      final int elements = 100000;
+      final MpscChunkedQueue<long[]> queue = new MpscChunkedQueue<>(16);
+      final CountDownLatch start = new CountDownLatch(1);
+
+      List<Thread> threads = new ArrayList<>();
+      for (int p = 0; p < producers; p++) {
+         final int producer = p;
+         Thread thread = new Thread(() -> {
+            try {
+               start.await();
+            } catch (InterruptedException e) {
+               return;
+            }
+            for (int i = 0; i < elements; i++) {
+               queue.offer(new long[]{producer, i});
+            }
+         });
+         thread.start();
+         threads.add(thread);
+      }
+      start.countDown();
+
+      long[] next = new long[producers];
+      int received = 0;
+      while (received < producers * elements) {
+         long[] element = queue.poll();
+         if (element == null) {
+            Thread.yield();
+            continue;
+         }
+         // every producer's elements come out in the order they went in
+         assertEquals(next[(int) element[0]]++, element[1]);
+         received++;
+      }
+
+      for (Thread thread : threads) {
+         thread.join();
+      }
+      assertNull(queue.poll());
+      assertTrue(queue.isEmpty());
+   }
+}
@@ -138,6 +138,15 @@ public final class ActiveMQDefaultConfiguration {
    // true means that the server will sync data files
    private static boolean DEFAULT_JOURNAL_DATASYNC = true;
 
+   // true means that the IO_URING journal will open its files with O_DIRECT
+   private static boolean DEFAULT_JOURNAL_DIRECT_IO = false;
+
+   // true means page cursor acks are written as compact records, which older versions can't read
+   private static boolean DEFAULT_JOURNAL_COMPACT_PAGE_ACKS = false;
+
+   // the number of independent journals the message journal is striped across
+   private static int DEFAULT_JOURNAL_STRIPES = 1;
+
    // Maximum number of threads to use for the scheduled thread pool
    private static int DEFAULT_SCHEDULED_THREAD_POOL_MAX_SIZE = 5;
 
@@ -156,6 +165,9 @@ public final class ActiveMQDefaultConfiguration {
    // how long (in ms) to wait before invalidating the security cache
    private static long DEFAULT_SECURITY_INVALIDATION_INTERVAL = 10000;
 
+   // how many successful authentications are cached, 0 disables the authentication cache
+   private static int DEFAULT_AUTHENTICATION_CACHE_SIZE = 1000;
+
    // how long (in ms) to wait to acquire a file lock on the journal
    private static long DEFAULT_JOURNAL_LOCK_ACQUISITION_TIMEOUT = -1;
 
@@ -450,6 +462,9 @@ public final class ActiveMQDefaultConfiguration {
 
    public static final long DEFAULT_GLOBAL_MAX_SIZE = Runtime.getRuntime().maxMemory() / 2;
 
+   // percentage of the global max size over which the coldest addresses start paging, -1 disables it
+   public static final int DEFAULT_GLOBAL_PAGING_PRESSURE_THRESHOLD = -1;
+
    public static final int DEFAULT_MAX_DISK_USAGE = 100;
 
    public static final int DEFAULT_DISK_SCAN = 5000;
@@ -509,6 +524,27 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_JOURNAL_DATASYNC;
    }
 
+   /**
+    * true means that the IO_URING journal will open its files with O_DIRECT
+    */
+   public static boolean isDefaultJournalDirectIO() {
+      return DEFAULT_JOURNAL_DIRECT_IO;
+   }
+
+   /**
+    * true means that page cursor acks are written as compact records, which older versions can't read
+    */
+   public static boolean isDefaultJournalCompactPageAcks() {
+      return DEFAULT_JOURNAL_COMPACT_PAGE_ACKS;
+   }
+
+   /**
+    * the number of independent journals the message journal is striped across
+    */
+   public static int getDefaultJournalStripes() {
+      return DEFAULT_JOURNAL_STRIPES;
+   }
+
    /**
     * Maximum number of threads to use for the scheduled thread pool
     */
@@ -551,6 +587,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_SECURITY_INVALIDATION_INTERVAL;
    }
 
+   /**
+    * how many successful authentications are cached, 0 disables the authentication cache
+    */
+   public static int getDefaultAuthenticationCacheSize() {
+      return DEFAULT_AUTHENTICATION_CACHE_SIZE;
+   }
+
    /**
     * how long (in ms) to wait to acquire a file lock on the journal
     */
@@ -1234,6 +1277,13 @@ public final class ActiveMQDefaultConfiguration {
       return DEFAULT_GLOBAL_MAX_SIZE;
    }
 
+   /**
+    * percentage of the global max size over which the coldest addresses start paging, -1 disables it
+    */
+   public static int getDefaultGlobalPagingPressureThreshold() {
+      return DEFAULT_GLOBAL_PAGING_PRESSURE_THRESHOLD;
+   }
+
    public static int getDefaultMaxDiskUsage() {
       return DEFAULT_MAX_DISK_USAGE;
    }
@@ -601,6 +601,8 @@ public interface Message {
 
    int decrementRefCount() throws Exception;
 
+   int getDurableCount();
+
    int incrementDurableRefCount();
 
    int decrementDurableRefCount();
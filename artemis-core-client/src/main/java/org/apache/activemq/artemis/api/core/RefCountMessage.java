@@ -52,6 +52,11 @@ public abstract class RefCountMessage implements Message {
       return count;
    }
 
+   @Override
+   public int getDurableCount() {
+      return durableRefCount.get();
+   }
+
    @Override
    public int incrementDurableRefCount() {
       int count = durableRefCount.incrementAndGet();
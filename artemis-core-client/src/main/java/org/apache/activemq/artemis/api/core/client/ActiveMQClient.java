@@ -73,6 +73,8 @@ public final class ActiveMQClient {
 
    public static final int DEFAULT_CONSUMER_MAX_RATE = -1;
 
+   public static final boolean DEFAULT_ADAPTIVE_CONSUMER_WINDOW = false;
+
    public static final int DEFAULT_CONFIRMATION_WINDOW_SIZE = -1;
 
    public static final int DEFAULT_PRODUCER_WINDOW_SIZE = 64 * 1024;
@@ -251,6 +251,29 @@ public interface ServerLocator extends AutoCloseable {
     */
    ServerLocator setConsumerWindowSize(int consumerWindowSize);
 
+   /**
+    * Returns whether the consumers created through this factory size their window from how fast they process
+    * their messages and the round trip to the server, up to the consumer window size.
+    * <p>
+    * Default value is {@link ActiveMQClient#DEFAULT_ADAPTIVE_CONSUMER_WINDOW}.
+    *
+    * @return whether the consumer window is adaptive
+    */
+   boolean isAdaptiveConsumerWindow();
+
+   /**
+    * Sets whether the consumers created through this factory size their window from how fast they process their
+    * messages and the round trip to the server.
+    * <p>
+    * A slow consumer then buffers about one message, leaving the others to the other consumers of the queue, while
+    * a fast consumer buffers up to the consumer window size. It has no effect when the consumer window size is
+    * -1 or 0.
+    *
+    * @param adaptiveConsumerWindow whether the consumer window is adaptive
+    * @return this ServerLocator
+    */
+   ServerLocator setAdaptiveConsumerWindow(boolean adaptiveConsumerWindow);
+
    /**
     * Returns the maximum rate of message consumption for consumers created through this factory.
     * <p>
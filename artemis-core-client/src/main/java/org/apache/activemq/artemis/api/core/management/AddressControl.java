@@ -63,6 +63,12 @@ public interface AddressControl {
    @Attribute(desc = "the number of estimated bytes being used by the queue(s), used to control paging and blocking")
    long getAddressSize() throws Exception;
 
+   /**
+    * Returns the share of the memory used by all the addresses that is used by this address, in percent.
+    */
+   @Attribute(desc = "the share of the memory used by all the addresses that is used by this address, in percent")
+   double getAddressMemoryShare() throws Exception;
+
    /**
     * Returns the sum of messages on queue(s), including messages in delivery.
     */
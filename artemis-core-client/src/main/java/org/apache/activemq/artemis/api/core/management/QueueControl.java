@@ -209,6 +209,21 @@ public interface QueueControl {
    @Operation(desc = "List all the messages in the queue matching the given filter and returns them using JSON", impact = MBeanOperationInfo.INFO)
    String listMessagesAsJSON(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter) throws Exception;
 
+   /**
+    * Lists at most {@code limit} of the messages in this queue matching the specified filter using JSON serialization,
+    * skipping the first {@code offset} matching messages. Paged messages are listed as well.
+    * <br>
+    * Fewer messages than {@code limit} are returned when the queue's {@code management-browse-page-size} or
+    * {@code management-browse-max-bytes} is reached first: the next call should use the offset plus the number
+    * of messages returned.
+    * <br>
+    * Using {@code null} or an empty filter will list <em>all</em> messages from this queue.
+    */
+   @Operation(desc = "List the messages in the queue matching the given filter from an offset and returns them using JSON", impact = MBeanOperationInfo.INFO)
+   String listMessagesAsJSON(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter,
+                             @Parameter(name = "offset", desc = "How many matching messages to skip") long offset,
+                             @Parameter(name = "limit", desc = "How many messages to list at most") int limit) throws Exception;
+
    /**
     * Counts the number of messages in this queue matching the specified filter.
     * <br>
@@ -464,6 +479,15 @@ public interface QueueControl {
    @Operation(desc = "Browse Messages", impact = MBeanOperationInfo.ACTION)
    CompositeData[] browse(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter) throws Exception;
 
+   /**
+    * Browses at most {@code limit} of the messages in this queue matching the specified filter, skipping the
+    * first {@code offset} matching messages, with the same bounds as {@link #listMessagesAsJSON(String, long, int)}.
+    */
+   @Operation(desc = "Browse Messages from an offset", impact = MBeanOperationInfo.ACTION)
+   CompositeData[] browse(@Parameter(name = "filter", desc = "A message filter (can be empty)") String filter,
+                          @Parameter(name = "offset", desc = "How many matching messages to skip") long offset,
+                          @Parameter(name = "limit", desc = "How many messages to browse at most") int limit) throws Exception;
+
    /**
     * Resets the MessagesAdded property
     */
@@ -0,0 +1,162 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.client.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sizes the credits of a consumer from the time it takes to process a message and the time the server takes to
+ * deliver once credits were sent, so the consumer buffers what it will process during a round trip and not more.
+ * <p>
+ * A slow consumer keeps about one message ahead, leaving the others on the queue for the other consumers, while a
+ * fast consumer is granted up to the window size it was created with.
+ * The window starts at one message and follows the measures from the second message delivered.
+ * <p>
+ * The credits are returned once half of the window was consumed, or held back while the window is shrinking.
+ */
+final class AdaptiveConsumerWindow {
+
+   /**
+    * The round trip assumed until one is measured.
+    */
+   static final long DEFAULT_ROUND_TRIP_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   /**
+    * The round trip is the smallest of these many samples, the others also waited on an empty queue.
+    */
+   private static final int ROUND_TRIP_SAMPLES = 32;
+
+   private final int maxWindowSize;
+
+   private int windowSize;
+
+   /**
+    * The credits sent and not consumed yet: on the server, in flight or on the client buffer.
+    */
+   private int outstandingCredits;
+
+   private int creditsSent;
+
+   private int bytesSinceDelivery;
+
+   private double averageMessageSize;
+
+   private double averageProcessingNanos = -1;
+
+   private long lastDelivery = -1;
+
+   private boolean lastDeliveryEmptiedBuffer;
+
+   private long waitingSince = -1;
+
+   private long roundTripNanos = -1;
+
+   private long sampledRoundTripNanos = Long.MAX_VALUE;
+
+   private int roundTripSamples;
+
+   AdaptiveConsumerWindow(final int maxWindowSize, final int initialCredits) {
+      this.maxWindowSize = Math.max(1, maxWindowSize);
+      this.windowSize = initialCredits;
+      this.outstandingCredits = initialCredits;
+   }
+
+   /**
+    * The server consumer was created again, with these credits.
+    */
+   synchronized void reset(final int credits) {
+      outstandingCredits = credits;
+      lastDelivery = -1;
+      waitingSince = -1;
+   }
+
+   /**
+    * @return the credits to send back for the bytes consumed, 0 to hold them
+    */
+   synchronized int consumed(final int bytes) {
+      bytesSinceDelivery += bytes;
+      outstandingCredits -= bytes;
+      if (outstandingCredits > windowSize >> 1) {
+         creditsSent = 0;
+         return 0;
+      }
+      creditsSent = windowSize - outstandingCredits;
+      outstandingCredits = windowSize;
+      return creditsSent;
+   }
+
+   /**
+    * A message is handed over to the consumer, after its bytes were {@link #consumed(int)}.
+    *
+    * @param bufferEmpty whether it was the last message buffered
+    */
+   synchronized void delivered(final long now, final boolean bufferEmpty) {
+      if (bytesSinceDelivery > 0) {
+         averageMessageSize = averageMessageSize == 0 ? bytesSinceDelivery : averageMessageSize + (bytesSinceDelivery - averageMessageSize) / 8;
+         bytesSinceDelivery = 0;
+      }
+      if (lastDelivery != -1 && !lastDeliveryEmptiedBuffer) {
+         // the consumer didn't wait for this message, it was processing the previous one
+         long processingNanos = now - lastDelivery;
+         averageProcessingNanos = averageProcessingNanos < 0 ? processingNanos : averageProcessingNanos + (processingNanos - averageProcessingNanos) / 8;
+      }
+      lastDelivery = now;
+      lastDeliveryEmptiedBuffer = bufferEmpty;
+      // with less than a message outstanding before the credits were sent, the next message is sent for these credits
+      waitingSince = bufferEmpty && creditsSent > 0 && outstandingCredits - creditsSent < averageMessageSize ? now : -1;
+      creditsSent = 0;
+      resize();
+   }
+
+   /**
+    * A message arrived on the consumer buffer.
+    */
+   synchronized void arrived(final long now) {
+      if (waitingSince == -1) {
+         return;
+      }
+      sampledRoundTripNanos = Math.min(sampledRoundTripNanos, now - waitingSince);
+      waitingSince = -1;
+      if (roundTripNanos == -1 || ++roundTripSamples == ROUND_TRIP_SAMPLES) {
+         roundTripNanos = sampledRoundTripNanos;
+         sampledRoundTripNanos = Long.MAX_VALUE;
+         roundTripSamples = 0;
+      } else {
+         roundTripNanos = Math.min(roundTripNanos, sampledRoundTripNanos);
+      }
+   }
+
+   synchronized int getWindowSize() {
+      return windowSize;
+   }
+
+   private void resize() {
+      if (averageMessageSize == 0) {
+         return;
+      }
+      double messagesAhead;
+      if (averageProcessingNanos < 0) {
+         // slow start, until the processing time is known
+         messagesAhead = 1;
+      } else {
+         long roundTrip = roundTripNanos == -1 ? DEFAULT_ROUND_TRIP_NANOS : roundTripNanos;
+         messagesAhead = roundTrip / Math.max(1, averageProcessingNanos);
+      }
+      // half of the window is consumed before the credits are returned
+      windowSize = (int) Math.min(maxWindowSize, Math.max(averageMessageSize, 2 * (messagesAhead + 1) * averageMessageSize));
+   }
+}
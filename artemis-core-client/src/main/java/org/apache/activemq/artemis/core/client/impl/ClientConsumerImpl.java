@@ -88,6 +88,9 @@ public final class ClientConsumerImpl implements ClientConsumerInternal {
 
    private final int clientWindowSize;
 
+   // Sizes the credits sent back when the session factory uses an adaptive consumer window
+   private final AdaptiveConsumerWindow adaptiveWindow;
+
    private final int ackBatchSize;
 
    private final PriorityLinkedList<ClientMessageInternal> buffer = new PriorityLinkedListImpl<>(ClientConsumerImpl.NUM_PRIORITIES);
@@ -166,6 +169,9 @@ public final class ClientConsumerImpl implements ClientConsumerInternal {
 
       this.clientWindowSize = clientWindowSize;
 
+      // the session sent one credit instead of the window size to start this consumer
+      this.adaptiveWindow = clientWindowSize > 0 && session.getSessionFactory().getServerLocator().isAdaptiveConsumerWindow() ? new AdaptiveConsumerWindow(clientWindowSize << 1, 1) : null;
+
       this.ackBatchSize = ackBatchSize;
 
       this.queueInfo = queueInfo;
@@ -514,6 +520,11 @@ public final class ClientConsumerImpl implements ClientConsumerInternal {
 
       creditsToSend = 0;
 
+      if (adaptiveWindow != null) {
+         // the consumer is created again on the server with the client window size
+         adaptiveWindow.reset(clientWindowSize);
+      }
+
       failedOver = true;
 
       ackIndividually = false;
@@ -587,6 +598,10 @@ public final class ClientConsumerImpl implements ClientConsumerInternal {
          ackIndividually = true;
       }
 
+      if (adaptiveWindow != null) {
+         adaptiveWindow.arrived(System.nanoTime());
+      }
+
       // Add it to the buffer
       buffer.addTail(message, message.getPriority());
 
@@ -800,7 +815,13 @@ public final class ClientConsumerImpl implements ClientConsumerInternal {
     */
    @Override
    public void flowControl(final int messageBytes, final boolean discountSlowConsumer) throws ActiveMQException {
-      if (clientWindowSize >= 0) {
+      if (adaptiveWindow != null) {
+         final int credits = adaptiveWindow.consumed(messageBytes);
+
+         if (credits > 0) {
+            sendCredits(credits);
+         }
+      } else if (clientWindowSize >= 0) {
          creditsToSend += messageBytes;
 
          if (creditsToSend >= clientWindowSize) {
@@ -1046,6 +1067,10 @@ public final class ClientConsumerImpl implements ClientConsumerInternal {
          // on large messages we should discount 1 on the first packets as we need continuity until the last packet
          flowControl(message.getFlowControlSize(), !message.isLargeMessage());
       }
+
+      if (adaptiveWindow != null) {
+         adaptiveWindow.delivered(System.nanoTime(), buffer.isEmpty());
+      }
    }
 
    private void doCleanUp(final boolean sendCloseMessage) throws ActiveMQException {
@@ -1804,7 +1804,8 @@ public final class ClientSessionImpl implements ClientSessionInternal, FailureLi
 
       // TODO: this could semantically change on other servers. I know for instance on stomp this is just an ignore
       if (windowSize != 0) {
-         sessionContext.sendConsumerCredits(consumer, windowSize);
+         // an adaptive window starts with one message
+         sessionContext.sendConsumerCredits(consumer, windowSize > 0 && sessionFactory.getServerLocator().isAdaptiveConsumerWindow() ? 1 : windowSize);
       }
 
       return consumer;
@@ -149,6 +149,8 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
    private int consumerMaxRate;
 
+   private boolean adaptiveConsumerWindow;
+
    private int confirmationWindowSize;
 
    private int producerWindowSize;
@@ -348,6 +350,8 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
 
       consumerMaxRate = ActiveMQClient.DEFAULT_CONSUMER_MAX_RATE;
 
+      adaptiveConsumerWindow = ActiveMQClient.DEFAULT_ADAPTIVE_CONSUMER_WINDOW;
+
       confirmationWindowSize = ActiveMQClient.DEFAULT_CONFIRMATION_WINDOW_SIZE;
 
       producerWindowSize = ActiveMQClient.DEFAULT_PRODUCER_WINDOW_SIZE;
@@ -503,6 +507,7 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       minLargeMessageSize = locator.minLargeMessageSize;
       consumerWindowSize = locator.consumerWindowSize;
       consumerMaxRate = locator.consumerMaxRate;
+      adaptiveConsumerWindow = locator.adaptiveConsumerWindow;
       confirmationWindowSize = locator.confirmationWindowSize;
       producerWindowSize = locator.producerWindowSize;
       producerMaxRate = locator.producerMaxRate;
@@ -930,6 +935,18 @@ public final class ServerLocatorImpl implements ServerLocatorInternal, Discovery
       return this;
    }
 
+   @Override
+   public boolean isAdaptiveConsumerWindow() {
+      return adaptiveConsumerWindow;
+   }
+
+   @Override
+   public ServerLocatorImpl setAdaptiveConsumerWindow(final boolean adaptiveConsumerWindow) {
+      checkWrite();
+      this.adaptiveConsumerWindow = adaptiveConsumerWindow;
+      return this;
+   }
+
    @Override
    public int getConsumerMaxRate() {
       return consumerMaxRate;
@@ -441,12 +441,15 @@ public class CoreMessage extends RefCountMessage implements ICoreMessage {
 
    /**
     * I am keeping this synchronized as the decode of the Properties is lazy
+    * <p>
+    * The properties are decoded lazily as well: a value is only decoded when it is read, so looking at the duplicate
+    * detection or group id of a message with many properties doesn't create an object for each of them.
     */
    protected TypedProperties checkProperties() {
       if (properties == null) {
          TypedProperties properties = new TypedProperties();
          if (buffer != null && propertiesLocation >= 0) {
-            properties.decode(buffer.duplicate().readerIndex(propertiesLocation));
+            properties.decode(buffer.duplicate().readerIndex(propertiesLocation), true);
          }
          this.properties = properties;
       }
@@ -507,7 +510,7 @@ public class CoreMessage extends RefCountMessage implements ICoreMessage {
       messageIDPosition = buffer.readerIndex();
       messageID = buffer.readLong();
 
-      address = SimpleString.readNullableSimpleString(buffer);
+      address = SimpleString.readNullableSimpleString(buffer, SimpleString.ByteBufSimpleStringPool.DEFAULT);
       if (buffer.readByte() == DataConstants.NOT_NULL) {
          byte[] bytes = new byte[16];
          buffer.readBytes(bytes);
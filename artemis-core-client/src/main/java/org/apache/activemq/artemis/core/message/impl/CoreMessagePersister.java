@@ -64,7 +64,7 @@ public class CoreMessagePersister implements Persister<Message> {
    public Message decode(ActiveMQBuffer buffer, Message record) {
       // the caller must consume the first byte already, as that will be used to decide what persister (protocol) to use
       long id = buffer.readLong();
-      SimpleString address = buffer.readNullableSimpleString();
+      SimpleString address = SimpleString.readNullableSimpleString(buffer.byteBuf(), SimpleString.ByteBufSimpleStringPool.DEFAULT);
       record = new CoreMessage();
       record.reloadPersistence(buffer);
       record.setMessageID(id);
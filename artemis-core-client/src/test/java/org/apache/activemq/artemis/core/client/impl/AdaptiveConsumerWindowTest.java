@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.client.impl;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class AdaptiveConsumerWindowTest extends Assert {
+
+   private static final int MESSAGE_SIZE = 100;
+
+   private static final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+
+   @Test
+   public void testSlowStart() {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(1024 * 1024, 1);
+      // the credit sent by the session is spent on the first message
+      assertEquals(MESSAGE_SIZE, window.consumed(MESSAGE_SIZE));
+      window.delivered(0, true);
+      assertEquals(4 * MESSAGE_SIZE, window.getWindowSize());
+   }
+
+   @Test
+   public void testSlowConsumerKeepsAboutOneMessageAhead() {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(1024 * 1024, 1);
+      for (int i = 0; i < 20; i++) {
+         window.consumed(MESSAGE_SIZE);
+         window.delivered(i * 50 * MILLIS, false);
+      }
+      assertTrue(window.getWindowSize() < 3 * MESSAGE_SIZE);
+      assertTrue(window.getWindowSize() >= 2 * MESSAGE_SIZE);
+   }
+
+   @Test
+   public void testFastConsumerGrowsUpToTheWindowSize() {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(1024 * 1024, 1);
+      for (int i = 0; i < 20; i++) {
+         window.consumed(MESSAGE_SIZE);
+         window.delivered(i * 1000, false);
+      }
+      // a message per microsecond during the default round trip of 1 millisecond
+      assertTrue(window.getWindowSize() > 1000 * MESSAGE_SIZE);
+
+      window = new AdaptiveConsumerWindow(10 * MESSAGE_SIZE, 1);
+      for (int i = 0; i < 20; i++) {
+         window.consumed(MESSAGE_SIZE);
+         window.delivered(i * 1000, false);
+      }
+      assertEquals(10 * MESSAGE_SIZE, window.getWindowSize());
+   }
+
+   @Test
+   public void testRoundTripMeasuredWhenWaitingForCredits() {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(1024 * 1024, 1);
+      window.consumed(MESSAGE_SIZE);
+      // nothing else was granted: the next message is sent for the credits just returned
+      window.delivered(0, true);
+      window.arrived(5 * MILLIS);
+
+      window.consumed(MESSAGE_SIZE);
+      window.delivered(5 * MILLIS, false);
+      window.consumed(MESSAGE_SIZE);
+      window.delivered(6 * MILLIS, false);
+      // 5 messages processed during a round trip, returned once half of the window was consumed
+      assertEquals(2 * 6 * MESSAGE_SIZE, window.getWindowSize());
+   }
+
+   @Test
+   public void testCreditsHeldWhileShrinking() {
+      AdaptiveConsumerWindow window = new AdaptiveConsumerWindow(1024 * 1024, 1);
+      window.consumed(MESSAGE_SIZE);
+      window.delivered(0, false);
+      // slow start granted 4 messages
+      assertTrue(window.consumed(MESSAGE_SIZE) > 0);
+      window.delivered(100 * MILLIS, false);
+      assertTrue(window.getWindowSize() < 3 * MESSAGE_SIZE);
+      // what was granted is consumed before more credits are sent
+      assertEquals(0, window.consumed(MESSAGE_SIZE));
+      window.delivered(200 * MILLIS, false);
+      assertEquals(0, window.consumed(MESSAGE_SIZE));
+      window.delivered(300 * MILLIS, false);
+      assertTrue(window.consumed(MESSAGE_SIZE) > 0);
+   }
+}
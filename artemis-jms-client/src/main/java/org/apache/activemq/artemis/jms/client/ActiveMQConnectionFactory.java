@@ -484,6 +484,15 @@ public class ActiveMQConnectionFactory implements ConnectionFactoryOptions, Exte
       serverLocator.setConsumerWindowSize(consumerWindowSize);
    }
 
+   public synchronized boolean isAdaptiveConsumerWindow() {
+      return serverLocator.isAdaptiveConsumerWindow();
+   }
+
+   public synchronized void setAdaptiveConsumerWindow(final boolean adaptiveConsumerWindow) {
+      checkWrite();
+      serverLocator.setAdaptiveConsumerWindow(adaptiveConsumerWindow);
+   }
+
    public synchronized int getConsumerMaxRate() {
       return serverLocator.getConsumerMaxRate();
    }
@@ -0,0 +1,315 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.io.uring;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.PriorityQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.ActiveMQNativeIOError;
+import org.apache.activemq.artemis.core.io.AbstractSequentialFile;
+import org.apache.activemq.artemis.core.io.DummyCallback;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.journal.impl.SimpleWaitIOCallback;
+import org.apache.activemq.artemis.jlibaio.IOUringFile;
+import org.apache.activemq.artemis.journal.ActiveMQJournalLogger;
+import org.apache.activemq.artemis.utils.ReusableLatch;
+import org.jboss.logging.Logger;
+
+public class IOUringSequentialFile extends AbstractSequentialFile {
+
+   private static final Logger logger = Logger.getLogger(IOUringSequentialFile.class);
+
+   private boolean opened = false;
+
+   private IOUringFile<IOUringSequentialFileFactory.IOUringSequentialCallback> uringFile;
+
+   private final IOUringSequentialFileFactory uringFactory;
+
+   private final ReusableLatch pendingCallbacks = new ReusableLatch();
+
+   /**
+    * Used to determine the next writing sequence
+    */
+   private final AtomicLong nextWritingSequence = new AtomicLong(0);
+
+   /**
+    * Completions are not ordered on io_uring either, they are held here until they are in order
+    */
+   final PriorityQueue<IOUringSequentialFileFactory.IOUringSequentialCallback> pendingCallbackList = new PriorityQueue<>();
+
+   /**
+    * Used to determine the next writing sequence.
+    * This is accessed from a single thread (the Poller Thread)
+    */
+   private long nextReadSequence = 0;
+
+   public IOUringSequentialFile(final IOUringSequentialFileFactory factory,
+                                final File directory,
+                                final String fileName,
+                                final Executor writerExecutor) {
+      super(directory, fileName, factory, writerExecutor);
+      this.uringFactory = factory;
+   }
+
+   @Override
+   public boolean isOpen() {
+      return opened;
+   }
+
+   @Override
+   public int calculateBlockStart(final int position) {
+      return factory.calculateBlockSize(position);
+   }
+
+   @Override
+   public SequentialFile cloneFile() {
+      return new IOUringSequentialFile(uringFactory, getFile().getParentFile(), getFile().getName(), null);
+   }
+
+   @Override
+   public void close() throws IOException, InterruptedException, ActiveMQException {
+      close(true);
+   }
+
+   @Override
+   public synchronized void close(boolean waitSync) throws IOException, InterruptedException, ActiveMQException {
+      if (!opened) {
+         return;
+      }
+
+      super.close();
+
+      if (waitSync) {
+         final String fileName = this.getFileName();
+         try {
+            int waitCount = 0;
+            while (!pendingCallbacks.await(10, TimeUnit.SECONDS)) {
+               waitCount++;
+               if (waitCount == 1) {
+                  factory.onIOError(new IOException("Timeout on close"), "Timeout on close", this);
+               }
+               ActiveMQJournalLogger.LOGGER.warn("waiting pending callbacks on " + fileName + " from " + (waitCount * 10) + " seconds!");
+            }
+         } catch (InterruptedException e) {
+            ActiveMQJournalLogger.LOGGER.warn("interrupted while waiting pending callbacks on " + fileName, e);
+            throw e;
+         } finally {
+
+            opened = false;
+
+            timedBuffer = null;
+
+            uringFile.close();
+
+            uringFile = null;
+
+         }
+      }
+   }
+
+   @Override
+   public synchronized void fill(final int size) throws Exception {
+      if (logger.isTraceEnabled()) {
+         logger.trace("Filling file: " + getFileName());
+      }
+
+      checkOpened();
+      uringFile.fill(size);
+
+      fileSize = uringFile.getSize();
+   }
+
+   @Override
+   public void open() throws Exception {
+      open(uringFactory.getMaxIO(), true);
+   }
+
+   @Override
+   public synchronized void open(final int maxIO, final boolean useExecutor) throws ActiveMQException {
+      opened = true;
+
+      if (logger.isTraceEnabled()) {
+         logger.trace("Opening file: " + getFileName());
+      }
+
+      try {
+         uringFile = uringFactory.uringContext.openFile(getFile(), uringFactory.isDirect());
+      } catch (IOException e) {
+         logger.error("Error opening file: " + getFileName());
+         factory.onIOError(e, e.getMessage(), this);
+         throw new ActiveMQNativeIOError(e.getMessage(), e);
+      }
+
+      position.set(0);
+
+      fileSize = uringFile.getSize();
+   }
+
+   @Override
+   public int read(final ByteBuffer bytes, final IOCallback callback) throws ActiveMQException {
+      checkOpened();
+      int bytesToRead = bytes.limit();
+
+      long positionToRead = position.getAndAdd(bytesToRead);
+
+      bytes.rewind();
+
+      try {
+         // the buffer is not sent to the callback, so it is not released
+         uringFile.read(positionToRead, bytesToRead, bytes, getCallback(callback, null));
+      } catch (IOException e) {
+         logger.error("IOError reading file: " + getFileName(), e);
+         factory.onIOError(e, e.getMessage(), this);
+         throw new ActiveMQNativeIOError(e.getMessage(), e);
+      }
+
+      return bytesToRead;
+   }
+
+   @Override
+   public int read(final ByteBuffer bytes) throws Exception {
+      SimpleWaitIOCallback waitCompletion = new SimpleWaitIOCallback();
+
+      int bytesRead = read(bytes, waitCompletion);
+
+      waitCompletion.waitCompletion();
+
+      return bytesRead;
+   }
+
+   @Override
+   public void writeDirect(final ByteBuffer bytes, final boolean sync) throws Exception {
+      if (logger.isTraceEnabled()) {
+         logger.trace("Write Direct, Sync: " + sync + " File: " + getFileName());
+      }
+
+      if (sync) {
+         SimpleWaitIOCallback completion = new SimpleWaitIOCallback();
+
+         writeDirect(bytes, true, completion);
+
+         completion.waitCompletion();
+      } else {
+         writeDirect(bytes, false, DummyCallback.getInstance());
+      }
+   }
+
+   /**
+    * When sync is true and the factory has datasync enabled, the write is linked to a fdatasync
+    * and the callback is only called once the data is on disk, along with the data of the writes submitted before.
+    */
+   @Override
+   public void writeDirect(final ByteBuffer bytes, final boolean sync, final IOCallback callback) {
+      try {
+         checkOpened();
+      } catch (Exception e) {
+         ActiveMQJournalLogger.LOGGER.warn(e.getMessage(), e);
+         callback.onError(-1, e.getMessage());
+         return;
+      }
+
+      final int bytesToWrite = factory.calculateBlockSize(bytes.limit());
+
+      final long positionToWrite = position.getAndAdd(bytesToWrite);
+
+      IOUringSequentialFileFactory.IOUringSequentialCallback runnableCallback = getCallback(callback, bytes);
+      runnableCallback.initWrite(positionToWrite, bytesToWrite, sync && factory.isDatasync());
+      runnableCallback.run();
+   }
+
+   IOUringSequentialFileFactory.IOUringSequentialCallback getCallback(IOCallback originalCallback, ByteBuffer buffer) {
+      IOUringSequentialFileFactory.IOUringSequentialCallback callback = uringFactory.getCallback();
+      callback.init(this.nextWritingSequence.getAndIncrement(), originalCallback, uringFile, this, buffer);
+      pendingCallbacks.countUp();
+      return callback;
+   }
+
+   void done(IOUringSequentialFileFactory.IOUringSequentialCallback callback) {
+      if (callback.writeSequence == nextReadSequence) {
+         nextReadSequence++;
+         callback.sequentialDone();
+         pendingCallbacks.countDown();
+         flushCallbacks();
+      } else {
+         pendingCallbackList.add(callback);
+      }
+   }
+
+   private void flushCallbacks() {
+      while (!pendingCallbackList.isEmpty() && pendingCallbackList.peek().writeSequence == nextReadSequence) {
+         IOUringSequentialFileFactory.IOUringSequentialCallback callback = pendingCallbackList.poll();
+         callback.sequentialDone();
+         nextReadSequence++;
+         pendingCallbacks.countDown();
+      }
+   }
+
+   /**
+    * Unlike AIO, the sync is submitted to the ring. It drains the ring: the fdatasync only starts once every write
+    * submitted before it completed, including the writes of other files sharing the ring.
+    */
+   @Override
+   public void sync() throws IOException {
+      checkOpened();
+
+      SimpleWaitIOCallback completion = new SimpleWaitIOCallback();
+      uringFile.datasync(getCallback(completion, null));
+
+      try {
+         completion.waitCompletion();
+      } catch (Exception e) {
+         throw new IOException(e.getMessage(), e);
+      }
+   }
+
+   @Override
+   public long size() throws Exception {
+      if (uringFile == null) {
+         return getFile().length();
+      } else {
+         return uringFile.getSize();
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "IOUringSequentialFile:" + getFile().getAbsolutePath();
+   }
+
+   @Override
+   protected ByteBuffer newBuffer(int size, int limit) {
+      size = factory.calculateBlockSize(size);
+      limit = factory.calculateBlockSize(limit);
+
+      ByteBuffer buffer = factory.newBuffer(size);
+      buffer.limit(limit);
+      return buffer;
+   }
+
+   private void checkOpened() {
+      if (uringFile == null || !opened) {
+         throw new NullPointerException("File not opened, file=null");
+      }
+   }
+}
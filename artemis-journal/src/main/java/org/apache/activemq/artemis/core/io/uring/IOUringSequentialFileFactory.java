@@ -0,0 +1,468 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.io.uring;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.activemq.artemis.ArtemisConstants;
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
+import org.apache.activemq.artemis.api.core.ActiveMQInterruptedException;
+import org.apache.activemq.artemis.core.io.AbstractSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.IOCallback;
+import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.jlibaio.IOUringContext;
+import org.apache.activemq.artemis.jlibaio.IOUringFile;
+import org.apache.activemq.artemis.jlibaio.SubmitInfo;
+import org.apache.activemq.artemis.jlibaio.util.CallbackCache;
+import org.apache.activemq.artemis.journal.ActiveMQJournalLogger;
+import org.jboss.logging.Logger;
+
+/**
+ * A {@link org.apache.activemq.artemis.core.io.SequentialFileFactory} using io_uring.
+ * <br>
+ * It works the same way as {@link org.apache.activemq.artemis.core.io.aio.AIOSequentialFileFactory}, but the files
+ * are not opened with O_DIRECT unless {@link #setDirect(boolean)} is called, as io_uring is asynchronous on the
+ * page cache too. Syncs are not done by the poller: a write that needs to be synced is linked to a fdatasync and
+ * both are submitted together.
+ */
+public final class IOUringSequentialFileFactory extends AbstractSequentialFileFactory {
+
+   private static final Logger logger = Logger.getLogger(IOUringSequentialFileFactory.class);
+
+   private final ReuseBuffersController buffersControl = new ReuseBuffersController();
+
+   private volatile boolean reuseBuffers = true;
+
+   private Thread pollerThread;
+
+   volatile IOUringContext<IOUringSequentialCallback> uringContext;
+
+   private final CallbackCache<IOUringSequentialCallback> callbackPool;
+
+   private final AtomicBoolean running = new AtomicBoolean(false);
+
+   private volatile boolean direct = false;
+
+   private static final String URING_TEST_FILE = ".uring-test";
+
+   public IOUringSequentialFileFactory(final File journalDir, int maxIO) {
+      this(journalDir, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_AIO, ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_AIO, maxIO, false, null);
+   }
+
+   public IOUringSequentialFileFactory(final File journalDir,
+                                       final int bufferSize,
+                                       final int bufferTimeout,
+                                       final int maxIO,
+                                       final boolean logRates,
+                                       final IOCriticalErrorListener listener) {
+      super(journalDir, true, bufferSize, bufferTimeout, maxIO, logRates, listener);
+      callbackPool = new CallbackCache<>(maxIO);
+      if (logger.isTraceEnabled()) {
+         logger.trace("New io_uring File Created");
+      }
+   }
+
+   /**
+    * @param direct whether the files are opened with O_DIRECT, bypassing the page cache.
+    */
+   public IOUringSequentialFileFactory setDirect(boolean direct) {
+      this.direct = direct;
+      return this;
+   }
+
+   public boolean isDirect() {
+      return direct;
+   }
+
+   public void enableBufferReuse() {
+      this.reuseBuffers = true;
+   }
+
+   public void disableBufferReuse() {
+      this.reuseBuffers = false;
+   }
+
+   public IOUringSequentialCallback getCallback() {
+      IOUringSequentialCallback callback = callbackPool.get();
+      if (callback == null) {
+         callback = new IOUringSequentialCallback();
+      }
+
+      return callback;
+   }
+
+   @Override
+   public SequentialFile createSequentialFile(final String fileName) {
+      return new IOUringSequentialFile(this, journalDir, fileName, writeExecutor);
+   }
+
+   @Override
+   public boolean isSupportsCallbacks() {
+      return true;
+   }
+
+   /**
+    * @return whether the native library was loaded and the kernel supports io_uring.
+    */
+   public static boolean isSupported() {
+      return IOUringContext.isSupported();
+   }
+
+   public static boolean isSupported(File journalPath, boolean direct) {
+      if (!isSupported()) {
+         return false;
+      }
+
+      File uringTestFile = new File(journalPath, URING_TEST_FILE);
+      try {
+         int fd = IOUringContext.open(uringTestFile.getAbsolutePath(), direct);
+         IOUringContext.close(fd);
+         uringTestFile.delete();
+      } catch (Exception e) {
+         // same as AIO, return false if and only if we can create/remove the file using
+         // plain Java but not using the native layer
+         try {
+            if (!uringTestFile.exists()) {
+               if (!uringTestFile.createNewFile())
+                  return true;
+            }
+            if (!uringTestFile.delete())
+               return true;
+         } catch (Exception ie) {
+            // we can not even create the test file using plain java
+            return true;
+         }
+         return false;
+      }
+      return true;
+   }
+
+   @Override
+   public ByteBuffer allocateDirectBuffer(final int size) {
+
+      int blocks = size / getAlignment();
+      if (size % getAlignment() != 0) {
+         blocks++;
+      }
+
+      ByteBuffer buffer = IOUringContext.newAlignedBuffer(blocks * getAlignment(), getAlignment());
+
+      buffer.limit(size);
+
+      return buffer;
+   }
+
+   @Override
+   public void releaseDirectBuffer(final ByteBuffer buffer) {
+      IOUringContext.freeBuffer(buffer);
+   }
+
+   @Override
+   public ByteBuffer newBuffer(int size) {
+      if (size % getAlignment() != 0) {
+         size = (size / getAlignment() + 1) * getAlignment();
+      }
+
+      return buffersControl.newBuffer(size);
+   }
+
+   @Override
+   public void clearBuffer(final ByteBuffer directByteBuffer) {
+      directByteBuffer.position(0);
+      IOUringContext.memsetBuffer(directByteBuffer, directByteBuffer.limit());
+   }
+
+   /**
+    * The alignment is the block size on both modes: it is required with O_DIRECT and it avoids
+    * read-modify-write cycles on the page cache otherwise.
+    */
+   @Override
+   public int getAlignment() {
+      if (alignment < 0) {
+
+         File checkFile = null;
+
+         try {
+            journalDir.mkdirs();
+            checkFile = File.createTempFile("journalCheck", ".tmp", journalDir);
+            alignment = IOUringContext.getBlockSize(checkFile.getAbsolutePath());
+         } catch (Throwable e) {
+            logger.warn(e.getMessage(), e);
+            alignment = 512;
+         } finally {
+            if (checkFile != null) {
+               checkFile.delete();
+            }
+         }
+      }
+      return alignment;
+   }
+
+   // For tests only
+   @Override
+   public ByteBuffer wrapBuffer(final byte[] bytes) {
+      ByteBuffer newbuffer = newBuffer(bytes.length);
+      newbuffer.put(bytes);
+      return newbuffer;
+   }
+
+   @Override
+   public int calculateBlockSize(final int position) {
+      int alignment = getAlignment();
+
+      return (position / alignment + (position % alignment != 0 ? 1 : 0)) * alignment;
+   }
+
+   @Override
+   public synchronized void releaseBuffer(final ByteBuffer buffer) {
+      IOUringContext.freeBuffer(buffer);
+   }
+
+   @Override
+   public void start() {
+      if (running.compareAndSet(false, true)) {
+         super.start();
+
+         this.uringContext = new IOUringContext<>(maxIO, true);
+
+         pollerThread = new PollerThread();
+         pollerThread.start();
+      }
+   }
+
+   @Override
+   public void stop() {
+      if (this.running.compareAndSet(true, false)) {
+         buffersControl.stop();
+
+         uringContext.close();
+         uringContext = null;
+
+         if (pollerThread != null) {
+            try {
+               pollerThread.join(AbstractSequentialFileFactory.EXECUTOR_TIMEOUT * 1000);
+
+               if (pollerThread.isAlive()) {
+                  ActiveMQJournalLogger.LOGGER.timeoutOnPollerShutdown(new Exception("trace"));
+               }
+            } catch (InterruptedException e) {
+               throw new ActiveMQInterruptedException(e);
+            }
+         }
+
+         super.stop();
+      }
+   }
+
+   /**
+    * Same as on AIO, the callback is also the Runnable submitting the write.
+    */
+   public class IOUringSequentialCallback implements SubmitInfo, Runnable, Comparable<IOUringSequentialCallback> {
+
+      IOCallback callback;
+      boolean error = false;
+      IOUringSequentialFile sequentialFile;
+      ByteBuffer buffer;
+      IOUringFile<IOUringSequentialCallback> uringFile;
+      String errorMessage;
+      int errorCode = -1;
+      long writeSequence;
+
+      long position;
+      int bytes;
+      boolean sync;
+
+      @Override
+      public String toString() {
+         return "IOUringSequentialCallback{" +
+            "error=" + error +
+            ", errorMessage='" + errorMessage + '\'' +
+            ", errorCode=" + errorCode +
+            ", writeSequence=" + writeSequence +
+            ", position=" + position +
+            ", sync=" + sync +
+            '}';
+      }
+
+      public IOUringSequentialCallback initWrite(long positionToWrite, int bytesToWrite, boolean syncWrite) {
+         this.position = positionToWrite;
+         this.bytes = bytesToWrite;
+         this.sync = syncWrite;
+         return this;
+      }
+
+      @Override
+      public void run() {
+         try {
+            uringFile.write(position, bytes, buffer, sync, this);
+         } catch (IOException e) {
+            callback.onError(ActiveMQExceptionType.IO_ERROR.getCode(), e.getMessage());
+            onIOError(e, "Failed to write to file", sequentialFile);
+         }
+      }
+
+      @Override
+      public int compareTo(IOUringSequentialCallback other) {
+         if (this == other || this.writeSequence == other.writeSequence) {
+            return 0;
+         } else if (other.writeSequence < this.writeSequence) {
+            return 1;
+         } else {
+            return -1;
+         }
+      }
+
+      public IOUringSequentialCallback init(long writeSequence,
+                                            IOCallback IOCallback,
+                                            IOUringFile<IOUringSequentialCallback> uringFile,
+                                            IOUringSequentialFile sequentialFile,
+                                            ByteBuffer usedBuffer) {
+         this.callback = IOCallback;
+         this.sequentialFile = sequentialFile;
+         this.error = false;
+         this.buffer = usedBuffer;
+         this.uringFile = uringFile;
+         this.writeSequence = writeSequence;
+         this.errorMessage = null;
+         this.sync = false;
+         return this;
+      }
+
+      @Override
+      public void onError(int errno, String message) {
+         if (logger.isDebugEnabled()) {
+            logger.debug("io_uring on error issued. Error(code: " + errno + " msg: " + message + ")");
+         }
+         this.error = true;
+         this.errorCode = errno;
+         this.errorMessage = message;
+      }
+
+      /**
+       * this is called by the poller.
+       */
+      @Override
+      public void done() {
+         this.sequentialFile.done(this);
+      }
+
+      /**
+       * This is called by the IOUringSequentialFile, after determined the callbacks were returned in sequence
+       */
+      public void sequentialDone() {
+
+         if (error) {
+            callback.onError(errorCode, errorMessage);
+            onIOError(new ActiveMQException(errorCode, errorMessage), errorMessage, null);
+            errorMessage = null;
+         } else {
+            if (callback != null) {
+               callback.done();
+            }
+
+            if (buffer != null && reuseBuffers) {
+               buffersControl.bufferDone(buffer);
+            }
+
+            callbackPool.put(IOUringSequentialCallback.this);
+         }
+      }
+   }
+
+   private class PollerThread extends Thread {
+
+      private PollerThread() {
+         super("Apache ActiveMQ Artemis io_uring poller");
+      }
+
+      @Override
+      public void run() {
+         while (running.get()) {
+            try {
+               uringContext.poll();
+            } catch (Throwable e) {
+               ActiveMQJournalLogger.LOGGER.warn(e.getMessage(), e);
+               onIOError(new ActiveMQException("Error on io_uring poll"), e.getMessage(), null);
+            }
+         }
+      }
+   }
+
+   /**
+    * Buffers of the configured bufferSize are reused, any other size goes back to the native heap once written.
+    */
+   private class ReuseBuffersController {
+
+      private final ConcurrentLinkedQueue<ByteBuffer> reuseBuffersQueue = new ConcurrentLinkedQueue<>();
+
+      private boolean stopped = false;
+
+      public ByteBuffer newBuffer(final int size) {
+         if (size > bufferSize) {
+            return IOUringContext.newAlignedBuffer(size, getAlignment());
+         }
+
+         int alignedSize = calculateBlockSize(size);
+
+         ByteBuffer buffer = reuseBuffersQueue.poll();
+
+         if (buffer == null) {
+            buffer = IOUringContext.newAlignedBuffer(calculateBlockSize(bufferSize), getAlignment());
+         } else {
+            clearBuffer(buffer);
+         }
+
+         buffer.limit(alignedSize);
+         buffer.rewind();
+
+         return buffer;
+      }
+
+      public synchronized void stop() {
+         stopped = true;
+         clearPoll();
+      }
+
+      public synchronized void clearPoll() {
+         ByteBuffer reusedBuffer;
+
+         while ((reusedBuffer = reuseBuffersQueue.poll()) != null) {
+            releaseBuffer(reusedBuffer);
+         }
+      }
+
+      public synchronized void bufferDone(final ByteBuffer buffer) {
+         if (!stopped && buffer.capacity() == calculateBlockSize(bufferSize)) {
+            reuseBuffersQueue.offer(buffer);
+         } else {
+            releaseBuffer(buffer);
+         }
+      }
+   }
+
+   @Override
+   public String toString() {
+      return IOUringSequentialFileFactory.class.getSimpleName() + "(direct=" + direct + ", buffersControl.stopped=" +
+         buffersControl.stopped + "):" + super.toString();
+   }
+}
@@ -0,0 +1,804 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+#ifndef _GNU_SOURCE
+// O_DIRECT and fallocate won't be available without this define
+#define _GNU_SOURCE
+#endif
+
+//#define DEBUG
+
+#include <jni.h>
+#include <unistd.h>
+#include <errno.h>
+#include <liburing.h>
+#include <sys/types.h>
+#include <sys/file.h>
+#include <sys/stat.h>
+#include <fcntl.h>
+#include <stdio.h>
+#include <stdint.h>
+#include <stdlib.h>
+#include <string.h>
+#include <pthread.h>
+#include "org_apache_activemq_artemis_jlibaio_IOUringContext.h"
+#include "exception_helper.h"
+
+// the second half of a write linked to a fdatasync is tagged on the lowest bit of the user data
+#define LINKED_SYNC 1l
+
+/**
+ * Every submit takes a request from the pool, it's returned when all its completions arrived.
+ */
+struct uring_request {
+    jobject callback;
+    int size;
+    int parts;
+    int error;
+};
+
+struct uring_control {
+    struct io_uring ring;
+
+    jobject thisObject;
+
+    // liburing is not thread safe on the submission side
+    pthread_mutex_t submitLock;
+
+    // This is used to make sure we don't return requests while something else is using them
+    pthread_mutex_t requestLock;
+
+    pthread_mutex_t pollLock;
+
+    // a reusable pool of requests
+    struct uring_request ** requests;
+    int queueSize;
+    int requestPut;
+    int requestGet;
+    int used;
+};
+
+#define ONE_MEGA 1048576l
+void * oneMegaBuffer = 0;
+
+jmethodID errorMethod = NULL;
+jmethodID uringContextDone = NULL;
+
+jclass submitClass = NULL;
+jclass uringContextClass = NULL;
+jclass runtimeExceptionClass = NULL;
+jclass ioExceptionClass = NULL;
+
+// util methods
+void throwRuntimeException(JNIEnv* env, char* message) {
+    (*env)->ThrowNew(env, runtimeExceptionClass, message);
+}
+
+void throwRuntimeExceptionErrorNo(JNIEnv* env, char* message, int errorNumber) {
+    char* allocatedMessage = exceptionMessage(message, errorNumber);
+    (*env)->ThrowNew(env, runtimeExceptionClass, allocatedMessage);
+    free(allocatedMessage);
+}
+
+void throwIOException(JNIEnv* env, char* message) {
+    (*env)->ThrowNew(env, ioExceptionClass, message);
+}
+
+void throwIOExceptionErrorNo(JNIEnv* env, char* message, int errorNumber) {
+    char* allocatedMessage = exceptionMessage(message, errorNumber);
+    (*env)->ThrowNew(env, ioExceptionClass, allocatedMessage);
+    free(allocatedMessage);
+}
+
+void throwOutOfMemoryError(JNIEnv* env) {
+    jclass exceptionClass = (*env)->FindClass(env, "java/lang/OutOfMemoryError");
+    (*env)->ThrowNew(env, exceptionClass, "");
+}
+
+/** Notice: every usage of exceptionMessage needs to release the allocated memory for the sequence of char */
+char* exceptionMessage(char* msg, int error) {
+    if (error < 0) {
+        // liburing returns negative values
+        error = error * -1;
+    }
+    //strerror is returning a constant, so no need to free anything coming from strerror
+    char* err = strerror(error);
+    char* result = malloc(strlen(msg) + strlen(err) + 1);
+    strcpy(result, msg);
+    strcat(result, err);
+    return result;
+}
+
+jint JNI_OnLoad(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if ((*vm)->GetEnv(vm, (void**) &env, JNI_VERSION_1_6) != JNI_OK) {
+        return JNI_ERR;
+    } else {
+        if (posix_memalign(&oneMegaBuffer, 512, ONE_MEGA) != 0)
+        {
+            fprintf(stderr, "Could not allocate the 1 Mega Buffer for initializing files\n");
+            return JNI_ERR;
+        }
+        memset(oneMegaBuffer, 0, ONE_MEGA);
+
+        // Same as libaio, we must hold Global Refs on Classes but not on methods
+
+        jclass localRuntimeExceptionClass = (*env)->FindClass(env, "java/lang/RuntimeException");
+        if (localRuntimeExceptionClass == NULL) {
+            // pending exception...
+            return JNI_ERR;
+        }
+        runtimeExceptionClass = (jclass) (*env)->NewGlobalRef(env, localRuntimeExceptionClass);
+        if (runtimeExceptionClass == NULL) {
+            // out-of-memory!
+            throwOutOfMemoryError(env);
+            return JNI_ERR;
+        }
+
+        jclass localIoExceptionClass = (*env)->FindClass(env, "java/io/IOException");
+        if (localIoExceptionClass == NULL) {
+            // pending exception...
+            return JNI_ERR;
+        }
+        ioExceptionClass = (jclass) (*env)->NewGlobalRef(env, localIoExceptionClass);
+        if (ioExceptionClass == NULL) {
+            // out-of-memory!
+            throwOutOfMemoryError(env);
+            return JNI_ERR;
+        }
+
+        submitClass = (*env)->FindClass(env, "org/apache/activemq/artemis/jlibaio/SubmitInfo");
+        if (submitClass == NULL) {
+           return JNI_ERR;
+        }
+
+        submitClass = (jclass)(*env)->NewGlobalRef(env, (jobject)submitClass);
+
+        errorMethod = (*env)->GetMethodID(env, submitClass, "onError", "(ILjava/lang/String;)V");
+        if (errorMethod == NULL) {
+           return JNI_ERR;
+        }
+
+        uringContextClass = (*env)->FindClass(env, "org/apache/activemq/artemis/jlibaio/IOUringContext");
+        if (uringContextClass == NULL) {
+           return JNI_ERR;
+        }
+        uringContextClass = (jclass)(*env)->NewGlobalRef(env, (jobject)uringContextClass);
+
+        uringContextDone = (*env)->GetMethodID(env, uringContextClass, "done", "(Lorg/apache/activemq/artemis/jlibaio/SubmitInfo;)V");
+        if (uringContextDone == NULL) {
+           return JNI_ERR;
+        }
+
+        return JNI_VERSION_1_6;
+    }
+}
+
+void JNI_OnUnload(JavaVM* vm, void* reserved) {
+    JNIEnv* env;
+    if ((*vm)->GetEnv(vm, (void**) &env, JNI_VERSION_1_6) != JNI_OK) {
+        // Something is wrong but nothing we can do about this :(
+        return;
+    } else {
+        free(oneMegaBuffer);
+
+        // delete global references so the GC can collect them
+        if (runtimeExceptionClass != NULL) {
+            (*env)->DeleteGlobalRef(env, runtimeExceptionClass);
+        }
+        if (ioExceptionClass != NULL) {
+            (*env)->DeleteGlobalRef(env, ioExceptionClass);
+        }
+
+        if (submitClass != NULL) {
+            (*env)->DeleteGlobalRef(env, (jobject)submitClass);
+        }
+
+        if (uringContextClass != NULL) {
+            (*env)->DeleteGlobalRef(env, (jobject)uringContextClass);
+        }
+    }
+}
+
+static inline struct uring_control * getControl(JNIEnv* env, jobject pointer) {
+    struct uring_control * control = (struct uring_control *) (*env)->GetDirectBufferAddress(env, pointer);
+    if (control == NULL) {
+       throwRuntimeException(env, "Controller not initialized");
+    }
+    return control;
+}
+
+static inline void * getBuffer(JNIEnv* env, jobject pointer) {
+    return (*env)->GetDirectBufferAddress(env, pointer);
+}
+
+/**
+ * remove a request from the pool. Returns null if full
+ */
+static inline struct uring_request * getRequest(struct uring_control * control) {
+    struct uring_request * request = 0;
+
+    pthread_mutex_lock(&(control->requestLock));
+
+    if (control->used < control->queueSize) {
+        control->used++;
+        request = control->requests[control->requestGet++];
+
+        if (control->requestGet >= control->queueSize) {
+           control->requestGet = 0;
+        }
+    }
+
+    pthread_mutex_unlock(&(control->requestLock));
+    return request;
+}
+
+/**
+ * Put a request back on the pool
+ */
+static inline void putRequest(struct uring_control * control, struct uring_request * request) {
+    pthread_mutex_lock(&(control->requestLock));
+
+    control->used--;
+    control->requests[control->requestPut++] = request;
+    if (control->requestPut >= control->queueSize) {
+       control->requestPut = 0;
+    }
+    pthread_mutex_unlock(&(control->requestLock));
+}
+
+static inline struct uring_request * newRequest(JNIEnv * env, struct uring_control * control, jobject callback, int size, int parts) {
+    struct uring_request * request = getRequest(control);
+
+    if (request == NULL) {
+        throwIOException(env, "Not enough space in io_uring queue");
+        return NULL;
+    }
+
+    // The GlobalRef will be deleted when poll is called. this is done so
+    // the vm wouldn't crash if the Callback passed by the user is GCed between submission
+    // and callback.
+    request->callback = callback == NULL ? NULL : (*env)->NewGlobalRef(env, callback);
+    request->size = size;
+    request->parts = parts;
+    request->error = 0;
+    return request;
+}
+
+static inline void releaseRequest(JNIEnv * env, struct uring_control * control, struct uring_request * request) {
+    if (request->callback != NULL) {
+        (*env)->DeleteGlobalRef(env, request->callback);
+        request->callback = NULL;
+    }
+    putRequest(control, request);
+}
+
+/**
+ * Has to be called holding the submitLock.
+ */
+static inline struct io_uring_sqe * getSQE(JNIEnv * env, struct uring_control * control) {
+    struct io_uring_sqe * sqe = io_uring_get_sqe(&(control->ring));
+    if (sqe == NULL) {
+        throwIOException(env, "Not enough space in io_uring submission queue");
+    }
+    return sqe;
+}
+
+/**
+ * Has to be called holding the submitLock.
+ */
+static inline short submit(JNIEnv * env, struct uring_control * control, struct uring_request * request) {
+    int result;
+
+    do {
+        result = io_uring_submit(&(control->ring));
+    } while (result == -EINTR);
+
+    if (result < 0) {
+        if (request != NULL) {
+            releaseRequest(env, control, request);
+        }
+
+        throwIOExceptionErrorNo(env, "Error while submitting IO: ", -result);
+        return 0;
+    }
+
+    return 1;
+}
+
+JNIEXPORT jboolean JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_probe
+  (JNIEnv * env, jclass clazz) {
+    struct io_uring ring;
+
+    // old kernels would return -ENOSYS, and containers may forbid the system call with -EPERM
+    if (io_uring_queue_init(2, &ring, 0) < 0) {
+        return JNI_FALSE;
+    }
+
+    io_uring_queue_exit(&ring);
+    return JNI_TRUE;
+}
+
+JNIEXPORT jboolean JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_lock
+  (JNIEnv * env, jclass  clazz, jint handle) {
+    return flock(handle, LOCK_EX | LOCK_NB) == 0;
+}
+
+/**
+ * Everything that is allocated here will be freed at deleteContext.
+ */
+JNIEXPORT jobject JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_newContext
+  (JNIEnv* env, jobject thisObject, jint queueSize) {
+    int i = 0;
+
+    struct uring_control * control = (struct uring_control *) malloc(sizeof(struct uring_control));
+    if (control == NULL) {
+        throwOutOfMemoryError(env);
+        return NULL;
+    }
+
+    // every write may be linked to a fdatasync, plus the NOP used to stop the poller
+    int res = io_uring_queue_init((unsigned)(queueSize * 2 + 1), &(control->ring), 0);
+    if (res < 0) {
+        free(control);
+        throwRuntimeExceptionErrorNo(env, "Cannot initialize io_uring:", res);
+        return NULL;
+    }
+
+    control->requests = (struct uring_request **)malloc((sizeof(struct uring_request *) * (size_t)queueSize));
+    if (control->requests == NULL) {
+       io_uring_queue_exit(&(control->ring));
+       free(control);
+       throwOutOfMemoryError(env);
+       return NULL;
+    }
+
+    for (i = 0; i < queueSize; i++) {
+       control->requests[i] = (struct uring_request *)malloc(sizeof(struct uring_request));
+       if (control->requests[i] == NULL) {
+           // same as the iocbs on libaio, individual requests are not cleaned up here
+           throwOutOfMemoryError(env);
+           return NULL;
+       }
+    }
+
+    if (pthread_mutex_init(&(control->submitLock), 0) ||
+        pthread_mutex_init(&(control->requestLock), 0) ||
+        pthread_mutex_init(&(control->pollLock), 0)) {
+        io_uring_queue_exit(&(control->ring));
+        throwRuntimeException(env, "Can't initialize mutex");
+        return NULL;
+    }
+
+    control->queueSize = queueSize;
+    control->requestPut = 0;
+    control->requestGet = 0;
+    control->used = 0;
+    control->thisObject = (*env)->NewGlobalRef(env, thisObject);
+
+    return (*env)->NewDirectByteBuffer(env, control, sizeof(struct uring_control));
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_deleteContext
+  (JNIEnv* env, jobject thisObject, jobject contextPointer) {
+    int i;
+    struct uring_control * control = getControl(env, contextPointer);
+    if (control == NULL) {
+      return;
+    }
+
+    pthread_mutex_lock(&(control->submitLock));
+    struct io_uring_sqe * sqe = getSQE(env, control);
+    if (sqe == NULL) {
+        pthread_mutex_unlock(&(control->submitLock));
+        return;
+    }
+
+    // Submitting a NOP without user data so the loop finishes
+    io_uring_prep_nop(sqe);
+    io_uring_sqe_set_data(sqe, NULL);
+    short submitted = submit(env, control, NULL);
+    pthread_mutex_unlock(&(control->submitLock));
+
+    if (!submitted) {
+        return;
+    }
+
+    // to make sure the poll has finished
+    pthread_mutex_lock(&(control->pollLock));
+    pthread_mutex_unlock(&(control->pollLock));
+
+    io_uring_queue_exit(&(control->ring));
+
+    pthread_mutex_destroy(&(control->pollLock));
+    pthread_mutex_destroy(&(control->requestLock));
+    pthread_mutex_destroy(&(control->submitLock));
+
+    for (i = 0; i < control->queueSize; i++) {
+       free(control->requests[i]);
+    }
+
+    (*env)->DeleteGlobalRef(env, control->thisObject);
+
+    free(control->requests);
+    free(control);
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_close
+  (JNIEnv* env, jclass clazz, jint fd) {
+   if (close(fd) < 0) {
+       throwIOExceptionErrorNo(env, "Error closing file:", errno);
+   }
+}
+
+JNIEXPORT int JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_open
+  (JNIEnv* env, jclass clazz, jstring path, jboolean direct) {
+    const char* f_path = (*env)->GetStringUTFChars(env, path, 0);
+
+    int res;
+    if (direct) {
+      res = open(f_path, O_RDWR | O_CREAT | O_DIRECT, 0666);
+    } else {
+      res = open(f_path, O_RDWR | O_CREAT, 0666);
+    }
+
+    (*env)->ReleaseStringUTFChars(env, path, f_path);
+
+    if (res < 0) {
+       throwIOExceptionErrorNo(env, "Cannot open file:", errno);
+    }
+
+    return res;
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_submitWrite
+  (JNIEnv * env, jobject thisObject, jint fileHandle, jobject contextPointer, jlong position, jint size, jobject bufferWrite, jboolean sync, jobject callback) {
+    struct uring_control * control = getControl(env, contextPointer);
+    if (control == NULL) {
+      return;
+    }
+
+    #ifdef DEBUG
+       fprintf (stdout, "submitWrite position %ld, size %d, sync %d\n", position, size, sync);
+    #endif
+
+    struct uring_request * request = newRequest(env, control, callback, size, sync ? 2 : 1);
+    if (request == NULL) {
+        return;
+    }
+
+    pthread_mutex_lock(&(control->submitLock));
+
+    // the ring is twice the size of the request pool, so there is always space for both
+    struct io_uring_sqe * sqe = getSQE(env, control);
+    if (sqe == NULL) {
+        pthread_mutex_unlock(&(control->submitLock));
+        releaseRequest(env, control, request);
+        return;
+    }
+    io_uring_prep_write(sqe, fileHandle, getBuffer(env, bufferWrite), (unsigned)size, (off_t)position);
+    io_uring_sqe_set_data(sqe, request);
+
+    if (sync) {
+        // the fdatasync only starts once the write completed in full, it is cancelled otherwise
+        sqe->flags |= IOSQE_IO_LINK;
+
+        sqe = getSQE(env, control);
+        if (sqe == NULL) {
+            pthread_mutex_unlock(&(control->submitLock));
+            releaseRequest(env, control, request);
+            return;
+        }
+        io_uring_prep_fsync(sqe, fileHandle, IORING_FSYNC_DATASYNC);
+        // a link only orders the fdatasync after its own write, draining the link makes it start once the writes
+        // submitted before it completed as well
+        sqe->flags |= IOSQE_IO_DRAIN;
+        io_uring_sqe_set_data(sqe, (void *)((uintptr_t)request | LINKED_SYNC));
+    }
+
+    submit(env, control, request);
+
+    pthread_mutex_unlock(&(control->submitLock));
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_submitRead
+  (JNIEnv * env, jobject thisObject, jint fileHandle, jobject contextPointer, jlong position, jint size, jobject bufferRead, jobject callback) {
+    struct uring_control * control = getControl(env, contextPointer);
+    if (control == NULL) {
+      return;
+    }
+
+    // reads may be short at the end of the file, no size is checked on their completion
+    struct uring_request * request = newRequest(env, control, callback, -1, 1);
+    if (request == NULL) {
+        return;
+    }
+
+    pthread_mutex_lock(&(control->submitLock));
+    struct io_uring_sqe * sqe = getSQE(env, control);
+    if (sqe == NULL) {
+        pthread_mutex_unlock(&(control->submitLock));
+        releaseRequest(env, control, request);
+        return;
+    }
+    io_uring_prep_read(sqe, fileHandle, getBuffer(env, bufferRead), (unsigned)size, (off_t)position);
+    io_uring_sqe_set_data(sqe, request);
+
+    submit(env, control, request);
+
+    pthread_mutex_unlock(&(control->submitLock));
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_submitDatasync
+  (JNIEnv * env, jobject thisObject, jint fileHandle, jobject contextPointer, jobject callback) {
+    struct uring_control * control = getControl(env, contextPointer);
+    if (control == NULL) {
+      return;
+    }
+
+    struct uring_request * request = newRequest(env, control, callback, -1, 1);
+    if (request == NULL) {
+        return;
+    }
+
+    pthread_mutex_lock(&(control->submitLock));
+    struct io_uring_sqe * sqe = getSQE(env, control);
+    if (sqe == NULL) {
+        pthread_mutex_unlock(&(control->submitLock));
+        releaseRequest(env, control, request);
+        return;
+    }
+    io_uring_prep_fsync(sqe, fileHandle, IORING_FSYNC_DATASYNC);
+    // the ring doesn't order its operations, the fdatasync only starts once the writes submitted before it completed
+    sqe->flags |= IOSQE_IO_DRAIN;
+    io_uring_sqe_set_data(sqe, request);
+
+    submit(env, control, request);
+
+    pthread_mutex_unlock(&(control->submitLock));
+}
+
+/**
+ * Returns 0 when the NOP sent by deleteContext arrived.
+ */
+static inline short complete(JNIEnv * env, struct uring_control * control, struct io_uring_cqe * cqe) {
+    uintptr_t data = (uintptr_t)io_uring_cqe_get_data(cqe);
+
+    if (data == 0) {
+        #ifdef DEBUG
+           fprintf (stdout, "NOP arrived, giving up the loop\n");
+           fflush(stdout);
+        #endif
+        return 0;
+    }
+
+    struct uring_request * request = (struct uring_request *)(data & ~LINKED_SYNC);
+    short linkedSync = (data & LINKED_SYNC) != 0;
+    int result = cqe->res;
+
+    #ifdef DEBUG
+        fprintf (stdout, "Poll res: %d, linkedSync=%d\n", result, linkedSync);
+        fflush (stdout);
+    #endif
+
+    // The first error is the one reported:
+    // when a linked write fails the fdatasync is cancelled, so its -ECANCELED is not reported again
+    if (request->error == 0) {
+        if (result < 0) {
+            request->error = -result;
+        } else if (!linkedSync && request->size >= 0 && result < request->size) {
+            // a short write also breaks the link
+            request->error = EIO;
+        }
+    }
+
+    if (--request->parts > 0) {
+        return 1;
+    }
+
+    jobject obj = request->callback;
+
+    if (request->error != 0 && obj != NULL) {
+        #ifdef DEBUG
+            fprintf (stdout, "Error: %s\n", strerror(request->error));
+            fflush (stdout);
+        #endif
+        jstring jstrError = (*env)->NewStringUTF(env, strerror(request->error));
+        (*env)->CallVoidMethod(env, obj, errorMethod, (jint)(request->error), jstrError);
+    }
+
+    // the global ref is deleted after the callback is done
+    request->callback = NULL;
+    putRequest(control, request);
+
+    if (obj != NULL) {
+        (*env)->CallVoidMethod(env, control->thisObject, uringContextDone, obj);
+        (*env)->DeleteGlobalRef(env, obj);
+    }
+
+    return 1;
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_blockedPoll
+  (JNIEnv * env, jobject thisObject, jobject contextPointer) {
+
+    #ifdef DEBUG
+       fprintf (stdout, "Running blockedPoll\n");
+       fflush(stdout);
+    #endif
+
+    struct uring_control * control = getControl(env, contextPointer);
+    if (control == NULL) {
+      return;
+    }
+    pthread_mutex_lock(&(control->pollLock));
+
+    short running = 1;
+
+    while (running) {
+        struct io_uring_cqe * cqe;
+        unsigned head;
+        unsigned count = 0;
+
+        int result = io_uring_wait_cqe(&(control->ring), &cqe);
+
+        if (result == -EINTR) {
+           // same as ARTEMIS-353 on libaio, interrupts from jmap should be ignored
+           continue;
+        }
+
+        if (result < 0) {
+            throwIOExceptionErrorNo(env, "Error while waiting on io_uring: ", -result);
+            break;
+        }
+
+        io_uring_for_each_cqe(&(control->ring), head, cqe) {
+            count++;
+            if (!complete(env, control, cqe)) {
+                running = 0;
+                break;
+            }
+        }
+
+        io_uring_cq_advance(&(control->ring), count);
+    }
+
+    pthread_mutex_unlock(&(control->pollLock));
+}
+
+JNIEXPORT jobject JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_newAlignedBuffer
+  (JNIEnv * env, jclass clazz, jint size, jint alignment) {
+    if (size % alignment != 0) {
+        throwRuntimeException(env, "Buffer size needs to be aligned to passed argument");
+        return NULL;
+    }
+
+    // Buffers created here need to be manually destroyed by freeBuffer, or this would leak
+    void * buffer;
+    int result = posix_memalign(&buffer, (size_t)alignment, (size_t)size);
+
+    if (result) {
+        throwRuntimeExceptionErrorNo(env, "Can't allocate posix buffer:", result);
+        return NULL;
+    }
+
+    memset(buffer, 0, (size_t)size);
+
+    return (*env)->NewDirectByteBuffer(env, buffer, size);
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_freeBuffer
+  (JNIEnv * env, jclass clazz, jobject jbuffer) {
+    if (jbuffer == NULL)
+    {
+       throwRuntimeException(env, "Null pointer");
+       return;
+    }
+    void *  buffer = (*env)->GetDirectBufferAddress(env, jbuffer);
+    free(buffer);
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_memsetBuffer
+  (JNIEnv *env, jclass clazz, jobject jbuffer, jint size)
+{
+    void * buffer = (*env)->GetDirectBufferAddress(env, jbuffer);
+
+    if (buffer == 0)
+    {
+        throwRuntimeException(env, "Invalid Buffer used, io_uring requires NativeBuffer instead of Java ByteBuffer");
+        return;
+    }
+
+    memset(buffer, 0, (size_t)size);
+}
+
+JNIEXPORT jint JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_getNativeVersion
+  (JNIEnv * env, jclass clazz)
+{
+     return org_apache_activemq_artemis_jlibaio_IOUringContext_EXPECTED_NATIVE_VERSION;
+}
+
+JNIEXPORT jlong JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_getSize
+  (JNIEnv * env, jclass clazz, jint fd)
+{
+    struct stat statBuffer;
+
+    if (fstat(fd, &statBuffer) < 0)
+    {
+        throwIOExceptionErrorNo(env, "Cannot determine file size:", errno);
+        return -1l;
+    }
+    return statBuffer.st_size;
+}
+
+JNIEXPORT jint JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_getBlockSize
+  (JNIEnv * env, jclass clazz, jstring path)
+{
+    const char* f_path = (*env)->GetStringUTFChars(env, path, 0);
+    struct stat statBuffer;
+
+    int result = stat(f_path, &statBuffer);
+
+    (*env)->ReleaseStringUTFChars(env, path, f_path);
+
+    if (result < 0)
+    {
+        throwIOExceptionErrorNo(env, "Cannot determine file size:", errno);
+        return -1l;
+    }
+
+    return statBuffer.st_blksize;
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_fallocate
+  (JNIEnv * env, jclass clazz, jint fd, jlong size)
+{
+    if (fallocate(fd, 0, 0, (off_t) size) < 0)
+    {
+        throwIOExceptionErrorNo(env, "Could not preallocate file", errno);
+    }
+    fsync(fd);
+    lseek (fd, 0, SEEK_SET);
+}
+
+JNIEXPORT void JNICALL Java_org_apache_activemq_artemis_jlibaio_IOUringContext_fill
+  (JNIEnv * env, jclass clazz, jint fd, jlong size)
+{
+    int i;
+    int blocks = size / ONE_MEGA;
+    int rest = size % ONE_MEGA;
+
+    lseek (fd, 0, SEEK_SET);
+    for (i = 0; i < blocks; i++)
+    {
+        if (write(fd, oneMegaBuffer, ONE_MEGA) < 0)
+        {
+            throwIOException(env, "Cannot initialize file");
+            return;
+        }
+    }
+
+    if (rest != 0l)
+    {
+       if (write(fd, oneMegaBuffer, rest) < 0)
+       {
+           throwIOException(env, "Cannot initialize file");
+           return;
+       }
+    }
+    lseek (fd, 0, SEEK_SET);
+}
@@ -0,0 +1,322 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.jlibaio;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * This class is used as an aggregator for the {@link IOUringFile}, the same way {@link LibaioContext} is for
+ * {@link LibaioFile}.
+ * <br>
+ * It holds an io_uring submission and completion queue pair that can be used by multiple files.
+ * A write can be linked to a fdatasync of its file, both are then submitted with a single system call and the
+ * callback is only called once the data is synced.
+ * <br>
+ * Unlike libaio, io_uring is asynchronous on buffered files as well, so files can be opened with or without O_DIRECT.
+ * <br>
+ * The native part is a library of its own, linked to liburing. When it can't be loaded, or when the kernel doesn't
+ * support io_uring (it requires Linux 5.1), {@link #isSupported()} returns false and the users should fall back
+ * to another implementation.
+ */
+public class IOUringContext<Callback extends SubmitInfo> implements Closeable {
+
+   /**
+    * This definition needs to match the native sources.
+    * <br>
+    * Or else the native module won't be loaded because of version mismatches
+    */
+   private static final int EXPECTED_NATIVE_VERSION = 1;
+
+   private static boolean loaded = false;
+
+   private static boolean supported = false;
+
+   public static boolean isLoaded() {
+      return loaded;
+   }
+
+   /**
+    * @return whether the native library was loaded and the kernel can create an io_uring
+    */
+   public static boolean isSupported() {
+      return supported;
+   }
+
+   private static boolean loadLibrary(final String name) {
+      try {
+         System.loadLibrary(name);
+         if (getNativeVersion() != EXPECTED_NATIVE_VERSION) {
+            NativeLogger.LOGGER.incompatibleNativeLibrary();
+            return false;
+         } else {
+            return true;
+         }
+      } catch (Throwable e) {
+         NativeLogger.LOGGER.debug(name + " -> error loading the native library", e);
+         return false;
+      }
+   }
+
+   static {
+      String[] libraries = new String[]{"artemis-native-uring-64", "artemis-native-uring-32"};
+
+      for (String library : libraries) {
+         if (loadLibrary(library)) {
+            loaded = true;
+            break;
+         } else {
+            NativeLogger.LOGGER.debug("Library " + library + " not found!");
+         }
+      }
+
+      if (loaded) {
+         try {
+            supported = probe();
+         } catch (Throwable e) {
+            NativeLogger.LOGGER.debug("io_uring not supported by the kernel", e);
+         }
+      }
+
+      if (!supported) {
+         NativeLogger.LOGGER.debug("Couldn't locate io_uring Wrapper");
+      }
+   }
+
+   /**
+    * the native ring including the structure created.
+    */
+   private final ByteBuffer ioContext;
+
+   private final AtomicBoolean closed = new AtomicBoolean(false);
+
+   final Semaphore ioSpace;
+
+   final int queueSize;
+
+   /**
+    * @param queueSize    how many operations can be in flight, the ring is created twice as big, so every write can be
+    *                     linked to a fdatasync.
+    * @param useSemaphore should block on a semaphore avoiding using more submits than what's available.
+    */
+   public IOUringContext(int queueSize, boolean useSemaphore) {
+      this.ioContext = newContext(queueSize);
+      this.queueSize = queueSize;
+      if (useSemaphore) {
+         this.ioSpace = new Semaphore(queueSize);
+      } else {
+         this.ioSpace = null;
+      }
+   }
+
+   private void acquire() throws IOException {
+      if (closed.get()) {
+         throw new IOException("IOUring Context is closed!");
+      }
+      try {
+         if (ioSpace != null) {
+            ioSpace.acquire();
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IOException(e.getMessage(), e);
+      }
+   }
+
+   /**
+    * Documented at {@link IOUringFile#write(long, int, java.nio.ByteBuffer, boolean, SubmitInfo)}
+    */
+   public void submitWrite(int fd,
+                           long position,
+                           int size,
+                           ByteBuffer bufferWrite,
+                           boolean sync,
+                           Callback callback) throws IOException {
+      acquire();
+      submitWrite(fd, this.ioContext, position, size, bufferWrite, sync, callback);
+   }
+
+   public void submitRead(int fd,
+                          long position,
+                          int size,
+                          ByteBuffer bufferRead,
+                          Callback callback) throws IOException {
+      acquire();
+      submitRead(fd, this.ioContext, position, size, bufferRead, callback);
+   }
+
+   public void submitDatasync(int fd, Callback callback) throws IOException {
+      acquire();
+      submitDatasync(fd, this.ioContext, callback);
+   }
+
+   /**
+    * This is used to close the ring and cleanup the native data used.
+    * <br>
+    * It is unsafe to close the controller while you have pending writes or files open as
+    * this could cause core dumps or VM crashes.
+    */
+   @Override
+   public void close() {
+      if (!closed.getAndSet(true)) {
+
+         if (ioSpace != null) {
+            try {
+               ioSpace.tryAcquire(queueSize, 10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+               NativeLogger.LOGGER.error(e);
+            }
+         }
+
+         if (ioContext != null) {
+            deleteContext(ioContext);
+         }
+      }
+   }
+
+   @Override
+   protected void finalize() throws Throwable {
+      super.finalize();
+      close();
+   }
+
+   /**
+    * It will open a file. If you set the direct flag = false then you won't need to use the special buffer.
+    * Notice: This will create an empty file if the file doesn't already exist.
+    *
+    * @param file   the file to be open.
+    * @param direct should use O_DIRECT when opening the file.
+    * @return a new open file.
+    * @throws IOException in case of error.
+    */
+   public IOUringFile<Callback> openFile(File file, boolean direct) throws IOException {
+      if (file == null) {
+         throw new NullPointerException("path");
+      }
+
+      // note: the native layer will throw an IOException in case of errors
+      int res = IOUringContext.open(file.getPath(), direct);
+
+      return new IOUringFile<>(res, this);
+   }
+
+   /**
+    * It will start polling and will keep doing until the context is closed.
+    * This will call callbacks on {@link SubmitInfo#onError(int, String)} and
+    * {@link SubmitInfo#done()}.
+    * In case of error, both {@link SubmitInfo#onError(int, String)} and
+    * {@link SubmitInfo#done()} are called.
+    */
+   public void poll() {
+      if (!closed.get()) {
+         blockedPoll(ioContext);
+      }
+   }
+
+   /**
+    * Called from the native layer
+    */
+   private void done(SubmitInfo info) {
+      info.done();
+      if (ioSpace != null) {
+         ioSpace.release();
+      }
+   }
+
+   /**
+    * @return whether the kernel can create a ring.
+    */
+   private static native boolean probe();
+
+   private native ByteBuffer newContext(int queueSize);
+
+   /**
+    * Internal method to be used when closing the controller.
+    */
+   private native void deleteContext(ByteBuffer buffer);
+
+   /**
+    * it will return a file descriptor.
+    *
+    * @param path   the file name.
+    * @param direct translates as O_DIRECT On open
+    * @return a fd from open C call.
+    */
+   public static native int open(String path, boolean direct);
+
+   public static native void close(int fd);
+
+   /**
+    * Buffers for O_DIRECT need to use posix_memalign.
+    *
+    * @param size      needs to be % alignment
+    * @param alignment the alignment used at the dispositive
+    * @return a new native buffer used with posix_memalign
+    */
+   public static native ByteBuffer newAlignedBuffer(int size, int alignment);
+
+   /**
+    * This will call posix free to release the inner buffer allocated at {@link #newAlignedBuffer(int, int)}.
+    *
+    * @param buffer a native buffer allocated with {@link #newAlignedBuffer(int, int)}.
+    */
+   public static native void freeBuffer(ByteBuffer buffer);
+
+   public static native void memsetBuffer(ByteBuffer buffer, int size);
+
+   /**
+    * Submits the write, linked to a fdatasync if sync is true, with a single io_uring_enter call.
+    */
+   native void submitWrite(int fd,
+                           ByteBuffer ioContext,
+                           long position,
+                           int size,
+                           ByteBuffer bufferWrite,
+                           boolean sync,
+                           Callback callback) throws IOException;
+
+   native void submitRead(int fd,
+                          ByteBuffer ioContext,
+                          long position,
+                          int size,
+                          ByteBuffer bufferRead,
+                          Callback callback) throws IOException;
+
+   native void submitDatasync(int fd, ByteBuffer ioContext, Callback callback) throws IOException;
+
+   /**
+    * This method will block as long as the context is open.
+    */
+   native void blockedPoll(ByteBuffer ioContext);
+
+   static native int getNativeVersion();
+
+   public static native boolean lock(int fd);
+
+   static native long getSize(int fd);
+
+   public static native int getBlockSize(String path);
+
+   static native void fallocate(int fd, long size);
+
+   static native void fill(int fd, long size);
+}
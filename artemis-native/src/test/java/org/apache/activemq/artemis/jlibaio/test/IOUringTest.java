@@ -0,0 +1,129 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.jlibaio.test;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.jlibaio.IOUringContext;
+import org.apache.activemq.artemis.jlibaio.IOUringFile;
+import org.apache.activemq.artemis.jlibaio.SubmitInfo;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class IOUringTest {
+
+   private static final int QUEUE_SIZE = 50;
+
+   private static final int WRITE_SIZE = 1024 * 1024;
+
+   @BeforeClass
+   public static void hasIOUring() {
+      Assume.assumeTrue("Test case needs io_uring to run", IOUringContext.isSupported());
+   }
+
+   @Rule
+   public TemporaryFolder temporaryFolder;
+
+   private IOUringContext<TestInfo> control;
+
+   private Thread poller;
+
+   public IOUringTest() {
+      File parent = new File("./target");
+      parent.mkdirs();
+      temporaryFolder = new TemporaryFolder(parent);
+   }
+
+   @Before
+   public void setUpContext() {
+      control = new IOUringContext<>(QUEUE_SIZE, true);
+      poller = new Thread(control::poll, "io_uring poller");
+      poller.start();
+   }
+
+   @After
+   public void deleteContext() throws Exception {
+      control.close();
+      poller.join(5000);
+   }
+
+   @Test
+   public void testSyncCompletesAfterPendingWrites() throws Exception {
+      ByteBuffer buffer = IOUringContext.newAlignedBuffer(WRITE_SIZE, 512);
+      try (IOUringFile<TestInfo> file = control.openFile(temporaryFolder.newFile("test.bin"), false)) {
+         for (int i = 0; i < WRITE_SIZE; i++) {
+            buffer.put((byte) 'u');
+         }
+         buffer.rewind();
+
+         for (int round = 0; round < 20; round++) {
+            List<String> completions = new CopyOnWriteArrayList<>();
+            CountDownLatch latch = new CountDownLatch(4);
+
+            // neither sync waits for the writes submitted before it, they overlap with them on the ring
+            file.write(0, WRITE_SIZE, buffer, false, new TestInfo("write", completions, latch));
+            file.datasync(new TestInfo("sync", completions, latch));
+            file.write(WRITE_SIZE, WRITE_SIZE, buffer, false, new TestInfo("another write", completions, latch));
+            file.write(WRITE_SIZE * 2, WRITE_SIZE, buffer, true, new TestInfo("synced write", completions, latch));
+
+            Assert.assertTrue(latch.await(10, TimeUnit.SECONDS));
+            Assert.assertTrue(completions.toString(), completions.indexOf("write") < completions.indexOf("sync"));
+            Assert.assertTrue(completions.toString(), completions.indexOf("write") < completions.indexOf("synced write"));
+            Assert.assertTrue(completions.toString(), completions.indexOf("another write") < completions.indexOf("synced write"));
+         }
+      } finally {
+         IOUringContext.freeBuffer(buffer);
+      }
+   }
+
+   static class TestInfo implements SubmitInfo {
+
+      private final String name;
+
+      private final List<String> completions;
+
+      private final CountDownLatch latch;
+
+      TestInfo(String name, List<String> completions, CountDownLatch latch) {
+         this.name = name;
+         this.completions = completions;
+         this.latch = latch;
+      }
+
+      @Override
+      public void onError(int errno, String message) {
+         completions.add(name + " failed: " + message);
+      }
+
+      @Override
+      public void done() {
+         completions.add(name);
+         latch.countDown();
+      }
+   }
+}
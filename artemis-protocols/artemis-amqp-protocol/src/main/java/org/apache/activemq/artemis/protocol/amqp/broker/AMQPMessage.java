@@ -35,6 +35,7 @@ import org.apache.activemq.artemis.core.persistence.Persister;
 import org.apache.activemq.artemis.protocol.amqp.converter.AMQPConverter;
 import org.apache.activemq.artemis.protocol.amqp.converter.AMQPMessageIdHelper;
 import org.apache.activemq.artemis.protocol.amqp.converter.AMQPMessageSupport;
+import org.apache.activemq.artemis.protocol.amqp.util.ApplicationPropertiesScanner;
 import org.apache.activemq.artemis.protocol.amqp.util.NettyWritable;
 import org.apache.activemq.artemis.protocol.amqp.util.TLSEncode;
 import org.apache.activemq.artemis.reader.MessageUtil;
@@ -68,6 +69,9 @@ public class AMQPMessage extends RefCountMessage {
    public static final int DEFAULT_MESSAGE_PRIORITY = 4;
    public static final int MAX_MESSAGE_PRIORITY = 9;
 
+   // marks an ApplicationProperties key which is not in the message
+   private static final Object NOT_PRESENT = new Object();
+
    final long messageFormat;
    ByteBuf data;
    boolean bufferValid;
@@ -84,6 +88,15 @@ public class AMQPMessage extends RefCountMessage {
    // Records where the message payload starts, ignoring DeliveryAnnotations if present
    private int messagePaylodStart = 0;
 
+   // Records where the MessageAnnotations section ends, or where it would be if not present
+   private int messageAnnotationsEnds = 0;
+
+   // Records where the Properties section ends, or where it would be if not present
+   private int propertiesEnds = 0;
+
+   // Records where the Body starts (after the ApplicationProperties if present), -1 while not known
+   private int bodyStart = -1;
+
    private boolean parsedHeaders = false;
    private Header _header;
    private DeliveryAnnotations _deliveryAnnotations;
@@ -91,6 +104,10 @@ public class AMQPMessage extends RefCountMessage {
    private Properties _properties;
    private int appLocation = -1;
    private ApplicationProperties applicationProperties;
+   // whether the decoded ApplicationProperties were changed, otherwise their encoded bytes are still valid
+   private boolean applicationPropertiesModified;
+   // single ApplicationProperties values read from the encoded section, while the whole map is not decoded
+   private Map<String, Object> applicationPropertiesCache;
    private long scheduledTime = -1;
    private String connectionID;
 
@@ -170,6 +187,12 @@ public class AMQPMessage extends RefCountMessage {
       }
    }
 
+   private Map<String, Object> getModifiedApplicationPropertiesMap() {
+      Map<String, Object> map = getApplicationPropertiesMap();
+      applicationPropertiesModified = true;
+      return map;
+   }
+
    private ApplicationProperties getApplicationProperties() {
       parseHeaders();
 
@@ -180,14 +203,73 @@ public class AMQPMessage extends RefCountMessage {
          Object section = TLSEncode.getDecoder().readObject();
          if (section instanceof ApplicationProperties) {
             this.applicationProperties = (ApplicationProperties) section;
+            this.bodyStart = buffer.position();
+         } else {
+            this.bodyStart = appLocation;
          }
          this.appLocation = -1;
+         this.applicationPropertiesCache = null;
          TLSEncode.getDecoder().setByteBuffer(null);
       }
 
       return applicationProperties;
    }
 
+   /**
+    * Reads a single ApplicationProperties value, only decoding the value itself while the whole
+    * map is not needed. Values read this way are cached on the message, as filters of different
+    * subscriptions usually look up the same keys.
+    */
+   private Object getApplicationPropertiesValue(String key) {
+      Object value = lookupApplicationPropertiesValue(key);
+      return value == NOT_PRESENT ? null : value;
+   }
+
+   private boolean containsApplicationPropertiesValue(String key) {
+      return lookupApplicationPropertiesValue(key) != NOT_PRESENT;
+   }
+
+   private synchronized Object lookupApplicationPropertiesValue(String key) {
+      parseHeaders();
+
+      final ByteBuf stored = this.data;
+      if (applicationProperties == null && appLocation >= 0 && stored != null) {
+         if (applicationPropertiesCache != null) {
+            Object cached = applicationPropertiesCache.get(key);
+            if (cached != null || applicationPropertiesCache.containsKey(key)) {
+               return cached;
+            }
+         }
+
+         int valueLocation = ApplicationPropertiesScanner.findValue(stored, appLocation, key);
+         if (valueLocation != ApplicationPropertiesScanner.NOT_SCANNABLE) {
+            Object value = NOT_PRESENT;
+            if (valueLocation >= 0) {
+               ByteBuffer buffer = stored.nioBuffer();
+               buffer.position(valueLocation);
+               TLSEncode.getDecoder().setByteBuffer(buffer);
+               try {
+                  value = TLSEncode.getDecoder().readObject();
+               } finally {
+                  TLSEncode.getDecoder().setByteBuffer(null);
+               }
+            }
+            if (applicationPropertiesCache == null) {
+               applicationPropertiesCache = new HashMap<>();
+            }
+            applicationPropertiesCache.put(key, value);
+            return value;
+         }
+      }
+
+      Map<String, Object> map = getApplicationPropertiesMap();
+      Object value = map.get(key);
+      if (value == null && !map.containsKey(key)) {
+         return NOT_PRESENT;
+      }
+      return value;
+   }
+
    private void parseHeaders() {
       if (!parsedHeaders) {
          if (data == null) {
@@ -368,8 +450,15 @@ public class AMQPMessage extends RefCountMessage {
       _messageAnnotations = null;
       _properties = null;
       applicationProperties = null;
+      applicationPropertiesModified = false;
+      appLocation = -1;
+      applicationPropertiesCache = null;
+      bodyStart = -1;
       Section section = null;
 
+      // where the section last read started, so the Body start is known when there are no ApplicationProperties
+      int sectionStart = 0;
+
       try {
          if (buffer.hasRemaining()) {
             section = (Section) decoder.readObject();
@@ -378,12 +467,12 @@ public class AMQPMessage extends RefCountMessage {
          if (section instanceof Header) {
             _header = (Header) section;
             headerEnds = buffer.position();
-            messagePaylodStart = headerEnds;
 
             if (_header.getTtl() != null) {
                this.expiration = System.currentTimeMillis() + _header.getTtl().intValue();
             }
 
+            sectionStart = buffer.position();
             if (buffer.hasRemaining()) {
                section = (Section) decoder.readObject();
             } else {
@@ -394,6 +483,8 @@ public class AMQPMessage extends RefCountMessage {
             // meaning there is no header
             headerEnds = 0;
          }
+         messagePaylodStart = headerEnds;
+
          if (section instanceof DeliveryAnnotations) {
             _deliveryAnnotations = (DeliveryAnnotations) section;
 
@@ -401,23 +492,31 @@ public class AMQPMessage extends RefCountMessage {
             // out on send of the message.
             messagePaylodStart = buffer.position();
 
+            sectionStart = buffer.position();
             if (buffer.hasRemaining()) {
                section = (Section) decoder.readObject();
             } else {
                section = null;
             }
          }
+         messageAnnotationsEnds = messagePaylodStart;
+
          if (section instanceof MessageAnnotations) {
             _messageAnnotations = (MessageAnnotations) section;
+            messageAnnotationsEnds = buffer.position();
 
+            sectionStart = buffer.position();
             if (buffer.hasRemaining()) {
                section = (Section) decoder.readObject();
             } else {
                section = null;
             }
          }
+         propertiesEnds = messageAnnotationsEnds;
+
          if (section instanceof Properties) {
             _properties = (Properties) section;
+            propertiesEnds = buffer.position();
 
             if (_properties.getAbsoluteExpiryTime() != null && _properties.getAbsoluteExpiryTime().getTime() > 0) {
                this.expiration = _properties.getAbsoluteExpiryTime().getTime();
@@ -425,17 +524,17 @@ public class AMQPMessage extends RefCountMessage {
 
             // We don't read the next section on purpose, as we will parse ApplicationProperties
             // lazily
-            section = null;
-         }
-
-         if (section instanceof ApplicationProperties) {
-            applicationProperties = (ApplicationProperties) section;
-         } else {
             if (buffer.hasRemaining()) {
                this.appLocation = buffer.position();
             } else {
-               this.appLocation = -1;
+               this.bodyStart = buffer.position();
             }
+         } else if (section instanceof ApplicationProperties) {
+            applicationProperties = (ApplicationProperties) section;
+            bodyStart = buffer.position();
+         } else {
+            // either the Body, a Footer or nothing at all
+            bodyStart = section == null ? buffer.position() : sectionStart;
          }
       } finally {
          decoder.setByteBuffer(null);
@@ -677,9 +776,26 @@ public class AMQPMessage extends RefCountMessage {
 
    @Override
    public void sendBuffer(ByteBuf buffer, int deliveryCount) {
+      ByteBuf sendBuffer = getSendBuffer(deliveryCount);
+      try {
+         buffer.writeBytes(sendBuffer);
+      } finally {
+         sendBuffer.release();
+      }
+   }
+
+   /**
+    * Returns the message encoded as it should be sent to a consumer, without copying the stored encoding.
+    * <p>
+    * The returned buffer is a slice of the stored bytes starting after the DeliveryAnnotations, prefixed by the
+    * original Header or, when redelivering, by a freshly encoded Header carrying the delivery count.
+    * The caller must release it once sent.
+    */
+   public ByteBuf getSendBuffer(int deliveryCount) {
       checkBuffer();
 
-      int amqpDeliveryCount = deliveryCount - 1;
+      final ByteBuf stored = this.data;
+      final int amqpDeliveryCount = deliveryCount - 1;
 
       Header header = getHeader();
       if (header == null && (amqpDeliveryCount > 0)) {
@@ -687,20 +803,32 @@ public class AMQPMessage extends RefCountMessage {
          header.setDurable(durable);
       }
 
+      final int payloadSize = stored.writerIndex() - messagePaylodStart;
+
       // If the re-delivering the message then the header must be re-encoded
-      // otherwise we want to write the original header if present.
+      // otherwise we want to send the original header if present.
       if (amqpDeliveryCount > 0) {
-         synchronized (header) {
-            header.setDeliveryCount(UnsignedInteger.valueOf(amqpDeliveryCount));
-            TLSEncode.getEncoder().setByteBuffer(new NettyWritable(buffer));
-            TLSEncode.getEncoder().writeObject(header);
-            TLSEncode.getEncoder().setByteBuffer((WritableBuffer) null);
+         ByteBuf encodedHeader = PooledByteBufAllocator.DEFAULT.heapBuffer(32);
+         try {
+            synchronized (header) {
+               header.setDeliveryCount(UnsignedInteger.valueOf(amqpDeliveryCount));
+               TLSEncode.getEncoder().setByteBuffer(new NettyWritable(encodedHeader));
+               TLSEncode.getEncoder().writeObject(header);
+               TLSEncode.getEncoder().setByteBuffer((WritableBuffer) null);
+            }
+         } catch (Throwable e) {
+            encodedHeader.release();
+            throw e;
          }
+         return Unpooled.wrappedBuffer(encodedHeader, stored.retainedSlice(messagePaylodStart, payloadSize));
+      } else if (headerEnds > 0 && headerEnds < messagePaylodStart) {
+         // skipping the DeliveryAnnotations in between
+         return Unpooled.wrappedBuffer(stored.retainedSlice(0, headerEnds), stored.retainedSlice(messagePaylodStart, payloadSize));
       } else if (headerEnds > 0) {
-         buffer.writeBytes(data, 0, headerEnds);
+         return stored.retainedSlice(0, stored.writerIndex());
+      } else {
+         return stored.retainedSlice(messagePaylodStart, payloadSize);
       }
-
-      buffer.writeBytes(data, messagePaylodStart, data.writerIndex() - messagePaylodStart);
    }
 
    public TypedProperties createExtraProperties() {
@@ -745,61 +873,61 @@ public class AMQPMessage extends RefCountMessage {
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putBooleanProperty(String key, boolean value) {
-      getApplicationPropertiesMap().put(key, Boolean.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Boolean.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putByteProperty(String key, byte value) {
-      getApplicationPropertiesMap().put(key, Byte.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Byte.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putBytesProperty(String key, byte[] value) {
-      getApplicationPropertiesMap().put(key, value);
+      getModifiedApplicationPropertiesMap().put(key, value);
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putShortProperty(String key, short value) {
-      getApplicationPropertiesMap().put(key, Short.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Short.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putCharProperty(String key, char value) {
-      getApplicationPropertiesMap().put(key, Character.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Character.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putIntProperty(String key, int value) {
-      getApplicationPropertiesMap().put(key, Integer.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Integer.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putLongProperty(String key, long value) {
-      getApplicationPropertiesMap().put(key, Long.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Long.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putFloatProperty(String key, float value) {
-      getApplicationPropertiesMap().put(key, Float.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Float.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putDoubleProperty(String key, double value) {
-      getApplicationPropertiesMap().put(key, Double.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key, Double.valueOf(value));
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putBooleanProperty(SimpleString key, boolean value) {
-      getApplicationPropertiesMap().put(key.toString(), Boolean.valueOf(value));
+      getModifiedApplicationPropertiesMap().put(key.toString(), Boolean.valueOf(value));
       return this;
    }
 
@@ -845,14 +973,14 @@ public class AMQPMessage extends RefCountMessage {
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putStringProperty(String key, String value) {
-      getApplicationPropertiesMap().put(key, value);
+      getModifiedApplicationPropertiesMap().put(key, value);
       return this;
    }
 
    @Override
    public org.apache.activemq.artemis.api.core.Message putObjectProperty(String key,
                                                                          Object value) throws ActiveMQPropertyConversionException {
-      getApplicationPropertiesMap().put(key, value);
+      getModifiedApplicationPropertiesMap().put(key, value);
       return this;
    }
 
@@ -864,37 +992,37 @@ public class AMQPMessage extends RefCountMessage {
 
    @Override
    public Object removeProperty(String key) {
-      return getApplicationPropertiesMap().remove(key);
+      return getModifiedApplicationPropertiesMap().remove(key);
    }
 
    @Override
    public boolean containsProperty(String key) {
-      return getApplicationPropertiesMap().containsKey(key);
+      return containsApplicationPropertiesValue(key);
    }
 
    @Override
    public Boolean getBooleanProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Boolean) getApplicationPropertiesMap().get(key);
+      return (Boolean) getApplicationPropertiesValue(key);
    }
 
    @Override
    public Byte getByteProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Byte) getApplicationPropertiesMap().get(key);
+      return (Byte) getApplicationPropertiesValue(key);
    }
 
    @Override
    public Double getDoubleProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Double) getApplicationPropertiesMap().get(key);
+      return (Double) getApplicationPropertiesValue(key);
    }
 
    @Override
    public Integer getIntProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Integer) getApplicationPropertiesMap().get(key);
+      return (Integer) getApplicationPropertiesValue(key);
    }
 
    @Override
    public Long getLongProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Long) getApplicationPropertiesMap().get(key);
+      return (Long) getApplicationPropertiesValue(key);
    }
 
    @Override
@@ -914,7 +1042,7 @@ public class AMQPMessage extends RefCountMessage {
             return AMQPMessageIdHelper.INSTANCE.toCorrelationIdString(getProperties().getCorrelationId());
          }
       } else {
-         Object value = getApplicationPropertiesMap().get(key);
+         Object value = getApplicationPropertiesValue(key);
          if (value instanceof UnsignedInteger ||
              value instanceof UnsignedByte ||
              value instanceof UnsignedLong ||
@@ -930,12 +1058,12 @@ public class AMQPMessage extends RefCountMessage {
 
    @Override
    public Short getShortProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Short) getApplicationPropertiesMap().get(key);
+      return (Short) getApplicationPropertiesValue(key);
    }
 
    @Override
    public Float getFloatProperty(String key) throws ActiveMQPropertyConversionException {
-      return (Float) getApplicationPropertiesMap().get(key);
+      return (Float) getApplicationPropertiesValue(key);
    }
 
    @Override
@@ -945,7 +1073,7 @@ public class AMQPMessage extends RefCountMessage {
       } else if (key.equals(MessageUtil.CONNECTION_ID_PROPERTY_NAME.toString())) {
          return getConnectionID();
       } else {
-         return (String) getApplicationPropertiesMap().get(key);
+         return (String) getApplicationPropertiesValue(key);
       }
    }
 
@@ -967,6 +1095,10 @@ public class AMQPMessage extends RefCountMessage {
 
    @Override
    public void reencode() {
+      if (protonMessage == null && data != null && parsedHeaders) {
+         reencodeSections();
+         return;
+      }
       if (_deliveryAnnotations != null) getProtonMessage().setDeliveryAnnotations(_deliveryAnnotations);
       if (_messageAnnotations != null) getProtonMessage().setMessageAnnotations(_messageAnnotations);
       if (applicationProperties != null) getProtonMessage().setApplicationProperties(applicationProperties);
@@ -975,14 +1107,75 @@ public class AMQPMessage extends RefCountMessage {
       checkBuffer();
    }
 
+   /**
+    * Re-encodes only the sections decoded so far, as those are the only ones that could have been changed,
+    * copying the encoded bytes of the others (the ApplicationProperties unless modified and always the Body) as they are.
+    */
+   private synchronized void reencodeSections() {
+      if (bodyStart < 0) {
+         // the ApplicationProperties were not decoded, skip over them to find where the Body starts
+         int end = ApplicationPropertiesScanner.skipSection(data, appLocation);
+         if (end == ApplicationPropertiesScanner.NOT_SCANNABLE) {
+            getApplicationProperties();
+         } else {
+            bodyStart = end;
+         }
+      }
+
+      final ByteBuf stored = this.data;
+      ByteBuf buffer = PooledByteBufAllocator.DEFAULT.heapBuffer(stored.writerIndex() + 256);
+      try {
+         TLSEncode.getEncoder().setByteBuffer(new NettyWritable(buffer));
+
+         writeSection(buffer, stored, _header, 0, headerEnds);
+         int newHeaderEnds = buffer.writerIndex();
+         writeSection(buffer, stored, _deliveryAnnotations, headerEnds, messagePaylodStart);
+         int newMessagePayloadStart = buffer.writerIndex();
+         writeSection(buffer, stored, _messageAnnotations, messagePaylodStart, messageAnnotationsEnds);
+         int newMessageAnnotationsEnds = buffer.writerIndex();
+         writeSection(buffer, stored, _properties, messageAnnotationsEnds, propertiesEnds);
+         int newPropertiesEnds = buffer.writerIndex();
+         writeSection(buffer, stored, applicationPropertiesModified ? applicationProperties : null, propertiesEnds, bodyStart);
+         int newBodyStart = buffer.writerIndex();
+         buffer.writeBytes(stored, bodyStart, stored.writerIndex() - bodyStart);
+
+         byte[] bytes = new byte[buffer.writerIndex()];
+         buffer.readBytes(bytes);
+
+         this.data = Unpooled.wrappedBuffer(bytes);
+         this.headerEnds = newHeaderEnds;
+         this.messagePaylodStart = newMessagePayloadStart;
+         this.messageAnnotationsEnds = newMessageAnnotationsEnds;
+         this.propertiesEnds = newPropertiesEnds;
+         if (this.appLocation >= 0) {
+            this.appLocation = newPropertiesEnds;
+         }
+         this.bodyStart = newBodyStart;
+         this.applicationPropertiesModified = false;
+         this.bufferValid = true;
+         this.memoryEstimate = -1;
+      } finally {
+         TLSEncode.getEncoder().setByteBuffer((WritableBuffer) null);
+         buffer.release();
+      }
+   }
+
+   private static void writeSection(ByteBuf buffer, ByteBuf stored, Section section, int start, int end) {
+      if (section != null) {
+         TLSEncode.getEncoder().writeObject(section);
+      } else if (end > start) {
+         buffer.writeBytes(stored, start, end - start);
+      }
+   }
+
    @Override
    public SimpleString getSimpleStringProperty(String key) throws ActiveMQPropertyConversionException {
-      return SimpleString.toSimpleString((String) getApplicationPropertiesMap().get(key));
+      return SimpleString.toSimpleString((String) getApplicationPropertiesValue(key));
    }
 
    @Override
    public byte[] getBytesProperty(String key) throws ActiveMQPropertyConversionException {
-      return (byte[]) getApplicationPropertiesMap().get(key);
+      return (byte[]) getApplicationPropertiesValue(key);
    }
 
    @Override
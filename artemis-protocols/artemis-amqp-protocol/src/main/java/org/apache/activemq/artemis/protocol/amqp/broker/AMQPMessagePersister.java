@@ -67,7 +67,7 @@ public class AMQPMessagePersister extends MessagePersister {
    public Message decode(ActiveMQBuffer buffer, Message record) {
       long id = buffer.readLong();
       long format = buffer.readLong();
-      SimpleString address = buffer.readNullableSimpleString();
+      SimpleString address = SimpleString.readNullableSimpleString(buffer.byteBuf(), SimpleString.ByteBufSimpleStringPool.DEFAULT);
       record = new AMQPMessage(format);
       record.reloadPersistence(buffer);
       record.setMessageID(id);
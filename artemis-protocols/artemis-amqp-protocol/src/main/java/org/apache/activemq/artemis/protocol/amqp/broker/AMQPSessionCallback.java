@@ -633,9 +633,14 @@ public class AMQPSessionCallback implements SessionCallback {
 
    @Override
    public boolean hasCredits(ServerConsumer consumer) {
+      return hasCredits(consumer, 0);
+   }
+
+   @Override
+   public boolean hasCredits(ServerConsumer consumer, int pendingDeliveries) {
       ProtonServerSenderContext plugSender = (ProtonServerSenderContext) consumer.getProtocolContext();
 
-      if (plugSender != null && plugSender.getSender().getCredit() > 0) {
+      if (plugSender != null && plugSender.hasCredits(pendingDeliveries)) {
          return true;
       } else {
          return false;
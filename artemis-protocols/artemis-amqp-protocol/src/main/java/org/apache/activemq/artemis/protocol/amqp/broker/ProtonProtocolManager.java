@@ -66,6 +66,12 @@ public class ProtonProtocolManager extends AbstractProtocolManager<AMQPMessage,
 
    private int initialRemoteMaxFrameSize = 4 * 1024;
 
+   /*
+   * when true, deliveries are handed over to the connection's event loop, which writes them into proton in batches,
+   * instead of each delivery thread taking the connection lock. This can be changed on the acceptor.
+   * */
+   private boolean amqpEventLoopDelivery = false;
+
    private String[] saslMechanisms = MechanismFinder.getKnownMechanisms();
 
    private String saslLoginConfigScope = "amqp-sasl-gssapi";
@@ -174,6 +180,15 @@ public class ProtonProtocolManager extends AbstractProtocolManager<AMQPMessage,
       return this;
    }
 
+   public boolean isAmqpEventLoopDelivery() {
+      return amqpEventLoopDelivery;
+   }
+
+   public ProtonProtocolManager setAmqpEventLoopDelivery(boolean amqpEventLoopDelivery) {
+      this.amqpEventLoopDelivery = amqpEventLoopDelivery;
+      return this;
+   }
+
    @Override
    public boolean isProtocol(byte[] array) {
       return array.length >= 4 && array[0] == (byte) 'A' && array[1] == (byte) 'M' && array[2] == (byte) 'Q' && array[3] == (byte) 'P';
@@ -20,10 +20,14 @@ import java.net.URI;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.netty.buffer.ByteBuf;
 import org.apache.activemq.artemis.core.remoting.impl.netty.TransportConstants;
@@ -80,6 +84,13 @@ public class AMQPConnectionContext extends ProtonInitializable implements EventH
 
    private final boolean useCoreSubscriptionNaming;
 
+   // deliveries handed over by the broker threads, written by the event loop (see isEventLoopDelivery)
+   private final Queue<Runnable> pendingDeliveries = new ConcurrentLinkedQueue<>();
+
+   private final AtomicBoolean deliveriesScheduled = new AtomicBoolean(false);
+
+   private final Runnable deliveriesWriter = this::writePendingDeliveries;
+
    public AMQPConnectionContext(ProtonProtocolManager protocolManager,
                                 AMQPConnectionCallback connectionSP,
                                 String containerId,
@@ -182,6 +193,49 @@ public class AMQPConnectionContext extends ProtonInitializable implements EventH
       handler.close(errorCondition);
    }
 
+   public boolean isEventLoopDelivery() {
+      return protocolManager != null && protocolManager.isAmqpEventLoopDelivery();
+   }
+
+   /**
+    * Queues a delivery to be written on the connection's event loop.
+    * <p>
+    * All the deliveries pending when the event loop gets to run are written under a single lock acquisition and
+    * followed by a single flush, so broker delivery threads never wait on the connection lock.
+    */
+   public void scheduleDelivery(Executor eventLoop, Runnable delivery) {
+      pendingDeliveries.add(delivery);
+      if (deliveriesScheduled.compareAndSet(false, true)) {
+         eventLoop.execute(deliveriesWriter);
+      }
+   }
+
+   private void writePendingDeliveries() {
+      // reset first: anything added from now on is either written by this loop or schedules a new run
+      deliveriesScheduled.set(false);
+
+      Runnable delivery = pendingDeliveries.poll();
+      if (delivery == null) {
+         return;
+      }
+
+      handler.lock();
+      try {
+         do {
+            try {
+               delivery.run();
+            } catch (Throwable e) {
+               log.warn(e.getMessage(), e);
+            }
+         }
+         while ((delivery = pendingDeliveries.poll()) != null);
+      } finally {
+         handler.unlock();
+      }
+
+      handler.flush();
+   }
+
    protected AMQPSessionContext getSessionExtension(Session realSession) throws ActiveMQAMQPException {
       AMQPSessionContext sessionExtension = sessions.get(realSession);
       if (sessionExtension == null) {
@@ -16,14 +16,16 @@
  */
 package org.apache.activemq.artemis.protocol.amqp.proton;
 
+import java.nio.ByteBuffer;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.buffer.ByteBuf;
-import io.netty.buffer.PooledByteBufAllocator;
 import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
 import org.apache.activemq.artemis.api.core.ActiveMQQueueExistsException;
 import org.apache.activemq.artemis.api.core.ActiveMQSecurityException;
@@ -32,6 +34,7 @@ import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.IOCallback;
 import org.apache.activemq.artemis.core.persistence.OperationContext;
+import org.apache.activemq.artemis.core.remoting.impl.netty.NettyConnection;
 import org.apache.activemq.artemis.core.server.AddressQueryResult;
 import org.apache.activemq.artemis.core.server.Consumer;
 import org.apache.activemq.artemis.core.server.MessageReference;
@@ -104,6 +107,9 @@ public class ProtonServerSenderContext extends ProtonInitializable implements Pr
    private boolean isVolatile = false;
    private String tempQueueName;
 
+   // deliveries handed over to the event loop but not yet written to the sender
+   private final AtomicInteger scheduledDeliveries = new AtomicInteger(0);
+
    public ProtonServerSenderContext(AMQPConnectionContext connection,
                                     Sender sender,
                                     AMQPSessionContext protonSession,
@@ -124,6 +130,18 @@ public class ProtonServerSenderContext extends ProtonInitializable implements Pr
       sessionSPI.onFlowConsumer(brokerConsumer, currentCredits, drain);
    }
 
+   /**
+    * Credits are only taken from the sender once a delivery is written, so the ones still scheduled on the
+    * event loop are accounted for here.
+    */
+   public boolean hasCredits() {
+      return hasCredits(0);
+   }
+
+   public boolean hasCredits(int pendingDeliveries) {
+      return sender.getCredit() - scheduledDeliveries.get() - pendingDeliveries > 0;
+   }
+
    public Sender getSender() {
       return sender;
    }
@@ -690,11 +708,37 @@ public class ProtonServerSenderContext extends ProtonInitializable implements Pr
       // we only need a tag if we are going to settle later
       byte[] tag = preSettle ? new byte[0] : protonSession.getTag();
 
-      ByteBuf nettyBuffer = PooledByteBufAllocator.DEFAULT.heapBuffer(message.getEncodeSize());
+      // slices of the stored message, no copy is made until proton takes the bytes
+      ByteBuf nettyBuffer = message.getSendBuffer(deliveryCount);
+      boolean releaseBuffer = true;
       try {
-         message.sendBuffer(nettyBuffer, deliveryCount);
-
-         int size = nettyBuffer.writerIndex();
+         int size = nettyBuffer.readableBytes();
+
+         if (connection.isEventLoopDelivery() && transportConnection instanceof NettyConnection) {
+            // the event loop takes ownership of the buffer
+            releaseBuffer = false;
+            scheduledDeliveries.incrementAndGet();
+            Executor eventLoop = ((NettyConnection) transportConnection).getNettyChannel().eventLoop();
+            connection.scheduleDelivery(eventLoop, () -> {
+               boolean written = false;
+               try {
+                  if (!closed && sender.getLocalState() != EndpointState.CLOSED) {
+                     writeDelivery(messageReference, message, tag, preSettle, nettyBuffer);
+                     written = true;
+                  }
+               } catch (Exception e) {
+                  log.warn("Error delivering message " + messageReference + " on " + this, e);
+                  sender.setCondition(new ErrorCondition(AmqpError.INTERNAL_ERROR, e.getMessage()));
+               } finally {
+                  scheduledDeliveries.decrementAndGet();
+                  nettyBuffer.release();
+                  if (!written) {
+                     cancelScheduledDelivery(message);
+                  }
+               }
+            });
+            return size;
+         }
 
          while (!connection.tryLock(1, TimeUnit.SECONDS)) {
             if (closed || sender.getLocalState() == EndpointState.CLOSED) {
@@ -709,21 +753,7 @@ public class ProtonServerSenderContext extends ProtonInitializable implements Pr
          }
 
          try {
-            final Delivery delivery;
-            delivery = sender.delivery(tag, 0, tag.length);
-            delivery.setMessageFormat((int) message.getMessageFormat());
-            delivery.setContext(messageReference);
-
-            // this will avoid a copy.. patch provided by Norman using buffer.array()
-            sender.send(nettyBuffer.array(), nettyBuffer.arrayOffset() + nettyBuffer.readerIndex(), nettyBuffer.readableBytes());
-
-            if (preSettle) {
-               // Presettled means the client implicitly accepts any delivery we send it.
-               sessionSPI.ack(null, brokerConsumer, messageReference.getMessage());
-               delivery.settle();
-            } else {
-               sender.advance();
-            }
+            writeDelivery(messageReference, message, tag, preSettle, nettyBuffer);
             connection.flush();
          } finally {
             connection.unlock();
@@ -731,7 +761,59 @@ public class ProtonServerSenderContext extends ProtonInitializable implements Pr
 
          return size;
       } finally {
-         nettyBuffer.release();
+         if (releaseBuffer) {
+            nettyBuffer.release();
+         }
+      }
+   }
+
+   /**
+    * The reference of a delivery that never reached the link goes back to the queue, unless closing the consumer
+    * already returned it.
+    */
+   private void cancelScheduledDelivery(AMQPMessage message) {
+      try {
+         sessionSPI.cancel(brokerConsumer, message, false);
+      } catch (Exception e) {
+         log.debug("Could not cancel the delivery of " + message + " on " + this, e);
+      }
+   }
+
+   /**
+    * Writes the encoded message into a new proton delivery, the caller must hold the connection lock.
+    */
+   private void writeDelivery(MessageReference messageReference,
+                              AMQPMessage message,
+                              byte[] tag,
+                              boolean preSettle,
+                              ByteBuf nettyBuffer) throws Exception {
+      final Delivery delivery;
+      delivery = sender.delivery(tag, 0, tag.length);
+      delivery.setMessageFormat((int) message.getMessageFormat());
+      delivery.setContext(messageReference);
+
+      if (nettyBuffer.hasArray()) {
+         // this will avoid a copy.. patch provided by Norman using buffer.array()
+         sender.send(nettyBuffer.array(), nettyBuffer.arrayOffset() + nettyBuffer.readerIndex(), nettyBuffer.readableBytes());
+      } else {
+         // a re-encoded header followed by the stored message: send each part straight from its backing array
+         for (ByteBuffer part : nettyBuffer.nioBuffers()) {
+            if (part.hasArray()) {
+               sender.send(part.array(), part.arrayOffset() + part.position(), part.remaining());
+            } else {
+               byte[] bytes = new byte[part.remaining()];
+               part.get(bytes);
+               sender.send(bytes, 0, bytes.length);
+            }
+         }
+      }
+
+      if (preSettle) {
+         // Presettled means the client implicitly accepts any delivery we send it.
+         sessionSPI.ack(null, brokerConsumer, messageReference.getMessage());
+         delivery.settle();
+      } else {
+         sender.advance();
       }
    }
 
@@ -0,0 +1,242 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.protocol.amqp.util;
+
+import java.nio.charset.StandardCharsets;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Finds the value of a single key in an encoded ApplicationProperties section, walking the encoded map
+ * without decoding the keys and values it skips.
+ */
+public final class ApplicationPropertiesScanner {
+
+   /** The key is not in the section, or the section is not an ApplicationProperties one */
+   public static final int NOT_FOUND = -1;
+
+   /** The encoding isn't one the scanner understands, the section has to be decoded */
+   public static final int NOT_SCANNABLE = -2;
+
+   private static final long APPLICATION_PROPERTIES_DESCRIPTOR = 0x74L;
+
+   private static final int DESCRIBED_TYPE = 0x00;
+   private static final int NULL = 0x40;
+   private static final int ULONG0 = 0x44;
+   private static final int SMALLULONG = 0x53;
+   private static final int ULONG = 0x80;
+   private static final int STR8 = 0xa1;
+   private static final int STR32 = 0xb1;
+   private static final int MAP8 = 0xc1;
+   private static final int MAP32 = 0xd1;
+
+   private ApplicationPropertiesScanner() {
+   }
+
+   /**
+    * @param buffer       the encoded message
+    * @param sectionStart where the section starts in the buffer
+    * @param key          the property name
+    * @return the offset of the encoded value of the key, {@link #NOT_FOUND} or {@link #NOT_SCANNABLE}
+    */
+   public static int findValue(ByteBuf buffer, int sectionStart, String key) {
+      try {
+         int pos = sectionStart;
+         final int limit = buffer.writerIndex();
+         if (pos >= limit) {
+            return NOT_FOUND;
+         }
+
+         pos = skipDescriptor(buffer, pos);
+         if (pos < 0) {
+            return pos;
+         }
+
+         final int count;
+         switch (buffer.getUnsignedByte(pos++)) {
+            case NULL:
+               return NOT_FOUND;
+            case MAP8:
+               count = buffer.getUnsignedByte(pos + 1);
+               pos += 2;
+               break;
+            case MAP32:
+               count = buffer.getInt(pos + 4);
+               pos += 8;
+               break;
+            default:
+               return NOT_SCANNABLE;
+         }
+
+         for (int i = 0; i < count; i += 2) {
+            final int keyLength;
+            switch (buffer.getUnsignedByte(pos++)) {
+               case STR8:
+                  keyLength = buffer.getUnsignedByte(pos++);
+                  break;
+               case STR32:
+                  keyLength = buffer.getInt(pos);
+                  pos += 4;
+                  break;
+               default:
+                  // ApplicationProperties keys are strings
+                  return NOT_SCANNABLE;
+            }
+
+            boolean matches = keyEquals(buffer, pos, keyLength, key);
+            pos += keyLength;
+            if (matches) {
+               return pos < limit ? pos : NOT_SCANNABLE;
+            }
+
+            pos = skipValue(buffer, pos);
+            if (pos < 0 || pos > limit) {
+               return NOT_SCANNABLE;
+            }
+         }
+
+         return NOT_FOUND;
+      } catch (IndexOutOfBoundsException e) {
+         return NOT_SCANNABLE;
+      }
+   }
+
+   /**
+    * @param buffer       the encoded message
+    * @param sectionStart where the section starts in the buffer
+    * @return the offset following the section if it is an ApplicationProperties one, {@code sectionStart} if it is
+    * some other section (or there are no more sections), or {@link #NOT_SCANNABLE}
+    */
+   public static int skipSection(ByteBuf buffer, int sectionStart) {
+      try {
+         final int limit = buffer.writerIndex();
+         if (sectionStart >= limit) {
+            return sectionStart;
+         }
+
+         int pos = skipDescriptor(buffer, sectionStart);
+         if (pos == NOT_FOUND) {
+            return sectionStart;
+         } else if (pos < 0) {
+            return pos;
+         }
+
+         pos = skipValue(buffer, pos);
+         return pos < 0 || pos > limit ? NOT_SCANNABLE : pos;
+      } catch (IndexOutOfBoundsException e) {
+         return NOT_SCANNABLE;
+      }
+   }
+
+   /**
+    * @return the offset following the descriptor of the ApplicationProperties section starting at pos,
+    * {@link #NOT_FOUND} if it is some other section, or {@link #NOT_SCANNABLE}
+    */
+   private static int skipDescriptor(ByteBuf buffer, int pos) {
+      if (buffer.getUnsignedByte(pos++) != DESCRIBED_TYPE) {
+         return NOT_SCANNABLE;
+      }
+
+      final long descriptor;
+      switch (buffer.getUnsignedByte(pos++)) {
+         case SMALLULONG:
+            descriptor = buffer.getUnsignedByte(pos++);
+            break;
+         case ULONG:
+            descriptor = buffer.getLong(pos);
+            pos += 8;
+            break;
+         case ULONG0:
+            descriptor = 0;
+            break;
+         default:
+            // symbolic descriptor
+            return NOT_SCANNABLE;
+      }
+
+      // some other section, there are no ApplicationProperties
+      return descriptor == APPLICATION_PROPERTIES_DESCRIPTOR ? pos : NOT_FOUND;
+   }
+
+   /**
+    * @return the offset following the encoded value starting at pos, or {@link #NOT_SCANNABLE}
+    */
+   static int skipValue(ByteBuf buffer, int pos) {
+      int code = buffer.getUnsignedByte(pos++);
+      if (code == DESCRIBED_TYPE) {
+         int valueStart = skipValue(buffer, pos);
+         return valueStart < 0 ? valueStart : skipValue(buffer, valueStart);
+      }
+
+      // the category of a type is given by its constructor's upper nibble
+      switch (code >> 4) {
+         case 0x4:
+            return pos;
+         case 0x5:
+            return pos + 1;
+         case 0x6:
+            return pos + 2;
+         case 0x7:
+            return pos + 4;
+         case 0x8:
+            return pos + 8;
+         case 0x9:
+            return pos + 16;
+         case 0xa:
+         case 0xc:
+         case 0xe:
+            return pos + 1 + buffer.getUnsignedByte(pos);
+         case 0xb:
+         case 0xd:
+         case 0xf:
+            return pos + 4 + buffer.getInt(pos);
+         default:
+            return NOT_SCANNABLE;
+      }
+   }
+
+   private static boolean keyEquals(ByteBuf buffer, int pos, int length, String key) {
+      final int keyLength = key.length();
+      // a char never encodes to less than a byte
+      if (length < keyLength) {
+         return false;
+      }
+      for (int i = 0; i < keyLength; i++) {
+         char c = key.charAt(i);
+         if (c >= 0x80) {
+            return utf8Equals(buffer, pos, length, key);
+         }
+         if (buffer.getByte(pos + i) != c) {
+            return false;
+         }
+      }
+      return length == keyLength;
+   }
+
+   private static boolean utf8Equals(ByteBuf buffer, int pos, int length, String key) {
+      byte[] encoded = key.getBytes(StandardCharsets.UTF_8);
+      if (encoded.length != length) {
+         return false;
+      }
+      for (int i = 0; i < length; i++) {
+         if (buffer.getByte(pos + i) != encoded[i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+}
@@ -0,0 +1,148 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.protocol.amqp.message;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
+import org.apache.activemq.artemis.protocol.amqp.broker.AMQPMessage;
+import org.apache.activemq.artemis.protocol.amqp.util.NettyWritable;
+import org.apache.qpid.proton.amqp.messaging.AmqpValue;
+import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.Header;
+import org.apache.qpid.proton.amqp.messaging.Properties;
+import org.apache.qpid.proton.message.Message;
+import org.apache.qpid.proton.message.impl.MessageImpl;
+import org.junit.Assert;
+import org.junit.Ignore;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TestName;
+
+/**
+ * Compares routing AMQP messages through selectors reading single application properties
+ * with the same routing when the whole application properties map is decoded.
+ */
+@Ignore("Useful for profiling but slow and not meant as a unit test")
+public class AMQPMessageSelectorSpeedTest {
+
+   @Rule
+   public TestName test = new TestName();
+
+   private final int PROPERTIES = 20;
+   private final int SUBSCRIPTIONS = 10;
+   private final int WARM_CYCLES = 10000;
+   private final int PROFILE_CYCLES = 1000000;
+
+   @Test
+   public void testSelectorsOnSingleProperties() throws Exception {
+      byte[] encoded = encodeMessage();
+      Filter[] filters = createFilters();
+
+      for (int i = 0; i < WARM_CYCLES; ++i) {
+         route(new AMQPMessage(0, encoded), filters, false);
+      }
+
+      long startTime = System.nanoTime();
+      int matches = 0;
+      for (int i = 0; i < PROFILE_CYCLES; ++i) {
+         matches += route(new AMQPMessage(0, encoded), filters, false);
+      }
+      long duration = System.nanoTime() - startTime;
+
+      Assert.assertEquals(PROFILE_CYCLES, matches);
+      LOG_RESULTS(duration);
+   }
+
+   @Test
+   public void testSelectorsOnDecodedProperties() throws Exception {
+      byte[] encoded = encodeMessage();
+      Filter[] filters = createFilters();
+
+      for (int i = 0; i < WARM_CYCLES; ++i) {
+         route(new AMQPMessage(0, encoded), filters, true);
+      }
+
+      long startTime = System.nanoTime();
+      int matches = 0;
+      for (int i = 0; i < PROFILE_CYCLES; ++i) {
+         matches += route(new AMQPMessage(0, encoded), filters, true);
+      }
+      long duration = System.nanoTime() - startTime;
+
+      Assert.assertEquals(PROFILE_CYCLES, matches);
+      LOG_RESULTS(duration);
+   }
+
+   private int route(AMQPMessage message, Filter[] filters, boolean decodeProperties) {
+      if (decodeProperties) {
+         // forces the whole application properties map to be decoded
+         message.getPropertyNames();
+      }
+      int matches = 0;
+      for (Filter filter : filters) {
+         if (filter.match(message)) {
+            matches++;
+         }
+      }
+      return matches;
+   }
+
+   private Filter[] createFilters() throws Exception {
+      Filter[] filters = new Filter[SUBSCRIPTIONS];
+      for (int i = 0; i < SUBSCRIPTIONS; i++) {
+         // only the last subscription matches
+         filters[i] = FilterImpl.createFilter("region = 'region-" + i + "' AND priorityLevel > 0");
+      }
+      return filters;
+   }
+
+   private byte[] encodeMessage() {
+      MessageImpl protonMessage = (MessageImpl) Message.Factory.create();
+      protonMessage.setHeader(new Header());
+      Properties properties = new Properties();
+      properties.setTo("someNiceLocal");
+      protonMessage.setProperties(properties);
+
+      Map<String, Object> applicationProperties = new HashMap<>();
+      for (int i = 0; i < PROPERTIES; i++) {
+         applicationProperties.put("property" + i, "value" + i);
+      }
+      applicationProperties.put("region", "region-" + (SUBSCRIPTIONS - 1));
+      applicationProperties.put("priorityLevel", SUBSCRIPTIONS - 1);
+      protonMessage.setApplicationProperties(new ApplicationProperties(applicationProperties));
+      protonMessage.setBody(new AmqpValue("String payload for AMQP selector performance testing."));
+
+      ByteBuf nettyBuffer = Unpooled.buffer(1500);
+      protonMessage.encode(new NettyWritable(nettyBuffer));
+      byte[] bytes = new byte[nettyBuffer.writerIndex()];
+      nettyBuffer.readBytes(bytes);
+      return bytes;
+   }
+
+   private void LOG_RESULTS(long duration) {
+      String result = "[AMQP] Total time for " + PROFILE_CYCLES + " cycles of routing through " + SUBSCRIPTIONS + " selectors = " + TimeUnit.NANOSECONDS.toMillis(duration) + " ms -> "
+         + test.getMethodName();
+
+      System.out.println(result);
+   }
+}
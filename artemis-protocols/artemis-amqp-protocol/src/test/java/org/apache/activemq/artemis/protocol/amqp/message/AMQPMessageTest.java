@@ -24,6 +24,8 @@ import static org.junit.Assert.assertTrue;
 
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
@@ -35,9 +37,13 @@ import org.apache.activemq.artemis.protocol.amqp.util.NettyWritable;
 import org.apache.activemq.artemis.spi.core.protocol.EmbedMessageUtil;
 import org.apache.activemq.artemis.utils.RandomUtil;
 import org.apache.commons.collections.map.HashedMap;
+import org.apache.qpid.proton.amqp.Symbol;
 import org.apache.qpid.proton.amqp.UnsignedInteger;
+import org.apache.qpid.proton.amqp.messaging.AmqpValue;
 import org.apache.qpid.proton.amqp.messaging.ApplicationProperties;
+import org.apache.qpid.proton.amqp.messaging.DeliveryAnnotations;
 import org.apache.qpid.proton.amqp.messaging.Header;
+import org.apache.qpid.proton.amqp.messaging.MessageAnnotations;
 import org.apache.qpid.proton.amqp.messaging.Properties;
 import org.apache.qpid.proton.message.Message;
 import org.apache.qpid.proton.message.impl.MessageImpl;
@@ -251,6 +257,204 @@ public class AMQPMessageTest {
 
    }
 
+   @Test
+   public void testSendBufferSkipsDeliveryAnnotations() {
+      MessageImpl protonMessage = createMessageWithAllSections();
+
+      AMQPMessage decoded = encodeAndDecodeMessage(protonMessage);
+
+      ByteBuf sendBuffer = decoded.getSendBuffer(1);
+      try {
+         MessageImpl sent = decodeSendBuffer(sendBuffer);
+         assertNull(sent.getDeliveryAnnotations());
+         assertEquals(0, sent.getHeader().getDeliveryCount().intValue());
+         assertEquals("someNiceLocal", sent.getAddress());
+         assertEquals("value", sent.getApplicationProperties().getValue().get("key"));
+         assertEquals("someBody", ((AmqpValue) sent.getBody()).getValue());
+      } finally {
+         sendBuffer.release();
+      }
+   }
+
+   @Test
+   public void testSendBufferOnRedelivery() {
+      MessageImpl protonMessage = createMessageWithAllSections();
+
+      AMQPMessage decoded = encodeAndDecodeMessage(protonMessage);
+
+      ByteBuf sendBuffer = decoded.getSendBuffer(3);
+      try {
+         MessageImpl sent = decodeSendBuffer(sendBuffer);
+         assertEquals(2, sent.getHeader().getDeliveryCount().intValue());
+         assertTrue(sent.getHeader().getDurable());
+         assertNull(sent.getDeliveryAnnotations());
+         assertEquals("someNiceLocal", sent.getAddress());
+         assertEquals("someBody", ((AmqpValue) sent.getBody()).getValue());
+      } finally {
+         sendBuffer.release();
+      }
+   }
+
+   @Test
+   public void testReencodeOnlyChangedSections() {
+      MessageImpl protonMessage = createMessageWithAllSections();
+
+      AMQPMessage decoded = encodeAndDecodeMessage(protonMessage);
+      decoded.setAnnotation(SimpleString.toSimpleString("x-opt-test"), "annotation");
+      decoded.reencode();
+
+      assertNull(decoded.getStringProperty("otherKey"));
+      decoded.putStringProperty("otherKey", "otherValue");
+      decoded.reencode();
+
+      AMQPMessage reloaded = new AMQPMessage(0, decoded.getArray());
+      assertEquals("annotation", reloaded.getAnnotation(SimpleString.toSimpleString("x-opt-test")));
+      assertEquals("value", reloaded.getStringProperty("key"));
+      assertEquals("otherValue", reloaded.getStringProperty("otherKey"));
+      assertEquals("someNiceLocal", reloaded.getAddress());
+
+      ByteBuf sendBuffer = reloaded.getSendBuffer(1);
+      try {
+         MessageImpl sent = decodeSendBuffer(sendBuffer);
+         assertEquals("annotation", sent.getMessageAnnotations().getValue().get(Symbol.getSymbol("x-opt-test")));
+         assertEquals("someBody", ((AmqpValue) sent.getBody()).getValue());
+      } finally {
+         sendBuffer.release();
+      }
+   }
+
+   @Test
+   public void testReencodeCopiesUnmodifiedApplicationProperties() {
+      MessageImpl protonMessage = createMessageWithAllSections();
+      protonMessage.setApplicationProperties(null);
+      protonMessage.setBody(null);
+      MessageImpl bodyOnly = (MessageImpl) Message.Factory.create();
+      bodyOnly.setBody(new AmqpValue("someBody"));
+
+      // a map32 with str32 strings, which proton would encode as a map8 with str8 strings
+      ByteBuf applicationProperties = Unpooled.buffer();
+      applicationProperties.writeByte(0x00).writeByte(0x53).writeByte(0x74);
+      applicationProperties.writeByte(0xd1).writeInt(4 + 1 + 4 + 3 + 1 + 4 + 5).writeInt(2);
+      applicationProperties.writeByte(0xb1).writeInt(3).writeBytes("key".getBytes(StandardCharsets.UTF_8));
+      applicationProperties.writeByte(0xb1).writeInt(5).writeBytes("value".getBytes(StandardCharsets.UTF_8));
+      byte[] encodedApplicationProperties = new byte[applicationProperties.readableBytes()];
+      applicationProperties.readBytes(encodedApplicationProperties);
+
+      ByteBuf buffer = Unpooled.buffer(1500);
+      protonMessage.encode(new NettyWritable(buffer));
+      buffer.writeBytes(encodedApplicationProperties);
+      bodyOnly.encode(new NettyWritable(buffer));
+      byte[] bytes = new byte[buffer.readableBytes()];
+      buffer.readBytes(bytes);
+
+      AMQPMessage decoded = new AMQPMessage(0, bytes);
+      assertEquals("value", decoded.getStringProperty("key"));
+      decoded.setAnnotation(SimpleString.toSimpleString("x-opt-test"), "annotation");
+      decoded.reencode();
+
+      assertTrue(indexOf(decoded.getArray(), encodedApplicationProperties) >= 0);
+      assertEquals("value", decoded.getStringProperty("key"));
+
+      AMQPMessage reloaded = new AMQPMessage(0, decoded.getArray());
+      assertEquals("annotation", reloaded.getAnnotation(SimpleString.toSimpleString("x-opt-test")));
+      assertEquals("value", reloaded.getStringProperty("key"));
+      assertEquals("someBody", ((AmqpValue) reloaded.getProtonMessage().getBody()).getValue());
+
+      // once modified the section is encoded again
+      reloaded.putStringProperty("otherKey", "otherValue");
+      reloaded.reencode();
+      assertTrue(indexOf(reloaded.getArray(), encodedApplicationProperties) < 0);
+      assertEquals("otherValue", new AMQPMessage(0, reloaded.getArray()).getStringProperty("otherKey"));
+   }
+
+   @Test
+   public void testSingleApplicationPropertiesLookup() {
+      MessageImpl protonMessage = createMessageWithAllSections();
+      Map<String, Object> applicationProperties = protonMessage.getApplicationProperties().getValue();
+      applicationProperties.put("int", 42);
+      applicationProperties.put("long", Long.MAX_VALUE);
+      applicationProperties.put("boolean", Boolean.TRUE);
+      applicationProperties.put("unsigned", UnsignedInteger.valueOf(7));
+      applicationProperties.put("nothing", null);
+      applicationProperties.put("caf\u00e9", "unicode");
+
+      AMQPMessage decoded = encodeAndDecodeMessage(protonMessage);
+
+      assertEquals("value", decoded.getStringProperty("key"));
+      assertEquals(Integer.valueOf(42), decoded.getIntProperty("int"));
+      assertEquals(Long.valueOf(Long.MAX_VALUE), decoded.getLongProperty("long"));
+      assertEquals(Boolean.TRUE, decoded.getBooleanProperty("boolean"));
+      assertEquals(7L, decoded.getObjectProperty("unsigned"));
+      assertEquals("unicode", decoded.getStringProperty("caf\u00e9"));
+      assertNull(decoded.getObjectProperty("nothing"));
+      assertTrue(decoded.containsProperty("nothing"));
+      assertNull(decoded.getObjectProperty("missing"));
+      assertFalse(decoded.containsProperty("missing"));
+      assertFalse(decoded.containsProperty("ke"));
+
+      // cached values
+      assertEquals("value", decoded.getStringProperty("key"));
+      assertFalse(decoded.containsProperty("missing"));
+
+      // writing decodes the whole map
+      decoded.putStringProperty("missing", "found");
+      assertEquals("found", decoded.getStringProperty("missing"));
+      assertEquals(Integer.valueOf(42), decoded.getIntProperty("int"));
+   }
+
+   @Test
+   public void testSingleApplicationPropertiesLookupWithoutApplicationProperties() {
+      MessageImpl protonMessage = createMessageWithAllSections();
+      protonMessage.setApplicationProperties(null);
+
+      AMQPMessage decoded = encodeAndDecodeMessage(protonMessage);
+
+      assertNull(decoded.getStringProperty("key"));
+      assertFalse(decoded.containsProperty("key"));
+      assertEquals("someNiceLocal", decoded.getAddress());
+   }
+
+   private MessageImpl createMessageWithAllSections() {
+      MessageImpl protonMessage = (MessageImpl) Message.Factory.create();
+      protonMessage.setHeader(new Header());
+      protonMessage.getHeader().setDurable(Boolean.TRUE);
+      Map<Symbol, Object> deliveryAnnotations = new HashMap<>();
+      deliveryAnnotations.put(Symbol.getSymbol("x-opt-delivery"), "delivery");
+      protonMessage.setDeliveryAnnotations(new DeliveryAnnotations(deliveryAnnotations));
+      Map<Symbol, Object> messageAnnotations = new HashMap<>();
+      messageAnnotations.put(Symbol.getSymbol("x-opt-message"), "message");
+      protonMessage.setMessageAnnotations(new MessageAnnotations(messageAnnotations));
+      Properties properties = new Properties();
+      properties.setTo("someNiceLocal");
+      protonMessage.setProperties(properties);
+      Map<String, Object> applicationProperties = new HashMap<>();
+      applicationProperties.put("key", "value");
+      protonMessage.setApplicationProperties(new ApplicationProperties(applicationProperties));
+      protonMessage.setBody(new AmqpValue("someBody"));
+      return protonMessage;
+   }
+
+   private static int indexOf(byte[] bytes, byte[] sequence) {
+      for (int i = 0; i <= bytes.length - sequence.length; i++) {
+         int j = 0;
+         while (j < sequence.length && bytes[i + j] == sequence[j]) {
+            j++;
+         }
+         if (j == sequence.length) {
+            return i;
+         }
+      }
+      return -1;
+   }
+
+   private MessageImpl decodeSendBuffer(ByteBuf sendBuffer) {
+      byte[] bytes = new byte[sendBuffer.readableBytes()];
+      sendBuffer.getBytes(sendBuffer.readerIndex(), bytes);
+      MessageImpl sent = (MessageImpl) Message.Factory.create();
+      sent.decode(bytes, 0, bytes.length);
+      return sent;
+   }
+
    private AMQPMessage encodeAndDecodeMessage(MessageImpl message) {
       ByteBuf nettyBuffer = Unpooled.buffer(1500);
 
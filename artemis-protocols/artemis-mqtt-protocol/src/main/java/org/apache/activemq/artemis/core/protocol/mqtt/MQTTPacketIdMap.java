@@ -0,0 +1,301 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.Arrays;
+
+/**
+ * Maps MQTT packet IDs to the (server message ID, consumer ID) pair they were sent for, and back.
+ * <p>
+ * Both directions are open addressing tables over primitive arrays, so adding and removing in-flight
+ * messages doesn't allocate once the tables are sized for the session's in-flight window.
+ * The tables are only allocated on first use and are released by {@link #clear()}, keeping idle sessions small.
+ * <p>
+ * This class is not thread safe.
+ */
+final class MQTTPacketIdMap {
+
+   static final int NO_PACKET_ID = 0;
+
+   private static final int REMOVED = -1;
+
+   private static final int INITIAL_CAPACITY = 8;
+
+   // packet ID keyed table
+   private int[] packetIds;
+
+   private long[] messageIds;
+
+   private long[] consumerIds;
+
+   // (message ID, consumer ID) keyed table, holding the packet ID of the entry in the packet ID keyed table
+   private int[] reverse;
+
+   private int size;
+
+   private int usedSlots;
+
+   private int reverseUsedSlots;
+
+   int size() {
+      return size;
+   }
+
+   boolean isEmpty() {
+      return size == 0;
+   }
+
+   /**
+    * @return the number of slots allocated by the tables, 0 until the first put
+    */
+   int capacity() {
+      return packetIds == null ? 0 : packetIds.length;
+   }
+
+   /**
+    * Adds or replaces the mapping for a packet ID.
+    */
+   void put(int packetId, long messageId, long consumerId) {
+      checkPacketId(packetId);
+      if (packetIds == null) {
+         allocate(INITIAL_CAPACITY);
+      }
+
+      int slot = findSlot(packetId);
+      if (slot >= 0) {
+         removeReverse(messageIds[slot], consumerIds[slot], packetId);
+      } else {
+         if ((usedSlots + 1) * 4 > packetIds.length * 3) {
+            rehash();
+         }
+         slot = insertionSlot(packetId);
+         if (packetIds[slot] == NO_PACKET_ID) {
+            usedSlots++;
+         }
+         packetIds[slot] = packetId;
+         size++;
+      }
+      messageIds[slot] = messageId;
+      consumerIds[slot] = consumerId;
+      putReverse(packetId, messageId, consumerId);
+   }
+
+   boolean containsPacketId(int packetId) {
+      return packetIds != null && findSlot(packetId) >= 0;
+   }
+
+   /**
+    * @return the packet ID the message was sent with to the consumer, or {@link #NO_PACKET_ID}
+    */
+   int getPacketId(long messageId, long consumerId) {
+      if (reverse == null) {
+         return NO_PACKET_ID;
+      }
+      int mask = reverse.length - 1;
+      for (int i = hash(messageId, consumerId) & mask; ; i = (i + 1) & mask) {
+         int packetId = reverse[i];
+         if (packetId == NO_PACKET_ID) {
+            return NO_PACKET_ID;
+         }
+         if (packetId != REMOVED && matches(packetId, messageId, consumerId)) {
+            return packetId;
+         }
+      }
+   }
+
+   /**
+    * Removes the mapping of a packet ID, copying the removed values into {@code removed}.
+    *
+    * @return true if the packet ID was mapped
+    */
+   boolean remove(int packetId, MQTTPacketIdMap.Entry removed) {
+      if (packetIds == null || packetId <= NO_PACKET_ID) {
+         return false;
+      }
+      int slot = findSlot(packetId);
+      if (slot < 0) {
+         return false;
+      }
+      long messageId = messageIds[slot];
+      long consumerId = consumerIds[slot];
+      removeReverse(messageId, consumerId, packetId);
+      packetIds[slot] = REMOVED;
+      size--;
+      if (size == 0) {
+         // nothing in flight, drop the tombstones
+         Arrays.fill(packetIds, NO_PACKET_ID);
+         Arrays.fill(reverse, NO_PACKET_ID);
+         usedSlots = 0;
+         reverseUsedSlots = 0;
+      }
+      if (removed != null) {
+         removed.messageId = messageId;
+         removed.consumerId = consumerId;
+      }
+      return true;
+   }
+
+   void clear() {
+      packetIds = null;
+      messageIds = null;
+      consumerIds = null;
+      reverse = null;
+      size = 0;
+      usedSlots = 0;
+      reverseUsedSlots = 0;
+   }
+
+   private boolean matches(int packetId, long messageId, long consumerId) {
+      int slot = findSlot(packetId);
+      return slot >= 0 && messageIds[slot] == messageId && consumerIds[slot] == consumerId;
+   }
+
+   private int findSlot(int packetId) {
+      int mask = packetIds.length - 1;
+      for (int i = hash(packetId) & mask; ; i = (i + 1) & mask) {
+         int current = packetIds[i];
+         if (current == packetId) {
+            return i;
+         }
+         if (current == NO_PACKET_ID) {
+            return -1;
+         }
+      }
+   }
+
+   private int insertionSlot(int packetId) {
+      int mask = packetIds.length - 1;
+      for (int i = hash(packetId) & mask; ; i = (i + 1) & mask) {
+         int current = packetIds[i];
+         if (current == NO_PACKET_ID || current == REMOVED) {
+            return i;
+         }
+      }
+   }
+
+   private void putReverse(int packetId, long messageId, long consumerId) {
+      if ((reverseUsedSlots + 1) * 4 > reverse.length * 3) {
+         rebuildReverse();
+      }
+      int mask = reverse.length - 1;
+      for (int i = hash(messageId, consumerId) & mask; ; i = (i + 1) & mask) {
+         int current = reverse[i];
+         if (current == NO_PACKET_ID || current == REMOVED) {
+            if (current == NO_PACKET_ID) {
+               reverseUsedSlots++;
+            }
+            reverse[i] = packetId;
+            return;
+         }
+      }
+   }
+
+   private void removeReverse(long messageId, long consumerId, int packetId) {
+      int mask = reverse.length - 1;
+      for (int i = hash(messageId, consumerId) & mask; ; i = (i + 1) & mask) {
+         int current = reverse[i];
+         if (current == NO_PACKET_ID) {
+            return;
+         }
+         if (current == packetId) {
+            reverse[i] = REMOVED;
+            return;
+         }
+      }
+   }
+
+   private void rehash() {
+      int[] oldPacketIds = packetIds;
+      long[] oldMessageIds = messageIds;
+      long[] oldConsumerIds = consumerIds;
+
+      // only grow if the table is really full, otherwise just get rid of the tombstones
+      int capacity = size * 2 >= oldPacketIds.length ? oldPacketIds.length * 2 : oldPacketIds.length;
+      allocate(capacity);
+
+      int mask = capacity - 1;
+      for (int i = 0; i < oldPacketIds.length; i++) {
+         int packetId = oldPacketIds[i];
+         if (packetId > NO_PACKET_ID) {
+            int slot = hash(packetId) & mask;
+            while (packetIds[slot] != NO_PACKET_ID) {
+               slot = (slot + 1) & mask;
+            }
+            packetIds[slot] = packetId;
+            messageIds[slot] = oldMessageIds[i];
+            consumerIds[slot] = oldConsumerIds[i];
+            usedSlots++;
+         }
+      }
+      rebuildReverse();
+   }
+
+   private void rebuildReverse() {
+      reverse = new int[packetIds.length];
+      reverseUsedSlots = 0;
+      for (int i = 0; i < packetIds.length; i++) {
+         if (packetIds[i] > NO_PACKET_ID) {
+            putReverse(packetIds[i], messageIds[i], consumerIds[i]);
+         }
+      }
+   }
+
+   private void allocate(int capacity) {
+      packetIds = new int[capacity];
+      messageIds = new long[capacity];
+      consumerIds = new long[capacity];
+      reverse = new int[capacity];
+      usedSlots = 0;
+      reverseUsedSlots = 0;
+   }
+
+   private static void checkPacketId(int packetId) {
+      if (packetId <= NO_PACKET_ID) {
+         throw new IllegalArgumentException("Invalid packet ID " + packetId);
+      }
+   }
+
+   private static int hash(int value) {
+      int h = value * 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+
+   private static int hash(long messageId, long consumerId) {
+      long h = (messageId * 0x9E3779B97F4A7C15L) ^ consumerId;
+      h ^= h >>> 32;
+      return hash((int) h);
+   }
+
+   /**
+    * Holder for the values of a removed mapping, meant to be reused by its owner.
+    */
+   static final class Entry {
+
+      long messageId;
+
+      long consumerId;
+
+      long getMessageId() {
+         return messageId;
+      }
+
+      long getConsumerId() {
+         return consumerId;
+      }
+   }
+}
@@ -0,0 +1,138 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.Arrays;
+
+/**
+ * A set of MQTT packet IDs backed by an open addressing int table, allocated on first use.
+ * <p>
+ * All the methods are synchronized, as the set is shared by the session's delivery and network threads.
+ */
+final class MQTTPacketIdSet {
+
+   private static final int EMPTY = 0;
+
+   private static final int REMOVED = -1;
+
+   private static final int INITIAL_CAPACITY = 8;
+
+   private int[] packetIds;
+
+   private int size;
+
+   private int usedSlots;
+
+   synchronized boolean add(int packetId) {
+      if (packetId <= EMPTY) {
+         throw new IllegalArgumentException("Invalid packet ID " + packetId);
+      }
+      if (packetIds == null) {
+         packetIds = new int[INITIAL_CAPACITY];
+      } else if (indexOf(packetId) >= 0) {
+         return false;
+      }
+      if ((usedSlots + 1) * 4 > packetIds.length * 3) {
+         rehash();
+      }
+      int mask = packetIds.length - 1;
+      int i = hash(packetId) & mask;
+      while (packetIds[i] > EMPTY) {
+         i = (i + 1) & mask;
+      }
+      if (packetIds[i] == EMPTY) {
+         usedSlots++;
+      }
+      packetIds[i] = packetId;
+      size++;
+      return true;
+   }
+
+   synchronized boolean contains(int packetId) {
+      return packetIds != null && indexOf(packetId) >= 0;
+   }
+
+   synchronized boolean remove(int packetId) {
+      if (packetIds == null) {
+         return false;
+      }
+      int index = indexOf(packetId);
+      if (index < 0) {
+         return false;
+      }
+      packetIds[index] = REMOVED;
+      size--;
+      if (size == 0) {
+         Arrays.fill(packetIds, EMPTY);
+         usedSlots = 0;
+      }
+      return true;
+   }
+
+   synchronized int size() {
+      return size;
+   }
+
+   /**
+    * @return the number of slots allocated by the table, 0 until the first add
+    */
+   synchronized int capacity() {
+      return packetIds == null ? 0 : packetIds.length;
+   }
+
+   synchronized void clear() {
+      packetIds = null;
+      size = 0;
+      usedSlots = 0;
+   }
+
+   private int indexOf(int packetId) {
+      int mask = packetIds.length - 1;
+      for (int i = hash(packetId) & mask; ; i = (i + 1) & mask) {
+         int current = packetIds[i];
+         if (current == packetId) {
+            return i;
+         }
+         if (current == EMPTY) {
+            return -1;
+         }
+      }
+   }
+
+   private void rehash() {
+      int[] old = packetIds;
+      packetIds = new int[size * 2 >= old.length ? old.length * 2 : old.length];
+      usedSlots = 0;
+      int mask = packetIds.length - 1;
+      for (int packetId : old) {
+         if (packetId > EMPTY) {
+            int i = hash(packetId) & mask;
+            while (packetIds[i] != EMPTY) {
+               i = (i + 1) & mask;
+            }
+            packetIds[i] = packetId;
+            usedSlots++;
+         }
+      }
+   }
+
+   private static int hash(int value) {
+      int h = value * 0x9E3779B9;
+      return h ^ (h >>> 16);
+   }
+}
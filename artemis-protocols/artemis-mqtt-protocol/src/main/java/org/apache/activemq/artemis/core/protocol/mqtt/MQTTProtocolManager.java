@@ -48,6 +48,8 @@ class MQTTProtocolManager extends AbstractProtocolManager<MqttMessage, MQTTInter
 
    private static final List<String> websocketRegistryNames = Arrays.asList("mqtt", "mqttv3.1");
 
+   private final MQTTProtocolManagerFactory factory;
+
    private ActiveMQServer server;
 
    private MQTTLogger log = MQTTLogger.LOGGER;
@@ -57,10 +59,15 @@ class MQTTProtocolManager extends AbstractProtocolManager<MqttMessage, MQTTInter
    //TODO Read in a list of existing client IDs from stored Sessions.
    private Map<String, MQTTConnection> connectedClients = new ConcurrentHashMap<>();
 
-   MQTTProtocolManager(ActiveMQServer server,
+   private final MQTTRetainMessageManager retainMessageManager;
+
+   MQTTProtocolManager(MQTTProtocolManagerFactory factory,
+                       ActiveMQServer server,
                        List<BaseInterceptor> incomingInterceptors,
                        List<BaseInterceptor> outgoingInterceptors) {
+      this.factory = factory;
       this.server = server;
+      this.retainMessageManager = factory.getRetainMessageManager(server);
       this.updateInterceptors(incomingInterceptors, outgoingInterceptors);
    }
 
@@ -71,7 +78,7 @@ class MQTTProtocolManager extends AbstractProtocolManager<MqttMessage, MQTTInter
 
    @Override
    public ProtocolManagerFactory getFactory() {
-      return new MQTTProtocolManagerFactory();
+      return factory;
    }
 
    @Override
@@ -170,6 +177,10 @@ class MQTTProtocolManager extends AbstractProtocolManager<MqttMessage, MQTTInter
       return websocketRegistryNames;
    }
 
+   MQTTRetainMessageManager getRetainMessageManager() {
+      return retainMessageManager;
+   }
+
    public void invokeIncoming(MqttMessage mqttMessage, MQTTConnection connection) {
       super.invokeInterceptors(this.incomingInterceptors, mqttMessage, connection);
    }
@@ -19,8 +19,10 @@ package org.apache.activemq.artemis.core.protocol.mqtt;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.activemq.artemis.api.core.BaseInterceptor;
+import org.apache.activemq.artemis.core.server.ActivateCallback;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.spi.core.protocol.AbstractProtocolManagerFactory;
 import org.apache.activemq.artemis.spi.core.protocol.ProtocolManager;
@@ -37,12 +39,49 @@ public class MQTTProtocolManagerFactory extends AbstractProtocolManagerFactory<M
 
    private static final String[] SUPPORTED_PROTOCOLS = {MQTT_PROTOCOL_NAME};
 
+   /**
+    * The retained messages are broker wide, every MQTT acceptor of a server shares its store.
+    */
+   private final Map<ActiveMQServer, MQTTRetainMessageManager> retainMessageManagers = new ConcurrentHashMap<>();
+
    @Override
    public ProtocolManager createProtocolManager(ActiveMQServer server,
                                                 final Map<String, Object> parameters,
                                                 List<BaseInterceptor> incomingInterceptors,
                                                 List<BaseInterceptor> outgoingInterceptors) throws Exception {
-      return BeanSupport.setData(new MQTTProtocolManager(server, incomingInterceptors, outgoingInterceptors), parameters);
+      return BeanSupport.setData(new MQTTProtocolManager(this, server, incomingInterceptors, outgoingInterceptors), parameters);
+   }
+
+   MQTTRetainMessageManager getRetainMessageManager(ActiveMQServer server) {
+      return retainMessageManagers.computeIfAbsent(server, this::newRetainMessageManager);
+   }
+
+   /**
+    * The store is dropped when the server stops, a new one is loaded from the retain queue once it starts again.
+    */
+   private MQTTRetainMessageManager newRetainMessageManager(ActiveMQServer server) {
+      MQTTRetainMessageManager retainMessageManager = new MQTTRetainMessageManager(server);
+      server.registerActivateCallback(new ActivateCallback() {
+         @Override
+         public void preActivate() {
+         }
+
+         @Override
+         public void activated() {
+         }
+
+         @Override
+         public void deActivate() {
+            server.unregisterActivateCallback(this);
+            retainMessageManagers.remove(server, retainMessageManager);
+            retainMessageManager.stop();
+         }
+
+         @Override
+         public void activationComplete() {
+         }
+      });
+      return retainMessageManager;
    }
 
    @Override
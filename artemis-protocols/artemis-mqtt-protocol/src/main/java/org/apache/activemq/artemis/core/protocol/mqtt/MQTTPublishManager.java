@@ -26,7 +26,6 @@ import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQIllegalStateException;
 import org.apache.activemq.artemis.api.core.ICoreMessage;
 import org.apache.activemq.artemis.api.core.Message;
-import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.io.IOCallback;
@@ -59,6 +58,9 @@ public class MQTTPublishManager {
 
    private MQTTSessionState.OutboundStore outboundStore;
 
+   // acks are only handled on the connection's thread, hence a single holder for the acked references
+   private final MQTTPacketIdMap.Entry ackedReference = new MQTTPacketIdMap.Entry();
+
    public MQTTPublishManager(MQTTSession session) {
       this.session = session;
    }
@@ -203,11 +205,10 @@ public class MQTTPublishManager {
 
    void handlePubRec(int messageId) throws Exception {
       try {
-         Pair<Long, Long> ref = outboundStore.publishReceived(messageId);
-         if (ref != null) {
+         if (outboundStore.publishReceived(messageId, ackedReference)) {
             Message m = MQTTUtil.createPubRelMessage(session, getManagementAddress(), messageId);
             session.getServerSession().send(m, true);
-            session.getServerSession().individualAcknowledge(ref.getB(), ref.getA());
+            session.getServerSession().individualAcknowledge(ackedReference.getConsumerId(), ackedReference.getMessageId());
          } else {
             session.getProtocolHandler().sendPubRel(messageId);
          }
@@ -217,9 +218,8 @@ public class MQTTPublishManager {
    }
 
    void handlePubComp(int messageId) throws Exception {
-      Pair<Long, Long> ref = session.getState().getOutboundStore().publishComplete(messageId);
-      if (ref != null) {
-         session.getServerSession().individualAcknowledge(managementConsumer.getID(), ref.getA());
+      if (outboundStore.publishComplete(messageId, ackedReference)) {
+         session.getServerSession().individualAcknowledge(managementConsumer.getID(), ackedReference.getMessageId());
       }
    }
 
@@ -247,14 +247,12 @@ public class MQTTPublishManager {
       // We don't check to see if a PubRel existed for this message.  We assume it did and so send PubComp.
       state.getPubRec().remove(messageId);
       session.getProtocolHandler().sendPubComp(messageId);
-      state.removeMessageRef(messageId);
    }
 
    void handlePubAck(int messageId) throws Exception {
       try {
-         Pair<Long, Long> ref = outboundStore.publishAckd(messageId);
-         if (ref != null) {
-            session.getServerSession().individualAcknowledge(ref.getB(), ref.getA());
+         if (outboundStore.publishAckd(messageId, ackedReference)) {
+            session.getServerSession().individualAcknowledge(ackedReference.getConsumerId(), ackedReference.getMessageId());
          }
       } catch (ActiveMQIllegalStateException e) {
          log.warn("MQTT Client(" + session.getSessionState().getClientId() + ") attempted to Ack already Ack'd message");
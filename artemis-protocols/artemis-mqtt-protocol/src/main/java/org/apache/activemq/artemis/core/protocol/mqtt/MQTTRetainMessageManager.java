@@ -17,74 +17,108 @@
 
 package org.apache.activemq.artemis.core.protocol.mqtt;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.config.WildcardConfiguration;
+import org.apache.activemq.artemis.core.persistence.config.PersistedAddressSetting;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.BindingQueryResult;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.RoutingContext;
+import org.apache.activemq.artemis.core.server.impl.LastValueQueue;
 import org.apache.activemq.artemis.core.server.impl.RoutingContextImpl;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
+import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
 
+/**
+ * Broker wide store of MQTT retained messages.
+ * <p>
+ * The latest retained message of every topic is indexed in a {@link MQTTTopicTrie}, so a subscription only visits
+ * the topics matching its filter. Persistence is delegated to a single durable last-value queue: every retained
+ * message carries its topic as {@link Message#HDR_LAST_VALUE_NAME}, which makes the queue replace (and acknowledge)
+ * the previous message of the topic, so only the latest message per topic is kept in the journal.
+ * Clearing a topic stores a small tombstone message which replaces the previous one, the tombstone is deleted once
+ * the replaced message is acknowledged. Expired messages are removed from the trie when a subscription reaches them
+ * and at every message expiry scan.
+ * <p>
+ * There is a single store per server, shared by its MQTT acceptors, see
+ * {@link MQTTProtocolManagerFactory#getRetainMessageManager(ActiveMQServer)}.
+ */
 public class MQTTRetainMessageManager {
 
-   private MQTTSession session;
+   private static final MQTTLogger logger = MQTTLogger.LOGGER;
+
+   private final ActiveMQServer server;
+
+   private final MQTTTopicTrie<Message> retainedMessages = new MQTTTopicTrie<>();
 
-   public MQTTRetainMessageManager(MQTTSession session) {
-      this.session = session;
+   private volatile Queue retainQueue;
+
+   private ScheduledFuture<?> expiryScan;
+
+   private boolean stopped;
+
+   public MQTTRetainMessageManager(ActiveMQServer server) {
+      this.server = server;
    }
 
-   /**
-    * FIXME
-    * Retained messages should be handled in the core API.  There is currently no support for retained messages
-    * at the time of writing.  Instead we handle retained messages here.  This method will create a new queue for
-    * every address that is used to store retained messages.  THere should only ever be one message in the retained
-    * message queue.  When a new subscription is created the queue should be browsed and the message copied onto
-    * the subscription queue for the consumer.  When a new retained message is received the message will be sent to
-    * the retained queue and the previous retain message consumed to remove it from the queue.
-    */
-   void handleRetainedMessage(Message message, String address, boolean reset, Transaction tx) throws Exception {
-      SimpleString retainAddress = new SimpleString(MQTTUtil.convertMQTTAddressFilterToCoreRetain(address, session.getWildcardConfiguration()));
+   public void handleRetainedMessage(Message message, String address, boolean reset, Transaction tx) throws Exception {
+      Queue queue = getRetainQueue();
 
-      Queue queue = session.getServer().locateQueue(retainAddress);
-      if (queue == null) {
-         queue = session.getServer().createQueue(retainAddress, retainAddress, null, true, false);
+      Message retained = message.copy(server.getStorageManager().generateID());
+      retained.putStringProperty(Message.HDR_LAST_VALUE_NAME, SimpleString.toSimpleString(address));
+      if (reset) {
+         retained.putBooleanProperty(MQTTUtil.MQTT_RETAIN_CLEARED_KEY, true);
       }
 
-      try (LinkedListIterator<MessageReference> iterator = queue.iterator()) {
-         synchronized (queue) {
-            if (iterator.hasNext()) {
-               MessageReference ref = iterator.next();
-               iterator.remove();
-               queue.acknowledge(tx, ref);
-            }
+      sendToQueue(retained, queue, tx);
 
-            if (!reset) {
-               sendToQueue(message.copy(session.getServer().getStorageManager().generateID()), queue, tx);
+      tx.addOperation(new TransactionOperationAbstract() {
+         @Override
+         public void afterCommit(Transaction tx) {
+            if (reset) {
+               retainedMessages.remove(address);
+               // after the deliveries queued by the route, so the tombstone is no longer an intermediate reference
+               queue.getExecutor().execute(() -> deleteTombstone(queue, retained.getMessageID()));
+            } else {
+               retainedMessages.put(address, retained);
             }
          }
-      }
+      });
    }
 
    // SEND to Queue.
-   void addRetainedMessagesToQueue(Queue queue, String address) throws Exception {
-      // The address filter that matches all retained message queues.
-      String retainAddress = MQTTUtil.convertMQTTAddressFilterToCoreRetain(address, session.getWildcardConfiguration());
-      BindingQueryResult bindingQueryResult = session.getServerSession().executeBindingQuery(new SimpleString(retainAddress));
+   public void addRetainedMessagesToQueue(Queue queue, String address) throws Exception {
+      getRetainQueue();
 
-      // Iterate over all matching retain queues and add the queue
-      Transaction tx = session.getServerSession().newTransaction();
+      List<Message> matches = new ArrayList<>();
+      retainedMessages.match(address, (topic, retained) -> {
+         if (retained.isExpired()) {
+            retainedMessages.remove(topic, retained);
+         } else {
+            matches.add(retained);
+         }
+      });
+      if (matches.isEmpty()) {
+         return;
+      }
+
+      Transaction tx = newTransaction();
       try {
          synchronized (queue) {
-            for (SimpleString retainedQueueName : bindingQueryResult.getQueueNames()) {
-               Queue retainedQueue = session.getServer().locateQueue(retainedQueueName);
-               try (LinkedListIterator<MessageReference> i = retainedQueue.iterator()) {
-                  if (i.hasNext()) {
-                     Message message = i.next().getMessage().copy(session.getServer().getStorageManager().generateID());
-                     sendToQueue(message, queue, tx);
-                  }
-               }
+            for (Message retained : matches) {
+               Message message = retained.copy(server.getStorageManager().generateID());
+               message.removeProperty(Message.HDR_LAST_VALUE_NAME);
+               sendToQueue(message, queue, tx);
             }
          }
       } catch (Throwable t) {
@@ -94,9 +128,153 @@ public class MQTTRetainMessageManager {
       tx.commit();
    }
 
+   /**
+    * Stops the expiry scan, called when the server stops.
+    */
+   public synchronized void stop() {
+      stopped = true;
+      if (expiryScan != null) {
+         expiryScan.cancel(false);
+         expiryScan = null;
+      }
+   }
+
+   public int getRetainedMessageCount() {
+      return retainedMessages.size();
+   }
+
+   /**
+    * The queue expires the messages themselves, this only drops them from the trie.
+    */
+   private void removeExpired() {
+      retainedMessages.forEach((topic, retained) -> {
+         if (retained.isExpired()) {
+            retainedMessages.remove(topic, retained);
+         }
+      });
+   }
+
+   private void deleteTombstone(Queue queue, long messageID) {
+      try {
+         queue.deleteReference(messageID);
+      } catch (Exception e) {
+         logger.debug("Could not delete the cleared retained message " + messageID, e);
+      }
+   }
+
+   private Transaction newTransaction() {
+      return new TransactionImpl(server.getStorageManager());
+   }
+
    private void sendToQueue(Message message, Queue queue, Transaction tx) throws Exception {
       RoutingContext context = new RoutingContextImpl(tx);
       queue.route(message, context);
-      session.getServer().getPostOffice().processRoute(message, context, false);
+      server.getPostOffice().processRoute(message, context, false);
+   }
+
+   private Queue getRetainQueue() throws Exception {
+      Queue queue = retainQueue;
+      if (queue == null) {
+         synchronized (this) {
+            queue = retainQueue;
+            if (queue == null) {
+               queue = initRetainQueue();
+               retainQueue = queue;
+            }
+         }
+      }
+      return queue;
+   }
+
+   private Queue initRetainQueue() throws Exception {
+      SimpleString retainAddress = MQTTUtil.MQTT_RETAIN_STORE_ADDRESS;
+
+      // the queue type is decided by the address settings at creation and on reload, hence they are persisted
+      AddressSettings settings = server.getAddressSettingsRepository().getMatch(retainAddress.toString());
+      if (!settings.isLastValueQueue()) {
+         AddressSettings retainSettings = new AddressSettings().setLastValueQueue(true).setMaxSizeBytes(-1);
+         server.getAddressSettingsRepository().addMatch(retainAddress.toString(), retainSettings);
+         server.getStorageManager().storeAddressSetting(new PersistedAddressSetting(retainAddress, retainSettings));
+      }
+
+      Queue queue = server.locateQueue(retainAddress);
+      if (queue == null) {
+         queue = server.createQueue(retainAddress, retainAddress, null, true, false);
+      } else {
+         if (!(queue instanceof LastValueQueue)) {
+            logger.warn("Retained message store " + retainAddress + " is not a last value queue, superseded retained messages will not be removed from storage");
+         }
+         loadRetainedMessages(queue);
+      }
+
+      migrateRetainQueues(queue);
+
+      long expiryScanPeriod = server.getConfiguration().getMessageExpiryScanPeriod();
+      if (expiryScanPeriod > 0 && !stopped) {
+         expiryScan = server.getScheduledPool().scheduleWithFixedDelay(this::removeExpired, expiryScanPeriod, expiryScanPeriod, TimeUnit.MILLISECONDS);
+      }
+
+      return queue;
+   }
+
+   private void loadRetainedMessages(Queue queue) throws Exception {
+      List<Long> tombstones = new ArrayList<>();
+
+      queue.flushExecutor();
+      try (LinkedListIterator<MessageReference> iterator = queue.iterator()) {
+         while (iterator.hasNext()) {
+            Message message = iterator.next().getMessage();
+            SimpleString topic = message.getLastValueProperty();
+            if (topic == null) {
+               continue;
+            }
+            if (isCleared(message)) {
+               // the broker stopped before the tombstone was deleted
+               retainedMessages.remove(topic.toString());
+               tombstones.add(message.getMessageID());
+            } else if (!message.isExpired()) {
+               retainedMessages.put(topic.toString(), message);
+            }
+         }
+      }
+
+      for (Long messageID : tombstones) {
+         queue.deleteReference(messageID);
+      }
+   }
+
+   /**
+    * Previous versions created one queue per retained topic, move their messages into the store and remove them.
+    */
+   private void migrateRetainQueues(Queue queue) throws Exception {
+      WildcardConfiguration wildcardConfiguration = server.getConfiguration().getWildcardConfiguration();
+      String legacyFilter = MQTTUtil.MQTT_RETAIN_ADDRESS_PREFIX + wildcardConfiguration.getAnyWordsString();
+      BindingQueryResult result = server.bindingQuery(SimpleString.toSimpleString(legacyFilter));
+
+      for (SimpleString legacyQueueName : result.getQueueNames()) {
+         if (legacyQueueName.equals(queue.getName())) {
+            continue;
+         }
+         Queue legacyQueue = server.locateQueue(legacyQueueName);
+         if (legacyQueue == null) {
+            continue;
+         }
+         String topic = MQTTUtil.convertCoreAddressFilterToMQTT(legacyQueue.getAddress().toString(), wildcardConfiguration);
+
+         legacyQueue.flushExecutor();
+         Transaction tx = newTransaction();
+         try (LinkedListIterator<MessageReference> iterator = legacyQueue.iterator()) {
+            if (iterator.hasNext()) {
+               handleRetainedMessage(iterator.next().getMessage(), topic, false, tx);
+            }
+         }
+         tx.commit();
+         server.destroyQueue(legacyQueueName);
+      }
+   }
+
+   private static boolean isCleared(Message message) {
+      Boolean cleared = message.getBooleanProperty(MQTTUtil.MQTT_RETAIN_CLEARED_KEY);
+      return cleared != null && cleared;
    }
 }
@@ -44,8 +44,6 @@ public class MQTTSession {
 
    private MQTTConnectionManager mqttConnectionManager;
 
-   private MQTTRetainMessageManager retainMessageManager;
-
    private MQTTConnection connection;
 
    protected MQTTSessionState state;
@@ -75,7 +73,6 @@ public class MQTTSession {
       mqttPublishManager = new MQTTPublishManager(this);
       sessionCallback = new MQTTSessionCallback(this, connection);
       subscriptionManager = new MQTTSubscriptionManager(this);
-      retainMessageManager = new MQTTRetainMessageManager(this);
 
       log.debug("SESSION CREATED: " + id);
    }
@@ -171,7 +168,7 @@ public class MQTTSession {
    }
 
    MQTTRetainMessageManager getRetainMessageManager() {
-      return retainMessageManager;
+      return protocolManager.getRetainMessageManager();
    }
 
    MQTTConnection getConnection() {
@@ -18,17 +18,10 @@
 package org.apache.activemq.artemis.core.protocol.mqtt;
 
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.concurrent.atomic.AtomicInteger;
 
 import io.netty.handler.codec.mqtt.MqttTopicSubscription;
-import org.apache.activemq.artemis.api.core.Pair;
-import org.apache.activemq.artemis.core.config.WildcardConfiguration;
 
 public class MQTTSessionState {
 
@@ -36,12 +29,8 @@ public class MQTTSessionState {
 
    private final ConcurrentMap<String, MqttTopicSubscription> subscriptions = new ConcurrentHashMap<>();
 
-   // Used to store Packet ID of Publish QoS1 and QoS2 message.  See spec: 4.3.3 QoS 2: Exactly once delivery.  Method B.
-   private final Map<Integer, MQTTMessageInfo> messageRefStore = new ConcurrentHashMap<>();
-
-   private final ConcurrentMap<String, Map<Long, Integer>> addressMessageMap = new ConcurrentHashMap<>();
-
-   private final Set<Integer> pubRec = new HashSet<>();
+   // Packet IDs of the inbound QoS2 messages waiting for a PubRel.  See spec: 4.3.3 QoS 2: Exactly once delivery.  Method B.
+   private final MQTTPacketIdSet pubRec = new MQTTPacketIdSet();
 
    private boolean attached = false;
 
@@ -53,8 +42,6 @@ public class MQTTSessionState {
 
    public synchronized void clear() {
       subscriptions.clear();
-      messageRefStore.clear();
-      addressMessageMap.clear();
       pubRec.clear();
       outboundStore.clear();
    }
@@ -63,7 +50,7 @@ public class MQTTSessionState {
       return outboundStore;
    }
 
-   Set<Integer> getPubRec() {
+   MQTTPacketIdSet getPubRec() {
       return pubRec;
    }
 
@@ -79,10 +66,8 @@ public class MQTTSessionState {
       return subscriptions.values();
    }
 
-   boolean addSubscription(MqttTopicSubscription subscription, WildcardConfiguration wildcardConfiguration) {
+   boolean addSubscription(MqttTopicSubscription subscription) {
       synchronized (subscriptions) {
-         addressMessageMap.putIfAbsent(MQTTUtil.convertMQTTAddressFilterToCore(subscription.topicName(), wildcardConfiguration), new ConcurrentHashMap<Long, Integer>());
-
          MqttTopicSubscription existingSubscription = subscriptions.get(subscription.topicName());
          if (existingSubscription != null) {
             if (subscription.qualityOfService().value() > existingSubscription.qualityOfService().value()) {
@@ -100,7 +85,6 @@ public class MQTTSessionState {
    void removeSubscription(String address) {
       synchronized (subscriptions) {
          subscriptions.remove(address);
-         addressMessageMap.remove(address);
       }
    }
 
@@ -116,36 +100,25 @@ public class MQTTSessionState {
       this.clientId = clientId;
    }
 
-   void removeMessageRef(Integer mqttId) {
-      MQTTMessageInfo info = messageRefStore.remove(mqttId);
-      if (info != null) {
-         Map<Long, Integer> addressMap = addressMessageMap.get(info.getAddress());
-         if (addressMap != null) {
-            addressMap.remove(info.getServerMessageId());
-         }
-      }
-   }
-
+   /**
+    * Tracks the packet IDs of the QoS1 and QoS2 messages sent to the client until they are acknowledged.
+    */
    public class OutboundStore {
 
-      private HashMap<Pair<Long, Long>, Integer> artemisToMqttMessageMap = new HashMap<>();
-
-      private HashMap<Integer, Pair<Long, Long>> mqttToServerIds = new HashMap<>();
+      private final MQTTPacketIdMap inFlight = new MQTTPacketIdMap();
 
       private final Object dataStoreLock = new Object();
 
-      private final AtomicInteger ids = new AtomicInteger(0);
-
-      private Pair<Long, Long> generateKey(long messageId, long consumerID) {
-         return new Pair<>(messageId, consumerID);
-      }
+      private int ids = 0;
 
       public int generateMqttId(long messageId, long consumerId) {
          synchronized (dataStoreLock) {
-            Integer id = artemisToMqttMessageMap.get(generateKey(messageId, consumerId));
-            if (id == null) {
-               ids.compareAndSet(Short.MAX_VALUE, 1);
-               id = ids.addAndGet(1);
+            int id = inFlight.getPacketId(messageId, consumerId);
+            if (id == MQTTPacketIdMap.NO_PACKET_ID) {
+               if (ids == Short.MAX_VALUE) {
+                  ids = 1;
+               }
+               id = ++ids;
             }
             return id;
          }
@@ -153,42 +126,50 @@ public class MQTTSessionState {
 
       public void publish(int mqtt, long messageId, long consumerId) {
          synchronized (dataStoreLock) {
-            Pair<Long, Long> key = generateKey(messageId, consumerId);
-            artemisToMqttMessageMap.put(key, mqtt);
-            mqttToServerIds.put(mqtt, key);
+            inFlight.put(mqtt, messageId, consumerId);
          }
       }
 
-      public Pair<Long, Long> publishAckd(int mqtt) {
+      /**
+       * @param ref filled with the server message ID and consumer ID the packet ID was mapped to
+       * @return true if the packet ID was in flight
+       */
+      public boolean publishAckd(int mqtt, MQTTPacketIdMap.Entry ref) {
          synchronized (dataStoreLock) {
-            Pair p = mqttToServerIds.remove(mqtt);
-            if (p != null) {
-               mqttToServerIds.remove(p.getA());
-               artemisToMqttMessageMap.remove(p);
-            }
-            return p;
+            return inFlight.remove(mqtt, ref);
          }
       }
 
-      public Pair<Long, Long> publishReceived(int mqtt) {
-         return publishAckd(mqtt);
+      public boolean publishReceived(int mqtt, MQTTPacketIdMap.Entry ref) {
+         return publishAckd(mqtt, ref);
       }
 
       public void publishReleasedSent(int mqttId, long serverMessageId) {
          synchronized (dataStoreLock) {
-            mqttToServerIds.put(mqttId, new Pair<>(serverMessageId, 0L));
+            inFlight.put(mqttId, serverMessageId, 0L);
          }
       }
 
-      public Pair<Long, Long> publishComplete(int mqtt) {
-         return publishAckd(mqtt);
+      public boolean publishComplete(int mqtt, MQTTPacketIdMap.Entry ref) {
+         return publishAckd(mqtt, ref);
+      }
+
+      public int getInFlightCount() {
+         synchronized (dataStoreLock) {
+            return inFlight.size();
+         }
+      }
+
+      int getInFlightCapacity() {
+         synchronized (dataStoreLock) {
+            return inFlight.capacity();
+         }
       }
 
       public void clear() {
          synchronized (dataStoreLock) {
-            artemisToMqttMessageMap.clear();
-            mqttToServerIds.clear();
-            ids.set(0);
+            inFlight.clear();
+            ids = 0;
          }
       }
    }
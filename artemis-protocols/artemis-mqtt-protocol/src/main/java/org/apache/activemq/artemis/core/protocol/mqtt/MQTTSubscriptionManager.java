@@ -167,7 +167,7 @@ public class MQTTSubscriptionManager {
 
       String coreAddress = MQTTUtil.convertMQTTAddressFilterToCore(topicName, session.getWildcardConfiguration());
 
-      session.getSessionState().addSubscription(subscription, session.getWildcardConfiguration());
+      session.getSessionState().addSubscription(subscription);
 
       Queue q = createQueueForSubscription(coreAddress, qos);
 
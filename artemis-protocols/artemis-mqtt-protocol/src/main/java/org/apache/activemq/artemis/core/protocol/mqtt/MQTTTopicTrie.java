@@ -0,0 +1,254 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * A trie of MQTT topic levels holding at most one value per concrete topic.
+ * <p>
+ * Lookups with a topic filter ({@code +} and {@code #} wildcards) only visit the branches that can match,
+ * so the cost is proportional to the number of matching topics rather than to the size of the trie.
+ * Readers never lock; writers are serialized on the trie instance.
+ */
+public class MQTTTopicTrie<V> {
+
+   private static final char LEVEL_SEPARATOR = '/';
+
+   private static final String SINGLE_LEVEL_WILDCARD = "+";
+
+   private static final String MULTI_LEVEL_WILDCARD = "#";
+
+   private final Node<V> root = new Node<>(null, null);
+
+   private int size;
+
+   /**
+    * @return the value previously stored for the topic, or null
+    */
+   public synchronized V put(String topic, V value) {
+      Node<V> node = root;
+      for (String level : split(topic)) {
+         Node<V> parent = node;
+         node = parent.children.computeIfAbsent(level, l -> new Node<>(parent, l));
+      }
+      V previous = node.value;
+      node.value = value;
+      if (previous == null) {
+         size++;
+      }
+      return previous;
+   }
+
+   public V get(String topic) {
+      Node<V> node = root;
+      for (String level : split(topic)) {
+         node = node.children.get(level);
+         if (node == null) {
+            return null;
+         }
+      }
+      return node.value;
+   }
+
+   /**
+    * @return the value that was stored for the topic, or null
+    */
+   public synchronized V remove(String topic) {
+      Node<V> node = find(topic);
+      if (node == null) {
+         return null;
+      }
+      V previous = node.value;
+      clear(node);
+      return previous;
+   }
+
+   /**
+    * Removes the value of the topic only if it wasn't replaced meanwhile.
+    *
+    * @return whether the value was removed
+    */
+   public synchronized boolean remove(String topic, V value) {
+      Node<V> node = find(topic);
+      if (node == null || node.value != value) {
+         return false;
+      }
+      clear(node);
+      return true;
+   }
+
+   private Node<V> find(String topic) {
+      Node<V> node = root;
+      for (String level : split(topic)) {
+         node = node.children.get(level);
+         if (node == null) {
+            return null;
+         }
+      }
+      return node;
+   }
+
+   private void clear(Node<V> node) {
+      if (node.value != null) {
+         size--;
+      }
+      node.value = null;
+
+      // prune the branch so removed topics don't leave empty levels behind
+      while (node.parent != null && node.value == null && node.children.isEmpty()) {
+         node.parent.children.remove(node.level);
+         node = node.parent;
+      }
+   }
+
+   public synchronized int size() {
+      return size;
+   }
+
+   /**
+    * Visits every topic with a value matching the given MQTT topic filter.
+    */
+   public void match(String filter, BiConsumer<String, V> visitor) {
+      List<String> levels = split(filter);
+      match(root, levels, 0, new StringBuilder(), visitor);
+   }
+
+   /**
+    * Visits every topic with a value, including the topics hidden from wildcards.
+    */
+   public void forEach(BiConsumer<String, V> visitor) {
+      StringBuilder topic = new StringBuilder();
+      for (Map.Entry<String, Node<V>> child : root.children.entrySet()) {
+         topic.append(child.getKey());
+         visitAll(child.getValue(), topic, visitor);
+         topic.setLength(0);
+      }
+   }
+
+   public List<V> match(String filter) {
+      List<V> result = new ArrayList<>();
+      match(filter, (topic, value) -> result.add(value));
+      return result;
+   }
+
+   private void match(Node<V> node, List<String> levels, int index, StringBuilder topic, BiConsumer<String, V> visitor) {
+      if (index == levels.size()) {
+         visit(node, topic, visitor);
+         return;
+      }
+
+      String level = levels.get(index);
+      int length = topic.length();
+
+      if (MULTI_LEVEL_WILDCARD.equals(level)) {
+         // "a/#" also matches "a" itself
+         if (index > 0) {
+            visit(node, topic, visitor);
+         }
+         for (Map.Entry<String, Node<V>> child : node.children.entrySet()) {
+            if (isHiddenFromWildcard(index, child.getKey())) {
+               continue;
+            }
+            appendLevel(topic, index, child.getKey());
+            visitAll(child.getValue(), topic, visitor);
+            topic.setLength(length);
+         }
+      } else if (SINGLE_LEVEL_WILDCARD.equals(level)) {
+         for (Map.Entry<String, Node<V>> child : node.children.entrySet()) {
+            if (isHiddenFromWildcard(index, child.getKey())) {
+               continue;
+            }
+            appendLevel(topic, index, child.getKey());
+            match(child.getValue(), levels, index + 1, topic, visitor);
+            topic.setLength(length);
+         }
+      } else {
+         Node<V> child = node.children.get(level);
+         if (child != null) {
+            appendLevel(topic, index, level);
+            match(child, levels, index + 1, topic, visitor);
+            topic.setLength(length);
+         }
+      }
+   }
+
+   private void visitAll(Node<V> node, StringBuilder topic, BiConsumer<String, V> visitor) {
+      visit(node, topic, visitor);
+      int length = topic.length();
+      for (Map.Entry<String, Node<V>> child : node.children.entrySet()) {
+         topic.append(LEVEL_SEPARATOR).append(child.getKey());
+         visitAll(child.getValue(), topic, visitor);
+         topic.setLength(length);
+      }
+   }
+
+   private void visit(Node<V> node, StringBuilder topic, BiConsumer<String, V> visitor) {
+      V value = node.value;
+      if (value != null) {
+         visitor.accept(topic.toString(), value);
+      }
+   }
+
+   private static void appendLevel(StringBuilder topic, int index, String level) {
+      if (index > 0) {
+         topic.append(LEVEL_SEPARATOR);
+      }
+      topic.append(level);
+   }
+
+   /**
+    * As per the MQTT spec, topics starting with '$' are not matched by a filter starting with a wildcard.
+    */
+   private static boolean isHiddenFromWildcard(int index, String level) {
+      return index == 0 && level.startsWith("$");
+   }
+
+   static List<String> split(String topic) {
+      List<String> levels = new ArrayList<>();
+      int start = 0;
+      for (int i = 0; i < topic.length(); i++) {
+         if (topic.charAt(i) == LEVEL_SEPARATOR) {
+            levels.add(topic.substring(start, i));
+            start = i + 1;
+         }
+      }
+      levels.add(topic.substring(start));
+      return levels;
+   }
+
+   private static final class Node<V> {
+
+      private final Node<V> parent;
+
+      private final String level;
+
+      private final Map<String, Node<V>> children = new ConcurrentHashMap<>(4);
+
+      private volatile V value;
+
+      private Node(Node<V> parent, String level) {
+         this.parent = parent;
+         this.level = level;
+      }
+   }
+}
@@ -55,6 +55,10 @@ public class MQTTUtil {
 
    public static final String MQTT_RETAIN_ADDRESS_PREFIX = "$sys.mqtt.retain.";
 
+   public static final SimpleString MQTT_RETAIN_STORE_ADDRESS = new SimpleString("$sys.mqtt.retain");
+
+   public static final SimpleString MQTT_RETAIN_CLEARED_KEY = new SimpleString("mqtt.retain.cleared");
+
    public static final String MQTT_QOS_LEVEL_KEY = "mqtt.qos.level";
 
    public static final String MQTT_MESSAGE_ID_KEY = "mqtt.message.id";
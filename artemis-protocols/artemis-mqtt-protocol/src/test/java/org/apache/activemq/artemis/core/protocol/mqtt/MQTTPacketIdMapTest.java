@@ -0,0 +1,104 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class MQTTPacketIdMapTest {
+
+   @Test
+   public void testPutGetRemove() {
+      MQTTPacketIdMap map = new MQTTPacketIdMap();
+      MQTTPacketIdMap.Entry entry = new MQTTPacketIdMap.Entry();
+
+      Assert.assertEquals(MQTTPacketIdMap.NO_PACKET_ID, map.getPacketId(10, 20));
+      Assert.assertFalse(map.remove(1, entry));
+
+      map.put(1, 10, 20);
+      map.put(2, 11, 20);
+      map.put(3, 10, 21);
+      Assert.assertEquals(3, map.size());
+      Assert.assertEquals(1, map.getPacketId(10, 20));
+      Assert.assertEquals(2, map.getPacketId(11, 20));
+      Assert.assertEquals(3, map.getPacketId(10, 21));
+      Assert.assertTrue(map.containsPacketId(2));
+
+      Assert.assertTrue(map.remove(2, entry));
+      Assert.assertEquals(11, entry.getMessageId());
+      Assert.assertEquals(20, entry.getConsumerId());
+      Assert.assertFalse(map.containsPacketId(2));
+      Assert.assertEquals(MQTTPacketIdMap.NO_PACKET_ID, map.getPacketId(11, 20));
+      Assert.assertEquals(2, map.size());
+   }
+
+   @Test
+   public void testReplacePacketId() {
+      MQTTPacketIdMap map = new MQTTPacketIdMap();
+      map.put(5, 100, 1);
+      map.put(5, 200, 0);
+      Assert.assertEquals(1, map.size());
+      Assert.assertEquals(MQTTPacketIdMap.NO_PACKET_ID, map.getPacketId(100, 1));
+      Assert.assertEquals(5, map.getPacketId(200, 0));
+   }
+
+   @Test
+   public void testGrowAndChurn() {
+      MQTTPacketIdMap map = new MQTTPacketIdMap();
+      MQTTPacketIdMap.Entry entry = new MQTTPacketIdMap.Entry();
+      int packetId = 0;
+      long messageId = 1000;
+
+      // a sliding in-flight window, exercising tombstones and rehashing
+      for (int i = 0; i < 100_000; i++) {
+         packetId = packetId == Short.MAX_VALUE ? 1 : packetId + 1;
+         map.put(packetId, messageId++, i % 3);
+         if (map.size() > 50) {
+            int oldest = packetId - 50 <= 0 ? packetId - 50 + Short.MAX_VALUE : packetId - 50;
+            Assert.assertTrue(map.remove(oldest, entry));
+            Assert.assertEquals(messageId - 51, entry.getMessageId());
+         }
+      }
+      Assert.assertEquals(50, map.size());
+      Assert.assertEquals(packetId, map.getPacketId(messageId - 1, 99_999 % 3));
+
+      map.clear();
+      Assert.assertEquals(0, map.size());
+      Assert.assertFalse(map.containsPacketId(packetId));
+   }
+
+   @Test
+   public void testPacketIdSet() {
+      MQTTPacketIdSet set = new MQTTPacketIdSet();
+      Assert.assertFalse(set.contains(1));
+      for (int i = 1; i <= 100; i++) {
+         Assert.assertTrue(set.add(i));
+      }
+      Assert.assertFalse(set.add(50));
+      Assert.assertEquals(100, set.size());
+      for (int i = 1; i <= 100; i += 2) {
+         Assert.assertTrue(set.remove(i));
+      }
+      Assert.assertFalse(set.remove(1));
+      Assert.assertEquals(50, set.size());
+      Assert.assertTrue(set.contains(2));
+      Assert.assertFalse(set.contains(3));
+      set.clear();
+      Assert.assertFalse(set.contains(2));
+   }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Checks the tables of an idle MQTT session stay at their initial size while a small window of messages is in flight.
+ */
+public class MQTTSessionStateMemoryTest {
+
+   private static final int IN_FLIGHT = 4;
+
+   private static final int INITIAL_CAPACITY = 8;
+
+   @Test
+   public void testNoTablesUntilFirstMessage() {
+      MQTTSessionState state = new MQTTSessionState("client");
+
+      Assert.assertEquals(0, state.getOutboundStore().getInFlightCapacity());
+      Assert.assertEquals(0, state.getPubRec().capacity());
+   }
+
+   @Test
+   public void testIdleSessionFootprint() {
+      MQTTSessionState state = new MQTTSessionState("client");
+      MQTTSessionState.OutboundStore store = state.getOutboundStore();
+      MQTTPacketIdMap.Entry entry = new MQTTPacketIdMap.Entry();
+
+      // a window of in-flight messages sliding over many deliveries
+      long messageId = 1;
+      int[] window = new int[IN_FLIGHT];
+      for (int i = 0; i < 10_000; i++) {
+         int slot = i % IN_FLIGHT;
+         if (i >= IN_FLIGHT) {
+            Assert.assertTrue(store.publishAckd(window[slot], entry));
+         }
+         long consumerId = i % 2;
+         window[slot] = store.generateMqttId(messageId, consumerId);
+         store.publish(window[slot], messageId++, consumerId);
+
+         Assert.assertTrue(state.getPubRec().add(window[slot]));
+         Assert.assertTrue(state.getPubRec().remove(window[slot]));
+      }
+
+      Assert.assertEquals(IN_FLIGHT, store.getInFlightCount());
+      Assert.assertEquals(INITIAL_CAPACITY, store.getInFlightCapacity());
+      Assert.assertEquals(INITIAL_CAPACITY, state.getPubRec().capacity());
+   }
+}
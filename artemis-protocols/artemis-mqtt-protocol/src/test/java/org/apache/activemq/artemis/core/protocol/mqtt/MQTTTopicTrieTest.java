@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.apache.activemq.artemis.core.protocol.mqtt;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MQTTTopicTrieTest {
+
+   private MQTTTopicTrie<String> trie;
+
+   @Before
+   public void setUp() {
+      trie = new MQTTTopicTrie<>();
+      trie.put("sport", "sport");
+      trie.put("sport/tennis", "tennis");
+      trie.put("sport/tennis/player1", "player1");
+      trie.put("sport/tennis/player2", "player2");
+      trie.put("sport/football/player1", "football1");
+      trie.put("/finance", "finance");
+      trie.put("$SYS/broker", "sys");
+   }
+
+   @Test
+   public void testExactMatch() {
+      assertMatches("sport/tennis", "sport/tennis");
+      assertMatches("sport/tennis/player3");
+      Assert.assertEquals("player1", trie.get("sport/tennis/player1"));
+      Assert.assertNull(trie.get("sport/tennis/player3"));
+   }
+
+   @Test
+   public void testMultiLevelWildcard() {
+      assertMatches("sport/tennis/#", "sport/tennis", "sport/tennis/player1", "sport/tennis/player2");
+      assertMatches("sport/#", "sport", "sport/tennis", "sport/tennis/player1", "sport/tennis/player2", "sport/football/player1");
+      assertMatches("#", "sport", "sport/tennis", "sport/tennis/player1", "sport/tennis/player2", "sport/football/player1", "/finance");
+   }
+
+   @Test
+   public void testSingleLevelWildcard() {
+      assertMatches("sport/+/player1", "sport/tennis/player1", "sport/football/player1");
+      assertMatches("sport/+", "sport/tennis");
+      assertMatches("+", "sport");
+      assertMatches("+/+", "sport/tennis", "/finance");
+      assertMatches("+/tennis/#", "sport/tennis", "sport/tennis/player1", "sport/tennis/player2");
+   }
+
+   @Test
+   public void testSystemTopicsHiddenFromWildcards() {
+      assertMatches("+/broker");
+      assertMatches("$SYS/#", "$SYS/broker");
+      assertMatches("$SYS/+", "$SYS/broker");
+   }
+
+   @Test
+   public void testReplaceAndRemove() {
+      Assert.assertEquals(7, trie.size());
+      Assert.assertEquals("tennis", trie.put("sport/tennis", "tennis2"));
+      Assert.assertEquals(7, trie.size());
+      Assert.assertEquals("tennis2", trie.get("sport/tennis"));
+
+      Assert.assertEquals("player1", trie.remove("sport/tennis/player1"));
+      Assert.assertNull(trie.remove("sport/tennis/player1"));
+      Assert.assertEquals(6, trie.size());
+      assertMatches("sport/tennis/#", "sport/tennis", "sport/tennis/player2");
+
+      Assert.assertEquals("football1", trie.remove("sport/football/player1"));
+      assertMatches("sport/+/#", "sport/tennis", "sport/tennis/player2");
+   }
+
+   @Test
+   public void testRemoveIfUnchanged() {
+      Assert.assertFalse(trie.remove("sport/tennis", "other"));
+      Assert.assertEquals("tennis", trie.get("sport/tennis"));
+
+      Assert.assertTrue(trie.remove("sport/tennis", "tennis"));
+      Assert.assertNull(trie.get("sport/tennis"));
+      Assert.assertEquals(6, trie.size());
+   }
+
+   @Test
+   public void testForEachVisitsHiddenTopics() {
+      Map<String, String> topics = new HashMap<>();
+      trie.forEach(topics::put);
+      Assert.assertEquals(7, topics.size());
+      Assert.assertEquals("sys", topics.get("$SYS/broker"));
+      Assert.assertEquals("finance", topics.get("/finance"));
+      Assert.assertEquals("player1", topics.get("sport/tennis/player1"));
+   }
+
+   private void assertMatches(String filter, String... expectedTopics) {
+      Map<String, String> matches = new HashMap<>();
+      trie.match(filter, matches::put);
+      Assert.assertEquals(filter + " -> " + matches.keySet(), expectedTopics.length, matches.size());
+      for (String topic : expectedTopics) {
+         Assert.assertTrue(filter + " should match " + topic, matches.containsKey(topic));
+      }
+   }
+}
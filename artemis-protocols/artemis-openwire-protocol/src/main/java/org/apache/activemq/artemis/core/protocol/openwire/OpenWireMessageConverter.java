@@ -109,7 +109,26 @@ public class OpenWireMessageConverter implements MessageConverter<OpenwireMessag
 
    @Override
    public ICoreMessage toCore(OpenwireMessage pureMessage) throws Exception {
-      return null;
+      ICoreMessage coreMessage = (ICoreMessage) inbound(pureMessage.copyActiveMQMessage());
+      coreMessage.setMessageID(pureMessage.getMessageID());
+      if (pureMessage.getAddressSimpleString() != null) {
+         coreMessage.setAddress(pureMessage.getAddressSimpleString());
+      }
+      coreMessage.setDurable(pureMessage.isDurable());
+      coreMessage.setExpiration(pureMessage.getExpiration());
+      coreMessage.setPriority(pureMessage.getPriority());
+      coreMessage.setTimestamp(pureMessage.getTimestamp());
+      if (pureMessage.getUserID() != null) {
+         coreMessage.setUserID(pureMessage.getUserID());
+      }
+
+      TypedProperties extraProperties = pureMessage.getExtraProperties();
+      if (extraProperties != null) {
+         for (SimpleString name : extraProperties.getPropertyNames()) {
+            coreMessage.putObjectProperty(name, extraProperties.getProperty(name));
+         }
+      }
+      return coreMessage;
    }
 
    //   @Override
@@ -424,9 +443,14 @@ public class OpenWireMessageConverter implements MessageConverter<OpenwireMessag
    }
 
    public MessageDispatch createMessageDispatch(MessageReference reference,
-                                                       ICoreMessage message,
+                                                       org.apache.activemq.artemis.api.core.Message message,
                                                        AMQConsumer consumer) throws IOException, JMSException {
-      ActiveMQMessage amqMessage = toAMQMessage(reference, message, consumer.getOpenwireDestination());
+      ActiveMQMessage amqMessage;
+      if (message instanceof OpenwireMessage) {
+         amqMessage = toAMQMessage(reference, (OpenwireMessage) message, consumer.getOpenwireDestination());
+      } else {
+         amqMessage = toAMQMessage(reference, message.toCore(), consumer.getOpenwireDestination());
+      }
 
       //we can use core message id for sequenceId
       amqMessage.getMessageId().setBrokerSequenceId(message.getMessageID());
@@ -441,6 +465,49 @@ public class OpenWireMessageConverter implements MessageConverter<OpenwireMessag
       return md;
    }
 
+   /**
+    * Dispatches a copy of the OpenWire message as it was sent, only setting what the broker changed on it.
+    */
+   private ActiveMQMessage toAMQMessage(MessageReference reference,
+                                        OpenwireMessage message,
+                                        ActiveMQDestination actualDestination) throws IOException {
+      ActiveMQMessage amqMsg = message.copyActiveMQMessage();
+
+      // the broker sequence id is set on it for every dispatch
+      MessageId mid = amqMsg.getMessageId();
+      if (mid != null) {
+         amqMsg.setMessageId(mid.copy());
+      } else {
+         amqMsg.setMessageId(new MessageId(UUIDGenerator.getInstance().generateStringUUID() + ":-1"));
+      }
+      amqMsg.setTransactionId(null);
+      amqMsg.setPersistent(message.isDurable());
+      amqMsg.setExpiration(message.getExpiration());
+      amqMsg.setPriority(message.getPriority());
+      amqMsg.setTimestamp(message.getTimestamp());
+      amqMsg.setDestination(OpenWireUtil.toAMQAddress(message, actualDestination));
+      amqMsg.setRedeliveryCounter(reference.getDeliveryCount() - 1);
+
+      TypedProperties extraProperties = message.getExtraProperties();
+      if (extraProperties != null) {
+         for (SimpleString s : extraProperties.getPropertyNames()) {
+            String keyStr = s.toString();
+            Object prop = extraProperties.getProperty(s);
+            if (keyStr.equals(AMQ_MSG_DLQ_DELIVERY_FAILURE_CAUSE_PROPERTY)) {
+               amqMsg.setProperty(ActiveMQMessage.DLQ_DELIVERY_FAILURE_CAUSE_PROPERTY, String.valueOf(prop));
+            } else if (!isInternalProperty(keyStr, actualDestination) && !s.equals(MessageUtil.CONNECTION_ID_PROPERTY_NAME)) {
+               amqMsg.setProperty(keyStr, prop instanceof SimpleString ? prop.toString() : prop);
+            }
+         }
+      }
+      return amqMsg;
+   }
+
+   private static boolean isInternalProperty(String keyStr, ActiveMQDestination actualDestination) {
+      return (keyStr.startsWith("_AMQ") || keyStr.startsWith("__HDR_")) &&
+         !(actualDestination.toString().contains(AMQ_NOTIFICATIONS_DESTINATION));
+   }
+
    private ActiveMQMessage toAMQMessage(MessageReference reference,
                                                ICoreMessage coreMessage,
                                                ActiveMQDestination actualDestination) throws IOException {
@@ -775,8 +842,7 @@ public class OpenWireMessageConverter implements MessageConverter<OpenwireMessag
       if (props != null) {
          for (SimpleString s : props) {
             String keyStr = s.toString();
-            if ((keyStr.startsWith("_AMQ") || keyStr.startsWith("__HDR_")) &&
-                    !(actualDestination.toString().contains(AMQ_NOTIFICATIONS_DESTINATION))) {
+            if (isInternalProperty(keyStr, actualDestination)) {
                continue;
             }
             Object prop = coreMessage.getObjectProperty(s);
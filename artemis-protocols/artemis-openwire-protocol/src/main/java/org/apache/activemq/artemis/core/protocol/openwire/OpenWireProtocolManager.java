@@ -119,6 +119,9 @@ public class OpenWireProtocolManager implements ProtocolManager<Interceptor>, Cl
    private long maxInactivityDurationInitalDelay = 10 * 1000L;
    private boolean useKeepAlive = true;
 
+   // keeps messages sent by OpenWire producers in their OpenWire encoding, see OpenwireMessage
+   private boolean nativeMessageStorage = false;
+
    private final OpenWireMessageConverter internalConverter;
 
    private final Map<SimpleString, RoutingType> prefixes = new HashMap<>();
@@ -553,6 +556,18 @@ public class OpenWireProtocolManager implements ProtocolManager<Interceptor>, Cl
       this.maxInactivityDurationInitalDelay = maxInactivityDurationInitalDelay;
    }
 
+   public boolean isNativeMessageStorage() {
+      return nativeMessageStorage;
+   }
+
+   /**
+    * URI property
+    */
+   @SuppressWarnings("unused")
+   public void setNativeMessageStorage(boolean nativeMessageStorage) {
+      this.nativeMessageStorage = nativeMessageStorage;
+   }
+
    @Override
    public void setAnycastPrefix(String anycastPrefix) {
       for (String prefix : anycastPrefix.split(",")) {
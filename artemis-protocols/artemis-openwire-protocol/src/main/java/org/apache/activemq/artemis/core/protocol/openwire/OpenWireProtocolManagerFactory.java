@@ -22,6 +22,8 @@ import java.util.Map;
 
 import org.apache.activemq.artemis.api.core.BaseInterceptor;
 import org.apache.activemq.artemis.api.core.Interceptor;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.core.persistence.Persister;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.spi.core.protocol.AbstractProtocolManagerFactory;
 import org.apache.activemq.artemis.spi.core.protocol.ProtocolManager;
@@ -38,6 +40,13 @@ public class OpenWireProtocolManagerFactory extends AbstractProtocolManagerFacto
 
    private static String[] SUPPORTED_PROTOCOLS = {OPENWIRE_PROTOCOL_NAME};
 
+   @Override
+   public Persister<Message>[] getPersister() {
+
+      Persister[] persisters = new Persister[]{OpenwireMessagePersister.getInstance()};
+      return persisters;
+   }
+
    @Override
    public ProtocolManager createProtocolManager(final ActiveMQServer server,
                                                 Map<String, Object> parameters,
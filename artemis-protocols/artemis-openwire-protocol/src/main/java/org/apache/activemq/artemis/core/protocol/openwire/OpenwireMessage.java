@@ -1,4 +1,4 @@
-/**
+/*
  * Licensed to the Apache Software Foundation (ASF) under one or more
  * contributor license agreements. See the NOTICE file distributed with
  * this work for additional information regarding copyright ownership.
@@ -6,7 +6,7 @@
  * (the "License"); you may not use this file except in compliance with
  * the License. You may obtain a copy of the License at
  *
- * http://www.apache.org/licenses/LICENSE-2.0
+ *     http://www.apache.org/licenses/LICENSE-2.0
  *
  * Unless required by applicable law or agreed to in writing, software
  * distributed under the License is distributed on an "AS IS" BASIS,
@@ -14,475 +14,793 @@
  * See the License for the specific language governing permissions and
  * limitations under the License.
  */
-
 package org.apache.activemq.artemis.core.protocol.openwire;
 
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQPropertyConversionException;
 import org.apache.activemq.artemis.api.core.ICoreMessage;
 import org.apache.activemq.artemis.api.core.Message;
-import org.apache.activemq.artemis.api.core.RefCountMessageListener;
+import org.apache.activemq.artemis.api.core.RefCountMessage;
+import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.persistence.Persister;
+import org.apache.activemq.artemis.reader.MessageUtil;
+import org.apache.activemq.artemis.utils.DataConstants;
+import org.apache.activemq.artemis.utils.collections.TypedProperties;
+import org.apache.activemq.command.ActiveMQMessage;
+import org.apache.activemq.openwire.OpenWireFormat;
+import org.apache.activemq.util.ByteArrayInputStream;
+import org.apache.activemq.util.ByteSequence;
+import org.apache.activemq.util.MarshallingSupport;
+import org.fusesource.hawtbuf.UTF8Buffer;
 
-// TODO: Implement this
-public class OpenwireMessage implements Message {
+/**
+ * A message sent by an OpenWire producer, kept in its OpenWire encoding instead of being converted to a
+ * {@link org.apache.activemq.artemis.core.message.impl.CoreMessage}.
+ * <p>
+ * The OpenWire message is never changed once received: the headers the broker may change (durable, expiration,
+ * priority and timestamp) are held apart, and so are the properties set on the broker, which are persisted next to
+ * the OpenWire encoding. The OpenWire properties are only decoded when a property is looked up, and are read only.
+ */
+public class OpenwireMessage extends RefCountMessage {
 
-   @Override
-   public boolean containsProperty(SimpleString key) {
-      return false;
+   private static final ThreadLocal<OpenWireFormat> STORE_FORMAT = ThreadLocal.withInitial(OpenWireFormat::new);
+
+   /** The OpenWire version messages are marshalled with, when they are persisted or paged */
+   public static final int STORE_VERSION = new OpenWireFormat().getVersion();
+
+   // the marshalled OpenWire message, only created when it has to be persisted or paged
+   private volatile byte[] data;
+
+   private int dataVersion = STORE_VERSION;
+
+   // the OpenWire message, only unmarshalled when it has to be dispatched or converted
+   private volatile ActiveMQMessage message;
+
+   private long messageID;
+
+   private SimpleString address;
+
+   private boolean durable;
+
+   private long expiration;
+
+   private long timestamp;
+
+   private byte priority;
+
+   private Object userID;
+
+   // the OpenWire properties, decoded when a property is first looked up
+   private TypedProperties properties;
+
+   /** These are properties set at the broker level */
+   private volatile TypedProperties extraProperties;
+
+   private volatile int memoryEstimate = -1;
+
+   public OpenwireMessage(ActiveMQMessage message) {
+      this.message = message;
+      this.durable = message.isPersistent();
+      this.expiration = message.getExpiration();
+      this.timestamp = message.getTimestamp();
+      this.priority = message.getPriority();
+   }
+
+   /** for persistence reload */
+   public OpenwireMessage() {
+   }
+
+   private static OpenWireFormat getFormat(int version) {
+      if (version == STORE_VERSION) {
+         return STORE_FORMAT.get();
+      } else {
+         return new OpenWireFormat(version);
+      }
+   }
+
+   private ActiveMQMessage getActiveMQMessage() throws IOException {
+      ActiveMQMessage decoded = message;
+      if (decoded == null) {
+         synchronized (this) {
+            decoded = message;
+            if (decoded == null) {
+               decoded = (ActiveMQMessage) getFormat(dataVersion).unmarshal(new ByteSequence(data));
+               message = decoded;
+            }
+         }
+      }
+      return decoded;
+   }
+
+   /**
+    * @return a copy of the OpenWire message, the caller is free to change it
+    */
+   public ActiveMQMessage copyActiveMQMessage() throws IOException {
+      return (ActiveMQMessage) getActiveMQMessage().copy();
+   }
+
+   private byte[] getData() {
+      byte[] marshalled = data;
+      if (marshalled == null) {
+         synchronized (this) {
+            marshalled = data;
+            if (marshalled == null) {
+               try {
+                  // the sequence is backed by the format buffer, which is reused by the next marshal
+                  ByteSequence sequence = getFormat(STORE_VERSION).marshal(message);
+                  marshalled = Arrays.copyOfRange(sequence.getData(), sequence.getOffset(), sequence.getOffset() + sequence.getLength());
+               } catch (IOException e) {
+                  throw new RuntimeException(e.getMessage(), e);
+               }
+               dataVersion = STORE_VERSION;
+               data = marshalled;
+            }
+         }
+      }
+      return marshalled;
+   }
+
+   private synchronized TypedProperties getProperties() {
+      if (properties == null) {
+         TypedProperties decoded = new TypedProperties();
+         try {
+            ActiveMQMessage openwireMessage = getActiveMQMessage();
+            if (openwireMessage.getType() != null) {
+               decoded.putSimpleStringProperty(MessageUtil.TYPE_HEADER_NAME, SimpleString.toSimpleString(openwireMessage.getType()));
+            }
+            if (openwireMessage.getCorrelationId() != null) {
+               decoded.putSimpleStringProperty(MessageUtil.CORRELATIONID_HEADER_NAME, SimpleString.toSimpleString(openwireMessage.getCorrelationId()));
+            }
+            ByteSequence marshalledProperties = openwireMessage.getMarshalledProperties();
+            Map<String, Object> map;
+            if (marshalledProperties != null) {
+               map = MarshallingSupport.unmarshalPrimitiveMap(new DataInputStream(new ByteArrayInputStream(marshalledProperties)));
+            } else {
+               map = openwireMessage.getProperties();
+            }
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+               SimpleString key = new SimpleString(entry.getKey());
+               Object value = entry.getValue();
+               if (value instanceof UTF8Buffer) {
+                  value = value.toString();
+               }
+               try {
+                  TypedProperties.setObjectProperty(key, value, decoded);
+               } catch (ActiveMQPropertyConversionException e) {
+                  decoded.putSimpleStringProperty(key, SimpleString.toSimpleString(value.toString()));
+               }
+            }
+         } catch (IOException e) {
+            throw new RuntimeException(e.getMessage(), e);
+         }
+         properties = decoded;
+      }
+      return properties;
+   }
+
+   private TypedProperties getProperties(SimpleString key) {
+      TypedProperties extra = extraProperties;
+      if (extra != null && extra.containsProperty(key)) {
+         return extra;
+      }
+      return getProperties();
+   }
+
+   public TypedProperties createExtraProperties() {
+      if (extraProperties == null) {
+         extraProperties = new TypedProperties();
+      }
+      return extraProperties;
+   }
+
+   public TypedProperties getExtraProperties() {
+      return extraProperties;
+   }
+
+   public OpenwireMessage setExtraProperties(TypedProperties extraProperties) {
+      this.extraProperties = extraProperties;
+      return this;
    }
 
    @Override
    public void messageChanged() {
-
+      // the properties set on the broker are encoded apart, there is nothing to invalidate
    }
 
    @Override
    public SimpleString getReplyTo() {
-      return null;
+      try {
+         ActiveMQMessage openwireMessage = getActiveMQMessage();
+         return openwireMessage.getReplyTo() == null ? null : SimpleString.toSimpleString(openwireMessage.getReplyTo().getPhysicalName());
+      } catch (IOException e) {
+         throw new RuntimeException(e.getMessage(), e);
+      }
    }
 
    @Override
    public Message setReplyTo(SimpleString address) {
-      return null;
+      // the OpenWire message is never changed
+      return this;
+   }
+
+   @Override
+   public Object getAnnotation(SimpleString key) {
+      return getObjectProperty(key);
+   }
+
+   @Override
+   public Message setAnnotation(SimpleString key, Object value) {
+      return putObjectProperty(key, value);
    }
 
    @Override
    public Object removeAnnotation(SimpleString key) {
-      return null;
+      return removeProperty(key);
    }
 
    @Override
-   public Object getAnnotation(SimpleString key) {
+   public RoutingType getRoutingType() {
+      if (containsProperty(Message.HDR_ROUTING_TYPE)) {
+         return RoutingType.getType(getByteProperty(Message.HDR_ROUTING_TYPE));
+      }
       return null;
    }
 
    @Override
-   public Long getScheduledDeliveryTime() {
-      return null;
+   public Message setRoutingType(RoutingType routingType) {
+      if (routingType == null) {
+         removeProperty(Message.HDR_ROUTING_TYPE);
+      } else {
+         putByteProperty(Message.HDR_ROUTING_TYPE, routingType.getType());
+      }
+      return this;
    }
 
    @Override
-   public RefCountMessageListener getContext() {
-      return null;
+   public SimpleString getGroupID() {
+      TypedProperties extra = extraProperties;
+      if (extra != null && extra.containsProperty(Message.HDR_GROUP_ID)) {
+         return extra.getSimpleStringProperty(Message.HDR_GROUP_ID);
+      }
+      try {
+         return SimpleString.toSimpleString(getActiveMQMessage().getGroupID());
+      } catch (IOException e) {
+         throw new RuntimeException(e.getMessage(), e);
+      }
    }
 
    @Override
-   public Message setContext(RefCountMessageListener context) {
-      return null;
+   public SimpleString getLastValueProperty() {
+      return getSimpleStringProperty(Message.HDR_LAST_VALUE_NAME);
+   }
+
+   @Override
+   public Object getDuplicateProperty() {
+      return getObjectProperty(Message.HDR_DUPLICATE_DETECTION_ID);
+   }
+
+   @Override
+   public Long getScheduledDeliveryTime() {
+      Object property = getObjectProperty(Message.HDR_SCHEDULED_DELIVERY_TIME);
+
+      if (property != null && property instanceof Number) {
+         return ((Number) property).longValue();
+      }
+
+      return 0L;
+   }
+
+   @Override
+   public Message setScheduledDeliveryTime(Long time) {
+      if (time == null || time == 0) {
+         removeProperty(Message.HDR_SCHEDULED_DELIVERY_TIME);
+      } else {
+         putLongProperty(Message.HDR_SCHEDULED_DELIVERY_TIME, time);
+      }
+      return this;
    }
 
    @Override
    public Message setBuffer(ByteBuf buffer) {
-      return null;
+      return this;
    }
 
    @Override
    public ByteBuf getBuffer() {
-      return null;
+      return Unpooled.wrappedBuffer(getData());
    }
 
    @Override
    public Message copy() {
-      return null;
+      OpenwireMessage copy = new OpenwireMessage();
+      synchronized (this) {
+         copy.data = data;
+         copy.dataVersion = dataVersion;
+         copy.message = message;
+         // never changed once decoded
+         copy.properties = properties;
+      }
+      copy.messageID = messageID;
+      copy.address = address;
+      copy.durable = durable;
+      copy.expiration = expiration;
+      copy.timestamp = timestamp;
+      copy.priority = priority;
+      copy.userID = userID;
+      TypedProperties extra = extraProperties;
+      if (extra != null) {
+         copy.extraProperties = new TypedProperties(extra);
+      }
+      return copy;
    }
 
    @Override
    public Message copy(long newID) {
-      return null;
+      return copy().setMessageID(newID);
    }
 
    @Override
    public long getMessageID() {
-      return 0;
+      return messageID;
    }
 
    @Override
    public Message setMessageID(long id) {
-      return null;
+      this.messageID = id;
+      return this;
    }
 
    @Override
    public long getExpiration() {
-      return 0;
+      return expiration;
    }
 
    @Override
    public Message setExpiration(long expiration) {
-      return null;
+      this.expiration = expiration;
+      return this;
    }
 
    @Override
    public Object getUserID() {
-      return null;
+      return userID;
    }
 
    @Override
    public Message setUserID(Object userID) {
-      return null;
+      this.userID = userID;
+      return this;
    }
 
    @Override
    public boolean isDurable() {
-      return false;
+      return durable;
    }
 
    @Override
    public Message setDurable(boolean durable) {
-      return null;
+      this.durable = durable;
+      return this;
    }
 
    @Override
    public Persister<Message> getPersister() {
-      return null;
+      return OpenwireMessagePersister.getInstance();
    }
 
    @Override
    public String getAddress() {
-      return null;
+      return address == null ? null : address.toString();
    }
 
    @Override
    public Message setAddress(String address) {
-      return null;
+      this.address = SimpleString.toSimpleString(address);
+      return this;
    }
 
    @Override
    public SimpleString getAddressSimpleString() {
-      return null;
+      return address;
    }
 
    @Override
    public Message setAddress(SimpleString address) {
-      return null;
+      this.address = address;
+      return this;
    }
 
    @Override
    public long getTimestamp() {
-      return 0;
+      return timestamp;
    }
 
    @Override
    public Message setTimestamp(long timestamp) {
-      return null;
+      this.timestamp = timestamp;
+      return this;
    }
 
    @Override
    public byte getPriority() {
-      return 0;
+      return priority;
    }
 
    @Override
    public Message setPriority(byte priority) {
-      return null;
+      this.priority = priority;
+      return this;
    }
 
    @Override
    public void receiveBuffer(ByteBuf buffer) {
-
    }
 
    @Override
    public void sendBuffer(ByteBuf buffer, int deliveryCount) {
-
+      buffer.writeBytes(getData());
    }
 
    @Override
    public int getPersistSize() {
-      return 0;
+      TypedProperties extra = extraProperties;
+      return DataConstants.SIZE_BOOLEAN + DataConstants.SIZE_LONG + DataConstants.SIZE_LONG + DataConstants.SIZE_BYTE +
+         DataConstants.SIZE_INT + (extra != null ? extra.getEncodeSize() : 0) +
+         DataConstants.SIZE_INT + DataConstants.SIZE_INT + getData().length;
    }
 
    @Override
    public void persist(ActiveMQBuffer targetRecord) {
+      targetRecord.writeBoolean(durable);
+      targetRecord.writeLong(expiration);
+      targetRecord.writeLong(timestamp);
+      targetRecord.writeByte(priority);
 
+      TypedProperties extra = extraProperties;
+      if (extra == null) {
+         targetRecord.writeInt(0);
+      } else {
+         targetRecord.writeInt(extra.getEncodeSize());
+         extra.encode(targetRecord.byteBuf());
+      }
+
+      byte[] marshalled = getData();
+      targetRecord.writeInt(dataVersion);
+      targetRecord.writeInt(marshalled.length);
+      targetRecord.writeBytes(marshalled);
    }
 
    @Override
    public void reloadPersistence(ActiveMQBuffer record) {
+      durable = record.readBoolean();
+      expiration = record.readLong();
+      timestamp = record.readLong();
+      priority = record.readByte();
+
+      if (record.readInt() != 0) {
+         TypedProperties extra = new TypedProperties();
+         extra.decode(record.byteBuf());
+         extraProperties = extra;
+      }
 
+      int version = record.readInt();
+      byte[] marshalled = new byte[record.readInt()];
+      record.readBytes(marshalled);
+      synchronized (this) {
+         dataVersion = version;
+         data = marshalled;
+         message = null;
+         properties = null;
+      }
    }
 
    @Override
    public Message putBooleanProperty(String key, boolean value) {
-      return null;
+      return putBooleanProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putByteProperty(String key, byte value) {
-      return null;
+      return putByteProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putBytesProperty(String key, byte[] value) {
-      return null;
+      return putBytesProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putShortProperty(String key, short value) {
-      return null;
+      return putShortProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putCharProperty(String key, char value) {
-      return null;
+      return putCharProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putIntProperty(String key, int value) {
-      return null;
+      return putIntProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putLongProperty(String key, long value) {
-      return null;
+      return putLongProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putFloatProperty(String key, float value) {
-      return null;
+      return putFloatProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putDoubleProperty(String key, double value) {
-      return null;
+      return putDoubleProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putBooleanProperty(SimpleString key, boolean value) {
-      return null;
+      createExtraProperties().putBooleanProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putByteProperty(SimpleString key, byte value) {
-      return null;
+      createExtraProperties().putByteProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putBytesProperty(SimpleString key, byte[] value) {
-      return null;
+      createExtraProperties().putBytesProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putShortProperty(SimpleString key, short value) {
-      return null;
+      createExtraProperties().putShortProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putCharProperty(SimpleString key, char value) {
-      return null;
+      createExtraProperties().putCharProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putIntProperty(SimpleString key, int value) {
-      return null;
+      createExtraProperties().putIntProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putLongProperty(SimpleString key, long value) {
-      return null;
+      createExtraProperties().putLongProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putFloatProperty(SimpleString key, float value) {
-      return null;
+      createExtraProperties().putFloatProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putDoubleProperty(SimpleString key, double value) {
-      return null;
+      createExtraProperties().putDoubleProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putStringProperty(String key, String value) {
-      return null;
+      return putStringProperty(SimpleString.toSimpleString(key), SimpleString.toSimpleString(value));
+   }
+
+   @Override
+   public Message putStringProperty(SimpleString key, SimpleString value) {
+      createExtraProperties().putSimpleStringProperty(key, value);
+      return this;
    }
 
    @Override
    public Message putObjectProperty(String key, Object value) throws ActiveMQPropertyConversionException {
-      return null;
+      return putObjectProperty(SimpleString.toSimpleString(key), value);
    }
 
    @Override
    public Message putObjectProperty(SimpleString key, Object value) throws ActiveMQPropertyConversionException {
-      return null;
+      TypedProperties.setObjectProperty(key, value, createExtraProperties());
+      return this;
    }
 
    @Override
    public Object removeProperty(String key) {
-      return null;
+      return removeProperty(SimpleString.toSimpleString(key));
+   }
+
+   /**
+    * Only properties set on the broker can be removed, the OpenWire properties are read only.
+    */
+   @Override
+   public Object removeProperty(SimpleString key) {
+      TypedProperties extra = extraProperties;
+      return extra == null ? null : extra.removeProperty(key);
    }
 
    @Override
    public boolean containsProperty(String key) {
-      return false;
+      return containsProperty(SimpleString.toSimpleString(key));
+   }
+
+   @Override
+   public boolean containsProperty(SimpleString key) {
+      return getProperties(key).containsProperty(key);
    }
 
    @Override
    public Boolean getBooleanProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getBooleanProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Byte getByteProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getByteProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Double getDoubleProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getDoubleProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Integer getIntProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getIntProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Long getLongProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getLongProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Object getObjectProperty(String key) {
-      return null;
+      return getObjectProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Short getShortProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getShortProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Float getFloatProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getFloatProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public String getStringProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getStringProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public SimpleString getSimpleStringProperty(String key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getSimpleStringProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public byte[] getBytesProperty(String key) throws ActiveMQPropertyConversionException {
-      return new byte[0];
-   }
-
-   @Override
-   public Object removeProperty(SimpleString key) {
-      return null;
+      return getBytesProperty(SimpleString.toSimpleString(key));
    }
 
    @Override
    public Boolean getBooleanProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getBooleanProperty(key);
    }
 
    @Override
    public Byte getByteProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getByteProperty(key);
    }
 
    @Override
    public Double getDoubleProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getDoubleProperty(key);
    }
 
    @Override
    public Integer getIntProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getIntProperty(key);
    }
 
    @Override
    public Long getLongProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getLongProperty(key);
    }
 
    @Override
    public Object getObjectProperty(SimpleString key) {
-      return null;
+      return getProperties(key).getProperty(key);
    }
 
    @Override
    public Short getShortProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getShortProperty(key);
    }
 
    @Override
    public Float getFloatProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getFloatProperty(key);
    }
 
    @Override
    public String getStringProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      SimpleString value = getSimpleStringProperty(key);
+      return value == null ? null : value.toString();
    }
 
    @Override
    public SimpleString getSimpleStringProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return null;
+      return getProperties(key).getSimpleStringProperty(key);
    }
 
    @Override
    public byte[] getBytesProperty(SimpleString key) throws ActiveMQPropertyConversionException {
-      return new byte[0];
-   }
-
-   @Override
-   public Message putStringProperty(SimpleString key, SimpleString value) {
-      return null;
+      return getProperties(key).getBytesProperty(key);
    }
 
    @Override
    public int getEncodeSize() {
-      return 0;
+      ActiveMQMessage openwireMessage = message;
+      return openwireMessage != null ? openwireMessage.getSize() : getData().length;
    }
 
    @Override
    public Set<SimpleString> getPropertyNames() {
-      return null;
+      Set<SimpleString> names = new HashSet<>(getProperties().getPropertyNames());
+      TypedProperties extra = extraProperties;
+      if (extra != null) {
+         names.addAll(extra.getPropertyNames());
+      }
+      return names;
    }
 
    @Override
-   public int getRefCount() {
-      return 0;
-   }
-
-   @Override
-   public int incrementRefCount() throws Exception {
-      return 0;
-   }
-
-   @Override
-   public int decrementRefCount() throws Exception {
-      return 0;
-   }
-
-   @Override
-   public int incrementDurableRefCount() {
-      return 0;
-   }
-
-   @Override
-   public int decrementDurableRefCount() {
-      return 0;
+   public ICoreMessage toCore() {
+      try {
+         return new OpenWireMessageConverter(getFormat(STORE_VERSION)).toCore(this);
+      } catch (Exception e) {
+         throw new RuntimeException(e.getMessage(), e);
+      }
    }
 
    @Override
-   public ICoreMessage toCore() {
-      return null;
+   public int getMemoryEstimate() {
+      if (memoryEstimate == -1) {
+         ActiveMQMessage openwireMessage = message;
+         byte[] marshalled = data;
+         TypedProperties extra = extraProperties;
+         memoryEstimate = memoryOffset +
+            (openwireMessage != null ? openwireMessage.getSize() : 0) +
+            (marshalled != null ? marshalled.length : 0) +
+            (extra != null ? extra.getMemoryOffset() : 0);
+      }
+      return memoryEstimate;
    }
 
    @Override
-   public int getMemoryEstimate() {
-      return 0;
+   public String toString() {
+      return "OpenwireMessage[messageID=" + messageID + ", durable=" + durable + ", address=" + address + "]";
    }
 }
@@ -27,12 +27,12 @@ import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.activemq.advisory.AdvisorySupport;
 import org.apache.activemq.artemis.api.core.ActiveMQQueueExistsException;
-import org.apache.activemq.artemis.api.core.ICoreMessage;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.client.impl.ClientConsumerImpl;
 import org.apache.activemq.artemis.core.protocol.openwire.OpenWireMessageConverter;
+import org.apache.activemq.artemis.core.protocol.openwire.OpenwireMessage;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.QueueQueryResult;
@@ -200,16 +200,17 @@ public class AMQConsumer {
 
    }
 
-   public int handleDeliver(MessageReference reference, ICoreMessage message, int deliveryCount) {
+   public int handleDeliver(MessageReference reference, Message message, int deliveryCount) {
       MessageDispatch dispatch;
       try {
          if (messagePullHandler != null && !messagePullHandler.checkForcedConsumer(message)) {
             return 0;
          }
 
-         if (session.getConnection().isNoLocal() || session.isInternal()) {
+         if ((session.getConnection().isNoLocal() || session.isInternal()) && !(message instanceof OpenwireMessage)) {
             //internal session always delivers messages to noLocal advisory consumers
             //so we need to remove this property too.
+            //(an OpenwireMessage is shared with the other consumers, and never dispatches it)
             message.removeProperty(MessageUtil.CONNECTION_ID_PROPERTY_NAME);
          }
          dispatch = session.getConverter().createMessageDispatch(reference, message, this);
@@ -309,7 +310,11 @@ public class AMQConsumer {
    }
 
    public boolean hasCredits() {
-      return currentWindow.get() > 0;
+      return hasCredits(0);
+   }
+
+   public boolean hasCredits(int pendingDeliveries) {
+      return currentWindow.get() - pendingDeliveries > 0;
    }
 
    public void processMessagePull(MessagePull messagePull) throws Exception {
@@ -31,6 +31,7 @@ import org.apache.activemq.artemis.core.postoffice.RoutingStatus;
 import org.apache.activemq.artemis.core.protocol.openwire.OpenWireConnection;
 import org.apache.activemq.artemis.core.protocol.openwire.OpenWireMessageConverter;
 import org.apache.activemq.artemis.core.protocol.openwire.OpenWireProtocolManager;
+import org.apache.activemq.artemis.core.protocol.openwire.OpenwireMessage;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.BindingQueryResult;
@@ -45,6 +46,7 @@ import org.apache.activemq.artemis.spi.core.remoting.ReadyListener;
 import org.apache.activemq.artemis.utils.IDGenerator;
 import org.apache.activemq.artemis.utils.SimpleIDGenerator;
 import org.apache.activemq.command.ActiveMQDestination;
+import org.apache.activemq.command.ActiveMQMessage;
 import org.apache.activemq.command.ConnectionInfo;
 import org.apache.activemq.command.ConsumerInfo;
 import org.apache.activemq.command.Message;
@@ -246,6 +248,9 @@ public class AMQSession implements SessionCallback {
                           int deliveryCount) {
       AMQConsumer theConsumer = (AMQConsumer) consumer.getProtocolData();
       // TODO: use encoders and proper conversions here
+      if (message instanceof OpenwireMessage) {
+         return theConsumer.handleDeliver(reference, message, deliveryCount);
+      }
       return theConsumer.handleDeliver(reference, message.toCore(), deliveryCount);
    }
 
@@ -276,6 +281,11 @@ public class AMQSession implements SessionCallback {
 
    @Override
    public boolean hasCredits(ServerConsumer consumer) {
+      return hasCredits(consumer, 0);
+   }
+
+   @Override
+   public boolean hasCredits(ServerConsumer consumer, int pendingDeliveries) {
 
       AMQConsumer amqConsumer = null;
 
@@ -283,7 +293,7 @@ public class AMQSession implements SessionCallback {
          amqConsumer = (AMQConsumer) consumer.getProtocolData();
       }
 
-      return amqConsumer != null && amqConsumer.hasCredits();
+      return amqConsumer != null && amqConsumer.hasCredits(pendingDeliveries);
    }
 
    @Override
@@ -307,7 +317,12 @@ public class AMQSession implements SessionCallback {
          actualDestinations = new ActiveMQDestination[]{destination};
       }
 
-      org.apache.activemq.artemis.api.core.Message originalCoreMsg = getConverter().inbound(messageSend);
+      org.apache.activemq.artemis.api.core.Message originalCoreMsg;
+      if (protocolManager.isNativeMessageStorage() && messageSend instanceof ActiveMQMessage) {
+         originalCoreMsg = new OpenwireMessage((ActiveMQMessage) messageSend);
+      } else {
+         originalCoreMsg = getConverter().inbound(messageSend);
+      }
 
       if (connection.isNoLocal()) {
          //Note: advisory messages are dealt with in
@@ -37,6 +37,14 @@ public class SimpleBytes {
       return new String(contents, 0, index, StandardCharsets.UTF_8);
    }
 
+   public byte[] getBuffer() {
+      return contents;
+   }
+
+   public int length() {
+      return index;
+   }
+
    public void reset() {
       index = 0;
    }
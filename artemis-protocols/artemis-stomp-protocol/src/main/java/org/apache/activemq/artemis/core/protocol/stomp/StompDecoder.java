@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.artemis.core.protocol.stomp;
 
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -131,6 +133,34 @@ public class StompDecoder {
 
    public static final byte TAB = (byte) '\t';
 
+   /**
+    * The header names clients send on almost every frame: decoding them returns these instances instead of new Strings,
+    * and the last value of each one is kept to be reused when the next frame repeats it.
+    */
+   private static final String[] KNOWN_HEADER_NAMES = {Stomp.Headers.CONTENT_LENGTH, Stomp.Headers.CONTENT_TYPE, Stomp.Headers.RECEIPT_REQUESTED, Stomp.Headers.TRANSACTION, Stomp.Headers.ACCEPT_VERSION, Stomp.Headers.Send.DESTINATION, Stomp.Headers.Send.DESTINATION_TYPE, Stomp.Headers.Send.CORRELATION_ID, Stomp.Headers.Send.REPLY_TO, Stomp.Headers.Send.EXPIRATION_TIME, Stomp.Headers.Send.PRIORITY, Stomp.Headers.Send.TYPE, Stomp.Headers.Send.PERSISTENT, Stomp.Headers.Message.MESSAGE_ID, Stomp.Headers.Message.SUBSCRIPTION, Stomp.Headers.Message.ACK, Stomp.Headers.Subscribe.ID, Stomp.Headers.Subscribe.SELECTOR, Stomp.Headers.Connect.LOGIN, Stomp.Headers.Connect.PASSCODE, Stomp.Headers.Connect.HOST, Stomp.Headers.Connect.HEART_BEAT, Stomp.Headers.Connect.CLIENT_ID};
+
+   // the known header names by their length, then as bytes
+   private static final int[][] KNOWN_HEADER_NAMES_BY_LENGTH;
+
+   private static final byte[][] KNOWN_HEADER_NAME_BYTES;
+
+   static {
+      int maxLength = 0;
+      KNOWN_HEADER_NAME_BYTES = new byte[KNOWN_HEADER_NAMES.length][];
+      for (int i = 0; i < KNOWN_HEADER_NAMES.length; i++) {
+         KNOWN_HEADER_NAME_BYTES[i] = KNOWN_HEADER_NAMES[i].getBytes(StandardCharsets.UTF_8);
+         maxLength = Math.max(maxLength, KNOWN_HEADER_NAME_BYTES[i].length);
+      }
+      KNOWN_HEADER_NAMES_BY_LENGTH = new int[maxLength + 1][0];
+      for (int i = 0; i < KNOWN_HEADER_NAMES.length; i++) {
+         int length = KNOWN_HEADER_NAME_BYTES[i].length;
+         int[] indexes = KNOWN_HEADER_NAMES_BY_LENGTH[length];
+         indexes = Arrays.copyOf(indexes, indexes.length + 1);
+         indexes[indexes.length - 1] = i;
+         KNOWN_HEADER_NAMES_BY_LENGTH[length] = indexes;
+      }
+   }
+
    public byte[] workingBuffer = new byte[1024];
 
    public int pos;
@@ -159,6 +189,11 @@ public class StompDecoder {
 
    public int bodyStart;
 
+   // index in KNOWN_HEADER_NAMES of the header being parsed, -1 if it isn't one of them
+   private int knownHeader;
+
+   private final String[] lastKnownHeaderValues = new String[KNOWN_HEADER_NAMES.length];
+
    //max len of EOL (default is 1 for '\n')
    protected int eolLen = 1;
 
@@ -187,8 +222,15 @@ public class StompDecoder {
    public synchronized StompFrame decode(final ActiveMQBuffer buffer) throws ActiveMQStompException {
       int readable = buffer.readableBytes();
 
+      if (command == null && pos > 0 && readable > 0) {
+         // between frames: drop the bytes of the frames already decoded
+         System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
+         data -= pos;
+         pos = 0;
+      }
+
       if (data + readable >= workingBuffer.length) {
-         resizeWorking(data + readable);
+         resizeWorking(Math.max(data + readable + 1, workingBuffer.length * 2));
       }
 
       buffer.readBytes(workingBuffer, data, readable);
@@ -247,16 +289,7 @@ public class StompDecoder {
       }
 
       if (content != null) {
-         if (data > pos) {
-            if (workingBuffer[pos] == NEW_LINE)
-               pos++;
-
-            if (data > pos)
-               // More data still in the buffer from the next packet
-               System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
-         }
-
-         data = data - pos;
+         endFrame();
 
          // reset
 
@@ -285,7 +318,7 @@ public class StompDecoder {
          switch (b) {
             case HEADER_SEPARATOR: {
                if (inHeaderName) {
-                  headerName = new String(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
+                  headerName = decodeHeaderName(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
 
                   inHeaderName = false;
 
@@ -306,7 +339,7 @@ public class StompDecoder {
                   break outer;
                }
 
-               String headerValue = new String(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
+               String headerValue = decodeHeaderValue(workingBuffer, headerBytesCopyStart, pos - headerBytesCopyStart - 1);
 
                headers.put(headerName, headerValue);
 
@@ -365,10 +398,10 @@ public class StompDecoder {
       // next STOMP frame is read - we need to deal with this.
       // Besides, Stomp 1.2 allows for extra EOLs after NULL (i.e.
       // either "[\r]\n"s or "\n"s)
-      while (offset < data) {
-         if (workingBuffer[offset] == NEW_LINE) {
+      while (pos + offset < data) {
+         if (workingBuffer[pos + offset] == NEW_LINE) {
             nextChar = false;
-         } else if (workingBuffer[offset] == CR) {
+         } else if (workingBuffer[pos + offset] == CR) {
             if (nextChar)
                throw BUNDLE.invalidTwoCRs().setHandler(handler);
             nextChar = true;
@@ -382,17 +415,17 @@ public class StompDecoder {
          throw BUNDLE.badCRs().setHandler(handler);
       }
 
-      if (data < 4 + offset) {
+      if (data - pos < 4 + offset) {
          // Need at least four bytes to identify the command
          // - up to 3 bytes for the command name + potentially another byte for a leading \n
          return false;
       }
 
-      byte b = workingBuffer[offset];
+      byte b = workingBuffer[pos + offset];
 
       switch (b) {
          case A: {
-            if (workingBuffer[offset + 1] == B) {
+            if (workingBuffer[pos + offset + 1] == B) {
                if (!tryIncrement(offset + COMMAND_ABORT_LENGTH + 1)) {
                   return false;
                }
@@ -420,14 +453,14 @@ public class StompDecoder {
             break;
          }
          case C: {
-            if (workingBuffer[offset + 2] == M) {
+            if (workingBuffer[pos + offset + 2] == M) {
                if (!tryIncrement(offset + COMMAND_COMMIT_LENGTH + 1)) {
                   return false;
                }
 
                // COMMIT
                command = COMMAND_COMMIT;
-            } else if (workingBuffer[offset + 7] == E) {
+            } else if (workingBuffer[pos + offset + 7] == E) {
                if (!tryIncrement(offset + COMMAND_CONNECTED_LENGTH + 1)) {
                   return false;
                }
@@ -487,14 +520,14 @@ public class StompDecoder {
          }
          /**** end ****/
          case S: {
-            if (workingBuffer[offset + 1] == E) {
+            if (workingBuffer[pos + offset + 1] == E) {
                if (!tryIncrement(offset + COMMAND_SEND_LENGTH + 1)) {
                   return false;
                }
 
                // SEND
                command = COMMAND_SEND;
-            } else if (workingBuffer[offset + 1] == T) {
+            } else if (workingBuffer[pos + offset + 1] == T) {
                if (!tryIncrement(offset + COMMAND_STOMP_LENGTH + 1)) {
                   return false;
                }
@@ -546,8 +579,6 @@ public class StompDecoder {
    }
 
    public void init() {
-      pos = 0;
-
       command = null;
 
       headers = new HashMap<>();
@@ -562,6 +593,8 @@ public class StompDecoder {
 
       headerName = null;
 
+      knownHeader = -1;
+
       whiteSpaceOnly = true;
 
       contentLength = -1;
@@ -579,6 +612,74 @@ public class StompDecoder {
       System.arraycopy(oldBuffer, 0, workingBuffer, 0, oldBuffer.length);
    }
 
+   /**
+    * Skips the optional EOL following the NUL that ended the frame just decoded.
+    * The bytes left belong to the next frames, they are moved to the start of the working buffer only when more bytes
+    * arrive, rather than after each frame.
+    */
+   protected void endFrame() {
+      if (data > pos && workingBuffer[pos] == NEW_LINE) {
+         pos++;
+      }
+
+      if (pos == data) {
+         pos = 0;
+         data = 0;
+      }
+   }
+
+   protected String decodeHeaderName(final byte[] bytes, final int offset, final int length) {
+      knownHeader = -1;
+      if (length < KNOWN_HEADER_NAMES_BY_LENGTH.length) {
+         for (int known : KNOWN_HEADER_NAMES_BY_LENGTH[length]) {
+            if (equals(KNOWN_HEADER_NAME_BYTES[known], bytes, offset)) {
+               knownHeader = known;
+               return KNOWN_HEADER_NAMES[known];
+            }
+         }
+      }
+      return length == 0 ? "" : new String(bytes, offset, length, StandardCharsets.UTF_8);
+   }
+
+   /**
+    * Must be called after {@link #decodeHeaderName(byte[], int, int)} decoded the name of the header.
+    */
+   protected String decodeHeaderValue(final byte[] bytes, final int offset, final int length) {
+      if (knownHeader == -1) {
+         return length == 0 ? "" : new String(bytes, offset, length, StandardCharsets.UTF_8);
+      }
+      String last = lastKnownHeaderValues[knownHeader];
+      if (last != null && equalsAscii(last, bytes, offset, length)) {
+         return last;
+      }
+      String value = length == 0 ? "" : new String(bytes, offset, length, StandardCharsets.UTF_8);
+      lastKnownHeaderValues[knownHeader] = value;
+      return value;
+   }
+
+   private static boolean equals(final byte[] known, final byte[] bytes, final int offset) {
+      for (int i = 0; i < known.length; i++) {
+         if (known[i] != bytes[offset + i]) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static boolean equalsAscii(final String value, final byte[] bytes, final int offset, final int length) {
+      if (value.length() != length) {
+         return false;
+      }
+      for (int i = 0; i < length; i++) {
+         byte b = bytes[offset + i];
+         // any non ASCII byte is decoded again
+         if (b < 0 || value.charAt(i) != b) {
+            return false;
+         }
+      }
+      return true;
+   }
+
    public boolean tryIncrement(final int length) {
       if (pos + length >= data) {
          return false;
@@ -372,10 +372,10 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
          // Besides, Stomp 1.2 allows for extra EOLs after NULL (i.e.
          // either "[\r]\n"s or "\n"s)
          while (true) {
-            if (workingBuffer[offset] == NEW_LINE) {
+            if (workingBuffer[pos + offset] == NEW_LINE) {
                //client ping
                nextChar = false;
-            } else if (workingBuffer[offset] == CR) {
+            } else if (workingBuffer[pos + offset] == CR) {
                if (nextChar)
                   throw BUNDLE.invalidTwoCRs().setHandler(handler);
                nextChar = true;
@@ -383,7 +383,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                break;
             }
             offset++;
-            if (offset == data)
+            if (pos + offset == data)
                return false; //no more bytes
          }
 
@@ -391,24 +391,21 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
             throw BUNDLE.badCRs().setHandler(handler);
          }
 
-         //if some EOLs have been processed, drop those bytes before parsing command
-         if (offset > 0) {
-            System.arraycopy(workingBuffer, offset, workingBuffer, 0, data - offset);
-            data = data - offset;
-            offset = 0;
-         }
+         //if some EOLs have been processed, skip those bytes before parsing command
+         pos += offset;
+         offset = 0;
 
-         if (data < 4) {
+         if (data - pos < 4) {
             // Need at least four bytes to identify the command
             // - up to 3 bytes for the command name + potentially another byte for a leading \n
             return false;
          }
 
-         byte b = workingBuffer[offset];
+         byte b = workingBuffer[pos];
 
          switch (b) {
             case A: {
-               if (workingBuffer[offset + 1] == StompDecoder.B) {
+               if (workingBuffer[pos + 1] == StompDecoder.B) {
                   if (!tryIncrement(offset + COMMAND_ABORT_LENGTH + eolLen)) {
                      return false;
                   }
@@ -436,14 +433,14 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                break;
             }
             case C: {
-               if (workingBuffer[offset + 2] == M) {
+               if (workingBuffer[pos + 2] == M) {
                   if (!tryIncrement(offset + COMMAND_COMMIT_LENGTH + eolLen)) {
                      return false;
                   }
 
                   // COMMIT
                   command = COMMAND_COMMIT;
-               } else if (workingBuffer[offset + 7] == E) {
+               } else if (workingBuffer[pos + 7] == E) {
                   if (!tryIncrement(offset + COMMAND_CONNECTED_LENGTH + eolLen)) {
                      return false;
                   }
@@ -503,14 +500,14 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
             }
             /**** end ****/
             case S: {
-               if (workingBuffer[offset + 1] == E) {
+               if (workingBuffer[pos + 1] == E) {
                   if (!tryIncrement(offset + COMMAND_SEND_LENGTH + eolLen)) {
                      return false;
                   }
 
                   // SEND
                   command = COMMAND_SEND;
-               } else if (workingBuffer[offset + 1] == U) {
+               } else if (workingBuffer[pos + 1] == U) {
                   if (!tryIncrement(offset + COMMAND_SUBSCRIBE_LENGTH + eolLen)) {
                      return false;
                   }
@@ -589,7 +586,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                }
                case HEADER_SEPARATOR: {
                   if (inHeaderName) {
-                     headerName = holder.getString();
+                     headerName = decodeHeaderName(holder.getBuffer(), 0, holder.length());
 
                      holder.reset();
 
@@ -628,7 +625,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
                      break outer;
                   }
 
-                  String headerValue = holder.getString();
+                  String headerValue = decodeHeaderValue(holder.getBuffer(), 0, holder.length());
                   holder.reset();
 
                   headers.put(headerName, headerValue);
@@ -712,16 +709,7 @@ public class StompFrameHandlerV11 extends VersionedStompFrameHandler implements
          }
 
          if (content != null) {
-            if (data > pos) {
-               if (workingBuffer[pos] == NEW_LINE)
-                  pos++;
-
-               if (data > pos)
-                  // More data still in the buffer from the next packet
-                  System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
-            }
-
-            data = data - pos;
+            endFrame();
 
             // reset
 
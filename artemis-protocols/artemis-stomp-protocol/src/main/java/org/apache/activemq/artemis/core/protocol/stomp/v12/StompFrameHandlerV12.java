@@ -149,7 +149,7 @@ public class StompFrameHandlerV12 extends StompFrameHandlerV11 {
                }
                case HEADER_SEPARATOR: {
                   if (inHeaderName) {
-                     headerName = holder.getString();
+                     headerName = decodeHeaderName(holder.getBuffer(), 0, holder.length());
 
                      holder.reset();
 
@@ -204,7 +204,7 @@ public class StompFrameHandlerV12 extends StompFrameHandlerV11 {
                      break outer;
                   }
 
-                  String headerValue = holder.getString();
+                  String headerValue = decodeHeaderValue(holder.getBuffer(), 0, holder.length());
                   holder.reset();
 
                   if (!headers.containsKey(headerName)) {
@@ -290,16 +290,7 @@ public class StompFrameHandlerV12 extends StompFrameHandlerV11 {
          }
 
          if (content != null) {
-            if (data > pos) {
-               if (workingBuffer[pos] == NEW_LINE)
-                  pos++;
-
-               if (data > pos)
-                  // More data still in the buffer from the next packet
-                  System.arraycopy(workingBuffer, pos, workingBuffer, 0, data - pos);
-            }
-
-            data = data - pos;
+            endFrame();
 
             // reset
 
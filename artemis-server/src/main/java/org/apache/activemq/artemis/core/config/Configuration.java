@@ -139,6 +139,34 @@ public interface Configuration {
     */
    Configuration setJournalDatasync(boolean enable);
 
+   /**
+    * Whether the IO_URING journal opens its files with O_DIRECT, bypassing the page cache.
+    * The files are buffered otherwise, and synced with fdatasync when {@link #isJournalDatasync()}.
+    */
+   boolean isJournalDirectIO();
+
+   /**
+    * documented at {@link #isJournalDirectIO()}
+    *
+    * @param enable
+    * @return this
+    */
+   Configuration setJournalDirectIO(boolean enable);
+
+   /**
+    * Whether the acknowledgements of paged messages are stored as compact journal records.
+    * A journal holding such records can't be loaded by a broker older than this version.
+    */
+   boolean isJournalCompactPageAcks();
+
+   /**
+    * documented at {@link #isJournalCompactPageAcks()}
+    *
+    * @param enable
+    * @return this
+    */
+   Configuration setJournalCompactPageAcks(boolean enable);
+
    /**
     * @return usernames mapped to ResourceLimitSettings
     */
@@ -198,6 +226,17 @@ public interface Configuration {
     */
    Configuration setSecurityInvalidationInterval(long interval);
 
+   /**
+    * Returns how many successful authentications are cached, each one for the security invalidation interval. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_AUTHENTICATION_CACHE_SIZE}.
+    */
+   int getAuthenticationCacheSize();
+
+   /**
+    * Sets how many successful authentications are cached, 0 disables the authentication cache.
+    */
+   Configuration setAuthenticationCacheSize(int size);
+
    /**
     * Returns whether security is enabled for this server. <br>
     * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_SECURITY_ENABLED}.
@@ -586,6 +625,40 @@ public interface Configuration {
     */
    File getJournalLocation();
 
+   /**
+    * The location of the given message journal stripe related to artemis.instance.
+    * Stripe 0 is always {@link #getJournalLocation()}, the other stripes use the entry of
+    * {@link #getJournalStripeDirectories()} when there is one and a sub folder of the journal directory otherwise.
+    */
+   File getJournalStripeLocation(int stripe);
+
+   /**
+    * The number of independent journals the message journal is striped across.
+    * Records are spread across the stripes by their ID, a transaction spanning stripes is committed through a coordinating record.
+    */
+   int getJournalStripes();
+
+   /**
+    * documented at {@link #getJournalStripes()}
+    *
+    * @param stripes
+    * @return this
+    */
+   Configuration setJournalStripes(int stripes);
+
+   /**
+    * The directories of the message journal stripes 1 to N - 1, typically on different devices.
+    */
+   List<String> getJournalStripeDirectories();
+
+   /**
+    * documented at {@link #getJournalStripeDirectories()}
+    *
+    * @param directories
+    * @return this
+    */
+   Configuration setJournalStripeDirectories(List<String> directories);
+
    /**
     * Sets the file system directory used to store journal log.
     */
@@ -1073,6 +1146,18 @@ public interface Configuration {
 
    Configuration setGlobalMaxSize(long globalMaxSize);
 
+   /**
+    * Returns the percentage of the global max size over which the addresses consumed the slowest start paging, before
+    * the global max size is reached. <br>
+    * Default value is {@link org.apache.activemq.artemis.api.config.ActiveMQDefaultConfiguration#DEFAULT_GLOBAL_PAGING_PRESSURE_THRESHOLD}.
+    */
+   int getGlobalPagingPressureThreshold();
+
+   /**
+    * Sets the percentage of the global max size over which the addresses consumed the slowest start paging, -1 disables it.
+    */
+   Configuration setGlobalPagingPressureThreshold(int threshold);
+
    int getMaxDiskUsage();
 
    Configuration setMaxDiskUsage(int maxDiskUsage);
@@ -96,6 +96,10 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    private boolean journalDatasync = ActiveMQDefaultConfiguration.isDefaultJournalDatasync();
 
+   private boolean journalDirectIO = ActiveMQDefaultConfiguration.isDefaultJournalDirectIO();
+
+   private boolean journalCompactPageAcks = ActiveMQDefaultConfiguration.isDefaultJournalCompactPageAcks();
+
    protected long fileDeploymentScanPeriod = ActiveMQDefaultConfiguration.getDefaultFileDeployerScanPeriod();
 
    private boolean persistDeliveryCountBeforeDelivery = ActiveMQDefaultConfiguration.isDefaultPersistDeliveryCountBeforeDelivery();
@@ -106,6 +110,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    private long securityInvalidationInterval = ActiveMQDefaultConfiguration.getDefaultSecurityInvalidationInterval();
 
+   private int authenticationCacheSize = ActiveMQDefaultConfiguration.getDefaultAuthenticationCacheSize();
+
    private boolean securityEnabled = ActiveMQDefaultConfiguration.isDefaultSecurityEnabled();
 
    private boolean gracefulShutdownEnabled = ActiveMQDefaultConfiguration.isDefaultGracefulShutdownEnabled();
@@ -168,6 +174,10 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    protected String journalDirectory = ActiveMQDefaultConfiguration.getDefaultJournalDir();
 
+   protected int journalStripes = ActiveMQDefaultConfiguration.getDefaultJournalStripes();
+
+   protected List<String> journalStripeDirectories = new ArrayList<>();
+
    protected boolean createJournalDir = ActiveMQDefaultConfiguration.isDefaultCreateJournalDir();
 
    public JournalType journalType = ConfigurationImpl.DEFAULT_JOURNAL_TYPE;
@@ -271,6 +281,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
 
    private Long globalMaxSize;
 
+   private int globalPagingPressureThreshold = ActiveMQDefaultConfiguration.getDefaultGlobalPagingPressureThreshold();
+
    private boolean amqpUseCoreSubscriptionNaming = ActiveMQDefaultConfiguration.getDefaultAmqpUseCoreSubscriptionNaming();
 
    private int maxDiskUsage = ActiveMQDefaultConfiguration.getDefaultMaxDiskUsage();
@@ -386,6 +398,17 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return globalMaxSize;
    }
 
+   @Override
+   public int getGlobalPagingPressureThreshold() {
+      return globalPagingPressureThreshold;
+   }
+
+   @Override
+   public ConfigurationImpl setGlobalPagingPressureThreshold(final int threshold) {
+      this.globalPagingPressureThreshold = threshold;
+      return this;
+   }
+
    @Override
    public ConfigurationImpl setPersistenceEnabled(final boolean enable) {
       persistenceEnabled = enable;
@@ -403,6 +426,28 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   @Override
+   public boolean isJournalDirectIO() {
+      return journalDirectIO;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalDirectIO(boolean enable) {
+      journalDirectIO = enable;
+      return this;
+   }
+
+   @Override
+   public boolean isJournalCompactPageAcks() {
+      return journalCompactPageAcks;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalCompactPageAcks(boolean enable) {
+      journalCompactPageAcks = enable;
+      return this;
+   }
+
    @Override
    public long getFileDeployerScanPeriod() {
       return fileDeploymentScanPeriod;
@@ -461,6 +506,17 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   @Override
+   public int getAuthenticationCacheSize() {
+      return authenticationCacheSize;
+   }
+
+   @Override
+   public ConfigurationImpl setAuthenticationCacheSize(final int size) {
+      authenticationCacheSize = size;
+      return this;
+   }
+
    @Override
    public long getConnectionTTLOverride() {
       return connectionTTLOverride;
@@ -794,6 +850,39 @@ public class ConfigurationImpl implements Configuration, Serializable {
       return this;
    }
 
+   @Override
+   public File getJournalStripeLocation(int stripe) {
+      if (stripe == 0) {
+         return getJournalLocation();
+      } else if (stripe <= journalStripeDirectories.size()) {
+         return subFolder(journalStripeDirectories.get(stripe - 1));
+      } else {
+         return new File(getJournalLocation(), "stripe-" + stripe);
+      }
+   }
+
+   @Override
+   public int getJournalStripes() {
+      return journalStripes;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalStripes(int stripes) {
+      journalStripes = stripes;
+      return this;
+   }
+
+   @Override
+   public List<String> getJournalStripeDirectories() {
+      return journalStripeDirectories;
+   }
+
+   @Override
+   public ConfigurationImpl setJournalStripeDirectories(List<String> directories) {
+      journalStripeDirectories = directories;
+      return this;
+   }
+
    @Override
    public JournalType getJournalType() {
       return journalType;
@@ -1640,6 +1729,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
       result = prime * result + (securityEnabled ? 1231 : 1237);
       result = prime * result + (populateValidatedUser ? 1231 : 1237);
       result = prime * result + (int) (securityInvalidationInterval ^ (securityInvalidationInterval >>> 32));
+      result = prime * result + authenticationCacheSize;
+      result = prime * result + globalPagingPressureThreshold;
       result = prime * result + ((securitySettings == null) ? 0 : securitySettings.hashCode());
       result = prime * result + (int) (serverDumpInterval ^ (serverDumpInterval >>> 32));
       result = prime * result + threadPoolMaxSize;
@@ -1854,6 +1945,8 @@ public class ConfigurationImpl implements Configuration, Serializable {
          return false;
       if (securityInvalidationInterval != other.securityInvalidationInterval)
          return false;
+      if (authenticationCacheSize != other.authenticationCacheSize)
+         return false;
       if (securitySettings == null) {
          if (other.securitySettings != null)
             return false;
@@ -1881,12 +1974,27 @@ public class ConfigurationImpl implements Configuration, Serializable {
       if (journalDatasync != other.journalDatasync) {
          return false;
       }
+      if (journalDirectIO != other.journalDirectIO) {
+         return false;
+      }
+      if (journalCompactPageAcks != other.journalCompactPageAcks) {
+         return false;
+      }
+      if (journalStripes != other.journalStripes) {
+         return false;
+      }
+      if (!journalStripeDirectories.equals(other.journalStripeDirectories)) {
+         return false;
+      }
       if (globalMaxSize != null && !globalMaxSize.equals(other.globalMaxSize)) {
          return false;
       }
       if (maxDiskUsage != other.maxDiskUsage) {
          return false;
       }
+      if (globalPagingPressureThreshold != other.globalPagingPressureThreshold) {
+         return false;
+      }
       if (diskScanPeriod != other.diskScanPeriod) {
          return false;
       }
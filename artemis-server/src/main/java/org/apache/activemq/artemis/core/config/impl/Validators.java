@@ -18,6 +18,7 @@ package org.apache.activemq.artemis.core.config.impl;
 
 import java.util.EnumSet;
 
+import org.apache.activemq.artemis.core.persistence.impl.journal.StripedJournal;
 import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
 import org.apache.activemq.artemis.core.server.DivertConfigurationRoutingType;
 import org.apache.activemq.artemis.core.server.JournalType;
@@ -124,6 +125,18 @@ public final class Validators {
       }
    };
 
+   public static final Validator JOURNAL_STRIPES = new Validator() {
+      @Override
+      public void validate(final String name, final Object value) {
+         Number val = (Number) value;
+         if (val.intValue() >= 1 && val.intValue() <= StripedJournal.MAX_STRIPES) {
+            // OK
+         } else {
+            throw ActiveMQMessageBundle.BUNDLE.mustbeBetween(name, 1, StripedJournal.MAX_STRIPES, value);
+         }
+      }
+   };
+
    public static final Validator JOURNAL_TYPE = new Validator() {
       @Override
       public void validate(final String name, final Object value) {
@@ -63,6 +63,7 @@ import org.apache.activemq.artemis.core.config.impl.Validators;
 import org.apache.activemq.artemis.core.config.storage.DatabaseStorageConfiguration;
 import org.apache.activemq.artemis.core.config.storage.FileStorageConfiguration;
 import org.apache.activemq.artemis.core.io.aio.AIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.uring.IOUringSequentialFileFactory;
 import org.apache.activemq.artemis.core.security.Role;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.server.DivertConfigurationRoutingType;
@@ -213,6 +214,16 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
    private static final String MANAGEMENT_BROWSE_PAGE_SIZE = "management-browse-page-size";
 
+   private static final String DELIVERY_BATCH_SIZE = "delivery-batch-size";
+
+   private static final String QUEUE_PARTITIONS = "queue-partitions";
+
+   private static final String GROUP_BUCKETS = "group-buckets";
+
+   private static final String GROUP_REBALANCE = "group-rebalance";
+
+   private static final String MANAGEMENT_BROWSE_MAX_BYTES = "management-browse-max-bytes";
+
    private static final String MAX_CONNECTIONS_NODE_NAME = "max-connections";
 
    private static final String MAX_QUEUES_NODE_NAME = "max-queues";
@@ -307,6 +318,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
 
       config.setSecurityInvalidationInterval(getLong(e, "security-invalidation-interval", config.getSecurityInvalidationInterval(), Validators.GT_ZERO));
 
+      config.setAuthenticationCacheSize(getInteger(e, "authentication-cache-size", config.getAuthenticationCacheSize(), Validators.GE_ZERO));
+
       config.setConnectionTTLOverride(getLong(e, "connection-ttl-override", config.getConnectionTTLOverride(), Validators.MINUS_ONE_OR_GT_ZERO));
 
       config.setEnabledAsyncConnectionExecution(getBoolean(e, "async-connection-execution-enabled", config.isAsyncConnectionExecutionEnabled()));
@@ -345,6 +358,8 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
          config.setGlobalMaxSize(globalMaxSize);
       }
 
+      config.setGlobalPagingPressureThreshold(getInteger(e, "global-paging-pressure-threshold", config.getGlobalPagingPressureThreshold(), Validators.MINUS_ONE_OR_GT_ZERO));
+
       config.setMaxDiskUsage(getInteger(e, MAX_DISK_USAGE, config.getMaxDiskUsage(), Validators.PERCENTAGE));
 
       config.setDiskScanPeriod(getInteger(e, DISK_SCAN_PERIOD, config.getDiskScanPeriod(), Validators.MINUS_ONE_OR_GT_ZERO));
@@ -541,23 +556,56 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
             }
             config.setJournalType(JournalType.NIO);
          }
+      } else if (config.getJournalType() == JournalType.IO_URING) {
+         // same as AIO, the settings are read as NIO ones when io_uring is not available
+         if (!IOUringSequentialFileFactory.isSupported()) {
+            if (validateAIO) {
+               ActiveMQServerLogger.LOGGER.switchingNIOFromIOUring();
+            }
+            config.setJournalType(JournalType.NIO);
+         }
       }
 
       config.setJournalDatasync(getBoolean(e, "journal-datasync", config.isJournalDatasync()));
 
+      config.setJournalDirectIO(getBoolean(e, "journal-direct-io", config.isJournalDirectIO()));
+
+      config.setJournalCompactPageAcks(getBoolean(e, "journal-compact-page-acks", config.isJournalCompactPageAcks()));
+
+      config.setJournalStripes(getInteger(e, "journal-stripes", config.getJournalStripes(), Validators.JOURNAL_STRIPES));
+
+      NodeList stripeDirectoriesNodes = e.getElementsByTagName("journal-stripe-directories");
+
+      if (stripeDirectoriesNodes.getLength() > 0) {
+         ArrayList<String> stripeDirectories = new ArrayList<>();
+
+         NodeList directories = stripeDirectoriesNodes.item(0).getChildNodes();
+
+         for (int i = 0; i < directories.getLength(); i++) {
+            if ("directory".equalsIgnoreCase(directories.item(i).getNodeName())) {
+               stripeDirectories.add(directories.item(i).getTextContent().trim());
+            }
+         }
+
+         config.setJournalStripeDirectories(stripeDirectories);
+      }
+
       config.setJournalSyncTransactional(getBoolean(e, "journal-sync-transactional", config.isJournalSyncTransactional()));
 
       config.setJournalSyncNonTransactional(getBoolean(e, "journal-sync-non-transactional", config.isJournalSyncNonTransactional()));
 
       config.setJournalFileSize(getTextBytesAsIntBytes(e, "journal-file-size", config.getJournalFileSize(), Validators.GT_ZERO));
 
-      int journalBufferTimeout = getInteger(e, "journal-buffer-timeout", config.getJournalType() == JournalType.ASYNCIO ? ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_AIO : ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, Validators.GT_ZERO);
+      // io_uring shares the AIO settings
+      boolean nativeJournal = config.getJournalType() == JournalType.ASYNCIO || config.getJournalType() == JournalType.IO_URING;
 
-      int journalBufferSize = getTextBytesAsIntBytes(e, "journal-buffer-size", config.getJournalType() == JournalType.ASYNCIO ? ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_AIO : ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, Validators.GT_ZERO);
+      int journalBufferTimeout = getInteger(e, "journal-buffer-timeout", nativeJournal ? ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_AIO : ArtemisConstants.DEFAULT_JOURNAL_BUFFER_TIMEOUT_NIO, Validators.GT_ZERO);
 
-      int journalMaxIO = getInteger(e, "journal-max-io", config.getJournalType() == JournalType.ASYNCIO ? ActiveMQDefaultConfiguration.getDefaultJournalMaxIoAio() : ActiveMQDefaultConfiguration.getDefaultJournalMaxIoNio(), Validators.GT_ZERO);
+      int journalBufferSize = getTextBytesAsIntBytes(e, "journal-buffer-size", nativeJournal ? ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_AIO : ArtemisConstants.DEFAULT_JOURNAL_BUFFER_SIZE_NIO, Validators.GT_ZERO);
 
-      if (config.getJournalType() == JournalType.ASYNCIO) {
+      int journalMaxIO = getInteger(e, "journal-max-io", nativeJournal ? ActiveMQDefaultConfiguration.getDefaultJournalMaxIoAio() : ActiveMQDefaultConfiguration.getDefaultJournalMaxIoNio(), Validators.GT_ZERO);
+
+      if (nativeJournal) {
          config.setJournalBufferTimeout_AIO(journalBufferTimeout);
          config.setJournalBufferSize_AIO(journalBufferSize);
          config.setJournalMaxIO_AIO(journalMaxIO);
@@ -1029,6 +1077,24 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
             Validators.ROUTING_TYPE.validate(DEFAULT_ADDRESS_ROUTING_TYPE, value);
             RoutingType routingType = RoutingType.valueOf(value);
             addressSettings.setDefaultAddressRoutingType(routingType);
+         } else if (DELIVERY_BATCH_SIZE.equalsIgnoreCase(name)) {
+            int deliveryBatchSize = XMLUtil.parseInt(child);
+            Validators.GT_ZERO.validate(DELIVERY_BATCH_SIZE, deliveryBatchSize);
+            addressSettings.setDeliveryBatchSize(deliveryBatchSize);
+         } else if (QUEUE_PARTITIONS.equalsIgnoreCase(name)) {
+            int queuePartitions = XMLUtil.parseInt(child);
+            Validators.GT_ZERO.validate(QUEUE_PARTITIONS, queuePartitions);
+            addressSettings.setQueuePartitions(queuePartitions);
+         } else if (GROUP_BUCKETS.equalsIgnoreCase(name)) {
+            int groupBuckets = XMLUtil.parseInt(child);
+            Validators.MINUS_ONE_OR_GT_ZERO.validate(GROUP_BUCKETS, groupBuckets);
+            addressSettings.setGroupBuckets(groupBuckets);
+         } else if (GROUP_REBALANCE.equalsIgnoreCase(name)) {
+            addressSettings.setGroupRebalance(XMLUtil.parseBoolean(child));
+         } else if (MANAGEMENT_BROWSE_MAX_BYTES.equalsIgnoreCase(name)) {
+            long managementBrowseMaxBytes = XMLUtil.parseLong(child);
+            Validators.GT_ZERO.validate(MANAGEMENT_BROWSE_MAX_BYTES, managementBrowseMaxBytes);
+            addressSettings.setManagementBrowseMaxBytes(managementBrowseMaxBytes);
          }
       }
       return setting;
@@ -1623,7 +1689,7 @@ public final class FileConfigurationParser extends XMLConfigurationUtil {
       Integer timeout = getInteger(node, "timeout", ActiveMQDefaultConfiguration.getDefaultGroupingHandlerTimeout(), Validators.GT_ZERO);
       Long groupTimeout = getLong(node, "group-timeout", ActiveMQDefaultConfiguration.getDefaultGroupingHandlerGroupTimeout(), Validators.MINUS_ONE_OR_GT_ZERO);
       Long reaperPeriod = getLong(node, "reaper-period", ActiveMQDefaultConfiguration.getDefaultGroupingHandlerReaperPeriod(), Validators.GT_ZERO);
-      mainConfiguration.setGroupingHandlerConfiguration(new GroupingHandlerConfiguration().setName(new SimpleString(name)).setType(type.equals(GroupingHandlerConfiguration.TYPE.LOCAL.getType()) ? GroupingHandlerConfiguration.TYPE.LOCAL : GroupingHandlerConfiguration.TYPE.REMOTE).setAddress(new SimpleString(address)).setTimeout(timeout).setGroupTimeout(groupTimeout).setReaperPeriod(reaperPeriod));
+      mainConfiguration.setGroupingHandlerConfiguration(new GroupingHandlerConfiguration().setName(new SimpleString(name)).setType(type.equals(GroupingHandlerConfiguration.TYPE.LOCAL.getType()) ? GroupingHandlerConfiguration.TYPE.LOCAL : type.equals(GroupingHandlerConfiguration.TYPE.PARTITIONED.getType()) ? GroupingHandlerConfiguration.TYPE.PARTITIONED : GroupingHandlerConfiguration.TYPE.REMOTE).setAddress(new SimpleString(address)).setTimeout(timeout).setGroupTimeout(groupTimeout).setReaperPeriod(reaperPeriod));
    }
 
    private void parseBridgeConfiguration(final Element brNode, final Configuration mainConfig) throws Exception {
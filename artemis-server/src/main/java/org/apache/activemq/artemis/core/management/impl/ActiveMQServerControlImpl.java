@@ -265,7 +265,7 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
 
       clearIO();
       try {
-         return configuration.getJournalType() == JournalType.ASYNCIO ? configuration.getJournalBufferSize_AIO() : configuration.getJournalBufferSize_NIO();
+         return usesAIOSettings() ? configuration.getJournalBufferSize_AIO() : configuration.getJournalBufferSize_NIO();
       } finally {
          blockOnIO();
       }
@@ -277,7 +277,7 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
 
       clearIO();
       try {
-         return configuration.getJournalType() == JournalType.ASYNCIO ? configuration.getJournalBufferTimeout_AIO() : configuration.getJournalBufferTimeout_NIO();
+         return usesAIOSettings() ? configuration.getJournalBufferTimeout_AIO() : configuration.getJournalBufferTimeout_NIO();
       } finally {
          blockOnIO();
       }
@@ -321,7 +321,7 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
 
       clearIO();
       try {
-         return configuration.getJournalType() == JournalType.ASYNCIO ? configuration.getJournalMaxIO_AIO() : configuration.getJournalMaxIO_NIO();
+         return usesAIOSettings() ? configuration.getJournalMaxIO_AIO() : configuration.getJournalMaxIO_NIO();
       } finally {
          blockOnIO();
       }
@@ -2680,6 +2680,13 @@ public class ActiveMQServerControlImpl extends AbstractControl implements Active
       }
    }
 
+   /**
+    * IO_URING shares the buffer, timeout and max IO settings with ASYNCIO
+    */
+   private boolean usesAIOSettings() {
+      return configuration.getJournalType() == JournalType.ASYNCIO || configuration.getJournalType() == JournalType.IO_URING;
+   }
+
    public String[] listTargetAddresses(final String sessionID) {
       ServerSession session = server.getSessionByID(sessionID);
       if (session != null) {
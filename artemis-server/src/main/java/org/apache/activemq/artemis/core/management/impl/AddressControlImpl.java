@@ -216,6 +216,20 @@ public class AddressControlImpl extends AbstractControl implements AddressContro
       }
    }
 
+   @Override
+   public double getAddressMemoryShare() throws Exception {
+      clearIO();
+      try {
+         long globalSize = pagingManager.getGlobalSize();
+         if (globalSize <= 0) {
+            return 0;
+         }
+         return pagingManager.getPageStore(addressInfo.getName()).getAddressSize() * 100d / globalSize;
+      } finally {
+         blockOnIO();
+      }
+   }
+
    @Override
    public long getNumberOfMessages() throws Exception {
       clearIO();
@@ -19,9 +19,11 @@ package org.apache.activemq.artemis.core.management.impl;
 import javax.json.JsonArray;
 import javax.json.JsonArrayBuilder;
 import javax.json.JsonObjectBuilder;
+import javax.json.stream.JsonGenerator;
 import javax.management.MBeanAttributeInfo;
 import javax.management.MBeanOperationInfo;
 import javax.management.openmbean.CompositeData;
+import java.io.StringWriter;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -470,16 +472,78 @@ public class QueueControlImpl extends AbstractControl implements QueueControl {
 
    @Override
    public String listMessagesAsJSON(final String filter) throws Exception {
+      return listMessagesAsJSON(filter, 0, Integer.MAX_VALUE, Long.MAX_VALUE);
+   }
+
+   @Override
+   public String listMessagesAsJSON(final String filter, final long offset, final int limit) throws Exception {
+      AddressSettings addressSettings = addressSettingsRepository.getMatch(address);
+      return listMessagesAsJSON(filter, offset, Math.min(limit, addressSettings.getManagementBrowsePageSize()), addressSettings.getManagementBrowseMaxBytes());
+   }
+
+   /**
+    * Writes each message as it is browsed, so only the JSON text is held rather than a map of every message.
+    */
+   private String listMessagesAsJSON(final String filter,
+                                     final long offset,
+                                     final int limit,
+                                     final long maxBytes) throws Exception {
       checkStarted();
 
       clearIO();
       try {
-         return QueueControlImpl.toJSON(listMessages(filter));
+         StringWriter writer = new StringWriter();
+         try (JsonGenerator generator = JsonLoader.createGenerator(writer)) {
+            generator.writeStartArray();
+            browse(filter, offset, limit, maxBytes, ref -> generator.write(JsonUtil.toJsonObject(ref.getMessage().toMap())));
+            generator.writeEnd();
+         }
+         return writer.toString();
+      } catch (ActiveMQException e) {
+         throw new IllegalStateException(e.getMessage());
       } finally {
          blockOnIO();
       }
    }
 
+   /**
+    * Hands the messages matching {@code filterStr} to {@code handler}, after skipping the first {@code offset} of them,
+    * until {@code limit} messages or at least {@code maxBytes} of them were handled.
+    * Paged messages are browsed as well.
+    */
+   private void browse(final String filterStr,
+                       final long offset,
+                       final int limit,
+                       final long maxBytes,
+                       final ReferenceHandler handler) throws Exception {
+      if (offset < 0 || limit <= 0) {
+         throw new IllegalArgumentException("offset must not be negative and limit must be greater than 0");
+      }
+      Filter filter = FilterImpl.createFilter(filterStr);
+      queue.flushExecutor();
+      try (LinkedListIterator<MessageReference> iterator = queue.browserIterator()) {
+         long skipped = 0;
+         int handled = 0;
+         long bytes = 0;
+         try {
+            while (handled < limit && bytes < maxBytes && iterator.hasNext()) {
+               MessageReference ref = iterator.next();
+               if (filter == null || filter.match(ref.getMessage())) {
+                  if (skipped < offset) {
+                     skipped++;
+                  } else {
+                     handler.handle(ref);
+                     handled++;
+                     bytes += ref.getMessageMemoryEstimate();
+                  }
+               }
+            }
+         } catch (NoSuchElementException ignored) {
+            // this could happen through paging browsing
+         }
+      }
+   }
+
    protected Map<String, Object>[] getFirstMessage() throws Exception {
       checkStarted();
 
@@ -985,6 +1049,23 @@ public class QueueControlImpl extends AbstractControl implements QueueControl {
       }
    }
 
+   @Override
+   public CompositeData[] browse(final String filter, final long offset, final int limit) throws Exception {
+      checkStarted();
+
+      clearIO();
+      try {
+         AddressSettings addressSettings = addressSettingsRepository.getMatch(address);
+         ArrayList<CompositeData> c = new ArrayList<>();
+         browse(filter, offset, Math.min(limit, addressSettings.getManagementBrowsePageSize()), addressSettings.getManagementBrowseMaxBytes(), ref -> c.add(OpenTypeSupport.convert(ref)));
+         return c.toArray(new CompositeData[c.size()]);
+      } catch (ActiveMQException e) {
+         throw new IllegalStateException(e.getMessage());
+      } finally {
+         blockOnIO();
+      }
+   }
+
    @Override
    public void flushExecutor() {
       checkStarted();
@@ -1100,4 +1181,9 @@ public class QueueControlImpl extends AbstractControl implements QueueControl {
    }
 
    // Inner classes -------------------------------------------------
+
+   private interface ReferenceHandler {
+
+      void handle(MessageReference ref) throws Exception;
+   }
 }
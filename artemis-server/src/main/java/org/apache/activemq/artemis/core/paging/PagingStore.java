@@ -65,6 +65,14 @@ public interface PagingStore extends ActiveMQComponent, RefCountMessageListener
 
    long getAddressSize();
 
+   /**
+    * The total number of bytes released from this address since it was started: messages acknowledged, expired or
+    * removed. Used to tell how fast an address is being consumed.
+    */
+   default long getReleasedSize() {
+      return 0;
+   }
+
    long getMaxSize();
 
    void applySetting(AddressSettings addressSettings);
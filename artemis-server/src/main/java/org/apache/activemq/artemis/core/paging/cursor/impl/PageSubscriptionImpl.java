@@ -18,16 +18,15 @@ package org.apache.activemq.artemis.core.paging.cursor.impl;
 
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Set;
 import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -56,7 +55,7 @@ import org.apache.activemq.artemis.core.transaction.TransactionPropertyIndexes;
 import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
 import org.apache.activemq.artemis.utils.FutureLatch;
 import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
-import org.apache.activemq.artemis.utils.collections.ConcurrentHashSet;
+import org.apache.activemq.artemis.utils.collections.ConcurrentBitSet;
 import org.jboss.logging.Logger;
 
 final class PageSubscriptionImpl implements PageSubscription {
@@ -88,7 +87,10 @@ final class PageSubscriptionImpl implements PageSubscription {
 
    private List<PagePosition> recoveredACK;
 
-   private final SortedMap<Long, PageCursorInfo> consumedPages = new TreeMap<>();
+   private static final long[] EMPTY_RECORD_IDS = new long[0];
+
+   // lookups don't need to lock, compound operations and iterations still synchronize on it
+   private final SortedMap<Long, PageCursorInfo> consumedPages = new ConcurrentSkipListMap<>();
 
    private final PageSubscriptionCounter counter;
 
@@ -308,19 +310,16 @@ final class PageSubscriptionImpl implements PageSubscription {
          }
 
          // it will delete the page ack records
-         for (PagePosition pos : infoPG.acks) {
-            if (pos.getRecordID() >= 0) {
-               store.deleteCursorAcknowledgeTransactional(tx.getID(), pos.getRecordID());
-               if (!persist) {
-                  // only need to set it once
-                  tx.setContainsPersistent();
-                  persist = true;
-               }
+         for (long recordID : infoPG.getACKRecordIDs()) {
+            store.deleteCursorAcknowledgeTransactional(tx.getID(), recordID);
+            if (!persist) {
+               // only need to set it once
+               tx.setContainsPersistent();
+               persist = true;
             }
          }
 
-         infoPG.acks.clear();
-         infoPG.removedReferences.clear();
+         infoPG.clearACKs();
       }
 
       tx.addOperation(new TransactionOperationAbstract() {
@@ -615,11 +614,9 @@ final class PageSubscriptionImpl implements PageSubscription {
 
          synchronized (consumedPages) {
             for (PageCursorInfo cursor : consumedPages.values()) {
-               for (PagePosition info : cursor.acks) {
-                  if (info.getRecordID() >= 0) {
-                     isPersistent = true;
-                     store.deleteCursorAcknowledgeTransactional(tx, info.getRecordID());
-                  }
+               for (long recordID : cursor.getACKRecordIDs()) {
+                  isPersistent = true;
+                  store.deleteCursorAcknowledgeTransactional(tx, recordID);
                }
                PagePosition completeInfo = cursor.getCompleteInfo();
                if (completeInfo != null && completeInfo.getRecordID() >= 0) {
@@ -729,16 +726,14 @@ final class PageSubscriptionImpl implements PageSubscription {
             }
             info.setCompleteInfo(null);
          }
-         for (PagePosition deleteInfo : info.acks) {
-            if (deleteInfo.getRecordID() >= 0) {
-               try {
-                  store.deleteCursorAcknowledge(deleteInfo.getRecordID());
-               } catch (Exception e) {
-                  ActiveMQServerLogger.LOGGER.errorDeletingPageCompleteRecord(e);
-               }
+         for (long recordID : info.getACKRecordIDs()) {
+            try {
+               store.deleteCursorAcknowledge(recordID);
+            } catch (Exception e) {
+               ActiveMQServerLogger.LOGGER.errorDeletingPageCompleteRecord(e);
             }
          }
-         info.acks.clear();
+         info.clearACKs();
       }
    }
 
@@ -757,8 +752,12 @@ final class PageSubscriptionImpl implements PageSubscription {
    }
 
    private PageCursorInfo getPageInfo(final long pageNr) {
+      PageCursorInfo pageInfo = consumedPages.get(pageNr);
+      if (pageInfo != null) {
+         return pageInfo;
+      }
       synchronized (consumedPages) {
-         PageCursorInfo pageInfo = consumedPages.get(pageNr);
+         pageInfo = consumedPages.get(pageNr);
 
          if (pageInfo == null) {
             PageCache cache = cursorProvider.getPageCache(pageNr);
@@ -882,12 +881,18 @@ final class PageSubscriptionImpl implements PageSubscription {
 
       private final long pageId;
 
-      // Confirmed ACKs on this page
-      private final Set<PagePosition> acks = Collections.synchronizedSet(new LinkedHashSet<PagePosition>());
+      // Confirmed ACKs on this page, by message number
+      private final ConcurrentBitSet acks;
+
+      // The journal records of the confirmed ACKs, only the persistent ones have one
+      private long[] ackRecordIDs;
+
+      private int ackRecordCount;
 
       private WeakReference<PageCache> cache;
 
-      private final Set<PagePosition> removedReferences = new ConcurrentHashSet<>();
+      // Messages removed from this page, by message number: acked or being acked on a TX
+      private final ConcurrentBitSet removedReferences;
 
       // The page was live at the time of the creation
       private final boolean wasLive;
@@ -910,7 +915,7 @@ final class PageSubscriptionImpl implements PageSubscription {
       private final AtomicInteger confirmed = new AtomicInteger(0);
 
       public boolean isAck(PagePosition position) {
-         return completePage != null || acks.contains(position);
+         return completePage != null || acks.get(position.getMessageNr());
       }
 
       @Override
@@ -939,6 +944,8 @@ final class PageSubscriptionImpl implements PageSubscription {
          logger.tracef("Created PageCursorInfo for pageNr=%d, numberOfMessages=%d,  cache=%s", pageId, numberOfMessages, cache);
          this.pageId = pageId;
          this.numberOfMessages = numberOfMessages;
+         this.acks = new ConcurrentBitSet(Math.max(0, numberOfMessages));
+         this.removedReferences = new ConcurrentBitSet(Math.max(0, numberOfMessages));
          if (cache != null) {
             wasLive = cache.isLive();
             this.cache = new WeakReference<>(cache);
@@ -992,11 +999,13 @@ final class PageSubscriptionImpl implements PageSubscription {
       }
 
       public boolean isRemoved(final PagePosition pos) {
-         return removedReferences.contains(pos);
+         return removedReferences.get(pos.getMessageNr());
       }
 
       public void remove(final PagePosition position) {
-         removedReferences.add(position);
+         if (position.getMessageNr() >= 0) {
+            removedReferences.set(position.getMessageNr());
+         }
       }
 
       public void addACK(final PagePosition posACK) {
@@ -1031,8 +1040,39 @@ final class PageSubscriptionImpl implements PageSubscription {
       }
 
       private boolean internalAddACK(final PagePosition posACK) {
-         removedReferences.add(posACK);
-         return acks.add(posACK);
+         if (posACK.getRecordID() >= 0) {
+            addACKRecordID(posACK.getRecordID());
+         }
+         if (posACK.getMessageNr() < 0) {
+            return false;
+         }
+         removedReferences.set(posACK.getMessageNr());
+         return acks.set(posACK.getMessageNr());
+      }
+
+      private synchronized void addACKRecordID(final long recordID) {
+         if (ackRecordIDs == null) {
+            ackRecordIDs = new long[4];
+         } else if (ackRecordCount == ackRecordIDs.length) {
+            ackRecordIDs = Arrays.copyOf(ackRecordIDs, ackRecordCount * 2);
+         }
+         ackRecordIDs[ackRecordCount++] = recordID;
+      }
+
+      /**
+       * @return the journal records of the ACKs confirmed on this page
+       */
+      public synchronized long[] getACKRecordIDs() {
+         return ackRecordIDs == null ? EMPTY_RECORD_IDS : Arrays.copyOf(ackRecordIDs, ackRecordCount);
+      }
+
+      public void clearACKs() {
+         synchronized (this) {
+            ackRecordIDs = null;
+            ackRecordCount = 0;
+         }
+         acks.clear();
+         removedReferences.clear();
       }
 
       /**
@@ -46,6 +46,9 @@ public final class PagingManagerImpl implements PagingManager {
 
    private static final Logger logger = Logger.getLogger(PagingManagerImpl.class);
 
+   // how often (in ms) the addresses are ranked when a paging pressure threshold is set
+   private static final long PAGING_PRESSURE_CHECK_PERIOD = 1000;
+
    private volatile boolean started = false;
 
    /**
@@ -78,6 +81,10 @@ public final class PagingManagerImpl implements PagingManager {
 
    private ActiveMQScheduledComponent scheduledComponent = null;
 
+   private final PagingPressureGovernor pressureGovernor;
+
+   private ActiveMQScheduledComponent pressureComponent = null;
+
    // Static
    // --------------------------------------------------------------------------------------------------------------------------
 
@@ -87,10 +94,26 @@ public final class PagingManagerImpl implements PagingManager {
    public PagingManagerImpl(final PagingStoreFactory pagingSPI,
                             final HierarchicalRepository<AddressSettings> addressSettingsRepository,
                             final long maxSize) {
+      this(pagingSPI, addressSettingsRepository, maxSize, -1);
+   }
+
+   /**
+    * @param pagingPressureThreshold the percentage of {@code maxSize} over which the coldest addresses start paging,
+    *                                -1 to only page addresses once they, or the global size, are full
+    */
+   public PagingManagerImpl(final PagingStoreFactory pagingSPI,
+                            final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                            final long maxSize,
+                            final int pagingPressureThreshold) {
       pagingStoreFactory = pagingSPI;
       this.addressSettingsRepository = addressSettingsRepository;
       addressSettingsRepository.registerListener(this);
       this.maxSize = maxSize;
+      if (maxSize > 0 && pagingPressureThreshold > 0 && pagingPressureThreshold < 100) {
+         this.pressureGovernor = new PagingPressureGovernor(maxSize, pagingPressureThreshold);
+      } else {
+         this.pressureGovernor = null;
+      }
    }
 
    public PagingManagerImpl(final PagingStoreFactory pagingSPI,
@@ -110,7 +133,7 @@ public final class PagingManagerImpl implements PagingManager {
 
    private void reapplySettings() {
       for (PagingStore store : stores.values()) {
-         AddressSettings settings = this.addressSettingsRepository.getMatch(store.getAddress().toString());
+         AddressSettings settings = this.addressSettingsRepository.getMatch(store.getAddress());
          store.applySetting(settings);
       }
    }
@@ -346,6 +369,17 @@ public final class PagingManagerImpl implements PagingManager {
 
          }
 
+         if (pressureGovernor != null && pagingStoreFactory.getScheduledExecutor() != null) {
+            this.pressureComponent = new ActiveMQScheduledComponent(pagingStoreFactory.getScheduledExecutor(), pagingStoreFactory.newExecutor(), PAGING_PRESSURE_CHECK_PERIOD, TimeUnit.MILLISECONDS, false) {
+               @Override
+               public void run() {
+                  checkPagingPressure();
+               }
+            };
+
+            this.pressureComponent.start();
+         }
+
          started = true;
       } finally {
          unlock();
@@ -354,6 +388,31 @@ public final class PagingManagerImpl implements PagingManager {
 
    public void debug() {
       logger.info("size = " + globalSizeBytes + " bytes, messages = " + numberOfMessages);
+      long globalSize = globalSizeBytes.get();
+      if (globalSize > 0) {
+         for (PagingStore store : stores.values()) {
+            long addressSize = store.getAddressSize();
+            if (addressSize > 0) {
+               logger.info(store.getStoreName() + " size = " + addressSize + " bytes, " + String.format("%.2f", addressSize * 100d / globalSize) + "% of the global size, paging = " + store.isPaging());
+            }
+         }
+      }
+   }
+
+   /**
+    * Pages the coldest addresses when the global size is over the paging pressure threshold.
+    */
+   public void checkPagingPressure() {
+      if (pressureGovernor == null || !started) {
+         return;
+      }
+
+      syncLock.readLock().lock();
+      try {
+         pressureGovernor.evaluate(stores.values(), globalSizeBytes.get(), System.currentTimeMillis());
+      } finally {
+         syncLock.readLock().unlock();
+      }
    }
 
    @Override
@@ -368,6 +427,11 @@ public final class PagingManagerImpl implements PagingManager {
          this.scheduledComponent = null;
       }
 
+      if (pressureComponent != null) {
+         this.pressureComponent.stop();
+         this.pressureComponent = null;
+      }
+
       lock();
       try {
 
@@ -393,7 +457,7 @@ public final class PagingManagerImpl implements PagingManager {
       try {
          PagingStore store = stores.get(address);
          if (store == null) {
-            store = pagingStoreFactory.newStore(address, addressSettingsRepository.getMatch(address.toString()));
+            store = pagingStoreFactory.newStore(address, addressSettingsRepository.getMatch(address));
             store.start();
             if (!cleanupEnabled) {
                store.disableCleanup();
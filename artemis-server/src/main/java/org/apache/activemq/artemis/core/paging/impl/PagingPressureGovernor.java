@@ -0,0 +1,197 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.paging.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.jboss.logging.Logger;
+
+/**
+ * Starts paging the coldest addresses once the global size goes over a share of global-max-size, before it's full
+ * and every address has to page or block at once.
+ * <p>
+ * Addresses are ranked by how long they would take to release the memory they hold at the rate they released memory
+ * lately, the longest first, then by how long ago they last released any memory. The pressure grows from 0 at the
+ * threshold to 1 at global-max-size, and the coldest addresses are paged until the addresses paging hold that share
+ * of the global size.
+ * <p>
+ * Only addresses using the PAGE policy are considered. An address stops paging the usual way, once its pages are
+ * consumed.
+ */
+public final class PagingPressureGovernor {
+
+   private static final Logger logger = Logger.getLogger(PagingPressureGovernor.class);
+
+   // how much the last period weighs on the release rate of an address
+   private static final double RATE_WEIGHT = 0.5;
+
+   private static final Comparator<StoreStats> COLDEST_FIRST = Comparator.comparingDouble(StoreStats::getDrainTime).reversed().thenComparingLong(StoreStats::getLastReleaseTime);
+
+   private final long maxSize;
+
+   private final long thresholdSize;
+
+   private final Map<SimpleString, StoreStats> stats = new HashMap<>();
+
+   private long lastEvaluation = -1;
+
+   /**
+    * @param maxSize          the global max size
+    * @param thresholdPercent the percentage of {@code maxSize} over which addresses start paging
+    */
+   public PagingPressureGovernor(final long maxSize, final int thresholdPercent) {
+      this.maxSize = maxSize;
+      this.thresholdSize = maxSize * thresholdPercent / 100;
+   }
+
+   public long getThresholdSize() {
+      return thresholdSize;
+   }
+
+   /**
+    * Updates the release rate of each store and starts paging the coldest ones if the global size is over the
+    * threshold.
+    *
+    * @return the stores that started paging
+    */
+   public synchronized List<PagingStore> evaluate(final Collection<PagingStore> stores,
+                                                  final long globalSize,
+                                                  final long now) {
+      final double elapsedSeconds = lastEvaluation < 0 ? 0 : (now - lastEvaluation) / 1000d;
+      lastEvaluation = now;
+
+      final Set<SimpleString> present = new HashSet<>();
+      final List<StoreStats> candidates = new ArrayList<>();
+      long pagingSize = 0;
+
+      for (PagingStore store : stores) {
+         present.add(store.getStoreName());
+         StoreStats stat = stats.get(store.getStoreName());
+         if (stat == null) {
+            stat = new StoreStats(now);
+            stats.put(store.getStoreName(), stat);
+         }
+         stat.update(store, elapsedSeconds, now);
+
+         if (store.getAddressFullMessagePolicy() == AddressFullMessagePolicy.PAGE && store.isStarted()) {
+            if (store.isPaging()) {
+               pagingSize += stat.addressSize;
+            } else if (stat.addressSize > 0) {
+               candidates.add(stat);
+            }
+         }
+      }
+      stats.keySet().retainAll(present);
+
+      if (thresholdSize <= 0 || globalSize <= thresholdSize || candidates.isEmpty()) {
+         return Collections.emptyList();
+      }
+
+      final double pressure = maxSize <= thresholdSize ? 1 : Math.min(1d, (double) (globalSize - thresholdSize) / (maxSize - thresholdSize));
+      final long target = (long) (pressure * globalSize);
+
+      if (logger.isDebugEnabled()) {
+         logger.debug("Global size " + globalSize + " over the paging threshold of " + thresholdSize + ", pressure=" + pressure +
+                         ", " + pagingSize + " bytes on addresses already paging, target=" + target);
+      }
+
+      candidates.sort(COLDEST_FIRST);
+
+      List<PagingStore> started = null;
+      for (StoreStats candidate : candidates) {
+         if (pagingSize >= target) {
+            break;
+         }
+
+         try {
+            if (candidate.store.startPaging()) {
+               ActiveMQServerLogger.LOGGER.pageStoreStartUnderPressure(candidate.store.getStoreName(), candidate.addressSize, globalSize, maxSize);
+               if (started == null) {
+                  started = new ArrayList<>();
+               }
+               started.add(candidate.store);
+            }
+         } catch (Exception e) {
+            logger.warn("Could not start paging " + candidate.store.getStoreName(), e);
+         }
+         pagingSize += candidate.addressSize;
+      }
+
+      return started == null ? Collections.emptyList() : started;
+   }
+
+   private static final class StoreStats {
+
+      private PagingStore store;
+
+      private long addressSize;
+
+      private long lastReleased = -1;
+
+      private long lastReleaseTime;
+
+      // bytes per second
+      private double releaseRate = -1;
+
+      private StoreStats(final long now) {
+         this.lastReleaseTime = now;
+      }
+
+      private void update(final PagingStore store, final double elapsedSeconds, final long now) {
+         final long released = store.getReleasedSize();
+         long releasedSince = lastReleased < 0 ? 0 : released - lastReleased;
+         if (releasedSince < 0) {
+            // the store was recreated
+            releasedSince = released;
+         }
+
+         this.store = store;
+         this.lastReleased = released;
+         this.addressSize = store.getAddressSize();
+
+         if (releasedSince > 0 || addressSize <= 0) {
+            // holding no memory counts as having released it all
+            lastReleaseTime = now;
+         }
+
+         if (elapsedSeconds > 0) {
+            final double periodRate = releasedSince / elapsedSeconds;
+            releaseRate = releaseRate < 0 ? periodRate : RATE_WEIGHT * periodRate + (1 - RATE_WEIGHT) * releaseRate;
+         }
+      }
+
+      private double getDrainTime() {
+         return releaseRate <= 0 ? Double.POSITIVE_INFINITY : addressSize / releaseRate;
+      }
+
+      private long getLastReleaseTime() {
+         return lastReleaseTime;
+      }
+   }
+}
@@ -31,6 +31,7 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
@@ -77,6 +78,11 @@ public class PagingStoreImpl implements PagingStore {
 
    private final DecimalFormat format = new DecimalFormat("000000000");
 
+   /**
+    * Extension of the file created in advance for the next page, it is renamed to a page file on rollover
+    */
+   private static final String NEXT_PAGE_EXTENSION = "tmp";
+
    private final AtomicInteger currentPageSize = new AtomicInteger(0);
 
    private final SimpleString storeName;
@@ -106,6 +112,9 @@ public class PagingStoreImpl implements PagingStore {
    // Bytes consumed by the queue on the memory
    private final AtomicLong sizeInBytes = new AtomicLong();
 
+   // only read when ranking the addresses under memory pressure
+   private final LongAdder releasedSize = new LongAdder();
+
    private int numberOfPages;
 
    private int firstPageId;
@@ -114,6 +123,11 @@ public class PagingStoreImpl implements PagingStore {
 
    private volatile Page currentPage;
 
+   // guarded by the write lock, created on the executor while paging
+   private SequentialFile nextPageFile;
+
+   private final AtomicBoolean creatingNextPage = new AtomicBoolean(false);
+
    private volatile boolean paging = false;
 
    private final PageCursorProvider cursorProvider;
@@ -242,6 +256,11 @@ public class PagingStoreImpl implements PagingStore {
       return sizeInBytes.get();
    }
 
+   @Override
+   public long getReleasedSize() {
+      return releasedSize.sum();
+   }
+
    @Override
    public long getMaxSize() {
       if (maxSize < 0) {
@@ -358,6 +377,13 @@ public class PagingStoreImpl implements PagingStore {
             currentPage.close(false);
             currentPage = null;
          }
+
+         lock.writeLock().lock();
+         try {
+            deleteNextPageFile();
+         } finally {
+            lock.writeLock().unlock();
+         }
       }
    }
 
@@ -400,6 +426,13 @@ public class PagingStoreImpl implements PagingStore {
                }
                currentPage = null;
 
+               nextPageFile = null;
+
+               // a next page created before a crash is of no use, the page ids are resolved again
+               for (String fileName : fileFactory.listFiles(NEXT_PAGE_EXTENSION)) {
+                  fileFactory.createSequentialFile(fileName).delete();
+               }
+
                List<String> files = fileFactory.listFiles("page");
 
                numberOfPages = files.size();
@@ -506,6 +539,8 @@ public class PagingStoreImpl implements PagingStore {
 
          paging = true;
 
+         scheduleNextPage();
+
          return true;
       } finally {
          lock.writeLock().unlock();
@@ -605,6 +640,7 @@ public class PagingStoreImpl implements PagingStore {
                // The current page is empty... which means we reached the end of the pages
                if (returnPage.getNumberOfMessages() == 0) {
                   stopPaging();
+                  deleteNextPageFile();
                   returnPage.open();
                   returnPage.delete(null);
 
@@ -717,6 +753,10 @@ public class PagingStoreImpl implements PagingStore {
          ActiveMQServerLogger.LOGGER.negativeAddressSize(newSize, address.toString());
       }
 
+      if (size < 0) {
+         releasedSize.add(-size);
+      }
+
       if (addressFullMessagePolicy == AddressFullMessagePolicy.BLOCK) {
          if (usingGlobalMaxSize && !globalFull || maxSize != -1) {
             checkReleaseMemory(globalFull, newSize);
@@ -819,7 +859,7 @@ public class PagingStoreImpl implements PagingStore {
             message.setAddress(address);
 
             final long transactionID = tx == null ? -1 : tx.getID();
-            PagedMessage pagedMessage = new PagedMessageImpl(message, routeQueues(tx, listCtx), transactionID);
+            PagedMessage pagedMessage = new PagedMessageImpl(message, routeQueues(message, tx, listCtx), transactionID);
 
             if (message.isLargeMessage()) {
                ((LargeServerMessage) message).setPaged();
@@ -880,7 +920,7 @@ public class PagingStoreImpl implements PagingStore {
       getCursorProvider().resumeCleanup();
    }
 
-   private long[] routeQueues(Transaction tx, RouteContextList ctx) throws Exception {
+   private long[] routeQueues(Message message, Transaction tx, RouteContextList ctx) throws Exception {
       List<org.apache.activemq.artemis.core.server.Queue> durableQueues = ctx.getDurableQueues();
       List<org.apache.activemq.artemis.core.server.Queue> nonDurableQueues = ctx.getNonDurableQueues();
       long[] ids = new long[durableQueues.size() + nonDurableQueues.size()];
@@ -888,11 +928,13 @@ public class PagingStoreImpl implements PagingStore {
 
       for (org.apache.activemq.artemis.core.server.Queue q : durableQueues) {
          q.getPageSubscription().notEmpty();
+         q.messagePaged(message, tx);
          ids[i++] = q.getID();
       }
 
       for (org.apache.activemq.artemis.core.server.Queue q : nonDurableQueues) {
          q.getPageSubscription().notEmpty();
+         q.messagePaged(message, tx);
          ids[i++] = q.getID();
       }
       return ids;
@@ -1080,7 +1122,7 @@ public class PagingStoreImpl implements PagingStore {
             currentPage.close(true);
          }
 
-         currentPage = createPage(tmpCurrentPageId);
+         currentPage = takeNextPage(tmpCurrentPageId);
 
          LivePageCache pageCache = new LivePageCacheImpl(currentPage);
 
@@ -1097,11 +1139,96 @@ public class PagingStoreImpl implements PagingStore {
          if (currentPageId < firstPageId) {
             firstPageId = currentPageId;
          }
+
+         if (paging) {
+            scheduleNextPage();
+         }
       } finally {
          lock.writeLock().unlock();
       }
    }
 
+   /**
+    * Returns the page for {@code pageId}, renaming the file created in advance by {@link #createNextPage()}
+    * when there is one, so the rollover doesn't have to wait for a new file to be created.
+    */
+   private Page takeNextPage(final int pageId) throws Exception {
+      SequentialFile file = nextPageFile;
+
+      nextPageFile = null;
+
+      if (file != null) {
+         if (getPageIdFromFileName(file.getFileName()) == pageId) {
+            file.renameTo(createFileName(pageId));
+            return new Page(storeName, storageManager, fileFactory, file, pageId);
+         }
+
+         file.delete();
+      }
+
+      return createPage(pageId);
+   }
+
+   private void scheduleNextPage() {
+      if (creatingNextPage.compareAndSet(false, true)) {
+         executor.execute(this::createNextPage);
+      }
+   }
+
+   /**
+    * Creates the file for the page following the current one outside of the lock, in the same way the journal
+    * keeps its next files opened in advance.
+    */
+   private void createNextPage() {
+      try {
+         lock.readLock().lock();
+         try {
+            // only this task sets the next page, it is still there when paging was stopped and started again
+            if (nextPageFile != null) {
+               return;
+            }
+         } finally {
+            lock.readLock().unlock();
+         }
+
+         final int pageId = currentPageId + 1;
+
+         SequentialFile file = fileFactory.createSequentialFile(createFileName(pageId) + "." + NEXT_PAGE_EXTENSION);
+
+         file.open();
+
+         file.position(0);
+
+         file.close();
+
+         lock.writeLock().lock();
+         try {
+            if (running && paging && nextPageFile == null && currentPageId + 1 == pageId) {
+               nextPageFile = file;
+               file = null;
+            }
+         } finally {
+            lock.writeLock().unlock();
+         }
+
+         if (file != null) {
+            file.delete();
+         }
+      } catch (Exception e) {
+         // the page will be created on the rollover instead
+         logger.debug("Could not create the next page on " + address, e);
+      } finally {
+         creatingNextPage.set(false);
+      }
+   }
+
+   private void deleteNextPageFile() throws Exception {
+      if (nextPageFile != null) {
+         nextPageFile.delete();
+         nextPageFile = null;
+      }
+   }
+
    /**
     * @param pageID
     * @return
@@ -309,6 +309,8 @@ public interface StorageManager extends IDGenerator, ActiveMQComponent {
    // grouping related operations
    void addGrouping(GroupBinding groupBinding) throws Exception;
 
+   void addGrouping(long tx, GroupBinding groupBinding) throws Exception;
+
    void deleteGrouping(long tx, GroupBinding groupBinding) throws Exception;
 
    void storeAddressSetting(PersistedAddressSetting addressSetting) throws Exception;
@@ -66,6 +66,7 @@ import org.apache.activemq.artemis.core.persistence.StorageManager;
 import org.apache.activemq.artemis.core.persistence.config.PersistedAddressSetting;
 import org.apache.activemq.artemis.core.persistence.config.PersistedRoles;
 import org.apache.activemq.artemis.core.persistence.impl.PageCountPending;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompactCursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DeleteEncoding;
 import org.apache.activemq.artemis.core.persistence.impl.journal.codec.DeliveryCountUpdateEncoding;
@@ -110,6 +111,7 @@ import org.apache.activemq.artemis.utils.critical.CriticalComponentImpl;
 import org.jboss.logging.Logger;
 
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ACKNOWLEDGE_CURSOR;
+import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.ADD_LARGE_MESSAGE_PENDING;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.DUPLICATE_ID;
 import static org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds.PAGE_CURSOR_COUNTER_INC;
@@ -413,7 +415,11 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       try {
          long ackID = idGenerator.generateID();
          position.setRecordID(ackID);
-         messageJournal.appendAddRecord(ackID, JournalRecordIds.ACKNOWLEDGE_CURSOR, new CursorAckRecordEncoding(queueID, position), syncNonTransactional, getContext(syncNonTransactional));
+         if (config.isJournalCompactPageAcks()) {
+            messageJournal.appendAddRecord(ackID, JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT, new CompactCursorAckRecordEncoding(queueID, position), syncNonTransactional, getContext(syncNonTransactional));
+         } else {
+            messageJournal.appendAddRecord(ackID, JournalRecordIds.ACKNOWLEDGE_CURSOR, new CursorAckRecordEncoding(queueID, position), syncNonTransactional, getContext(syncNonTransactional));
+         }
       } finally {
          readUnLock();
       }
@@ -538,7 +544,11 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       try {
          long ackID = idGenerator.generateID();
          position.setRecordID(ackID);
-         messageJournal.appendAddRecordTransactional(txID, ackID, JournalRecordIds.ACKNOWLEDGE_CURSOR, new CursorAckRecordEncoding(queueID, position));
+         if (config.isJournalCompactPageAcks()) {
+            messageJournal.appendAddRecordTransactional(txID, ackID, JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT, new CompactCursorAckRecordEncoding(queueID, position));
+         } else {
+            messageJournal.appendAddRecordTransactional(txID, ackID, JournalRecordIds.ACKNOWLEDGE_CURSOR, new CursorAckRecordEncoding(queueID, position));
+         }
       } finally {
          readUnLock();
       }
@@ -1035,8 +1045,9 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
                   resourceManager.putHeuristicCompletion(record.id, encoding.xid, encoding.isCommit);
                   break;
                }
-               case JournalRecordIds.ACKNOWLEDGE_CURSOR: {
-                  CursorAckRecordEncoding encoding = new CursorAckRecordEncoding();
+               case JournalRecordIds.ACKNOWLEDGE_CURSOR:
+               case JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT: {
+                  CursorAckRecordEncoding encoding = recordType == JournalRecordIds.ACKNOWLEDGE_CURSOR ? new CursorAckRecordEncoding() : new CompactCursorAckRecordEncoding();
                   encoding.decode(buff);
 
                   encoding.position.setRecordID(record.id);
@@ -1208,6 +1219,17 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
       }
    }
 
+   @Override
+   public void addGrouping(final long tx, final GroupBinding groupBinding) throws Exception {
+      GroupingEncoding groupingEncoding = new GroupingEncoding(groupBinding.getId(), groupBinding.getGroupId(), groupBinding.getClusterName());
+      readLock();
+      try {
+         bindingsJournal.appendAddRecordTransactional(tx, groupBinding.getId(), JournalRecordIds.GROUP_RECORD, groupingEncoding);
+      } finally {
+         readUnLock();
+      }
+   }
+
    @Override
    public void deleteGrouping(long tx, final GroupBinding groupBinding) throws Exception {
       readLock();
@@ -1724,8 +1746,9 @@ public abstract class AbstractJournalStorageManager extends CriticalComponentImp
 
                   break;
                }
-               case ACKNOWLEDGE_CURSOR: {
-                  CursorAckRecordEncoding encoding = new CursorAckRecordEncoding();
+               case ACKNOWLEDGE_CURSOR:
+               case ACKNOWLEDGE_CURSOR_COMPACT: {
+                  CursorAckRecordEncoding encoding = recordType == ACKNOWLEDGE_CURSOR ? new CursorAckRecordEncoding() : new CompactCursorAckRecordEncoding();
                   encoding.decode(buff);
 
                   encoding.position.setRecordID(record.id);
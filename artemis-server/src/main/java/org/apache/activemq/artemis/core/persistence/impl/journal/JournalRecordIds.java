@@ -88,4 +88,13 @@ public final class JournalRecordIds {
 
    public static final byte ADD_MESSAGE_PROTOCOL = 45;
 
+   // Same as ACKNOWLEDGE_CURSOR, with the fields written on as few bytes as they need
+   public static final byte ACKNOWLEDGE_CURSOR_COMPACT = 46;
+
+   /**
+    * Stored on the first stripe of a {@link StripedJournal} once a transaction spanning stripes is prepared on all of them,
+    * the transaction is committed on reload when this record is found.
+    */
+   public static final byte STRIPED_TX_COMMIT = 47;
+
 }
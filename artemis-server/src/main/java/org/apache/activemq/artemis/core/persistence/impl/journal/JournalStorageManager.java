@@ -40,12 +40,14 @@ import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.api.core.Pair;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.HAPolicyConfiguration;
 import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.SequentialFileFactory;
 import org.apache.activemq.artemis.core.io.aio.AIOSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.mapped.MappedSequentialFileFactory;
 import org.apache.activemq.artemis.core.io.nio.NIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.uring.IOUringSequentialFileFactory;
 import org.apache.activemq.artemis.core.journal.Journal;
 import org.apache.activemq.artemis.core.journal.impl.JournalFile;
 import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
@@ -73,6 +75,11 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
 
    protected SequentialFileFactory journalFF;
 
+   /**
+    * The factories of the message journal stripes after the first one, which uses {@link #journalFF}.
+    */
+   protected SequentialFileFactory[] stripesFF;
+
    protected SequentialFileFactory bindingsFF;
 
    SequentialFileFactory largeMessagesFactory;
@@ -129,26 +136,7 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       bindingsJournal = localBindings;
       originalBindingsJournal = localBindings;
 
-      switch (config.getJournalType()) {
-
-         case NIO:
-            ActiveMQServerLogger.LOGGER.journalUseNIO();
-            journalFF = new NIOSequentialFileFactory(config.getJournalLocation(), true, config.getJournalBufferSize_NIO(), config.getJournalBufferTimeout_NIO(), config.getJournalMaxIO_NIO(), config.isLogJournalWriteRate(), criticalErrorListener);
-            break;
-         case ASYNCIO:
-            ActiveMQServerLogger.LOGGER.journalUseAIO();
-            journalFF = new AIOSequentialFileFactory(config.getJournalLocation(), config.getJournalBufferSize_AIO(), config.getJournalBufferTimeout_AIO(), config.getJournalMaxIO_AIO(), config.isLogJournalWriteRate(), criticalErrorListener);
-            break;
-         case MAPPED:
-            ActiveMQServerLogger.LOGGER.journalUseMAPPED();
-            journalFF = MappedSequentialFileFactory.buffered(config.getJournalLocation(), config.getJournalFileSize(), config.getJournalBufferSize_NIO(), config.getJournalBufferTimeout_NIO(), criticalErrorListener);
-            break;
-         default:
-            throw ActiveMQMessageBundle.BUNDLE.invalidJournalType2(config.getJournalType());
-      }
-
-      journalFF.setDatasync(config.isJournalDatasync());
-
+      journalFF = createJournalFactory(config, config.getJournalLocation(), criticalErrorListener, true);
 
       int fileSize = config.getJournalFileSize();
       // we need to correct the file size if its not a multiple of the alignement
@@ -162,6 +150,20 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
       Journal localMessage = createMessageJournal(config, criticalErrorListener, fileSize);
 
+      int stripes = getMessageJournalStripes(config);
+      if (stripes > 1) {
+         ActiveMQServerLogger.LOGGER.journalStriped(stripes);
+         Journal[] messageStripes = new Journal[stripes];
+         messageStripes[0] = localMessage;
+         stripesFF = new SequentialFileFactory[stripes - 1];
+         for (int i = 1; i < stripes; i++) {
+            SequentialFileFactory stripeFF = createJournalFactory(config, config.getJournalStripeLocation(i), criticalErrorListener, false);
+            stripesFF[i - 1] = stripeFF;
+            messageStripes[i] = new JournalImpl(ioExecutors, fileSize, config.getJournalMinFiles(), config.getJournalPoolFiles(), config.getJournalCompactMinFiles(), config.getJournalCompactPercentage(), config.getJournalFileOpenTimeout(), stripeFF, "activemq-data", "amq", stripeFF.getMaxIO(), 0, criticalErrorListener);
+         }
+         localMessage = new StripedJournal(messageStripes);
+      }
+
       messageJournal = localMessage;
       originalMessageJournal = localMessage;
 
@@ -176,6 +178,82 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
    }
 
+   private SequentialFileFactory createJournalFactory(Configuration config,
+                                                      File location,
+                                                      IOCriticalErrorListener criticalErrorListener,
+                                                      boolean logType) {
+      SequentialFileFactory factory;
+      switch (config.getJournalType()) {
+
+         case NIO:
+            if (logType) {
+               ActiveMQServerLogger.LOGGER.journalUseNIO();
+            }
+            factory = new NIOSequentialFileFactory(location, true, config.getJournalBufferSize_NIO(), config.getJournalBufferTimeout_NIO(), config.getJournalMaxIO_NIO(), config.isLogJournalWriteRate(), criticalErrorListener);
+            break;
+         case ASYNCIO:
+            if (logType) {
+               ActiveMQServerLogger.LOGGER.journalUseAIO();
+            }
+            factory = new AIOSequentialFileFactory(location, config.getJournalBufferSize_AIO(), config.getJournalBufferTimeout_AIO(), config.getJournalMaxIO_AIO(), config.isLogJournalWriteRate(), criticalErrorListener);
+            break;
+         case IO_URING:
+            if (logType) {
+               ActiveMQServerLogger.LOGGER.journalUseIOUring(config.isJournalDirectIO());
+            }
+            factory = new IOUringSequentialFileFactory(location, config.getJournalBufferSize_AIO(), config.getJournalBufferTimeout_AIO(), config.getJournalMaxIO_AIO(), config.isLogJournalWriteRate(), criticalErrorListener).setDirect(config.isJournalDirectIO());
+            break;
+         case MAPPED:
+            if (logType) {
+               ActiveMQServerLogger.LOGGER.journalUseMAPPED();
+            }
+            factory = MappedSequentialFileFactory.buffered(location, config.getJournalFileSize(), config.getJournalBufferSize_NIO(), config.getJournalBufferTimeout_NIO(), criticalErrorListener);
+            break;
+         default:
+            throw ActiveMQMessageBundle.BUNDLE.invalidJournalType2(config.getJournalType());
+      }
+
+      factory.setDatasync(config.isJournalDatasync());
+
+      return factory;
+   }
+
+   /**
+    * The stripes already holding data are kept when journal-stripes is lowered, as their records are still needed.
+    * A replicated server can't start on them, the messages they hold would be ignored.
+    */
+   private int getMessageJournalStripes(Configuration config) {
+      int stripes = config.getJournalStripes();
+
+      int stripesWithData = 1;
+      for (int i = StripedJournal.MAX_STRIPES - 1; i > 0; i--) {
+         String[] dataFiles = config.getJournalStripeLocation(i).list((dir, name) -> name.endsWith(".amq"));
+         if (dataFiles != null && dataFiles.length > 0) {
+            stripesWithData = i + 1;
+            break;
+         }
+      }
+
+      HAPolicyConfiguration haPolicy = config.getHAPolicyConfiguration();
+      // a colocated backup may replicate as well
+      if (haPolicy != null && (haPolicy.getType() == HAPolicyConfiguration.TYPE.REPLICATED || haPolicy.getType() == HAPolicyConfiguration.TYPE.REPLICA || haPolicy.getType() == HAPolicyConfiguration.TYPE.COLOCATED)) {
+         if (stripesWithData > 1) {
+            throw ActiveMQMessageBundle.BUNDLE.journalStripesOnReplication(stripesWithData);
+         }
+         if (stripes > 1) {
+            ActiveMQServerLogger.LOGGER.journalStripesIgnoredOnReplication(stripes);
+         }
+         return 1;
+      }
+
+      if (stripesWithData > stripes) {
+         ActiveMQServerLogger.LOGGER.journalStripesKept(stripesWithData, stripes);
+         return stripesWithData;
+      }
+
+      return stripes;
+   }
+
    protected Journal createMessageJournal(Configuration config,
                                         IOCriticalErrorListener criticalErrorListener,
                                         int fileSize) {
@@ -187,6 +265,11 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
    protected void beforeStart() throws Exception {
       checkAndCreateDir(config.getBindingsLocation(), config.isCreateBindingsDir());
       checkAndCreateDir(config.getJournalLocation(), config.isCreateJournalDir());
+      if (stripesFF != null) {
+         for (SequentialFileFactory stripeFF : stripesFF) {
+            checkAndCreateDir(stripeFF.getDirectory(), config.isCreateJournalDir());
+         }
+      }
       checkAndCreateDir(config.getLargeMessagesLocation(), config.isCreateJournalDir());
       cleanupIncompleteFiles();
    }
@@ -539,6 +622,10 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       }
       assert replicationManager != null;
 
+      if (originalMessageJournal instanceof StripedJournal) {
+         throw ActiveMQMessageBundle.BUNDLE.stripedJournalReplication(((StripedJournal) originalMessageJournal).getNumberOfStripes());
+      }
+
       if (!(messageJournal instanceof JournalImpl) || !(bindingsJournal instanceof JournalImpl)) {
          throw ActiveMQMessageBundle.BUNDLE.notJournalImpl();
       }
@@ -764,6 +851,11 @@ public class JournalStorageManager extends AbstractJournalStorageManager {
       if (journalFF != null) {
          monitor.addStore(journalFF.getDirectory());
       }
+      if (stripesFF != null) {
+         for (SequentialFileFactory stripeFF : stripesFF) {
+            monitor.addStore(stripeFF.getDirectory());
+         }
+      }
       if (largeMessagesFactory != null) {
          monitor.addStore(largeMessagesFactory.getDirectory());
       }
@@ -0,0 +1,789 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.persistence.impl.journal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.api.core.ActiveMQExceptionType;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.journal.EncodingSupport;
+import org.apache.activemq.artemis.core.journal.IOCompletion;
+import org.apache.activemq.artemis.core.journal.Journal;
+import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
+import org.apache.activemq.artemis.core.journal.LoaderCallback;
+import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.TransactionFailureCallback;
+import org.apache.activemq.artemis.core.journal.impl.JournalFile;
+import org.apache.activemq.artemis.core.journal.impl.SimpleWaitIOCallback;
+import org.apache.activemq.artemis.core.journal.impl.dataformat.ByteArrayEncoding;
+import org.apache.activemq.artemis.core.persistence.Persister;
+import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
+import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
+import org.jboss.logging.Logger;
+
+/**
+ * A {@link Journal} spreading its records across independent journals (stripes), each one with its own
+ * files, buffer and sync, possibly on different devices.
+ * <p>
+ * A record is stored on the stripe of its ID, so the add, update and delete records of a message always land
+ * on the same stripe. A transaction touching a single stripe is completed by that stripe alone. A transaction
+ * spanning stripes is prepared on each of them, then a {@link JournalRecordIds#STRIPED_TX_COMMIT} record is stored
+ * on the first stripe before the commit records: on reload, the prepared parts of the transaction are committed
+ * when that record is found and rolled back otherwise.
+ * <p>
+ * This journal can't be replicated, as the replication synchronizes the files of a single journal.
+ */
+public class StripedJournal implements Journal {
+
+   private static final Logger logger = Logger.getLogger(StripedJournal.class);
+
+   /**
+    * The stripes of a transaction are kept on a long, one bit per stripe.
+    */
+   public static final int MAX_STRIPES = 64;
+
+   /**
+    * The data of the prepare records written while committing a transaction spanning stripes, XA prepares always carry the Xid.
+    */
+   private static final byte[] STRIPED_PREPARE = new byte[0];
+
+   private final Journal[] stripes;
+
+   /**
+    * The stripes used by each pending transaction.
+    */
+   private final ConcurrentMap<Long, Long> transactionStripes = new ConcurrentHashMap<>();
+
+   /**
+    * The transactions spanning stripes which were already prepared through XA.
+    */
+   private final Set<Long> preparedTransactions = ConcurrentHashMap.newKeySet();
+
+   /**
+    * Records found on reload on a different stripe than the one of their ID, when the number of stripes was changed.
+    */
+   private final ConcurrentMap<Long, Integer> misplacedRecords = new ConcurrentHashMap<>();
+
+   public StripedJournal(final Journal... stripes) {
+      if (stripes.length == 0 || stripes.length > MAX_STRIPES) {
+         throw new IllegalArgumentException("The number of stripes must be between 1 and " + MAX_STRIPES + ", was " + stripes.length);
+      }
+      this.stripes = stripes;
+   }
+
+   public int getNumberOfStripes() {
+      return stripes.length;
+   }
+
+   public Journal getStripe(int stripe) {
+      return stripes[stripe];
+   }
+
+   private int hashStripe(long id) {
+      return (int) Long.remainderUnsigned(id, stripes.length);
+   }
+
+   private int stripeOf(long id) {
+      if (!misplacedRecords.isEmpty()) {
+         Integer stripe = misplacedRecords.get(id);
+         if (stripe != null) {
+            return stripe;
+         }
+      }
+      return hashStripe(id);
+   }
+
+   private Journal recordStripe(long id) {
+      return stripes[stripeOf(id)];
+   }
+
+   private Journal transactionalRecordStripe(long txID, long id) {
+      int stripe = stripeOf(id);
+      transactionStripes.merge(txID, 1L << stripe, (a, b) -> a | b);
+      return stripes[stripe];
+   }
+
+   /**
+    * The stripe completing a transaction using at most one stripe.
+    */
+   private Journal transactionStripe(long txID, Long participants) {
+      if (participants == null) {
+         return stripes[hashStripe(txID)];
+      }
+      return stripes[Long.numberOfTrailingZeros(participants)];
+   }
+
+   private static boolean isSpanningStripes(Long participants) {
+      return participants != null && Long.bitCount(participants) > 1;
+   }
+
+   // Non transactional operations
+
+   @Override
+   public void appendAddRecord(long id, byte recordType, byte[] record, boolean sync) throws Exception {
+      recordStripe(id).appendAddRecord(id, recordType, record, sync);
+   }
+
+   @Override
+   public void appendAddRecord(long id, byte recordType, Persister persister, Object record, boolean sync) throws Exception {
+      recordStripe(id).appendAddRecord(id, recordType, persister, record, sync);
+   }
+
+   @Override
+   public void appendAddRecord(long id,
+                               byte recordType,
+                               Persister persister,
+                               Object record,
+                               boolean sync,
+                               IOCompletion completionCallback) throws Exception {
+      recordStripe(id).appendAddRecord(id, recordType, persister, record, sync, completionCallback);
+   }
+
+   @Override
+   public void appendUpdateRecord(long id, byte recordType, byte[] record, boolean sync) throws Exception {
+      recordStripe(id).appendUpdateRecord(id, recordType, record, sync);
+   }
+
+   @Override
+   public void appendUpdateRecord(long id, byte recordType, Persister persister, Object record, boolean sync) throws Exception {
+      recordStripe(id).appendUpdateRecord(id, recordType, persister, record, sync);
+   }
+
+   @Override
+   public void appendUpdateRecord(long id,
+                                  byte recordType,
+                                  Persister persister,
+                                  Object record,
+                                  boolean sync,
+                                  IOCompletion callback) throws Exception {
+      recordStripe(id).appendUpdateRecord(id, recordType, persister, record, sync, callback);
+   }
+
+   @Override
+   public void appendDeleteRecord(long id, boolean sync) throws Exception {
+      recordStripe(id).appendDeleteRecord(id, sync);
+      removeMisplaced(id);
+   }
+
+   @Override
+   public void appendDeleteRecord(long id, boolean sync, IOCompletion completionCallback) throws Exception {
+      recordStripe(id).appendDeleteRecord(id, sync, completionCallback);
+      removeMisplaced(id);
+   }
+
+   private void removeMisplaced(long id) {
+      if (!misplacedRecords.isEmpty()) {
+         misplacedRecords.remove(id);
+      }
+   }
+
+   // Transactional operations
+
+   @Override
+   public void appendAddRecordTransactional(long txID, long id, byte recordType, byte[] record) throws Exception {
+      transactionalRecordStripe(txID, id).appendAddRecordTransactional(txID, id, recordType, record);
+   }
+
+   @Override
+   public void appendAddRecordTransactional(long txID,
+                                            long id,
+                                            byte recordType,
+                                            Persister persister,
+                                            Object record) throws Exception {
+      transactionalRecordStripe(txID, id).appendAddRecordTransactional(txID, id, recordType, persister, record);
+   }
+
+   @Override
+   public void appendUpdateRecordTransactional(long txID, long id, byte recordType, byte[] record) throws Exception {
+      transactionalRecordStripe(txID, id).appendUpdateRecordTransactional(txID, id, recordType, record);
+   }
+
+   @Override
+   public void appendUpdateRecordTransactional(long txID,
+                                               long id,
+                                               byte recordType,
+                                               Persister persister,
+                                               Object record) throws Exception {
+      transactionalRecordStripe(txID, id).appendUpdateRecordTransactional(txID, id, recordType, persister, record);
+   }
+
+   @Override
+   public void appendDeleteRecordTransactional(long txID, long id, byte[] record) throws Exception {
+      transactionalRecordStripe(txID, id).appendDeleteRecordTransactional(txID, id, record);
+   }
+
+   @Override
+   public void appendDeleteRecordTransactional(long txID, long id, EncodingSupport record) throws Exception {
+      transactionalRecordStripe(txID, id).appendDeleteRecordTransactional(txID, id, record);
+   }
+
+   @Override
+   public void appendDeleteRecordTransactional(long txID, long id) throws Exception {
+      transactionalRecordStripe(txID, id).appendDeleteRecordTransactional(txID, id);
+   }
+
+   @Override
+   public void appendCommitRecord(long txID, boolean sync) throws Exception {
+      Long participants = transactionStripes.remove(txID);
+      if (isSpanningStripes(participants)) {
+         // waiting even when not syncing, so the records of the transaction are committed on every stripe when this returns
+         SimpleWaitIOCallback completion = new SimpleWaitIOCallback();
+         commitSpanningStripes(txID, participants, sync, completion);
+         completion.waitCompletion();
+      } else {
+         transactionStripe(txID, participants).appendCommitRecord(txID, sync);
+      }
+   }
+
+   @Override
+   public void appendCommitRecord(long txID, boolean sync, IOCompletion callback) throws Exception {
+      appendCommitRecord(txID, sync, callback, true);
+   }
+
+   @Override
+   public void appendCommitRecord(long txID, boolean sync, IOCompletion callback, boolean lineUpContext) throws Exception {
+      Long participants = transactionStripes.remove(txID);
+      if (isSpanningStripes(participants)) {
+         if (lineUpContext && callback != null) {
+            callback.storeLineUp();
+         }
+         commitSpanningStripes(txID, participants, sync, callback);
+      } else {
+         transactionStripe(txID, participants).appendCommitRecord(txID, sync, callback, lineUpContext);
+      }
+   }
+
+   /**
+    * The commit of a transaction spanning stripes goes through:
+    * <ol>
+    * <li>a prepare record on every stripe of the transaction, unless it was prepared through XA</li>
+    * <li>the {@link JournalRecordIds#STRIPED_TX_COMMIT} record on the first stripe, from then on the transaction is committed</li>
+    * <li>a commit record on every stripe of the transaction</li>
+    * <li>the deletion of the {@link JournalRecordIds#STRIPED_TX_COMMIT} record, then the callback is done</li>
+    * </ol>
+    * Each step is started by the completion of the previous one, so a stripe never commits its part before the decision is stored.
+    */
+   private void commitSpanningStripes(long txID, long participants, boolean sync, IOCompletion callback) throws Exception {
+      if (preparedTransactions.remove(txID)) {
+         storeCommitDecision(txID, participants, sync, callback);
+      } else {
+         StripesCompletion prepared = new StripesCompletion(participants, callback, () -> storeCommitDecision(txID, participants, sync, callback));
+         for (int stripe : stripesOf(participants)) {
+            stripes[stripe].appendPrepareRecord(txID, new ByteArrayEncoding(STRIPED_PREPARE), sync, prepared);
+         }
+      }
+   }
+
+   private void storeCommitDecision(long txID, long participants, boolean sync, IOCompletion callback) throws Exception {
+      StripesCompletion decided = new StripesCompletion(1L, callback, () -> commitStripes(txID, participants, sync, callback));
+      stripes[0].appendAddRecord(txID, JournalRecordIds.STRIPED_TX_COMMIT, new ByteArrayEncoding(encodeStripes(participants)), sync, decided);
+   }
+
+   private void commitStripes(long txID, long participants, boolean sync, IOCompletion callback) throws Exception {
+      StripesCompletion committed = new StripesCompletion(participants, callback, () -> {
+         try {
+            stripes[0].appendDeleteRecord(txID, false);
+         } catch (Exception e) {
+            // the record is deleted on the next reload
+            logger.warn("Error deleting the commit record of transaction " + txID + ": " + e.getMessage(), e);
+         }
+         if (callback != null) {
+            callback.done();
+         }
+      });
+      for (int stripe : stripesOf(participants)) {
+         stripes[stripe].appendCommitRecord(txID, sync, committed, false);
+      }
+   }
+
+   @Override
+   public void appendPrepareRecord(long txID, EncodingSupport transactionData, boolean sync) throws Exception {
+      Long participants = transactionStripes.get(txID);
+      if (isSpanningStripes(participants)) {
+         SimpleWaitIOCallback completion = new SimpleWaitIOCallback();
+         prepareSpanningStripes(txID, participants, transactionData, sync, completion);
+         completion.waitCompletion();
+      } else {
+         transactionStripe(txID, participants).appendPrepareRecord(txID, transactionData, sync);
+      }
+   }
+
+   @Override
+   public void appendPrepareRecord(long txID,
+                                   EncodingSupport transactionData,
+                                   boolean sync,
+                                   IOCompletion callback) throws Exception {
+      Long participants = transactionStripes.get(txID);
+      if (isSpanningStripes(participants)) {
+         if (callback != null) {
+            callback.storeLineUp();
+         }
+         prepareSpanningStripes(txID, participants, transactionData, sync, callback);
+      } else {
+         transactionStripe(txID, participants).appendPrepareRecord(txID, transactionData, sync, callback);
+      }
+   }
+
+   @Override
+   public void appendPrepareRecord(long txID, byte[] transactionData, boolean sync) throws Exception {
+      appendPrepareRecord(txID, new ByteArrayEncoding(transactionData), sync);
+   }
+
+   private void prepareSpanningStripes(long txID,
+                                       long participants,
+                                       EncodingSupport transactionData,
+                                       boolean sync,
+                                       IOCompletion callback) throws Exception {
+      preparedTransactions.add(txID);
+      StripesCompletion prepared = new StripesCompletion(participants, callback, null);
+      for (int stripe : stripesOf(participants)) {
+         stripes[stripe].appendPrepareRecord(txID, transactionData, sync, prepared);
+      }
+   }
+
+   @Override
+   public void appendRollbackRecord(long txID, boolean sync) throws Exception {
+      Long participants = transactionStripes.remove(txID);
+      if (isSpanningStripes(participants)) {
+         SimpleWaitIOCallback completion = new SimpleWaitIOCallback();
+         rollbackSpanningStripes(txID, participants, sync, completion);
+         completion.waitCompletion();
+      } else {
+         transactionStripe(txID, participants).appendRollbackRecord(txID, sync);
+      }
+   }
+
+   @Override
+   public void appendRollbackRecord(long txID, boolean sync, IOCompletion callback) throws Exception {
+      Long participants = transactionStripes.remove(txID);
+      if (isSpanningStripes(participants)) {
+         if (callback != null) {
+            callback.storeLineUp();
+         }
+         rollbackSpanningStripes(txID, participants, sync, callback);
+      } else {
+         transactionStripe(txID, participants).appendRollbackRecord(txID, sync, callback);
+      }
+   }
+
+   private void rollbackSpanningStripes(long txID, long participants, boolean sync, IOCompletion callback) throws Exception {
+      preparedTransactions.remove(txID);
+      StripesCompletion rolledBack = new StripesCompletion(participants, callback, null);
+      for (int stripe : stripesOf(participants)) {
+         stripes[stripe].appendRollbackRecord(txID, sync, rolledBack);
+      }
+   }
+
+   // Load
+
+   @Override
+   public JournalLoadInformation load(LoaderCallback reloadManager) throws Exception {
+      List<RecordInfo> committedRecords = new ArrayList<>();
+      List<PreparedTransactionInfo> preparedTransactions = new ArrayList<>();
+
+      JournalLoadInformation info = load(committedRecords, preparedTransactions, reloadManager);
+
+      for (PreparedTransactionInfo preparedTransaction : preparedTransactions) {
+         reloadManager.addPreparedTransaction(preparedTransaction);
+      }
+      for (RecordInfo record : committedRecords) {
+         if (record.isUpdate) {
+            reloadManager.updateRecord(record);
+         } else {
+            reloadManager.addRecord(record);
+         }
+      }
+
+      return info;
+   }
+
+   /**
+    * The stripes are loaded in parallel, then their records are merged by ID, which keeps the records of a given ID
+    * in order and the messages in the order they were sent.
+    */
+   @Override
+   public JournalLoadInformation load(List<RecordInfo> committedRecords,
+                                      List<PreparedTransactionInfo> preparedTransactions,
+                                      TransactionFailureCallback transactionFailure) throws Exception {
+      final TransactionFailureCallback failureCallback = transactionFailure == null ? null : (txID, records, recordsToDelete) -> {
+         synchronized (transactionFailure) {
+            transactionFailure.failedTransaction(txID, records, recordsToDelete);
+         }
+      };
+
+      StripeLoad[] loads = loadStripes(failureCallback);
+
+      JournalLoadInformation info = new JournalLoadInformation(0, -1);
+
+      // the transactions spanning stripes which were decided to be committed
+      Map<Long, Long> commitDecisions = new HashMap<>();
+
+      List<RecordInfo> records = new ArrayList<>();
+
+      for (int stripe = 0; stripe < loads.length; stripe++) {
+         StripeLoad load = loads[stripe];
+         info.setNumberOfRecords(info.getNumberOfRecords() + load.info.getNumberOfRecords());
+         info.setMaxID(Math.max(info.getMaxID(), load.info.getMaxID()));
+
+         for (RecordInfo record : load.records) {
+            if (stripe == 0 && record.userRecordType == JournalRecordIds.STRIPED_TX_COMMIT) {
+               commitDecisions.put(record.id, ByteBuffer.wrap(record.data).getLong());
+            } else {
+               locateRecord(record.id, stripe);
+               records.add(record);
+            }
+         }
+      }
+
+      Set<Long> deletedRecords = new HashSet<>();
+
+      Map<Long, PreparedTransactionInfo> xaTransactions = new LinkedHashMap<>();
+
+      for (int stripe = 0; stripe < loads.length; stripe++) {
+         for (PreparedTransactionInfo transaction : loads[stripe].preparedTransactions) {
+            long txID = transaction.getId();
+            for (RecordInfo record : transaction.getRecords()) {
+               locateRecord(record.id, stripe);
+            }
+
+            if (commitDecisions.containsKey(txID)) {
+               logger.debug("Committing the part of transaction " + txID + " prepared on stripe " + stripe);
+               records.addAll(transaction.getRecords());
+               for (RecordInfo record : transaction.getRecordsToDelete()) {
+                  deletedRecords.add(record.id);
+               }
+               stripes[stripe].appendCommitRecord(txID, true);
+            } else if (transaction.getExtraData() == null || transaction.getExtraData().length == 0) {
+               logger.debug("Rolling back the part of transaction " + txID + " prepared on stripe " + stripe);
+               if (failureCallback != null) {
+                  failureCallback.failedTransaction(txID, transaction.getRecords(), transaction.getRecordsToDelete());
+               }
+               stripes[stripe].appendRollbackRecord(txID, true);
+            } else {
+               PreparedTransactionInfo xaTransaction = xaTransactions.computeIfAbsent(txID, id -> new PreparedTransactionInfo(id, transaction.getExtraData()));
+               xaTransaction.getRecords().addAll(transaction.getRecords());
+               xaTransaction.getRecordsToDelete().addAll(transaction.getRecordsToDelete());
+               transactionStripes.merge(txID, 1L << stripe, (a, b) -> a | b);
+            }
+         }
+      }
+
+      for (PreparedTransactionInfo xaTransaction : xaTransactions.values()) {
+         if (isSpanningStripes(transactionStripes.get(xaTransaction.getId()))) {
+            this.preparedTransactions.add(xaTransaction.getId());
+         }
+         preparedTransactions.add(xaTransaction);
+      }
+
+      // the commit records are stored in sync, the decisions are not needed any longer
+      for (Long txID : commitDecisions.keySet()) {
+         stripes[0].appendDeleteRecord(txID, false);
+      }
+
+      if (!deletedRecords.isEmpty()) {
+         records.removeIf(record -> deletedRecords.contains(record.id));
+      }
+
+      records.sort(Comparator.comparingLong((RecordInfo record) -> record.id));
+      committedRecords.addAll(records);
+
+      return info;
+   }
+
+   private void locateRecord(long id, int stripe) {
+      if (hashStripe(id) != stripe) {
+         misplacedRecords.put(id, stripe);
+      }
+   }
+
+   private StripeLoad[] loadStripes(TransactionFailureCallback failureCallback) throws Exception {
+      ExecutorService loadExecutor = Executors.newFixedThreadPool(stripes.length, new ActiveMQThreadFactory("ActiveMQ-journal-stripes-load", true, StripedJournal.class.getClassLoader()));
+      try {
+         List<Future<StripeLoad>> futures = new ArrayList<>(stripes.length);
+         for (Journal stripe : stripes) {
+            futures.add(loadExecutor.submit(() -> new StripeLoad(stripe, failureCallback)));
+         }
+
+         StripeLoad[] loads = new StripeLoad[stripes.length];
+         for (int i = 0; i < loads.length; i++) {
+            try {
+               loads[i] = futures.get(i).get();
+            } catch (ExecutionException e) {
+               if (e.getCause() instanceof Exception) {
+                  throw (Exception) e.getCause();
+               }
+               throw e;
+            }
+         }
+         return loads;
+      } finally {
+         loadExecutor.shutdown();
+      }
+   }
+
+   @Override
+   public JournalLoadInformation loadInternalOnly() throws Exception {
+      JournalLoadInformation info = new JournalLoadInformation(0, -1);
+      for (Journal stripe : stripes) {
+         JournalLoadInformation stripeInfo = stripe.loadInternalOnly();
+         info.setNumberOfRecords(info.getNumberOfRecords() + stripeInfo.getNumberOfRecords());
+         info.setMaxID(Math.max(info.getMaxID(), stripeInfo.getMaxID()));
+      }
+      return info;
+   }
+
+   @Override
+   public JournalLoadInformation loadSyncOnly(JournalState state) throws Exception {
+      throw ActiveMQMessageBundle.BUNDLE.stripedJournalReplication(stripes.length);
+   }
+
+   @Override
+   public void lineUpContext(IOCompletion callback) {
+      stripes[0].lineUpContext(callback);
+   }
+
+   @Override
+   public int getAlignment() throws Exception {
+      return stripes[0].getAlignment();
+   }
+
+   @Override
+   public int getNumberOfRecords() {
+      int numberOfRecords = 0;
+      for (Journal stripe : stripes) {
+         numberOfRecords += stripe.getNumberOfRecords();
+      }
+      return numberOfRecords;
+   }
+
+   @Override
+   public int getUserVersion() {
+      return stripes[0].getUserVersion();
+   }
+
+   @Override
+   public void runDirectJournalBlast() throws Exception {
+      for (Journal stripe : stripes) {
+         stripe.runDirectJournalBlast();
+      }
+   }
+
+   @Override
+   public Map<Long, JournalFile> createFilesForBackupSync(long[] fileIds) throws Exception {
+      throw ActiveMQMessageBundle.BUNDLE.stripedJournalReplication(stripes.length);
+   }
+
+   @Override
+   public void synchronizationLock() {
+      for (Journal stripe : stripes) {
+         stripe.synchronizationLock();
+      }
+   }
+
+   @Override
+   public void synchronizationUnlock() {
+      for (int i = stripes.length - 1; i >= 0; i--) {
+         stripes[i].synchronizationUnlock();
+      }
+   }
+
+   @Override
+   public void forceMoveNextFile() throws Exception {
+      for (Journal stripe : stripes) {
+         stripe.forceMoveNextFile();
+      }
+   }
+
+   @Override
+   public JournalFile[] getDataFiles() {
+      List<JournalFile> dataFiles = new ArrayList<>();
+      for (Journal stripe : stripes) {
+         for (JournalFile file : stripe.getDataFiles()) {
+            dataFiles.add(file);
+         }
+      }
+      return dataFiles.toArray(new JournalFile[dataFiles.size()]);
+   }
+
+   /**
+    * The factory of the first stripe, all the stripes use the same type of factory.
+    */
+   @Override
+   public SequentialFileFactory getFileFactory() {
+      return stripes[0].getFileFactory();
+   }
+
+   @Override
+   public int getFileSize() {
+      return stripes[0].getFileSize();
+   }
+
+   @Override
+   public void scheduleCompactAndBlock(int timeout) throws Exception {
+      for (Journal stripe : stripes) {
+         stripe.scheduleCompactAndBlock(timeout);
+      }
+   }
+
+   @Override
+   public void replicationSyncPreserveOldFiles() {
+      for (Journal stripe : stripes) {
+         stripe.replicationSyncPreserveOldFiles();
+      }
+   }
+
+   @Override
+   public void replicationSyncFinished() {
+      for (Journal stripe : stripes) {
+         stripe.replicationSyncFinished();
+      }
+   }
+
+   @Override
+   public void flush() throws Exception {
+      for (Journal stripe : stripes) {
+         stripe.flush();
+      }
+   }
+
+   @Override
+   public void start() throws Exception {
+      for (Journal stripe : stripes) {
+         stripe.start();
+      }
+   }
+
+   @Override
+   public void stop() throws Exception {
+      for (Journal stripe : stripes) {
+         stripe.stop();
+      }
+      transactionStripes.clear();
+      preparedTransactions.clear();
+      misplacedRecords.clear();
+   }
+
+   @Override
+   public boolean isStarted() {
+      return stripes[0].isStarted();
+   }
+
+   private static int[] stripesOf(long participants) {
+      int[] result = new int[Long.bitCount(participants)];
+      for (int i = 0; i < result.length; i++) {
+         result[i] = Long.numberOfTrailingZeros(participants);
+         participants &= participants - 1;
+      }
+      return result;
+   }
+
+   private static byte[] encodeStripes(long participants) {
+      return ByteBuffer.allocate(Long.BYTES).putLong(participants).array();
+   }
+
+   @Override
+   public String toString() {
+      return "StripedJournal(stripes=" + stripes.length + ")";
+   }
+
+   private interface StripesStep {
+
+      void run() throws Exception;
+   }
+
+   /**
+    * Completes once every stripe it was given to completed, then runs the next step or completes the callback.
+    * The first error is reported to the callback and stops the next steps.
+    */
+   private static final class StripesCompletion implements IOCompletion {
+
+      private final AtomicInteger pending;
+
+      private final AtomicBoolean failed = new AtomicBoolean(false);
+
+      private final IOCompletion callback;
+
+      private final StripesStep next;
+
+      StripesCompletion(long participants, IOCompletion callback, StripesStep next) {
+         this.pending = new AtomicInteger(Long.bitCount(participants));
+         this.callback = callback;
+         this.next = next;
+      }
+
+      @Override
+      public void storeLineUp() {
+         // the callback was lined up once by the striped journal
+      }
+
+      @Override
+      public void done() {
+         if (pending.decrementAndGet() == 0 && !failed.get()) {
+            if (next == null) {
+               if (callback != null) {
+                  callback.done();
+               }
+            } else {
+               try {
+                  next.run();
+               } catch (Exception e) {
+                  logger.warn(e.getMessage(), e);
+                  onError(ActiveMQExceptionType.IO_ERROR.getCode(), e.getMessage());
+               }
+            }
+         }
+      }
+
+      @Override
+      public void onError(int errorCode, String errorMessage) {
+         if (failed.compareAndSet(false, true) && callback != null) {
+            callback.onError(errorCode, errorMessage);
+         }
+         pending.decrementAndGet();
+      }
+   }
+
+   private static final class StripeLoad {
+
+      final List<RecordInfo> records = new ArrayList<>();
+
+      final List<PreparedTransactionInfo> preparedTransactions = new ArrayList<>();
+
+      final JournalLoadInformation info;
+
+      StripeLoad(Journal stripe, TransactionFailureCallback failureCallback) throws Exception {
+         info = stripe.load(records, preparedTransactions, failureCallback);
+      }
+   }
+}
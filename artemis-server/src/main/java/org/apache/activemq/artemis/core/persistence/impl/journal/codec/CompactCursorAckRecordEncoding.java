@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.persistence.impl.journal.codec;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.core.paging.cursor.PagePosition;
+import org.apache.activemq.artemis.core.paging.cursor.impl.PagePositionImpl;
+
+/**
+ * A {@link CursorAckRecordEncoding} writing each field with as few bytes as its value needs, 7 bits per byte.
+ * Queue IDs, page numbers and message numbers are small, so a page ACK usually takes 4 to 8 bytes instead of 20.
+ */
+public class CompactCursorAckRecordEncoding extends CursorAckRecordEncoding {
+
+   public CompactCursorAckRecordEncoding(final long queueID, final PagePosition position) {
+      super(queueID, position);
+   }
+
+   public CompactCursorAckRecordEncoding() {
+      super();
+   }
+
+   @Override
+   public String toString() {
+      return "CompactCursorAckRecordEncoding [queueID=" + queueID + ", position=" + position + "]";
+   }
+
+   @Override
+   public int getEncodeSize() {
+      return sizeOfVarLong(queueID) + sizeOfVarLong(position.getPageNr()) + sizeOfVarLong(zigZag(position.getMessageNr()));
+   }
+
+   @Override
+   public void encode(ActiveMQBuffer buffer) {
+      writeVarLong(buffer, queueID);
+      writeVarLong(buffer, position.getPageNr());
+      // -1 is used to bookmark the start of a page
+      writeVarLong(buffer, zigZag(position.getMessageNr()));
+   }
+
+   @Override
+   public void decode(ActiveMQBuffer buffer) {
+      queueID = readVarLong(buffer);
+      long pageNR = readVarLong(buffer);
+      long messageNR = readVarLong(buffer);
+      this.position = new PagePositionImpl(pageNR, (int) ((messageNR >>> 1) ^ -(messageNR & 1)));
+   }
+
+   private static long zigZag(final int value) {
+      return ((long) value << 1) ^ (value >> 31);
+   }
+
+   static int sizeOfVarLong(long value) {
+      int size = 1;
+      while ((value & ~0x7FL) != 0) {
+         value >>>= 7;
+         size++;
+      }
+      return size;
+   }
+
+   static void writeVarLong(final ActiveMQBuffer buffer, long value) {
+      while ((value & ~0x7FL) != 0) {
+         buffer.writeByte((byte) ((value & 0x7F) | 0x80));
+         value >>>= 7;
+      }
+      buffer.writeByte((byte) value);
+   }
+
+   static long readVarLong(final ActiveMQBuffer buffer) {
+      long value = 0;
+      int shift = 0;
+      byte b;
+      do {
+         b = buffer.readByte();
+         value |= (long) (b & 0x7F) << shift;
+         shift += 7;
+      }
+      while ((b & 0x80) != 0);
+      return value;
+   }
+}
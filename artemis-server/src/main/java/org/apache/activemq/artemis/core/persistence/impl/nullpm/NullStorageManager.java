@@ -360,6 +360,10 @@ public class NullStorageManager implements StorageManager {
    public void addGrouping(final GroupBinding groupBinding) throws Exception {
    }
 
+   @Override
+   public void addGrouping(final long tx, final GroupBinding groupBinding) throws Exception {
+   }
+
    @Override
    public void deleteGrouping(final long tx, final GroupBinding groupBinding) throws Exception {
    }
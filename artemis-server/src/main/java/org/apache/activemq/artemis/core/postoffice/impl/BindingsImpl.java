@@ -50,8 +50,13 @@ public final class BindingsImpl implements Bindings {
    // This is public as we use on test assertions
    public static final int MAX_GROUP_RETRY = 10;
 
+   private static final SimpleString[] NO_ROUTING_NAMES = new SimpleString[0];
+
    private final ConcurrentMap<SimpleString, List<Binding>> routingNameBindingMap = new ConcurrentHashMap<>();
 
+   // the keys of routingNameBindingMap, so routing a message doesn't need to allocate an iterator over the map
+   private volatile SimpleString[] routingNames = NO_ROUTING_NAMES;
+
    private final Map<SimpleString, Integer> routingNamePositions = new ConcurrentHashMap<>();
 
    private final Map<Long, Binding> bindingsMap = new ConcurrentHashMap<>();
@@ -114,6 +119,8 @@ public final class BindingsImpl implements Bindings {
          if (!bindings.contains(binding)) {
             bindings.add(binding);
          }
+
+         updateRoutingNames();
       }
 
       bindingsMap.put(binding.getID(), binding);
@@ -140,6 +147,8 @@ public final class BindingsImpl implements Bindings {
                routingNameBindingMap.remove(routingName);
             }
          }
+
+         updateRoutingNames();
       }
 
       bindingsMap.remove(binding.getID());
@@ -257,12 +266,14 @@ public final class BindingsImpl implements Bindings {
 
       boolean routed = false;
 
-      for (Binding binding : exclusiveBindings) {
+      if (!exclusiveBindings.isEmpty()) {
+         for (Binding binding : exclusiveBindings) {
 
-         if (binding.getFilter() == null || binding.getFilter().match(message)) {
-            binding.getBindable().route(message, context);
+            if (binding.getFilter() == null || binding.getFilter().match(message)) {
+               binding.getBindable().route(message, context);
 
-            routed = true;
+               routed = true;
+            }
          }
       }
 
@@ -281,14 +292,11 @@ public final class BindingsImpl implements Bindings {
             if (logger.isTraceEnabled()) {
                logger.trace("Routing message " + message + " on binding=" + this);
             }
-            for (Map.Entry<SimpleString, List<Binding>> entry : routingNameBindingMap.entrySet()) {
-               SimpleString routingName = entry.getKey();
-
-               List<Binding> bindings = entry.getValue();
+            for (SimpleString routingName : routingNames) {
+               List<Binding> bindings = routingNameBindingMap.get(routingName);
 
                if (bindings == null) {
-                  // The value can become null if it's concurrently removed while we're iterating - this is expected
-                  // ConcurrentHashMap behaviour!
+                  // The value can become null if it's concurrently removed while we're iterating
                   continue;
                }
 
@@ -307,6 +315,11 @@ public final class BindingsImpl implements Bindings {
       return "BindingsImpl [name=" + name + "]";
    }
 
+   // rebuilt after every change of the map, under a lock so the last rebuild sees all of them
+   private synchronized void updateRoutingNames() {
+      routingNames = routingNameBindingMap.isEmpty() ? NO_ROUTING_NAMES : routingNameBindingMap.keySet().toArray(NO_ROUTING_NAMES);
+   }
+
    /**
     * This code has a race on the assigned value to routing names.
     * <p>
@@ -429,7 +442,7 @@ public final class BindingsImpl implements Bindings {
 
          if (resp == null) {
             // ok let's find the next binding to propose
-            Binding theBinding = getNextBinding(message, routingName, bindings);
+            Binding theBinding = groupingGroupingHandler.isPartitioned() ? getPartitionBinding(message, fullID, bindings) : getNextBinding(message, routingName, bindings);
             if (theBinding == null) {
                continue;
             }
@@ -459,6 +472,38 @@ public final class BindingsImpl implements Bindings {
       }
    }
 
+   /**
+    * The binding a group hashes to, the same on every node seeing the same bindings. This is rendezvous hashing, so
+    * a binding coming or going only moves the groups hashing to it.
+    */
+   private Binding getPartitionBinding(final Message message, final SimpleString fullID, final List<Binding> bindings) {
+      Binding theBinding = null;
+      int theWeight = 0;
+      for (Binding binding : bindings) {
+         Filter filter = binding.getFilter();
+         if (!binding.isConnected() || (filter != null && !filter.match(message))) {
+            continue;
+         }
+         int weight = partitionWeight(fullID, binding.getClusterName());
+         if (theBinding == null || Integer.compareUnsigned(weight, theWeight) > 0 || (weight == theWeight && binding.getClusterName().toString().compareTo(theBinding.getClusterName().toString()) > 0)) {
+            theBinding = binding;
+            theWeight = weight;
+         }
+      }
+      return theBinding;
+   }
+
+   private static int partitionWeight(final SimpleString fullID, final SimpleString clusterName) {
+      // murmur3 finalizer, the hash codes of similar names are too close to each other to be compared as they are
+      int h = fullID.hashCode() * 31 + clusterName.hashCode();
+      h ^= h >>> 16;
+      h *= 0x85ebca6b;
+      h ^= h >>> 13;
+      h *= 0xc2b2ae35;
+      h ^= h >>> 16;
+      return h;
+   }
+
    private Binding locateBinding(SimpleString clusterName, List<Binding> bindings) {
       for (Binding binding : bindings) {
          if (binding.getClusterName().equals(clusterName)) {
@@ -30,7 +30,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.activemq.artemis.api.core.ActiveMQAddressFullException;
 import org.apache.activemq.artemis.api.core.ActiveMQDuplicateIdException;
@@ -76,6 +76,7 @@ import org.apache.activemq.artemis.core.server.management.ManagementService;
 import org.apache.activemq.artemis.core.server.management.Notification;
 import org.apache.activemq.artemis.core.server.management.NotificationListener;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
+import org.apache.activemq.artemis.core.settings.HierarchicalRepositoryChangeListener;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 import org.apache.activemq.artemis.core.transaction.TransactionOperation;
@@ -90,7 +91,7 @@ import org.jboss.logging.Logger;
  * This is the class that will make the routing to Queues and decide which consumer will get the messages
  * It's the queue component on distributing the messages * *
  */
-public class PostOfficeImpl implements PostOffice, NotificationListener, BindingsFactory {
+public class PostOfficeImpl implements PostOffice, NotificationListener, BindingsFactory, HierarchicalRepositoryChangeListener {
 
    private static final Logger logger = Logger.getLogger(PostOfficeImpl.class);
 
@@ -100,6 +101,9 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
    public static final SimpleString BRIDGE_CACHE_STR = new SimpleString("BRIDGE.");
 
+   // the route plans are dropped once there are more, so addresses used once don't pile up
+   private static final int MAX_ROUTE_PLANS = 10000;
+
    private final AddressManager addressManager;
 
    private final QueueFactory queueFactory;
@@ -134,6 +138,11 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
    private final Object addressLock = new Object();
 
+   private final ConcurrentMap<SimpleString, RoutePlan> routePlans = new ConcurrentHashMap<>();
+
+   // incremented after every change of the bindings or address settings, a plan from an older version is stale
+   private final AtomicLong routePlansVersion = new AtomicLong(0);
+
    public PostOfficeImpl(final ActiveMQServer server,
                          final StorageManager storageManager,
                          final PagingManager pagingManager,
@@ -170,6 +179,8 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
       this.addressSettingsRepository = addressSettingsRepository;
 
       this.server = server;
+
+      addressSettingsRepository.registerListener(this);
    }
 
    // ActiveMQComponent implementation ---------------------------------------
@@ -201,6 +212,8 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
       addressManager.clear();
 
+      invalidateRoutePlans();
+
       queueInfos.clear();
    }
 
@@ -337,7 +350,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
                      // We have a local queue
                      Queue queue = (Queue) binding.getBindable();
 
-                     AddressSettings addressSettings = addressSettingsRepository.getMatch(binding.getAddress().toString());
+                     AddressSettings addressSettings = addressSettingsRepository.getMatch(binding.getAddress());
 
                      long redistributionDelay = addressSettings.getRedistributionDelay();
 
@@ -400,7 +413,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
                      Queue queue = (Queue) binding.getBindable();
 
-                     AddressSettings addressSettings = addressSettingsRepository.getMatch(binding.getAddress().toString());
+                     AddressSettings addressSettings = addressSettingsRepository.getMatch(binding.getAddress());
 
                      long redistributionDelay = addressSettings.getRedistributionDelay();
 
@@ -439,6 +452,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
          } else {
             result = addressManager.addAddressInfo(addressInfo);
          }
+         invalidateRoutePlans();
          // only register address if it is new
          if (result) {
             try {
@@ -517,7 +531,11 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
                                         Collection<RoutingType> routingTypes) throws Exception {
 
       synchronized (addressLock) {
-         return addressManager.updateAddressInfo(addressName, routingTypes);
+         try {
+            return addressManager.updateAddressInfo(addressName, routingTypes);
+         } finally {
+            invalidateRoutePlans();
+         }
       }
 
 
@@ -531,7 +549,11 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
             throw ActiveMQMessageBundle.BUNDLE.addressHasBindings(address);
          }
          managementService.unregisterAddress(address);
-         return addressManager.removeAddressInfo(address);
+         try {
+            return addressManager.removeAddressInfo(address);
+         } finally {
+            invalidateRoutePlans();
+         }
       }
    }
 
@@ -562,7 +584,11 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
    // even though failover is complete
    @Override
    public synchronized void addBinding(final Binding binding) throws Exception {
-      addressManager.addBinding(binding);
+      try {
+         addressManager.addBinding(binding);
+      } finally {
+         invalidateRoutePlans();
+      }
 
       TypedProperties props = new TypedProperties();
 
@@ -600,7 +626,12 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
       addressSettingsRepository.clearCache();
 
-      Binding binding = addressManager.removeBinding(uniqueName, tx);
+      Binding binding;
+      try {
+         binding = addressManager.removeBinding(uniqueName, tx);
+      } finally {
+         invalidateRoutePlans();
+      }
 
       if (binding == null) {
          throw new ActiveMQNonExistentQueueException();
@@ -736,19 +767,24 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
       setPagingStore(message);
 
-      AtomicBoolean startedTX = new AtomicBoolean(false);
-
       final SimpleString address = message.getAddressSimpleString();
 
-      applyExpiryDelay(message, address);
+      final RoutePlan plan = getRoutePlan(address);
+
+      applyExpiryDelay(message, plan.addressSettings);
+
+      final boolean hadTX = context.getTransaction() != null;
 
-      if (!checkDuplicateID(message, context, rejectDuplicates, startedTX)) {
+      if (!checkDuplicateID(message, context, rejectDuplicates)) {
          return RoutingStatus.DUPLICATED_ID;
       }
 
+      // a TX is started to store the duplicate ID along with the message
+      final boolean startedTX = !hadTX && context.getTransaction() != null;
+
       message.cleanupInternalProperties();
 
-      Bindings bindings = addressManager.getBindingsForRoutingAddress(context.getAddress() == null ? message.getAddressSimpleString() : context.getAddress());
+      Bindings bindings = context.getAddress() == null || context.getAddress().equals(address) ? plan.bindings : getRoutePlan(context.getAddress()).bindings;
 
       // TODO auto-create queues here?
       // first check for the auto-queue creation thing
@@ -777,7 +813,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
       if (context.getQueueCount() == 0) {
          // Send to DLA if appropriate
 
-         AddressSettings addressSettings = addressSettingsRepository.getMatch(address.toString());
+         AddressSettings addressSettings = plan.addressSettings;
 
          boolean sendToDLA = addressSettings.isSendToDLAOnNoRoute();
 
@@ -821,7 +857,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
             final RoutingStatus finalResult = result;
             server.callBrokerPlugins(server.hasBrokerPlugins() ? plugin -> plugin.afterMessageRoute(message, context, direct, rejectDuplicates, finalResult) : null);
          } catch (ActiveMQAddressFullException e) {
-            if (startedTX.get()) {
+            if (startedTX) {
                context.getTransaction().rollback();
             } else if (context.getTransaction() != null) {
                context.getTransaction().markAsRollbackOnly(e);
@@ -830,15 +866,46 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
          }
       }
 
-      if (startedTX.get()) {
+      if (startedTX) {
          context.getTransaction().commit();
       }
       return result;
    }
 
+   /**
+    * The bindings and settings of an address change seldom, they are resolved once for all the messages routed to it
+    * until they do.
+    */
+   private RoutePlan getRoutePlan(final SimpleString address) throws Exception {
+      // read before resolving the plan, so a change made while resolving it makes it stale
+      final long version = routePlansVersion.get();
+      RoutePlan plan = routePlans.get(address);
+      if (plan == null || plan.version != version) {
+         plan = new RoutePlan(version, addressManager.getBindingsForRoutingAddress(address), addressSettingsRepository.getMatch(address));
+         if (routePlans.size() >= MAX_ROUTE_PLANS) {
+            routePlans.clear();
+         }
+         routePlans.put(address, plan);
+      }
+      return plan;
+   }
+
+   private void invalidateRoutePlans() {
+      routePlansVersion.incrementAndGet();
+      routePlans.clear();
+   }
+
+   /**
+    * The address settings changed.
+    */
+   @Override
+   public void onChange() {
+      invalidateRoutePlans();
+   }
+
    // HORNETQ-1029
-   private void applyExpiryDelay(Message message, SimpleString address) {
-      long expirationOverride = addressSettingsRepository.getMatch(address.toString()).getExpiryDelay();
+   private void applyExpiryDelay(Message message, AddressSettings addressSettings) {
+      long expirationOverride = addressSettings.getExpiryDelay();
 
       // A -1 <expiry-delay> means don't do anything
       if (expirationOverride >= 0) {
@@ -1054,6 +1121,22 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
       }
    }
 
+   private static final class RoutePlan {
+
+      private final long version;
+
+      // null if nothing is bound to the address
+      private final Bindings bindings;
+
+      private final AddressSettings addressSettings;
+
+      private RoutePlan(final long version, final Bindings bindings, final AddressSettings addressSettings) {
+         this.version = version;
+         this.bindings = bindings;
+         this.addressSettings = addressSettings;
+      }
+   }
+
    private static class PageDelivery extends TransactionOperationAbstract {
 
       private final Set<Queue> queues = new HashSet<>();
@@ -1250,8 +1333,7 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
    private boolean checkDuplicateID(final Message message,
                                     final RoutingContext context,
-                                    boolean rejectDuplicates,
-                                    AtomicBoolean startedTX) throws Exception {
+                                    boolean rejectDuplicates) throws Exception {
       // Check the DuplicateCache for the Bridge first
 
       Object bridgeDup = message.removeExtraBytesProperty(Message.HDR_BRIDGE_DUPLICATE_ID);
@@ -1263,12 +1345,10 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
 
          if (context.getTransaction() == null) {
             context.setTransaction(new TransactionImpl(storageManager));
-            startedTX.set(true);
          }
 
          if (!cacheBridge.atomicVerify(bridgeDupBytes, context.getTransaction())) {
             context.getTransaction().rollback();
-            startedTX.set(false);
             message.decrementRefCount();
             return false;
          }
@@ -1305,8 +1385,6 @@ public class PostOfficeImpl implements PostOffice, NotificationListener, Binding
             if (context.getTransaction() == null) {
                // We need to store the duplicate id atomically with the message storage, so we need to create a tx for this
                context.setTransaction(new TransactionImpl(storageManager));
-
-               startedTX.set(true);
             }
 
             cache.addToCache(duplicateIDBytes, context.getTransaction(), false);
@@ -140,6 +140,12 @@ public final class CoreSessionCallback implements SessionCallback {
 
    }
 
+   @Override
+   public void afterDeliveryBatch(ServerConsumer consumer) throws Exception {
+      // the messages were sent batched, flush them at once rather than waiting for the batch flusher
+      channel.getConnection().getTransportConnection().checkFlushBatchBuffer();
+   }
+
    @Override
    public void sendProducerCreditsFailMessage(int credits, SimpleString address) {
       Packet packet = new SessionProducerCreditsFailMessage(credits, address);
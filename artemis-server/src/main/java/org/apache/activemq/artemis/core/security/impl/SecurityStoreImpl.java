@@ -17,10 +17,19 @@
 package org.apache.activemq.artemis.core.security.impl;
 
 import javax.security.cert.X509Certificate;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.Principal;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.api.core.management.CoreNotificationType;
 import org.apache.activemq.artemis.api.core.management.ManagementHelper;
@@ -38,7 +47,6 @@ import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager;
 import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager2;
 import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager3;
-import org.apache.activemq.artemis.utils.collections.ConcurrentHashSet;
 import org.apache.activemq.artemis.utils.collections.TypedProperties;
 import org.jboss.logging.Logger;
 
@@ -53,11 +61,17 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
 
    private final ActiveMQSecurityManager securityManager;
 
-   private final ConcurrentMap<String, ConcurrentHashSet<SimpleString>> cache = new ConcurrentHashMap<>();
+   // granted permissions of each user, the ones of a null user are kept apart as the map can't hold a null key
+   private final ConcurrentMap<String, Authorizations> authorizationCache = new ConcurrentHashMap<>();
+
+   private final Authorizations anonymousAuthorizations = new Authorizations();
+
+   // successful authentications keyed by user, a hash of the password and the peer principal, null if disabled
+   private final Cache<String, Optional<String>> authenticationCache;
 
    private final long invalidationInterval;
 
-   private volatile long lastCheck;
+   private volatile long lastPurge;
 
    private final boolean securityEnabled;
 
@@ -75,6 +89,7 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
    public SecurityStoreImpl(final HierarchicalRepository<Set<Role>> securityRepository,
                             final ActiveMQSecurityManager securityManager,
                             final long invalidationInterval,
+                            final int authenticationCacheSize,
                             final boolean securityEnabled,
                             final String managementClusterUser,
                             final String managementClusterPassword,
@@ -82,6 +97,11 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
       this.securityRepository = securityRepository;
       this.securityManager = securityManager;
       this.invalidationInterval = invalidationInterval;
+      if (authenticationCacheSize > 0) {
+         this.authenticationCache = CacheBuilder.newBuilder().maximumSize(authenticationCacheSize).expireAfterWrite(invalidationInterval, TimeUnit.MILLISECONDS).build();
+      } else {
+         this.authenticationCache = null;
+      }
       this.securityEnabled = securityEnabled;
       this.managementClusterUser = managementClusterUser;
       this.managementClusterPassword = managementClusterPassword;
@@ -123,6 +143,18 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
             }
          }
 
+         String cacheKey = null;
+         if (authenticationCache != null) {
+            cacheKey = authenticationKey(user, password, connection);
+            Optional<String> cached = authenticationCache.getIfPresent(cacheKey);
+            if (cached != null) {
+               if (logger.isTraceEnabled()) {
+                  logger.trace("Authenticated user " + user + " from the cache");
+               }
+               return cached.orElse(null);
+            }
+         }
+
          String validatedUser = null;
          boolean userIsValid = false;
 
@@ -152,6 +184,10 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
             throw ActiveMQMessageBundle.BUNDLE.unableToValidateUser(connection.getRemoteAddress(), user, certSubjectDN);
          }
 
+         if (cacheKey != null) {
+            authenticationCache.put(cacheKey, Optional.ofNullable(validatedUser));
+         }
+
          return validatedUser;
       }
 
@@ -221,12 +257,20 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
             }
          }
          // if we get here we're granted, add to the cache
-         ConcurrentHashSet<SimpleString> set = new ConcurrentHashSet<>();
-         ConcurrentHashSet<SimpleString> act = cache.putIfAbsent(user + "." + checkType.name(), set);
-         if (act != null) {
-            set = act;
+         Authorizations authorizations;
+         if (user == null) {
+            authorizations = anonymousAuthorizations;
+         } else {
+            authorizations = authorizationCache.get(user);
+            if (authorizations == null) {
+               authorizations = new Authorizations();
+               Authorizations existing = authorizationCache.putIfAbsent(user, authorizations);
+               if (existing != null) {
+                  authorizations = existing;
+               }
+            }
          }
-         set.add(address);
+         authorizations.grant(address, checkType, System.currentTimeMillis() + invalidationInterval);
 
       }
    }
@@ -244,28 +288,110 @@ public class SecurityStoreImpl implements SecurityStore, HierarchicalRepositoryC
 
    // Private -------------------------------------------------------
    private void invalidateCache() {
-      cache.clear();
+      authorizationCache.clear();
+      anonymousAuthorizations.clear();
+      if (authenticationCache != null) {
+         authenticationCache.invalidateAll();
+      }
    }
 
    private boolean checkCached(final SimpleString dest, final String user, final CheckType checkType) {
       long now = System.currentTimeMillis();
 
-      boolean granted = false;
+      if (now - lastPurge > invalidationInterval) {
+         lastPurge = now;
+         purgeExpired(now);
+      }
 
-      if (now - lastCheck > invalidationInterval) {
-         invalidateCache();
+      Authorizations authorizations = user == null ? anonymousAuthorizations : authorizationCache.get(user);
+      return authorizations != null && authorizations.isGranted(dest, checkType, now);
+   }
 
-         lastCheck = now;
-      } else {
-         ConcurrentHashSet<SimpleString> act = cache.get(user + "." + checkType.name());
-         if (act != null) {
-            granted = act.contains(dest);
+   private void purgeExpired(final long now) {
+      anonymousAuthorizations.purge(now);
+      for (Map.Entry<String, Authorizations> entry : authorizationCache.entrySet()) {
+         if (entry.getValue().purge(now)) {
+            // a grant racing with this is only lost from the cache
+            authorizationCache.remove(entry.getKey(), entry.getValue());
          }
       }
+   }
+
+   /**
+    * The key never holds the password itself, only its hash. The peer principal is part of it as it can be what
+    * the user is authenticated with (i.e. certificate or Kerberos).
+    */
+   private static String authenticationKey(final String user,
+                                           final String password,
+                                           final RemotingConnection connection) throws Exception {
+      Principal peer = CertificateUtil.getPeerPrincipalFromConnection(connection);
+
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      digest(digest, user);
+      digest(digest, password);
+      digest(digest, peer == null ? null : peer.getName());
+      return Base64.getEncoder().encodeToString(digest.digest());
+   }
 
-      return granted;
+   private static void digest(final MessageDigest digest, final String value) {
+      if (value == null) {
+         digest.update((byte) 0);
+      } else {
+         byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+         digest.update((byte) 1);
+         digest.update((byte) (bytes.length >>> 24));
+         digest.update((byte) (bytes.length >>> 16));
+         digest.update((byte) (bytes.length >>> 8));
+         digest.update((byte) bytes.length);
+         digest.update(bytes);
+      }
    }
 
    // Inner class ---------------------------------------------------
 
+   /**
+    * The addresses a user was granted each {@link CheckType} on, with the time each grant expires.
+    * Looking a grant up doesn't allocate.
+    */
+   private static final class Authorizations {
+
+      private static final CheckType[] CHECK_TYPES = CheckType.values();
+
+      private final ConcurrentMap<SimpleString, Long>[] grants;
+
+      @SuppressWarnings("unchecked")
+      Authorizations() {
+         grants = new ConcurrentMap[CHECK_TYPES.length];
+         for (int i = 0; i < grants.length; i++) {
+            grants[i] = new ConcurrentHashMap<>();
+         }
+      }
+
+      boolean isGranted(final SimpleString address, final CheckType checkType, final long now) {
+         Long expiry = grants[checkType.ordinal()].get(address);
+         return expiry != null && expiry - now > 0;
+      }
+
+      void grant(final SimpleString address, final CheckType checkType, final long expiry) {
+         grants[checkType.ordinal()].put(address, expiry);
+      }
+
+      /**
+       * @return true if no grant is left
+       */
+      boolean purge(final long now) {
+         boolean empty = true;
+         for (ConcurrentMap<SimpleString, Long> granted : grants) {
+            granted.values().removeIf(expiry -> expiry - now <= 0);
+            empty &= granted.isEmpty();
+         }
+         return empty;
+      }
+
+      void clear() {
+         for (ConcurrentMap<SimpleString, Long> granted : grants) {
+            granted.clear();
+         }
+      }
+   }
 }
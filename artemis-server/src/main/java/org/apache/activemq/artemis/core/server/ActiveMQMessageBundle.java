@@ -436,4 +436,10 @@ public interface ActiveMQMessageBundle {
    @Message(id = 119213, value = "User: {0} does not have permission=''{1}'' for queue {2} on address {3}", format = Message.Format.MESSAGE_FORMAT)
    ActiveMQSecurityException userNoPermissionsQueue(String username, CheckType checkType, String squeue, String saddress);
 
+   @Message(id = 119214, value = "The message journal has data on {0} stripes, it can''t be loaded by a server using replication. Move the messages off the stripes after the first one with journal-stripes and no replication, or start from an empty journal", format = Message.Format.MESSAGE_FORMAT)
+   IllegalStateException journalStripesOnReplication(int stripes);
+
+   @Message(id = 119215, value = "A message journal striped across {0} stripes can''t be replicated", format = Message.Format.MESSAGE_FORMAT)
+   IllegalStateException stripedJournalReplication(int stripes);
+
 }
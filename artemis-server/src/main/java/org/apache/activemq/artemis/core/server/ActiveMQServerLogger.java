@@ -427,6 +427,22 @@ public interface ActiveMQServerLogger extends BasicLogger {
    @Message(id = 221079, value = "Ignoring prepare on xid as already called : {0}", format = Message.Format.MESSAGE_FORMAT)
    void ignoringPrepareOnXidAlreadyCalled(String xid);
 
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(id = 221080, value = "Using IO_URING Journal, direct={0}", format = Message.Format.MESSAGE_FORMAT)
+   void journalUseIOUring(boolean direct);
+
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(id = 221081, value = "io_uring is not available, switching the configuration into NIO", format = Message.Format.MESSAGE_FORMAT)
+   void switchingNIOFromIOUring();
+
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(id = 221082, value = "io_uring was found but the filesystem does not support it. Switching the configuration into NIO. Journal path: {0}", format = Message.Format.MESSAGE_FORMAT)
+   void switchingNIOFromIOUringOnPath(String journalPath);
+
+   @LogMessage(level = Logger.Level.INFO)
+   @Message(id = 221083, value = "Striping the message journal across {0} journals", format = Message.Format.MESSAGE_FORMAT)
+   void journalStriped(int stripes);
+
    @LogMessage(level = Logger.Level.WARN)
    @Message(id = 222000, value = "ActiveMQServer is being finalized and has not been stopped. Please remember to stop the server before letting it go out of scope",
       format = Message.Format.MESSAGE_FORMAT)
@@ -1579,6 +1595,26 @@ public interface ActiveMQServerLogger extends BasicLogger {
    @Message(id = 222268, value = "Failed to remove a record", format = Message.Format.MESSAGE_FORMAT)
    void failedToRemoveRecord(@Cause Exception e);
 
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222269, value = "Starting paging on address ''{0}'' under memory pressure; size is currently: {1} bytes; global size: {2} bytes; global-max-size: {3}", format = Message.Format.MESSAGE_FORMAT)
+   void pageStoreStartUnderPressure(SimpleString storeName, long addressSize, long globalSize, long globalMaxSize);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222270, value = "journal-stripes={0} is ignored, the message journal cannot be striped on a server using replication", format = Message.Format.MESSAGE_FORMAT)
+   void journalStripesIgnoredOnReplication(int stripes);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222271, value = "The message journal has data on {0} stripes while journal-stripes={1}, all the {0} stripes will be used", format = Message.Format.MESSAGE_FORMAT)
+   void journalStripesKept(int stripes, int configuredStripes);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222272, value = "Unable to store group binding info {0}", format = Message.Format.MESSAGE_FORMAT)
+   void unableToStoreGroupBindings(@Cause Exception e, SimpleString groupId);
+
+   @LogMessage(level = Logger.Level.WARN)
+   @Message(id = 222273, value = "Unable to commit the group bindings of transaction {0}", format = Message.Format.MESSAGE_FORMAT)
+   void unableToCommitGroupBindings(@Cause Exception e, long txID);
+
    @LogMessage(level = Logger.Level.ERROR)
    @Message(id = 224000, value = "Failure in initialisation", format = Message.Format.MESSAGE_FORMAT)
    void initializationError(@Cause Throwable e);
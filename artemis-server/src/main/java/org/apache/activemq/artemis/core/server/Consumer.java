@@ -17,6 +17,7 @@
 package org.apache.activemq.artemis.core.server;
 
 import java.util.List;
+import java.util.function.BiConsumer;
 
 import org.apache.activemq.artemis.core.filter.Filter;
 import org.apache.activemq.artemis.spi.core.protocol.SessionCallback;
@@ -56,6 +57,31 @@ public interface Consumer {
     */
    void proceedDeliver(MessageReference reference) throws Exception;
 
+   /**
+    * Proceeds with the delivery of a batch of references, all of them accepted by {@link #handle(MessageReference)}
+    * during the same pass of the queue. Implementations can use it to do once per batch what would otherwise
+    * be done per message, like flushing the connection.
+    * <p>
+    * The references must be delivered in order. Once the delivery of a reference failed the following ones
+    * must not be delivered either, every reference not delivered is handed to {@code onFailure} so the queue
+    * can take it back.
+    * The list is only valid for the duration of the call.
+    */
+   default void proceedDeliver(List<MessageReference> references, BiConsumer<MessageReference, Throwable> onFailure) {
+      Throwable failure = null;
+      for (MessageReference reference : references) {
+         if (failure == null) {
+            try {
+               proceedDeliver(reference);
+               continue;
+            } catch (Throwable t) {
+               failure = t;
+            }
+         }
+         onFailure.accept(reference, failure);
+      }
+   }
+
    Filter getFilter();
 
    /**
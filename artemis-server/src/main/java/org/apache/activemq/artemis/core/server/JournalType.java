@@ -18,7 +18,7 @@ package org.apache.activemq.artemis.core.server;
 
 
 public enum JournalType {
-   NIO, ASYNCIO, MAPPED;
+   NIO, ASYNCIO, MAPPED, IO_URING;
 
    public static final String validValues;
 
@@ -41,6 +41,7 @@ public enum JournalType {
          case "NIO": return NIO;
          case "ASYNCIO" : return ASYNCIO;
          case "MAPPED" : return MAPPED;
+         case "IO_URING" : return IO_URING;
          default: throw new IllegalStateException("Invalid JournalType:" + type + " valid Types: " + validValues);
       }
    }
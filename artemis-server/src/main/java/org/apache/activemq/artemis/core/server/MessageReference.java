@@ -20,6 +20,7 @@ package org.apache.activemq.artemis.core.server;
 import org.apache.activemq.artemis.api.core.Message;
 import org.apache.activemq.artemis.core.server.impl.AckReason;
 import org.apache.activemq.artemis.core.server.impl.MessageReferenceImpl;
+import org.apache.activemq.artemis.core.server.impl.PartitionedQueue;
 import org.apache.activemq.artemis.core.transaction.Transaction;
 
 /**
@@ -31,6 +32,10 @@ public interface MessageReference {
 
    final class Factory {
       public static MessageReference createReference(Message encode, final Queue queue) {
+         if (queue instanceof PartitionedQueue) {
+            // the reference belongs to one of the partitions of the queue
+            return ((PartitionedQueue) queue).createReference(encode);
+         }
          return new MessageReferenceImpl(encode, queue);
       }
    }
@@ -45,6 +45,14 @@ public interface Queue extends Bindable,CriticalComponent {
 
    PageSubscription getPageSubscription();
 
+   /**
+    * The message was paged for this queue, it will be delivered once depaged.
+    *
+    * @param tx the transaction the message was sent with, or {@code null}
+    */
+   default void messagePaged(Message message, Transaction tx) throws Exception {
+   }
+
    RoutingType getRoutingType();
 
    void setRoutingType(RoutingType routingType);
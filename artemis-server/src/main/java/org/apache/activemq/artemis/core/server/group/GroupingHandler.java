@@ -55,4 +55,12 @@ public interface GroupingHandler extends NotificationListener, ActiveMQComponent
    void remove(SimpleString groupid, SimpleString clusterName) throws Exception;
 
    void remove(SimpleString groupid, SimpleString clusterName, int distance) throws Exception;
+
+   /**
+    * Whether a new group is proposed to the binding it hashes to rather than to the next binding, so every node of
+    * the cluster proposes the same binding without asking the others first.
+    */
+   default boolean isPartitioned() {
+      return false;
+   }
 }
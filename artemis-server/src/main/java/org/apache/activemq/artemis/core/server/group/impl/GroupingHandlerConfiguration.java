@@ -102,7 +102,7 @@ public final class GroupingHandlerConfiguration implements Serializable {
    }
 
    public enum TYPE {
-      LOCAL("LOCAL"), REMOTE("REMOTE");
+      LOCAL("LOCAL"), REMOTE("REMOTE"), PARTITIONED("PARTITIONED");
 
       private String type;
 
@@ -0,0 +1,437 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.group.impl;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.management.CoreNotificationType;
+import org.apache.activemq.artemis.api.core.management.ManagementHelper;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.BindingType;
+import org.apache.activemq.artemis.core.server.ActiveMQMessageBundle;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.management.ManagementService;
+import org.apache.activemq.artemis.core.server.management.Notification;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.collections.ConcurrentHashSet;
+import org.apache.activemq.artemis.utils.collections.TypedProperties;
+import org.jboss.logging.Logger;
+
+/**
+ * A partitioned Grouping handler, every node of the cluster is configured with one.
+ * <p>
+ * A new group is proposed to the queue it hashes to, and the node hosting that queue owns the group: it decides,
+ * stores and expires its binding. The other nodes don't wait for the owner, they route to the queue they proposed and
+ * lease the binding until the owner confirms it, or answers with the queue the group was already bound to. The owner
+ * lets every node know of the groups it binds, so a group stays on its queue when the cluster topology changes.
+ * <p>
+ * The bindings are stored in batches, a binding accepted but not stored yet when the node crashes is proposed again
+ * to the queue it hashes to.
+ */
+public final class PartitionedGroupingHandler extends GroupHandlingAbstract {
+
+   private static final Logger logger = Logger.getLogger(PartitionedGroupingHandler.class);
+
+   private static final int MAX_RECORDS_PER_TX = 1000;
+
+   private final SimpleString name;
+
+   private final StorageManager storageManager;
+
+   private final ScheduledExecutorService scheduledExecutor;
+
+   private final long groupTimeout;
+
+   private final long reaperPeriod;
+
+   /**
+    * The groups bound to the local queues, decided by this node.
+    */
+   private final ConcurrentMap<SimpleString, GroupBinding> owned = new ConcurrentHashMap<>();
+
+   /**
+    * The groups bound to the queues of the other nodes, leased from their owners.
+    */
+   private final ConcurrentMap<SimpleString, Response> leased = new ConcurrentHashMap<>();
+
+   private final ConcurrentHashSet<SimpleString> localClusterNames = new ConcurrentHashSet<>();
+
+   private final Queue<GroupBinding> pendingAdds = new ConcurrentLinkedQueue<>();
+
+   private final Queue<GroupBinding> pendingDeletes = new ConcurrentLinkedQueue<>();
+
+   private final AtomicBoolean flushPending = new AtomicBoolean();
+
+   private volatile boolean started;
+
+   private ScheduledFuture reaperFuture;
+
+   public PartitionedGroupingHandler(final ExecutorFactory executorFactory,
+                                     final ScheduledExecutorService scheduledExecutor,
+                                     final ManagementService managementService,
+                                     final SimpleString name,
+                                     final SimpleString address,
+                                     final StorageManager storageManager,
+                                     final long groupTimeout,
+                                     final long reaperPeriod) {
+      super(executorFactory != null ? executorFactory.getExecutor() : null, managementService, address);
+      this.scheduledExecutor = scheduledExecutor;
+      this.name = name;
+      this.storageManager = storageManager;
+      this.groupTimeout = groupTimeout;
+      this.reaperPeriod = reaperPeriod;
+   }
+
+   @Override
+   public SimpleString getName() {
+      return name;
+   }
+
+   @Override
+   public boolean isPartitioned() {
+      return true;
+   }
+
+   @Override
+   public Response propose(final Proposal proposal) throws Exception {
+      Response response = getProposal(proposal.getGroupId(), true);
+      if (response != null || proposal.getClusterName() == null) {
+         return response;
+      }
+
+      if (!started) {
+         throw ActiveMQMessageBundle.BUNDLE.groupWhileStopping();
+      }
+
+      if (localClusterNames.contains(proposal.getClusterName())) {
+         response = bind(proposal);
+         if (response.isAccepted()) {
+            sendProposalResponse(response, 0);
+         }
+         return response;
+      }
+
+      // the owner confirms or corrects the lease asynchronously, the message doesn't wait for it
+      response = new Response(proposal.getGroupId(), proposal.getClusterName());
+      Response previous = leased.putIfAbsent(proposal.getGroupId(), response);
+      if (previous != null) {
+         return previous;
+      }
+      sendProposal(proposal.getGroupId(), proposal.getClusterName());
+      return response;
+   }
+
+   /**
+    * Decides a group proposed to a local queue.
+    */
+   private Response bind(final Proposal proposal) {
+      GroupBinding groupBinding = new GroupBinding(proposal.getGroupId(), proposal.getClusterName());
+      GroupBinding original = owned.putIfAbsent(proposal.getGroupId(), groupBinding);
+      if (original != null) {
+         original.use();
+         if (original.getClusterName().equals(proposal.getClusterName())) {
+            return new Response(proposal.getGroupId(), proposal.getClusterName());
+         }
+         // Returning with an alternate cluster name, as it's been already grouped
+         return new Response(proposal.getGroupId(), proposal.getClusterName(), original.getClusterName());
+      }
+      groupBinding.setId(storageManager.generateID());
+      pendingAdds.add(groupBinding);
+      scheduleFlush();
+      return new Response(proposal.getGroupId(), proposal.getClusterName());
+   }
+
+   private void unbind(final GroupBinding groupBinding) {
+      if (owned.remove(groupBinding.getGroupId(), groupBinding)) {
+         // not stored yet, nothing to delete
+         if (!pendingAdds.remove(groupBinding)) {
+            pendingDeletes.add(groupBinding);
+            scheduleFlush();
+         }
+      }
+   }
+
+   private void scheduleFlush() {
+      if (flushPending.compareAndSet(false, true)) {
+         if (executor == null) {
+            // for tests only, where we don't need an executor
+            flush();
+         } else {
+            executor.execute(this::flush);
+         }
+      }
+   }
+
+   /**
+    * Stores the bindings accepted and deletes the bindings removed since the last flush, in as few transactions as
+    * possible.
+    */
+   private void flush() {
+      flushPending.set(false);
+      long txID = -1;
+      int records = 0;
+      // the adds go first, a binding may be deleted right after it was stored
+      for (Queue<GroupBinding> pending : Arrays.asList(pendingAdds, pendingDeletes)) {
+         GroupBinding groupBinding;
+         while ((groupBinding = pending.poll()) != null) {
+            try {
+               if (txID < 0) {
+                  txID = storageManager.generateID();
+               }
+               if (pending == pendingAdds) {
+                  storageManager.addGrouping(txID, groupBinding);
+               } else {
+                  storageManager.deleteGrouping(txID, groupBinding);
+               }
+               if (++records >= MAX_RECORDS_PER_TX) {
+                  storageManager.commitBindings(txID);
+                  records = 0;
+                  txID = -1;
+               }
+            } catch (Exception e) {
+               if (pending == pendingAdds) {
+                  ActiveMQServerLogger.LOGGER.unableToStoreGroupBindings(e, groupBinding.getGroupId());
+               } else {
+                  ActiveMQServerLogger.LOGGER.unableToDeleteGroupBindings(e, groupBinding.getGroupId());
+               }
+            }
+         }
+      }
+
+      if (txID >= 0) {
+         try {
+            storageManager.commitBindings(txID);
+         } catch (Exception e) {
+            ActiveMQServerLogger.LOGGER.unableToCommitGroupBindings(e, txID);
+         }
+      }
+   }
+
+   private void sendProposal(final SimpleString groupId, final SimpleString clusterName) {
+      TypedProperties props = new TypedProperties();
+      props.putSimpleStringProperty(ManagementHelper.HDR_PROPOSAL_GROUP_ID, groupId);
+      props.putSimpleStringProperty(ManagementHelper.HDR_PROPOSAL_VALUE, clusterName);
+      props.putIntProperty(ManagementHelper.HDR_BINDING_TYPE, BindingType.LOCAL_QUEUE_INDEX);
+      props.putSimpleStringProperty(ManagementHelper.HDR_ADDRESS, address);
+      props.putIntProperty(ManagementHelper.HDR_DISTANCE, 0);
+      try {
+         managementService.sendNotification(new Notification(null, CoreNotificationType.PROPOSAL, props));
+      } catch (Exception e) {
+         ActiveMQServerLogger.LOGGER.errorHandlingMessage(e);
+      }
+   }
+
+   @Override
+   public void resendPending() throws Exception {
+      // the leases are confirmed asynchronously, there is nothing waiting for a response
+   }
+
+   @Override
+   public Response receive(final Proposal proposal, final int distance) throws Exception {
+      if (proposal.getClusterName() == null || !localClusterNames.contains(proposal.getClusterName())) {
+         // proposed to a queue owned by another node
+         return null;
+      }
+      logger.trace("received proposal " + proposal);
+      return bind(proposal);
+   }
+
+   @Override
+   public void proposed(final Response response) throws Exception {
+      if (owned.containsKey(response.getGroupId())) {
+         return;
+      }
+      Response previous = leased.put(response.getGroupId(), response);
+      if (previous != null && !previous.getChosenClusterName().equals(response.getChosenClusterName())) {
+         logger.debug("Group " + response.getGroupId() + " was leased to " + previous.getChosenClusterName() + ", moving to " + response.getChosenClusterName());
+         fireUnproposed(response.getGroupId());
+      }
+   }
+
+   @Override
+   public void sendProposalResponse(final Response response, final int distance) throws Exception {
+      TypedProperties props = new TypedProperties();
+      props.putSimpleStringProperty(ManagementHelper.HDR_PROPOSAL_GROUP_ID, response.getGroupId());
+      props.putSimpleStringProperty(ManagementHelper.HDR_PROPOSAL_VALUE, response.getClusterName());
+      props.putSimpleStringProperty(ManagementHelper.HDR_PROPOSAL_ALT_VALUE, response.getAlternativeClusterName());
+      props.putIntProperty(ManagementHelper.HDR_BINDING_TYPE, BindingType.LOCAL_QUEUE_INDEX);
+      props.putSimpleStringProperty(ManagementHelper.HDR_ADDRESS, address);
+      props.putIntProperty(ManagementHelper.HDR_DISTANCE, distance);
+      Notification notification = new Notification(null, CoreNotificationType.PROPOSAL_RESPONSE, props);
+      managementService.sendNotification(notification);
+   }
+
+   @Override
+   public void addGroupBinding(final GroupBinding groupBinding) {
+      // only the bindings to the local queues are stored
+      owned.put(groupBinding.getGroupId(), groupBinding);
+   }
+
+   @Override
+   public Response getProposal(final SimpleString fullID, final boolean touchTime) {
+      GroupBinding original = owned.get(fullID);
+      if (original != null) {
+         if (touchTime) {
+            original.use();
+         }
+         return new Response(fullID, original.getClusterName());
+      }
+
+      Response response = leased.get(fullID);
+      if (response != null && touchTime) {
+         renew(response);
+      }
+      return response;
+   }
+
+   /**
+    * Renews a lease on the owner once half of it elapsed, without waiting for the owner.
+    */
+   private void renew(final Response response) {
+      if (groupTimeout > 0 && response.getTimeUsed() + groupTimeout / 2 < System.currentTimeMillis()) {
+         response.use();
+         sendProposal(response.getGroupId(), response.getChosenClusterName());
+      }
+   }
+
+   @Override
+   public void awaitBindings() throws Exception {
+      // the stored bindings are all to local queues, there are no remote bindings to wait for
+   }
+
+   @Override
+   public void remove(final SimpleString groupid, final SimpleString clusterName) throws Exception {
+      leased.remove(groupid);
+      GroupBinding groupBinding = owned.get(groupid);
+      if (groupBinding != null && groupBinding.getClusterName().equals(clusterName)) {
+         unbind(groupBinding);
+      }
+      fireUnproposed(groupid);
+   }
+
+   @Override
+   public void remove(final SimpleString groupid, final SimpleString clusterName, final int distance) throws Exception {
+      remove(groupid, clusterName);
+   }
+
+   @Override
+   public void onNotification(final Notification notification) {
+      if (!(notification.getType() instanceof CoreNotificationType))
+         return;
+
+      TypedProperties props = notification.getProperties();
+      if (notification.getType() == CoreNotificationType.BINDING_ADDED) {
+         if (props.containsProperty(ManagementHelper.HDR_DISTANCE) && props.getIntProperty(ManagementHelper.HDR_DISTANCE) == 0) {
+            localClusterNames.add(props.getSimpleStringProperty(ManagementHelper.HDR_CLUSTER_NAME));
+         }
+      } else if (notification.getType() == CoreNotificationType.BINDING_REMOVED) {
+         SimpleString clusterName = props.getSimpleStringProperty(ManagementHelper.HDR_CLUSTER_NAME);
+         localClusterNames.remove(clusterName);
+         removeGrouping(clusterName);
+      }
+   }
+
+   private void removeGrouping(final SimpleString clusterName) {
+      Runnable runnable = () -> {
+         for (GroupBinding groupBinding : owned.values()) {
+            if (groupBinding.getClusterName().equals(clusterName)) {
+               unbind(groupBinding);
+               fireUnproposed(groupBinding.getGroupId());
+               sendUnproposal(groupBinding.getGroupId(), clusterName, 0);
+            }
+         }
+         for (Map.Entry<SimpleString, Response> entry : leased.entrySet()) {
+            if (entry.getValue().getChosenClusterName().equals(clusterName) && leased.remove(entry.getKey(), entry.getValue())) {
+               fireUnproposed(entry.getKey());
+            }
+         }
+      };
+      if (executor == null) {
+         runnable.run();
+      } else {
+         executor.execute(runnable);
+      }
+   }
+
+   @Override
+   public synchronized void start() throws Exception {
+      if (started)
+         return;
+
+      if (reaperPeriod > 0 && groupTimeout > 0) {
+         if (reaperFuture != null) {
+            reaperFuture.cancel(true);
+            reaperFuture = null;
+         }
+
+         reaperFuture = scheduledExecutor.scheduleAtFixedRate(() -> executor.execute(this::reap), reaperPeriod, reaperPeriod, TimeUnit.MILLISECONDS);
+      }
+      started = true;
+   }
+
+   @Override
+   public synchronized void stop() throws Exception {
+      started = false;
+      if (reaperFuture != null) {
+         reaperFuture.cancel(true);
+         reaperFuture = null;
+      }
+   }
+
+   @Override
+   public boolean isStarted() {
+      return started;
+   }
+
+   /**
+    * Expires the groups not used during the group timeout, the owners also delete their bindings and let the other
+    * nodes know.
+    */
+   void reap() {
+      if (!isStarted()) {
+         return;
+      }
+      long expiredBefore = System.currentTimeMillis() - groupTimeout;
+      int expiredGroups = 0;
+      for (GroupBinding groupBinding : owned.values()) {
+         if (groupBinding.getTimeUsed() < expiredBefore) {
+            unbind(groupBinding);
+            fireUnproposed(groupBinding.getGroupId());
+            sendUnproposal(groupBinding.getGroupId(), groupBinding.getClusterName(), 0);
+            expiredGroups++;
+         }
+      }
+      for (Map.Entry<SimpleString, Response> entry : leased.entrySet()) {
+         if (entry.getValue().getTimeUsed() < expiredBefore && leased.remove(entry.getKey(), entry.getValue())) {
+            expiredGroups++;
+         }
+      }
+      if (logger.isDebugEnabled() && expiredGroups > 0) {
+         logger.debug(expiredGroups + " groups expired on " + name);
+      }
+   }
+}
@@ -72,6 +72,7 @@ import org.apache.activemq.artemis.core.filter.impl.FilterImpl;
 import org.apache.activemq.artemis.core.io.IOCriticalErrorListener;
 import org.apache.activemq.artemis.core.io.SequentialFile;
 import org.apache.activemq.artemis.core.io.aio.AIOSequentialFileFactory;
+import org.apache.activemq.artemis.core.io.uring.IOUringSequentialFileFactory;
 import org.apache.activemq.artemis.core.journal.JournalLoadInformation;
 import org.apache.activemq.artemis.core.management.impl.ActiveMQServerControlImpl;
 import org.apache.activemq.artemis.core.paging.PagingManager;
@@ -143,6 +144,7 @@ import org.apache.activemq.artemis.core.server.files.FileStoreMonitor;
 import org.apache.activemq.artemis.core.server.group.GroupingHandler;
 import org.apache.activemq.artemis.core.server.group.impl.GroupingHandlerConfiguration;
 import org.apache.activemq.artemis.core.server.group.impl.LocalGroupingHandler;
+import org.apache.activemq.artemis.core.server.group.impl.PartitionedGroupingHandler;
 import org.apache.activemq.artemis.core.server.group.impl.RemoteGroupingHandler;
 import org.apache.activemq.artemis.core.server.management.ManagementService;
 import org.apache.activemq.artemis.core.server.management.impl.ManagementServiceImpl;
@@ -2116,7 +2118,7 @@ public class ActiveMQServerImpl implements ActiveMQServer {
    }
 
    protected PagingManager createPagingManager() throws Exception {
-      return new PagingManagerImpl(getPagingStoreFactory(), addressSettingsRepository, configuration.getGlobalMaxSize());
+      return new PagingManagerImpl(getPagingStoreFactory(), addressSettingsRepository, configuration.getGlobalMaxSize(), configuration.getGlobalPagingPressureThreshold());
    }
 
    protected PagingStoreFactory getPagingStoreFactory() throws Exception {
@@ -2263,6 +2265,16 @@ public class ActiveMQServerImpl implements ActiveMQServer {
          }
       }
 
+      if (configuration.getJournalType() == JournalType.IO_URING) {
+         if (!IOUringSequentialFileFactory.isSupported()) {
+            ActiveMQServerLogger.LOGGER.switchingNIOFromIOUring();
+            configuration.setJournalType(JournalType.NIO);
+         } else if (!IOUringSequentialFileFactory.isSupported(configuration.getJournalLocation(), configuration.isJournalDirectIO())) {
+            ActiveMQServerLogger.LOGGER.switchingNIOFromIOUringOnPath(configuration.getJournalLocation().getAbsolutePath());
+            configuration.setJournalType(JournalType.NIO);
+         }
+      }
+
       managementService = new ManagementServiceImpl(mbeanServer, configuration);
 
       if (configuration.getMemoryMeasureInterval() != -1) {
@@ -2283,7 +2295,7 @@ public class ActiveMQServerImpl implements ActiveMQServer {
          ActiveMQServerLogger.LOGGER.clusterSecurityRisk();
       }
 
-      securityStore = new SecurityStoreImpl(securityRepository, securityManager, configuration.getSecurityInvalidationInterval(), configuration.isSecurityEnabled(), configuration.getClusterUser(), configuration.getClusterPassword(), managementService);
+      securityStore = new SecurityStoreImpl(securityRepository, securityManager, configuration.getSecurityInvalidationInterval(), configuration.getAuthenticationCacheSize(), configuration.isSecurityEnabled(), configuration.getClusterUser(), configuration.getClusterPassword(), managementService);
 
       queueFactory = new QueueFactoryImpl(executorFactory, scheduledPool, addressSettingsRepository, storageManager, this);
 
@@ -2813,6 +2825,8 @@ public class ActiveMQServerImpl implements ActiveMQServer {
          GroupingHandler groupingHandler1;
          if (config.getType() == GroupingHandlerConfiguration.TYPE.LOCAL) {
             groupingHandler1 = new LocalGroupingHandler(executorFactory, scheduledPool, managementService, config.getName(), config.getAddress(), getStorageManager(), config.getTimeout(), config.getGroupTimeout(), config.getReaperPeriod());
+         } else if (config.getType() == GroupingHandlerConfiguration.TYPE.PARTITIONED) {
+            groupingHandler1 = new PartitionedGroupingHandler(executorFactory, scheduledPool, managementService, config.getName(), config.getAddress(), getStorageManager(), config.getGroupTimeout(), config.getReaperPeriod());
          } else {
             groupingHandler1 = new RemoteGroupingHandler(executorFactory, managementService, config.getName(), config.getAddress(), config.getTimeout(), config.getGroupTimeout());
          }
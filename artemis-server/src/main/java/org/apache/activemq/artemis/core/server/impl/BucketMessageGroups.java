@@ -0,0 +1,254 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
+import org.apache.activemq.artemis.core.server.Consumer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.jboss.logging.Logger;
+
+/**
+ * Binds the groups by hash to a fixed number of buckets, so the bindings take the same memory whatever the number of
+ * groups. Groups sharing a bucket are delivered to the same consumer.
+ * <p>
+ * With rebalancing, a consumer joining the queue takes its share of the bound buckets from the consumers owning the
+ * most. A bucket keeps its consumer until the messages of the bucket delivered to it are acknowledged or cancelled,
+ * meanwhile the messages of the bucket are held on the queue, so a group is never delivered to two consumers at once.
+ * A drained bucket stays held until the queue {@link #completeMoves() completes} its move, as the queue has to
+ * iterate again over the messages it skipped.
+ */
+final class BucketMessageGroups implements MessageGroups {
+
+   private static final Logger logger = Logger.getLogger(BucketMessageGroups.class);
+
+   private final Consumer[] consumers;
+
+   /**
+    * The consumers the buckets move to once drained.
+    */
+   private final Consumer[] nextConsumers;
+
+   /**
+    * The {@link #deliveriesChanged} generation a moving bucket was last found in flight at.
+    */
+   private final long[] inFlightAt;
+
+   /**
+    * The moving buckets found drained, they move on {@link #completeMoves()}.
+    */
+   private final boolean[] drained;
+
+   private int drainedCount;
+
+   /**
+    * The {@link #deliveriesChanged} generation the queue last started over at.
+    */
+   private long rewoundAt;
+
+   private final boolean rebalance;
+
+   private final AtomicLong deliveriesChanged = new AtomicLong();
+
+   private volatile int moving;
+
+   BucketMessageGroups(final int buckets, final boolean rebalance) {
+      this.consumers = new Consumer[buckets];
+      this.nextConsumers = new Consumer[buckets];
+      this.inFlightAt = new long[buckets];
+      Arrays.fill(inFlightAt, -1);
+      this.drained = new boolean[buckets];
+      this.rebalance = rebalance;
+   }
+
+   private int bucket(final SimpleString groupID) {
+      return (groupID.hashCode() & Integer.MAX_VALUE) % consumers.length;
+   }
+
+   @Override
+   public Consumer get(final SimpleString groupID) {
+      return consumers[bucket(groupID)];
+   }
+
+   @Override
+   public void put(final SimpleString groupID, final Consumer consumer) {
+      consumers[bucket(groupID)] = consumer;
+   }
+
+   @Override
+   public boolean isHeld(final SimpleString groupID) {
+      if (moving == 0) {
+         return false;
+      }
+      int bucket = bucket(groupID);
+      Consumer nextConsumer = nextConsumers[bucket];
+      if (nextConsumer == null) {
+         return false;
+      }
+      if (drained[bucket]) {
+         return true;
+      }
+      long generation = deliveriesChanged.get();
+      if (inFlightAt[bucket] == generation) {
+         // nothing was acknowledged or cancelled since the bucket was last found in flight
+         return true;
+      }
+      if (isInFlight(consumers[bucket], bucket)) {
+         inFlightAt[bucket] = generation;
+         return true;
+      }
+      if (logger.isDebugEnabled()) {
+         logger.debug("Group bucket " + bucket + " drained, moving from " + consumers[bucket] + " to " + nextConsumer);
+      }
+      // messages of the bucket were skipped before this one, it is held until the queue starts over
+      drained[bucket] = true;
+      drainedCount++;
+      return true;
+   }
+
+   @Override
+   public boolean completeMoves() {
+      // the held messages skipped by the queue are looked at again once something was acknowledged or cancelled,
+      // that's when moving buckets may be found drained
+      long generation = deliveriesChanged.get();
+      boolean startOver = generation != rewoundAt;
+      rewoundAt = generation;
+
+      if (drainedCount == 0) {
+         return startOver;
+      }
+      for (int i = 0; i < drained.length; i++) {
+         if (drained[i]) {
+            completeMove(i);
+         }
+      }
+      return true;
+   }
+
+   private void completeMove(final int bucket) {
+      consumers[bucket] = nextConsumers[bucket];
+      cancelMove(bucket);
+   }
+
+   private void cancelMove(final int bucket) {
+      nextConsumers[bucket] = null;
+      if (drained[bucket]) {
+         drained[bucket] = false;
+         drainedCount--;
+      }
+      moving--;
+   }
+
+   private boolean isInFlight(final Consumer consumer, final int bucket) {
+      List<MessageReference> deliveringMessages;
+      try {
+         deliveringMessages = consumer.getDeliveringMessages();
+      } catch (Throwable e) {
+         ActiveMQServerLogger.LOGGER.unableToExtractGroupID(e);
+         return true;
+      }
+      for (MessageReference reference : deliveringMessages) {
+         SimpleString groupID = reference.getMessage().getGroupID();
+         if (groupID != null && bucket(groupID) == bucket) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public boolean isMoving() {
+      return moving > 0;
+   }
+
+   @Override
+   public void deliveriesChanged() {
+      deliveriesChanged.incrementAndGet();
+   }
+
+   @Override
+   public void removeConsumer(final Consumer consumer) {
+      for (int i = 0; i < consumers.length; i++) {
+         if (consumers[i] == consumer) {
+            // what it had in flight is cancelled back to the head of the queue
+            if (nextConsumers[i] != null) {
+               completeMove(i);
+            } else {
+               consumers[i] = null;
+            }
+         } else if (nextConsumers[i] == consumer) {
+            cancelMove(i);
+         }
+      }
+   }
+
+   @Override
+   public void addConsumer(final Consumer consumer, final int consumerCount) {
+      if (!rebalance || consumerCount < 2) {
+         return;
+      }
+      Map<Consumer, Integer> owned = new IdentityHashMap<>();
+      int bound = 0;
+      for (int i = 0; i < consumers.length; i++) {
+         Consumer owner = owner(i);
+         if (owner != null) {
+            owned.merge(owner, 1, Integer::sum);
+            bound++;
+         }
+      }
+      int share = bound / consumerCount;
+      int taken = 0;
+      for (int i = 0; i < consumers.length && taken < share; i++) {
+         Consumer owner = owner(i);
+         if (owner == null || owner == consumer || owned.get(owner) <= share) {
+            continue;
+         }
+         owned.merge(owner, -1, Integer::sum);
+         if (nextConsumers[i] == null) {
+            moving++;
+         }
+         nextConsumers[i] = consumer;
+         inFlightAt[i] = -1;
+         taken++;
+      }
+      if (logger.isDebugEnabled()) {
+         logger.debug("Moving " + taken + " of " + bound + " group buckets to " + consumer);
+      }
+   }
+
+   private Consumer owner(final int bucket) {
+      return nextConsumers[bucket] != null ? nextConsumers[bucket] : consumers[bucket];
+   }
+
+   @Override
+   public boolean remove(final SimpleString groupID) {
+      // other groups share the bucket
+      return false;
+   }
+
+   @Override
+   public List<SimpleString> getGroupIDs() {
+      return Collections.emptyList();
+   }
+}
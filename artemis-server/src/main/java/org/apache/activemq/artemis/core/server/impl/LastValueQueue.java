@@ -16,6 +16,8 @@
  */
 package org.apache.activemq.artemis.core.server.impl;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ScheduledExecutorService;
@@ -35,6 +37,7 @@ import org.apache.activemq.artemis.core.server.QueueFactory;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.TransactionOperationAbstract;
 import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
 
 /**
@@ -44,11 +47,23 @@ import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
  * <p>
  * This is useful for example, for stock prices, where you're only interested in the latest value
  * for a particular stock
+ * <p>
+ * A newer value takes the place of the older one in the queue, and the older ones are acknowledged in batches on the
+ * queue executor. While the address pages, only the last value paged for a property value is depaged, the older ones
+ * are acknowledged as they are read from the page.
  */
 public class LastValueQueue extends QueueImpl {
 
    private final Map<SimpleString, HolderReference> map = new ConcurrentHashMap<>();
 
+   /**
+    * The id of the last message paged for a property value, until it is depaged.
+    * It is updated while the paging store is locked, without locking the queue.
+    */
+   private final Map<SimpleString, Long> pagedLastValues = new ConcurrentHashMap<>();
+
+   private List<MessageReference> replacedRefs = new ArrayList<>();
+
    public LastValueQueue(final long persistenceID,
                          final SimpleString address,
                          final SimpleString name,
@@ -73,6 +88,11 @@ public class LastValueQueue extends QueueImpl {
 
    @Override
    public synchronized void addTail(final MessageReference ref, final boolean direct) {
+      if (ref.isPaged() && isReplacedWhilePaged(ref)) {
+         replaced(ref);
+         return;
+      }
+
       if (scheduleIfPossible(ref)) {
          return;
       }
@@ -115,13 +135,7 @@ public class LastValueQueue extends QueueImpl {
             } else {
                // We keep the current ref and ack the one we are returning
 
-               super.referenceHandled();
-
-               try {
-                  super.acknowledge(ref);
-               } catch (Exception e) {
-                  ActiveMQServerLogger.LOGGER.errorAckingOldReference(e);
-               }
+               replaced(ref);
             }
          } else {
             hr = new HolderReference(lastValueProp, ref);
@@ -136,17 +150,113 @@ public class LastValueQueue extends QueueImpl {
    }
 
    private void replaceLVQMessage(MessageReference ref, HolderReference hr) {
-      MessageReference oldRef = hr.getReference();
+      replaced(hr.getReference());
 
-      referenceHandled();
+      hr.setReference(ref);
+   }
+
+   /**
+    * The reference left the queue for a newer value, it is acknowledged with the others replaced meanwhile.
+    */
+   private void replaced(MessageReference ref) {
+      replacedRefs.add(ref);
 
-      try {
-         oldRef.acknowledge();
-      } catch (Exception e) {
-         ActiveMQServerLogger.LOGGER.errorAckingOldReference(e);
+      if (replacedRefs.size() == 1) {
+         getExecutor().execute(this::acknowledgeReplaced);
       }
+   }
 
-      hr.setReference(ref);
+   private void acknowledgeReplaced() {
+      List<MessageReference> refs;
+
+      synchronized (this) {
+         refs = replacedRefs;
+         replacedRefs = new ArrayList<>();
+      }
+
+      for (MessageReference ref : refs) {
+         referenceHandled();
+
+         try {
+            acknowledge(ref, AckReason.REPLACED);
+         } catch (Exception e) {
+            ActiveMQServerLogger.LOGGER.errorAckingOldReference(e);
+         }
+      }
+   }
+
+   @Override
+   public void messagePaged(final Message message, final Transaction tx) throws Exception {
+      final SimpleString prop = message.getLastValueProperty();
+
+      if (prop == null) {
+         return;
+      }
+
+      final long messageID = message.getMessageID();
+
+      if (tx == null) {
+         pagedLastValue(prop, messageID);
+      } else {
+         tx.addOperation(new TransactionOperationAbstract() {
+            @Override
+            public void afterCommit(Transaction tx) {
+               pagedLastValue(prop, messageID);
+            }
+         });
+      }
+   }
+
+   private void pagedLastValue(SimpleString prop, long messageID) {
+      // a transaction may commit after a newer message was paged
+      if (pagedLastValues.merge(prop, messageID, Long::max) != messageID) {
+         return;
+      }
+
+      HolderReference hr = map.get(prop);
+
+      if (hr != null && hr.getReference().getMessage().getMessageID() < messageID) {
+         // the value waiting for delivery is older than the one paged, it is dropped when reached
+         hr.replaced = true;
+         map.remove(prop, hr);
+      }
+   }
+
+   @Override
+   protected boolean isReplaced(final MessageReference ref) {
+      if (ref instanceof HolderReference && ((HolderReference) ref).replaced) {
+         synchronized (this) {
+            replaced(((HolderReference) ref).getReference());
+         }
+         return true;
+      }
+
+      return false;
+   }
+
+   /**
+    * Whether a newer value than this paged reference was paged, the last value paged is forgotten once depaged.
+    */
+   private boolean isReplacedWhilePaged(MessageReference ref) {
+      SimpleString prop = ref.getMessage().getLastValueProperty();
+
+      if (prop == null) {
+         return false;
+      }
+
+      Long lastValue = pagedLastValues.get(prop);
+
+      if (lastValue == null) {
+         return false;
+      }
+
+      if (ref.getMessage().getMessageID() < lastValue) {
+         return true;
+      }
+
+      pagedLastValues.remove(prop, lastValue);
+
+      return false;
    }
 
    @Override
@@ -155,7 +265,7 @@ public class LastValueQueue extends QueueImpl {
          SimpleString prop = ref.getMessage().getLastValueProperty();
 
          if (prop != null) {
-            map.remove(prop);
+            map.remove(prop, ref);
          }
       }
 
@@ -170,6 +280,8 @@ public class LastValueQueue extends QueueImpl {
 
       private Long consumerId;
 
+      private volatile boolean replaced;
+
       HolderReference(final SimpleString prop, final MessageReference ref) {
          this.prop = prop;
 
@@ -184,7 +296,7 @@ public class LastValueQueue extends QueueImpl {
       public void handled() {
          ref.handled();
          // We need to remove the entry from the map just before it gets delivered
-         map.remove(prop);
+         map.remove(prop, this);
       }
 
       @Override
@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.Consumer;
+
+/**
+ * The consumers the message groups of a queue are bound to.
+ * <p>
+ * These are not thread safe, {@link QueueImpl} guards them with its lock.
+ */
+interface MessageGroups {
+
+   static MessageGroups create(final int buckets, final boolean rebalance) {
+      return buckets > 0 ? new BucketMessageGroups(buckets, rebalance) : new SimpleMessageGroups();
+   }
+
+   /**
+    * @return the consumer the group is bound to, or {@code null} if the group is free
+    */
+   Consumer get(SimpleString groupID);
+
+   void put(SimpleString groupID, Consumer consumer);
+
+   /**
+    * Whether the messages of the group wait for the messages delivered before to be acknowledged, as the group is
+    * moving to another consumer.
+    */
+   boolean isHeld(SimpleString groupID);
+
+   /**
+    * Whether some groups are held, their consumers have to be given a chance to take them once acknowledgements arrive.
+    */
+   boolean isMoving();
+
+   /**
+    * Moves the held groups found with no message in flight to their new consumer. The queue skipped the messages of
+    * the held groups, it has to iterate its messages from the head again to deliver them in order once they moved,
+    * and to check whether they can move once deliveries were acknowledged or cancelled.
+    *
+    * @return whether the queue has to iterate its messages from the head again
+    */
+   boolean completeMoves();
+
+   /**
+    * A message was acknowledged or cancelled, the groups held may be free to move.
+    */
+   void deliveriesChanged();
+
+   /**
+    * Frees the groups that were bound to the removed consumer.
+    */
+   void removeConsumer(Consumer consumer);
+
+   /**
+    * @param consumerCount how many consumers the queue has, including the new one
+    */
+   void addConsumer(Consumer consumer, int consumerCount);
+
+   boolean remove(SimpleString groupID);
+
+   /**
+    * @return the groups bound, when they are tracked one by one
+    */
+   List<SimpleString> getGroupIDs();
+}
@@ -0,0 +1,883 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.apache.activemq.artemis.api.core.ActiveMQException;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.filter.Filter;
+import org.apache.activemq.artemis.core.paging.cursor.PageSubscription;
+import org.apache.activemq.artemis.core.persistence.StorageManager;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Consumer;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.QueueFactory;
+import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.jboss.logging.Logger;
+
+/**
+ * A queue whose messages are spread over a number of partitions, each of them with its own lock and executor,
+ * so deliveries of a single busy queue aren't bound to one thread.
+ * <p>
+ * To the post office, management and consumers this is a single queue: references are created for the partition
+ * chosen by {@link #partitionFor(Message)}, every consumer is added to every partition and the counters are the sum
+ * of the partitions'. Messages of a group always go to the same partition, which then keeps the group ordering.
+ * <p>
+ * The queue itself only holds references that were explicitly created for it, e.g. paged messages.
+ */
+public class PartitionedQueue extends QueueImpl {
+
+   private static final Logger logger = Logger.getLogger(PartitionedQueue.class);
+
+   private final Partition[] partitions;
+
+   public PartitionedQueue(final long persistenceID,
+                           final SimpleString address,
+                           final SimpleString name,
+                           final Filter filter,
+                           final PageSubscription pageSubscription,
+                           final SimpleString user,
+                           final boolean durable,
+                           final boolean temporary,
+                           final boolean autoCreated,
+                           final RoutingType routingType,
+                           final Integer maxConsumers,
+                           final Boolean purgeOnNoConsumers,
+                           final ScheduledExecutorService scheduledExecutor,
+                           final PostOffice postOffice,
+                           final StorageManager storageManager,
+                           final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                           final ArtemisExecutor executor,
+                           final ActiveMQServer server,
+                           final QueueFactory factory,
+                           final int partitionCount,
+                           final ExecutorFactory executorFactory) {
+      super(persistenceID, address, name, filter, pageSubscription, user, durable, temporary, autoCreated, routingType, maxConsumers, purgeOnNoConsumers, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executor, server, factory);
+
+      if (partitionCount < 1) {
+         throw new IllegalArgumentException("Invalid number of partitions " + partitionCount);
+      }
+
+      partitions = new Partition[partitionCount];
+      for (int i = 0; i < partitionCount; i++) {
+         // the partitions share the queue ID, so acks and references are stored against the queue
+         partitions[i] = new Partition(i, persistenceID, address, name, filter, user, durable, temporary, autoCreated, routingType, maxConsumers, purgeOnNoConsumers, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executorFactory.getExecutor(), server);
+      }
+   }
+
+   public int getPartitionCount() {
+      return partitions.length;
+   }
+
+   public List<Queue> getPartitions() {
+      List<Queue> list = new ArrayList<>(partitions.length);
+      for (Partition partition : partitions) {
+         list.add(partition);
+      }
+      return list;
+   }
+
+   /**
+    * @return a reference to the message, owned by the partition the message belongs to
+    */
+   public MessageReference createReference(final Message message) {
+      return new MessageReferenceImpl(message, partitionFor(message));
+   }
+
+   /**
+    * The partition of a message only depends on the message, so all the messages of a group share a partition.
+    * Messages without a group are spread by their ID.
+    */
+   Queue partitionFor(final Message message) {
+      SimpleString groupID = isInternalQueue() ? null : message.getGroupID();
+      long key = groupID == null ? message.getMessageID() : groupID.hashCode();
+      return partitions[(int) ((key & Long.MAX_VALUE) % partitions.length)];
+   }
+
+   /**
+    * @return the queue holding the reference, or null if that's this queue
+    */
+   private Queue partitionOf(final MessageReference ref) {
+      Queue owner = ref.getQueue();
+      return owner == null || owner == this ? null : owner;
+   }
+
+   // Consumers ---------------------------------------------------------------------------------------------------
+
+   @Override
+   public void addConsumer(final Consumer consumer) throws Exception {
+      // this checks max-consumers and keeps track of the consumers on behalf of the partitions
+      super.addConsumer(consumer);
+
+      int added = 0;
+      try {
+         for (Partition partition : partitions) {
+            partition.addConsumer(consumer);
+            added++;
+         }
+      } catch (Exception e) {
+         for (int i = 0; i < added; i++) {
+            partitions[i].removeConsumer(consumer);
+         }
+         super.removeConsumer(consumer);
+         throw e;
+      }
+
+      if (logger.isTraceEnabled()) {
+         logger.trace(this + " added " + consumer + " to " + partitions.length + " partitions");
+      }
+   }
+
+   @Override
+   public void removeConsumer(final Consumer consumer) {
+      for (Partition partition : partitions) {
+         partition.removeConsumer(consumer);
+      }
+      super.removeConsumer(consumer);
+   }
+
+   @Override
+   public synchronized void addRedistributor(final long delay) {
+      super.addRedistributor(delay);
+      for (Partition partition : partitions) {
+         partition.addRedistributor(delay);
+      }
+   }
+
+   @Override
+   public synchronized void cancelRedistributor() throws Exception {
+      super.cancelRedistributor();
+      // finalize may run on an instance whose constructor failed
+      if (partitions != null) {
+         for (Partition partition : partitions) {
+            partition.cancelRedistributor();
+         }
+      }
+   }
+
+   // References --------------------------------------------------------------------------------------------------
+
+   @Override
+   public void reload(final MessageReference ref) {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.reload(ref);
+      } else {
+         partition.reload(ref);
+      }
+   }
+
+   @Override
+   public void addTail(final MessageReference ref, final boolean direct) {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.addTail(ref, direct);
+      } else {
+         partition.addTail(ref, direct);
+      }
+   }
+
+   @Override
+   public void addHead(final MessageReference ref, final boolean scheduling) {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.addHead(ref, scheduling);
+      } else {
+         partition.addHead(ref, scheduling);
+      }
+   }
+
+   @Override
+   public void addHead(final List<MessageReference> refs, final boolean scheduling) {
+      List<MessageReference> own = null;
+      List<MessageReference>[] partitioned = null;
+      for (MessageReference ref : refs) {
+         Queue owner = partitionOf(ref);
+         if (owner instanceof Partition && ((Partition) owner).parent() == this) {
+            if (partitioned == null) {
+               partitioned = newPartitionLists();
+            }
+            partitioned[((Partition) owner).index].add(ref);
+         } else if (owner != null) {
+            owner.addHead(ref, scheduling);
+         } else {
+            if (own == null) {
+               own = new ArrayList<>();
+            }
+            own.add(ref);
+         }
+      }
+      if (partitioned != null) {
+         for (int i = 0; i < partitions.length; i++) {
+            if (!partitioned[i].isEmpty()) {
+               partitions[i].addHead(partitioned[i], scheduling);
+            }
+         }
+      }
+      if (own != null) {
+         super.addHead(own, scheduling);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private List<MessageReference>[] newPartitionLists() {
+      List<MessageReference>[] lists = new List[partitions.length];
+      for (int i = 0; i < lists.length; i++) {
+         lists[i] = new ArrayList<>();
+      }
+      return lists;
+   }
+
+   @Override
+   public void acknowledge(final MessageReference ref, final AckReason reason) throws Exception {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.acknowledge(ref, reason);
+      } else {
+         partition.acknowledge(ref, reason);
+      }
+   }
+
+   @Override
+   public void acknowledge(final Transaction tx, final MessageReference ref, final AckReason reason) throws Exception {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.acknowledge(tx, ref, reason);
+      } else {
+         partition.acknowledge(tx, ref, reason);
+      }
+   }
+
+   @Override
+   public void reacknowledge(final Transaction tx, final MessageReference ref) throws Exception {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.reacknowledge(tx, ref);
+      } else {
+         partition.reacknowledge(tx, ref);
+      }
+   }
+
+   @Override
+   public void cancel(final Transaction tx, final MessageReference reference, final boolean ignoreRedeliveryCheck) {
+      Queue partition = partitionOf(reference);
+      if (partition == null) {
+         super.cancel(tx, reference, ignoreRedeliveryCheck);
+      } else {
+         partition.cancel(tx, reference, ignoreRedeliveryCheck);
+      }
+   }
+
+   @Override
+   public void cancel(final MessageReference reference, final long timeBase) throws Exception {
+      Queue partition = partitionOf(reference);
+      if (partition == null) {
+         super.cancel(reference, timeBase);
+      } else {
+         partition.cancel(reference, timeBase);
+      }
+   }
+
+   @Override
+   public boolean checkRedelivery(final MessageReference reference,
+                                  final long timeBase,
+                                  final boolean ignoreRedeliveryDelay) throws Exception {
+      Queue partition = partitionOf(reference);
+      if (partition == null) {
+         return super.checkRedelivery(reference, timeBase, ignoreRedeliveryDelay);
+      } else {
+         return partition.checkRedelivery(reference, timeBase, ignoreRedeliveryDelay);
+      }
+   }
+
+   @Override
+   public void expire(final MessageReference ref) throws Exception {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.expire(ref);
+      } else {
+         partition.expire(ref);
+      }
+   }
+
+   @Override
+   public void sendToDeadLetterAddress(final Transaction tx, final MessageReference ref) throws Exception {
+      Queue partition = partitionOf(ref);
+      if (partition == null) {
+         super.sendToDeadLetterAddress(tx, ref);
+      } else {
+         partition.sendToDeadLetterAddress(tx, ref);
+      }
+   }
+
+   // Delivery ----------------------------------------------------------------------------------------------------
+
+   @Override
+   public void deliverAsync() {
+      super.deliverAsync();
+      for (Partition partition : partitions) {
+         partition.deliverAsync();
+      }
+   }
+
+   @Override
+   public void forceDelivery() {
+      super.forceDelivery();
+      for (Partition partition : partitions) {
+         partition.forceDelivery();
+      }
+   }
+
+   @Override
+   public void deliverScheduledMessages() throws ActiveMQException {
+      super.deliverScheduledMessages();
+      for (Partition partition : partitions) {
+         partition.deliverScheduledMessages();
+      }
+   }
+
+   @Override
+   public boolean flushExecutor() {
+      boolean ok = super.flushExecutor();
+      for (Partition partition : partitions) {
+         ok &= partition.flushExecutor();
+      }
+      return ok;
+   }
+
+   @Override
+   public synchronized void resetAllIterators() {
+      super.resetAllIterators();
+      for (Partition partition : partitions) {
+         partition.resetAllIterators();
+      }
+   }
+
+   @Override
+   public void unproposed(final SimpleString groupID) {
+      super.unproposed(groupID);
+      for (Partition partition : partitions) {
+         partition.unproposed(groupID);
+      }
+   }
+
+   @Override
+   public synchronized void pause(final boolean persist) {
+      // only the queue persists its status
+      super.pause(persist);
+      for (Partition partition : partitions) {
+         partition.pause(false);
+      }
+   }
+
+   @Override
+   public synchronized void reloadPause(final long recordID) {
+      super.reloadPause(recordID);
+      for (Partition partition : partitions) {
+         partition.pause(false);
+      }
+   }
+
+   @Override
+   public synchronized void resume() {
+      super.resume();
+      for (Partition partition : partitions) {
+         partition.resume();
+      }
+   }
+
+   @Override
+   public synchronized void setPurgeOnNoConsumers(final boolean value) {
+      super.setPurgeOnNoConsumers(value);
+      for (Partition partition : partitions) {
+         partition.setPurgeOnNoConsumers(value);
+      }
+   }
+
+   @Override
+   public synchronized void setMaxConsumer(final int maxConsumers) {
+      super.setMaxConsumer(maxConsumers);
+      for (Partition partition : partitions) {
+         partition.setMaxConsumer(maxConsumers);
+      }
+   }
+
+   @Override
+   public void setRoutingType(final RoutingType routingType) {
+      super.setRoutingType(routingType);
+      for (Partition partition : partitions) {
+         partition.setRoutingType(routingType);
+      }
+   }
+
+   @Override
+   public void setInternalQueue(final boolean internalQueue) {
+      super.setInternalQueue(internalQueue);
+      for (Partition partition : partitions) {
+         partition.setInternalQueue(internalQueue);
+      }
+   }
+
+   @Override
+   public void close() throws Exception {
+      super.close();
+      for (Partition partition : partitions) {
+         partition.close();
+      }
+   }
+
+   @Override
+   public void deleteQueue(final boolean removeConsumers) throws Exception {
+      try {
+         super.deleteQueue(removeConsumers);
+      } finally {
+         for (Partition partition : partitions) {
+            partition.close();
+         }
+      }
+   }
+
+   // Counters ----------------------------------------------------------------------------------------------------
+
+   @Override
+   public long getMessageCount() {
+      long count = super.getMessageCount();
+      for (Partition partition : partitions) {
+         count += partition.getMessageCount();
+      }
+      return count;
+   }
+
+   @Override
+   public int getDeliveringCount() {
+      int count = super.getDeliveringCount();
+      for (Partition partition : partitions) {
+         count += partition.getDeliveringCount();
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized int getScheduledCount() {
+      int count = super.getScheduledCount();
+      for (Partition partition : partitions) {
+         count += partition.getScheduledCount();
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized List<MessageReference> getScheduledMessages() {
+      List<MessageReference> scheduled = new ArrayList<>(super.getScheduledMessages());
+      for (Partition partition : partitions) {
+         scheduled.addAll(partition.getScheduledMessages());
+      }
+      return scheduled;
+   }
+
+   @Override
+   public long getMessagesAdded() {
+      long count = super.getMessagesAdded();
+      for (Partition partition : partitions) {
+         count += partition.getMessagesAdded();
+      }
+      return count;
+   }
+
+   @Override
+   public long getMessagesAcknowledged() {
+      long count = super.getMessagesAcknowledged();
+      for (Partition partition : partitions) {
+         count += partition.getMessagesAcknowledged();
+      }
+      return count;
+   }
+
+   @Override
+   public long getMessagesExpired() {
+      long count = super.getMessagesExpired();
+      for (Partition partition : partitions) {
+         count += partition.getMessagesExpired();
+      }
+      return count;
+   }
+
+   @Override
+   public long getMessagesKilled() {
+      long count = super.getMessagesKilled();
+      for (Partition partition : partitions) {
+         count += partition.getMessagesKilled();
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized void resetMessagesAdded() {
+      super.resetMessagesAdded();
+      for (Partition partition : partitions) {
+         partition.resetMessagesAdded();
+      }
+   }
+
+   @Override
+   public synchronized void resetMessagesAcknowledged() {
+      super.resetMessagesAcknowledged();
+      for (Partition partition : partitions) {
+         partition.resetMessagesAcknowledged();
+      }
+   }
+
+   @Override
+   public synchronized void resetMessagesExpired() {
+      super.resetMessagesExpired();
+      for (Partition partition : partitions) {
+         partition.resetMessagesExpired();
+      }
+   }
+
+   @Override
+   public synchronized void resetMessagesKilled() {
+      super.resetMessagesKilled();
+      for (Partition partition : partitions) {
+         partition.resetMessagesKilled();
+      }
+   }
+
+   @Override
+   public int getNumberOfReferences() {
+      int count = super.getNumberOfReferences();
+      for (Partition partition : partitions) {
+         count += partition.getNumberOfReferences();
+      }
+      return count;
+   }
+
+   @Override
+   public List<SimpleString> getGroupsUsed() {
+      List<SimpleString> groups = new ArrayList<>(super.getGroupsUsed());
+      for (Partition partition : partitions) {
+         groups.addAll(partition.getGroupsUsed());
+      }
+      return groups;
+   }
+
+   // Management --------------------------------------------------------------------------------------------------
+   // The operations below only look at the partitions: the inherited implementations iterate through iterator(),
+   // which goes over every partition and can't be used to remove references from this queue
+
+   @Override
+   public LinkedListIterator<MessageReference> iterator() {
+      List<LinkedListIterator<MessageReference>> iterators = new ArrayList<>(partitions.length);
+      for (Partition partition : partitions) {
+         iterators.add(partition.iterator());
+      }
+      return new PartitionsIterator(iterators);
+   }
+
+   @Override
+   public LinkedListIterator<MessageReference> browserIterator() {
+      List<LinkedListIterator<MessageReference>> iterators = new ArrayList<>(partitions.length + 1);
+      for (Partition partition : partitions) {
+         iterators.add(partition.iterator());
+      }
+      if (getPageSubscription() != null) {
+         // the paged messages
+         iterators.add(super.browserIterator());
+      }
+      return new PartitionsIterator(iterators);
+   }
+
+   @Override
+   public synchronized MessageReference removeReferenceWithID(final long id) throws Exception {
+      for (Partition partition : partitions) {
+         MessageReference removed = partition.removeReferenceWithID(id);
+         if (removed != null) {
+            return removed;
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public synchronized MessageReference getReference(final long id) throws ActiveMQException {
+      for (Partition partition : partitions) {
+         MessageReference ref = partition.getReference(id);
+         if (ref != null) {
+            return ref;
+         }
+      }
+      return null;
+   }
+
+   @Override
+   public synchronized int deleteMatchingReferences(final int flushLimit, final Filter filter) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.deleteMatchingReferences(flushLimit, filter);
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized boolean deleteReference(final long messageID) throws Exception {
+      for (Partition partition : partitions) {
+         if (partition.deleteReference(messageID)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public synchronized boolean expireReference(final long messageID) throws Exception {
+      for (Partition partition : partitions) {
+         if (partition.expireReference(messageID)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public synchronized int expireReferences(final Filter filter) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.expireReferences(filter);
+      }
+      return count;
+   }
+
+   @Override
+   public void expireReferences() {
+      for (Partition partition : partitions) {
+         partition.expireReferences();
+      }
+   }
+
+   @Override
+   public synchronized boolean sendMessageToDeadLetterAddress(final long messageID) throws Exception {
+      for (Partition partition : partitions) {
+         if (partition.sendMessageToDeadLetterAddress(messageID)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public synchronized int sendMessagesToDeadLetterAddress(final Filter filter) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.sendMessagesToDeadLetterAddress(filter);
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized boolean moveReference(final long messageID,
+                                             final SimpleString toAddress,
+                                             final boolean rejectDuplicate) throws Exception {
+      for (Partition partition : partitions) {
+         if (partition.moveReference(messageID, toAddress, rejectDuplicate)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public synchronized int moveReferences(final int flushLimit,
+                                          final Filter filter,
+                                          final SimpleString toAddress,
+                                          final boolean rejectDuplicates) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.moveReferences(flushLimit, filter, toAddress, rejectDuplicates);
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized int moveReferencesBetweenSnFQueues(final SimpleString queueSuffix) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.moveReferencesBetweenSnFQueues(queueSuffix);
+      }
+      return count;
+   }
+
+   @Override
+   public int retryMessages(final Filter filter) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.retryMessages(filter);
+      }
+      return count;
+   }
+
+   @Override
+   public synchronized boolean changeReferencePriority(final long messageID, final byte newPriority) throws Exception {
+      for (Partition partition : partitions) {
+         if (partition.changeReferencePriority(messageID, newPriority)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   @Override
+   public synchronized int changeReferencesPriority(final Filter filter, final byte newPriority) throws Exception {
+      int count = 0;
+      for (Partition partition : partitions) {
+         count += partition.changeReferencesPriority(filter, newPriority);
+      }
+      return count;
+   }
+
+   @Override
+   public String toString() {
+      return "PartitionedQueue[name=" + getName() + ", partitions=" + partitions.length + "]@" + Integer.toHexString(System.identityHashCode(this));
+   }
+
+   /**
+    * One partition of the queue. It is never bound to the post office, it only holds references and delivers
+    * them to the consumers of the queue.
+    */
+   private final class Partition extends QueueImpl {
+
+      private final int index;
+
+      Partition(final int index,
+                final long id,
+                final SimpleString address,
+                final SimpleString name,
+                final Filter filter,
+                final SimpleString user,
+                final boolean durable,
+                final boolean temporary,
+                final boolean autoCreated,
+                final RoutingType routingType,
+                final Integer maxConsumers,
+                final Boolean purgeOnNoConsumers,
+                final ScheduledExecutorService scheduledExecutor,
+                final PostOffice postOffice,
+                final StorageManager storageManager,
+                final HierarchicalRepository<AddressSettings> addressSettingsRepository,
+                final ArtemisExecutor executor,
+                final ActiveMQServer server) {
+         super(id, address, name, filter, null, user, durable, temporary, autoCreated, routingType, maxConsumers, purgeOnNoConsumers, scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executor, server, null);
+         this.index = index;
+      }
+
+      PartitionedQueue parent() {
+         return PartitionedQueue.this;
+      }
+
+      @Override
+      void scheduleSlowConsumerReaper(final AddressSettings settings) {
+         // the consumers are shared by all the partitions, the queue reaps them
+      }
+
+      @Override
+      public boolean equals(final Object other) {
+         // partitions share the queue name
+         return this == other;
+      }
+
+      @Override
+      public int hashCode() {
+         return System.identityHashCode(this);
+      }
+
+      @Override
+      public String toString() {
+         return "QueueImpl[name=" + getName() + ", partition=" + index + "]@" + Integer.toHexString(System.identityHashCode(this));
+      }
+   }
+
+   /**
+    * Iterates through the references of every partition, one partition after the other.
+    */
+   private static final class PartitionsIterator implements LinkedListIterator<MessageReference> {
+
+      private final List<LinkedListIterator<MessageReference>> iterators;
+
+      private int current;
+
+      private LinkedListIterator<MessageReference> last;
+
+      PartitionsIterator(final List<LinkedListIterator<MessageReference>> iterators) {
+         this.iterators = iterators;
+      }
+
+      @Override
+      public boolean hasNext() {
+         while (current < iterators.size()) {
+            if (iterators.get(current).hasNext()) {
+               return true;
+            }
+            current++;
+         }
+         return false;
+      }
+
+      @Override
+      public MessageReference next() {
+         if (!hasNext()) {
+            throw new NoSuchElementException();
+         }
+         last = iterators.get(current);
+         return last.next();
+      }
+
+      @Override
+      public void remove() {
+         if (last == null) {
+            throw new IllegalStateException();
+         }
+         last.remove();
+      }
+
+      @Override
+      public void repeat() {
+         if (last != null) {
+            last.repeat();
+            current = iterators.indexOf(last);
+         }
+      }
+
+      @Override
+      public void close() {
+         for (LinkedListIterator<MessageReference> iterator : iterators) {
+            iterator.close();
+         }
+      }
+   }
+}
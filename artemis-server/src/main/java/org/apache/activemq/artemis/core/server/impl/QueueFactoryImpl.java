@@ -29,14 +29,18 @@ import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.QueueConfig;
 import org.apache.activemq.artemis.core.server.QueueFactory;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.jboss.logging.Logger;
 
 /**
  * A QueueFactoryImpl
  */
 public class QueueFactoryImpl implements QueueFactory {
 
+   private static final Logger logger = Logger.getLogger(QueueFactoryImpl.class);
+
    protected final HierarchicalRepository<AddressSettings> addressSettingsRepository;
 
    protected final ScheduledExecutorService scheduledExecutor;
@@ -76,6 +80,11 @@ public class QueueFactoryImpl implements QueueFactory {
       final Queue queue;
       if (addressSettings.isLastValueQueue()) {
          queue = new LastValueQueue(config.id(), config.address(), config.name(), config.filter(), config.pageSubscription(), config.user(), config.isDurable(), config.isTemporary(), config.isAutoCreated(), config.deliveryMode(), config.maxConsumers(), config.isPurgeOnNoConsumers(), scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executorFactory.getExecutor(), server, this);
+      } else if (isPartitioned(config, addressSettings)) {
+         queue = new PartitionedQueue(config.id(), config.address(), config.name(), config.filter(), config.pageSubscription(), config.user(), config.isDurable(), config.isTemporary(), config.isAutoCreated(), config.deliveryMode(), config.maxConsumers(), config.isPurgeOnNoConsumers(), scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executorFactory.getExecutor(), server, this, addressSettings.getQueuePartitions(), executorFactory);
+         for (Queue partition : ((PartitionedQueue) queue).getPartitions()) {
+            server.getCriticalAnalyzer().add(partition);
+         }
       } else {
          queue = new QueueImpl(config.id(), config.address(), config.name(), config.filter(), config.pageSubscription(), config.user(), config.isDurable(), config.isTemporary(), config.isAutoCreated(), config.deliveryMode(), config.maxConsumers(), config.isPurgeOnNoConsumers(), scheduledExecutor, postOffice, storageManager, addressSettingsRepository, executorFactory.getExecutor(), server, this);
       }
@@ -113,8 +122,26 @@ public class QueueFactoryImpl implements QueueFactory {
       return queue;
    }
 
+   private static boolean isPartitioned(final QueueConfig config, final AddressSettings addressSettings) {
+      if (addressSettings.getQueuePartitions() <= 1) {
+         return false;
+      }
+      if (addressSettings.getAddressFullMessagePolicy() == AddressFullMessagePolicy.PAGE) {
+         // depaged messages are delivered by the queue itself, they would bypass the partitions of their groups.
+         // without a max-size-bytes the address still pages once global-max-size or the paging pressure threshold is reached
+         logger.warn("Queue " + config.name() + " is not partitioned as its address " + config.address() + " can page");
+         return false;
+      }
+      return true;
+   }
+
    @Override
    public void queueRemoved(Queue queue) {
       server.getCriticalAnalyzer().remove(queue);
+      if (queue instanceof PartitionedQueue) {
+         for (Queue partition : ((PartitionedQueue) queue).getPartitions()) {
+            server.getCriticalAnalyzer().remove(partition);
+         }
+      }
    }
 }
@@ -29,7 +29,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.RejectedExecutionException;
@@ -90,6 +89,7 @@ import org.apache.activemq.artemis.utils.ReferenceCounter;
 import org.apache.activemq.artemis.utils.ReusableLatch;
 import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
 import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.apache.activemq.artemis.utils.collections.MpscChunkedQueue;
 import org.apache.activemq.artemis.utils.collections.PriorityLinkedList;
 import org.apache.activemq.artemis.utils.collections.PriorityLinkedListImpl;
 import org.apache.activemq.artemis.utils.collections.TypedProperties;
@@ -159,7 +159,10 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
    // Messages will first enter intermediateMessageReferences
    // Before they are added to messageReferences
    // This is to avoid locking the queue on the producer
-   private final ConcurrentLinkedQueue<MessageReference> intermediateMessageReferences = new ConcurrentLinkedQueue<>();
+   // Only drained by doInternalPoll, under the queue lock
+   private final MpscChunkedQueue<MessageReference> intermediateMessageReferences = new MpscChunkedQueue<>();
+
+   private final java.util.function.Consumer<MessageReference> intermediateReferenceAdder = this::addIntermediateReference;
 
    // This is where messages are stored
    private final PriorityLinkedList<MessageReference> messageReferences = new PriorityLinkedListImpl<>(QueueImpl.NUM_PRIORITIES);
@@ -222,7 +225,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
    private final Set<Consumer> consumerSet = new HashSet<>();
 
-   private final Map<SimpleString, Consumer> groups = new HashMap<>();
+   private final MessageGroups groups;
 
    private volatile SimpleString expiryAddress;
 
@@ -240,6 +243,11 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
    private AddressSettingsRepositoryListener addressSettingsRepositoryListener;
 
+   private volatile int deliveryBatchSize = AddressSettings.DEFAULT_DELIVERY_BATCH_SIZE;
+
+   // only used by deliver(), which runs on the queue executor
+   private final List<MessageReference> deliveryBatch = new ArrayList<>();
+
    private final ExpiryScanner expiryScanner = new ExpiryScanner();
 
    private final ReusableLatch deliveriesInTransit = new ReusableLatch(0);
@@ -287,9 +295,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
       }
 
       synchronized (this) {
-         ArrayList<SimpleString> groupsUsed = new ArrayList<>();
-         groupsUsed.addAll(groups.keySet());
-         return groupsUsed;
+         return groups.getGroupIDs();
       }
    }
 
@@ -303,12 +309,10 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          out.println("consumer: " + holder.consumer.debug());
       }
 
-      for (MessageReference reference : intermediateMessageReferences) {
-         out.print("Intermediate reference:" + reference);
-      }
-
       if (intermediateMessageReferences.isEmpty()) {
          out.println("No intermediate references");
+      } else {
+         out.println("Intermediate references: " + intermediateMessageReferences.size());
       }
 
       boolean foundRef = false;
@@ -412,6 +416,13 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
       this.purgeOnNoConsumers = purgeOnNoConsumers == null ? ActiveMQDefaultConfiguration.getDefaultPurgeOnNoConsumers() : purgeOnNoConsumers;
 
+      AddressSettings settings = addressSettingsRepository == null ? null : addressSettingsRepository.getMatch(address);
+      if (settings != null) {
+         this.groups = MessageGroups.create(settings.getGroupBuckets(), settings.isGroupRebalance());
+      } else {
+         this.groups = MessageGroups.create(AddressSettings.DEFAULT_GROUP_BUCKETS, AddressSettings.DEFAULT_GROUP_REBALANCE);
+      }
+
       this.postOffice = postOffice;
 
       this.storageManager = storageManager;
@@ -576,7 +587,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
             @Override
             public void run() {
                synchronized (QueueImpl.this) {
-                  if (groups.remove(groupIDToRemove) != null) {
+                  if (groups.remove(groupIDToRemove)) {
                      logger.debug("Removing group after unproposal " + groupID + " from queue " + QueueImpl.this);
                   } else {
                      logger.debug("Couldn't remove Removing group " + groupIDToRemove + " after unproposal on queue " + QueueImpl.this);
@@ -687,7 +698,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          // We only add queueMemorySize if not being delivered directly
          queueMemorySize.addAndGet(ref.getMessageMemoryEstimate());
 
-         intermediateMessageReferences.add(ref);
+         intermediateMessageReferences.offer(ref);
 
          directDeliver = false;
 
@@ -851,6 +862,8 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
                consumersCount.incrementAndGet();
             }
 
+            groups.addConsumer(consumer, consumerList.size());
+
             if (refCountForConsumers != null) {
                refCountForConsumers.increment();
             }
@@ -892,25 +905,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
                consumersCount.decrementAndGet();
             }
 
-            LinkedList<SimpleString> groupsToRemove = null;
-
-            for (SimpleString groupID : groups.keySet()) {
-               if (consumer == groups.get(groupID)) {
-                  if (groupsToRemove == null) {
-                     groupsToRemove = new LinkedList<>();
-                  }
-                  groupsToRemove.add(groupID);
-               }
-            }
-
-            // We use an auxiliary List here to avoid concurrent modification exceptions on the keySet
-            // while the iteration is being done.
-            // Since that's a simple HashMap there's no Iterator's support with a remove operation
-            if (groupsToRemove != null) {
-               for (SimpleString groupID : groupsToRemove) {
-                  groups.remove(groupID);
-               }
-            }
+            groups.removeConsumer(consumer);
 
             if (refCountForConsumers != null) {
                refCountForConsumers.decrement();
@@ -1019,7 +1014,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
    }
 
    @Override
-   public QueueBrowserIterator browserIterator() {
+   public LinkedListIterator<MessageReference> browserIterator() {
       return new QueueBrowserIterator();
    }
 
@@ -1125,7 +1120,8 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
          boolean durableRef = message.isDurable() && durable;
 
-         if (durableRef) {
+         // a replaced message referenced by this queue only is deleted right away, see postAcknowledge
+         if (durableRef && !(reason == AckReason.REPLACED && message.getDurableCount() == 1)) {
             storageManager.storeAcknowledge(id, message.getMessageID());
          }
          postAcknowledge(ref);
@@ -1286,7 +1282,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
       SimpleString expiryAddress = null;
 
       if (messageAddress != null) {
-         AddressSettings addressSettings = addressSettingsRepository.getMatch(messageAddress.toString());
+         AddressSettings addressSettings = addressSettingsRepository.getMatch(messageAddress);
 
          expiryAddress = addressSettings.getExpiryAddress();
       }
@@ -2049,22 +2045,28 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
    }
 
    private synchronized void doInternalPoll() {
+      if (intermediateMessageReferences.drain(intermediateReferenceAdder, MAX_DELIVERIES_IN_LOOP) == MAX_DELIVERIES_IN_LOOP) {
+         // if we just keep polling from the intermediate we could starve in case there's a sustained load
+         deliverAsync();
+      }
+   }
 
-      int added = 0;
-      MessageReference ref;
-
-      while ((ref = intermediateMessageReferences.poll()) != null) {
-         internalAddTail(ref);
+   private void addIntermediateReference(MessageReference ref) {
+      internalAddTail(ref);
 
-         if (!ref.isPaged()) {
-            messagesAdded.incrementAndGet();
-         }
+      if (!ref.isPaged()) {
+         messagesAdded.incrementAndGet();
+      }
+   }
 
-         if (added++ > MAX_DELIVERIES_IN_LOOP) {
-            // if we just keep polling from the intermediate we could starve in case there's a sustained load
-            deliverAsync();
-            return;
-         }
+   /**
+    * Called once a delivery round left nothing to deliver: consumers are keeping up, so the next message sent
+    * to the queue can check right away whether it can be delivered directly, instead of waiting for
+    * {@link #CHECK_QUEUE_SIZE_PERIOD} since the last check.
+    */
+   private void checkDrained() {
+      if (!directDeliver && messageReferences.size() == 0 && intermediateMessageReferences.isEmpty()) {
+         lastDirectDeliveryCheck = 0;
       }
    }
 
@@ -2079,6 +2081,12 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
       doInternalPoll();
 
+      final int batchSize = deliveryBatchSize;
+      if (batchSize > 1) {
+         deliverBatches(batchSize);
+         return;
+      }
+
       // Either the iterator is empty or the consumer is busy
       int noDelivery = 0;
 
@@ -2121,6 +2129,8 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
                return;
             }
 
+            completeGroupMoves();
+
             if (messageReferences.size() == 0) {
                break;
             }
@@ -2177,6 +2187,11 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
                SimpleString groupID = extractGroupID(ref);
 
                if (groupID != null) {
+                  if (groups.isHeld(groupID)) {
+                     // the group is moving to another consumer, it waits for its deliveries to be acknowledged
+                     continue;
+                  }
+
                   groupConsumer = groups.get(groupID);
 
                   if (groupConsumer != null) {
@@ -2245,6 +2260,188 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          }
       }
 
+      if (completeGroupMoves()) {
+         deliverAsync();
+      }
+
+      checkDrained();
+
+      checkDepage();
+   }
+
+   /**
+    * Same as {@link #deliver()}, but every consumer is handed up to {@code batchSize} references on its turn,
+    * all of them handled under a single acquisition of the queue lock and delivered to the consumer at once.
+    * <p>
+    * A reference belonging to a message group owned by another consumer is left to the owner,
+    * which finds it when its own iterator reaches it.
+    */
+   private void deliverBatches(final int batchSize) {
+      // Either the iterator is empty or the consumer is busy
+      int noDelivery = 0;
+
+      int size = 0;
+
+      int endPos = -1;
+
+      int handled = 0;
+
+      long timeout = System.currentTimeMillis() + DELIVERY_TIMEOUT;
+
+      final List<MessageReference> batch = deliveryBatch;
+
+      while (true) {
+         if (handled >= MAX_DELIVERIES_IN_LOOP) {
+            // Schedule another one - we do this to prevent a single thread getting caught up in this loop for too
+            // long
+
+            deliverAsync();
+
+            return;
+         }
+
+         if (System.currentTimeMillis() > timeout) {
+            if (logger.isTraceEnabled()) {
+               logger.trace("delivery has been running for too long. Scheduling another delivery task now");
+            }
+
+            deliverAsync();
+
+            return;
+         }
+
+         Consumer consumer;
+
+         synchronized (this) {
+
+            // Need to do these checks inside the synchronized
+            if (paused || consumerList.isEmpty()) {
+               return;
+            }
+
+            completeGroupMoves();
+
+            if (messageReferences.size() == 0) {
+               break;
+            }
+
+            if (endPos < 0 || consumersChanged) {
+               consumersChanged = false;
+
+               size = consumerList.size();
+
+               endPos = pos - 1;
+
+               if (endPos < 0) {
+                  endPos = size - 1;
+                  noDelivery = 0;
+               }
+            }
+
+            ConsumerHolder holder = consumerList.get(pos);
+
+            consumer = holder.consumer;
+
+            if (holder.iter == null) {
+               holder.iter = messageReferences.iterator();
+            }
+
+            while (batch.size() < batchSize && holder.iter.hasNext()) {
+               MessageReference ref = holder.iter.next();
+
+               if (checkExpired(ref)) {
+                  if (logger.isTraceEnabled()) {
+                     logger.trace("Reference " + ref + " being expired");
+                  }
+                  holder.iter.remove();
+
+                  refRemoved(ref);
+
+                  handled++;
+
+                  continue;
+               }
+
+               SimpleString groupID = extractGroupID(ref);
+
+               if (groupID != null && groups.isHeld(groupID)) {
+                  continue;
+               }
+
+               Consumer groupConsumer = groupID == null ? null : groups.get(groupID);
+
+               if (groupConsumer != null && groupConsumer != consumer) {
+                  continue;
+               }
+
+               if (logger.isTraceEnabled()) {
+                  logger.trace("Queue " + this.getName() + " is delivering reference " + ref);
+               }
+
+               HandleStatus status = handle(ref, consumer);
+
+               if (status == HandleStatus.HANDLED) {
+
+                  deliveriesInTransit.countUp();
+
+                  holder.iter.remove();
+
+                  refRemoved(ref);
+
+                  if (groupID != null && groupConsumer == null) {
+                     groups.put(groupID, consumer);
+                  }
+
+                  batch.add(ref);
+
+                  handled++;
+               } else if (status == HandleStatus.BUSY) {
+                  holder.iter.repeat();
+
+                  break;
+               }
+               // on NO_MATCH the iterator just jumps next
+            }
+
+            if (batch.isEmpty()) {
+               noDelivery++;
+            }
+
+            if (pos == endPos) {
+               // Round robin'd all
+
+               if (noDelivery == size) {
+                  if (logger.isDebugEnabled()) {
+                     logger.debug(this + "::All the consumers were busy, giving up now");
+                  }
+                  break;
+               }
+
+               noDelivery = 0;
+            }
+
+            pos++;
+
+            if (pos >= size) {
+               pos = 0;
+            }
+         }
+
+         if (!batch.isEmpty()) {
+            try {
+               proceedDeliver(consumer, batch);
+            } finally {
+               batch.clear();
+            }
+         }
+      }
+
+      if (completeGroupMoves()) {
+         deliverAsync();
+      }
+
+      checkDrained();
+
       checkDepage();
    }
 
@@ -2388,7 +2585,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
          storageManager.updateDeliveryCount(reference);
       }
 
-      AddressSettings addressSettings = addressSettingsRepository.getMatch(address.toString());
+      AddressSettings addressSettings = addressSettingsRepository.getMatch(address);
 
       int maxDeliveries = addressSettings.getMaxDeliveryAttempts();
       long redeliveryDelay = addressSettings.getRedeliveryDelay();
@@ -2603,7 +2800,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
    }
 
    private void expire(final Transaction tx, final MessageReference ref) throws Exception {
-      SimpleString expiryAddress = addressSettingsRepository.getMatch(address.toString()).getExpiryAddress();
+      SimpleString expiryAddress = addressSettingsRepository.getMatch(address).getExpiryAddress();
 
       if (expiryAddress != null) {
          Bindings bindingList = postOffice.getBindingsForAddress(expiryAddress);
@@ -2626,7 +2823,7 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
    @Override
    public void sendToDeadLetterAddress(final Transaction tx, final MessageReference ref) throws Exception {
-      sendToDeadLetterAddress(tx, ref, addressSettingsRepository.getMatch(address.toString()).getDeadLetterAddress());
+      sendToDeadLetterAddress(tx, ref, addressSettingsRepository.getMatch(address).getDeadLetterAddress());
    }
 
    private void sendToDeadLetterAddress(final Transaction tx,
@@ -2711,6 +2908,10 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
             SimpleString groupID = extractGroupID(ref);
 
             if (groupID != null) {
+               if (groups.isHeld(groupID)) {
+                  return false;
+               }
+
                groupConsumer = groups.get(groupID);
 
                if (groupConsumer != null) {
@@ -2754,26 +2955,50 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
       try {
          consumer.proceedDeliver(reference);
       } catch (Throwable t) {
-         ActiveMQServerLogger.LOGGER.removingBadConsumer(t, consumer, reference);
+         deliveryFailed(consumer, reference, t);
+      } finally {
+         deliveriesInTransit.countDown();
+      }
+   }
 
-         synchronized (this) {
-            // If the consumer throws an exception we remove the consumer
-            try {
-               removeConsumer(consumer);
-            } catch (Exception e) {
-               ActiveMQServerLogger.LOGGER.errorRemovingConsumer(e);
-            }
+   private void proceedDeliver(Consumer consumer, List<MessageReference> references) {
+      try {
+         consumer.proceedDeliver(references, (reference, t) -> deliveryFailed(consumer, reference, t));
+      } finally {
+         deliveriesInTransit.countDown(references.size());
+      }
+   }
 
-            // The message failed to be delivered, hence we try again
-            addHead(reference, false);
+   private void deliveryFailed(Consumer consumer, MessageReference reference, Throwable t) {
+      ActiveMQServerLogger.LOGGER.removingBadConsumer(t, consumer, reference);
+
+      synchronized (this) {
+         // If the consumer throws an exception we remove the consumer
+         try {
+            removeConsumer(consumer);
+         } catch (Exception e) {
+            ActiveMQServerLogger.LOGGER.errorRemovingConsumer(e);
          }
-      } finally {
-         deliveriesInTransit.countDown();
+
+         // The message failed to be delivered, hence we try again
+         addHead(reference, false);
       }
    }
 
+   /**
+    * Whether a newer reference took the place of this one while it was waiting for delivery, it is then removed
+    * from the queue like an expired one.
+    */
+   protected boolean isReplaced(final MessageReference reference) {
+      return false;
+   }
+
    private boolean checkExpired(final MessageReference reference) {
       try {
+         if (isReplaced(reference)) {
+            return true;
+         }
+
          if (reference.getMessage().isExpired()) {
             if (logger.isTraceEnabled()) {
                logger.trace("Reference " + reference + " is expired");
@@ -3178,11 +3403,38 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
    public void decDelivering() {
       deliveringCount.decrementAndGet();
+      deliveriesChanged();
    }
 
    @Override
    public void decDelivering(int size) {
       deliveringCount.addAndGet(-size);
+      deliveriesChanged();
+   }
+
+   /**
+    * Moves the groups held until their deliveries were acknowledged. The iterators skipped their messages meanwhile,
+    * they start over from the head so these messages are looked at again and delivered in order.
+    *
+    * @return whether the iterators started over
+    */
+   private boolean completeGroupMoves() {
+      if (groups.isMoving()) {
+         synchronized (this) {
+            if (groups.completeMoves()) {
+               resetAllIterators();
+               return true;
+            }
+         }
+      }
+      return false;
+   }
+
+   private void deliveriesChanged() {
+      if (groups.isMoving()) {
+         groups.deliveriesChanged();
+         deliverAsync();
+      }
    }
 
    private void configureExpiry(final AddressSettings settings) {
@@ -3223,10 +3475,11 @@ public class QueueImpl extends CriticalComponentImpl implements Queue {
 
       @Override
       public void onChange() {
-         AddressSettings settings = addressSettingsRepository.getMatch(address.toString());
+         AddressSettings settings = addressSettingsRepository.getMatch(address);
          configureExpiry(settings);
          checkDeadLetterAddressAndExpiryAddress(settings);
          configureSlowConsumerReaper(settings);
+         deliveryBatchSize = settings.getDeliveryBatchSize();
       }
    }
 
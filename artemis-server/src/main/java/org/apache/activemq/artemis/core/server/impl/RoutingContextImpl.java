@@ -30,9 +30,14 @@ import org.apache.activemq.artemis.core.transaction.Transaction;
 
 public final class RoutingContextImpl implements RoutingContext {
 
+   // listings are kept when cleared, so a context reused for every message of a session doesn't allocate them again
+   private static final int MAX_FREE_LISTINGS = 4;
+
    // The pair here is Durable and NonDurable
    private final Map<SimpleString, RouteContextList> map = new HashMap<>();
 
+   private final List<ContextListing> freeListings = new ArrayList<>(1);
+
    private Transaction transaction;
 
    private int queueCount;
@@ -49,7 +54,16 @@ public final class RoutingContextImpl implements RoutingContext {
    public void clear() {
       transaction = null;
 
-      map.clear();
+      if (!map.isEmpty()) {
+         for (RouteContextList listing : map.values()) {
+            if (freeListings.size() < MAX_FREE_LISTINGS) {
+               ContextListing contextListing = (ContextListing) listing;
+               contextListing.clear();
+               freeListings.add(contextListing);
+            }
+         }
+         map.clear();
+      }
 
       queueCount = 0;
    }
@@ -105,7 +119,7 @@ public final class RoutingContextImpl implements RoutingContext {
    public RouteContextList getContextListing(SimpleString address) {
       RouteContextList listing = map.get(address);
       if (listing == null) {
-         listing = new ContextListing();
+         listing = freeListings.isEmpty() ? new ContextListing() : freeListings.remove(freeListings.size() - 1);
          map.put(address, listing);
       }
       return listing;
@@ -149,6 +163,12 @@ public final class RoutingContextImpl implements RoutingContext {
 
       private final List<Queue> ackedQueues = new ArrayList<>();
 
+      private void clear() {
+         durableQueue.clear();
+         nonDurableQueue.clear();
+         ackedQueues.clear();
+      }
+
       @Override
       public int getNumberOfDurableQueues() {
          return durableQueue.size();
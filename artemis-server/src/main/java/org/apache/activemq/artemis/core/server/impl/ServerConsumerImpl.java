@@ -26,6 +26,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
 
 import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
 import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
@@ -112,6 +113,12 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
    private volatile AtomicInteger availableCredits = new AtomicInteger(0);
 
+   // references handled but not delivered yet, as the queue may handle a batch of them before delivering
+   private final AtomicInteger pendingDeliveries = new AtomicInteger(0);
+
+   // the credits the pending deliveries will take, estimated from their encode size
+   private final AtomicLong pendingCredits = new AtomicLong(0);
+
    private boolean started;
 
    private volatile LargeMessageDeliverer largeMessageDeliverer = null;
@@ -348,7 +355,7 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
    @Override
    public HandleStatus handle(final MessageReference ref) throws Exception {
-      if (callback != null && !callback.hasCredits(this) || availableCredits != null && availableCredits.get() <= 0) {
+      if (callback != null && !callback.hasCredits(this, pendingDeliveries.get()) || availableCredits != null && availableCredits.get() - pendingCredits.get() <= 0) {
          if (logger.isDebugEnabled()) {
             logger.debug(this + " is busy for the lack of credits. Current credits = " +
                             availableCredits +
@@ -435,6 +442,9 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
          lockDelivery.readLock().lock();
 
+         pendingDeliveries.incrementAndGet();
+         pendingCredits.addAndGet(message.getEncodeSize());
+
          return HandleStatus.HANDLED;
       }
    }
@@ -460,6 +470,7 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
             deliverStandardMessage(reference, message);
          }
       } finally {
+         deliveryProceeded(reference);
          lockDelivery.readLock().unlock();
          callback.afterDelivery();
          server.callBrokerPlugins(server.hasBrokerPlugins() ? plugin -> plugin.afterDeliver(this, reference) : null);
@@ -467,6 +478,46 @@ public class ServerConsumerImpl implements ServerConsumer, ReadyListener {
 
    }
 
+   /**
+    * Releases the credits reserved by {@link #handle(MessageReference)}, the actual credits are taken by the delivery.
+    */
+   private void deliveryProceeded(MessageReference reference) {
+      if (pendingDeliveries.decrementAndGet() == 0) {
+         // the encode size may have changed meanwhile, don't let an error in the estimate build up
+         pendingCredits.set(0);
+      } else {
+         pendingCredits.addAndGet(-reference.getMessage().getEncodeSize());
+      }
+   }
+
+   @Override
+   public void proceedDeliver(List<MessageReference> references, BiConsumer<MessageReference, Throwable> onFailure) {
+      Throwable failure = null;
+      try {
+         for (MessageReference reference : references) {
+            if (failure == null) {
+               try {
+                  proceedDeliver(reference);
+                  continue;
+               } catch (Throwable t) {
+                  failure = t;
+               }
+            } else {
+               // handle took the read lock and reserved credits for every reference of the batch
+               deliveryProceeded(reference);
+               lockDelivery.readLock().unlock();
+            }
+            onFailure.accept(reference, failure);
+         }
+      } finally {
+         try {
+            callback.afterDeliveryBatch(this);
+         } catch (Throwable t) {
+            logger.warn("Error flushing a delivery batch on " + this, t);
+         }
+      }
+   }
+
    @Override
    public Filter getFilter() {
       return filter;
@@ -530,7 +530,7 @@ public class ServerSessionImpl implements ServerSession, FailureListener {
                             final SimpleString filterString,
                             final boolean temporary,
                             final boolean durable) throws Exception {
-      AddressSettings as = server.getAddressSettingsRepository().getMatch(address.toString());
+      AddressSettings as = server.getAddressSettingsRepository().getMatch(address);
       return createQueue(address, name, as.getDefaultQueueRoutingType(), filterString, temporary, durable, as.getDefaultMaxConsumers(), as.isDefaultPurgeOnNoConsumers(), false);
    }
 
@@ -541,7 +541,7 @@ public class ServerSessionImpl implements ServerSession, FailureListener {
                             final SimpleString filterString,
                             final boolean temporary,
                             final boolean durable) throws Exception {
-      AddressSettings as = server.getAddressSettingsRepository().getMatch(address.toString());
+      AddressSettings as = server.getAddressSettingsRepository().getMatch(address);
       return createQueue(address, name, routingType, filterString, temporary, durable, as.getDefaultMaxConsumers(), as.isDefaultPurgeOnNoConsumers(), false);
    }
 
@@ -606,7 +606,7 @@ public class ServerSessionImpl implements ServerSession, FailureListener {
                             boolean temporary,
                             boolean durable,
                             boolean autoCreated) throws Exception {
-      AddressSettings as = server.getAddressSettingsRepository().getMatch(address.toString());
+      AddressSettings as = server.getAddressSettingsRepository().getMatch(address);
       return createQueue(address, name, routingType, filterString, temporary, durable, as.getDefaultMaxConsumers(), as.isDefaultPurgeOnNoConsumers(), autoCreated);
    }
 
@@ -0,0 +1,81 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.server.Consumer;
+
+/**
+ * Binds every group to its consumer until the consumer is removed.
+ */
+final class SimpleMessageGroups implements MessageGroups {
+
+   private final Map<SimpleString, Consumer> groups = new HashMap<>();
+
+   @Override
+   public Consumer get(final SimpleString groupID) {
+      return groups.get(groupID);
+   }
+
+   @Override
+   public void put(final SimpleString groupID, final Consumer consumer) {
+      groups.put(groupID, consumer);
+   }
+
+   @Override
+   public boolean isHeld(final SimpleString groupID) {
+      return false;
+   }
+
+   @Override
+   public boolean isMoving() {
+      return false;
+   }
+
+   @Override
+   public boolean completeMoves() {
+      return false;
+   }
+
+   @Override
+   public void deliveriesChanged() {
+   }
+
+   @Override
+   public void removeConsumer(final Consumer consumer) {
+      groups.values().removeIf(groupConsumer -> groupConsumer == consumer);
+   }
+
+   @Override
+   public void addConsumer(final Consumer consumer, final int consumerCount) {
+   }
+
+   @Override
+   public boolean remove(final SimpleString groupID) {
+      return groups.remove(groupID) != null;
+   }
+
+   @Override
+   public List<SimpleString> getGroupIDs() {
+      return new ArrayList<>(groups.keySet());
+   }
+}
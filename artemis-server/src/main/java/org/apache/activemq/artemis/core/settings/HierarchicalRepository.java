@@ -20,6 +20,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.activemq.artemis.api.core.SimpleString;
+
 /**
  * allows objects to be mapped against a regex pattern and held in order in a list
  */
@@ -47,6 +49,17 @@ public interface HierarchicalRepository<T> {
     */
    T getMatch(String match);
 
+   /**
+    * return the value held against the nearest match of an address, without converting it to a {@link String}
+    * when the repository caches the lookups by {@link SimpleString}
+    *
+    * @param match the match to look for
+    * @return the value
+    */
+   default T getMatch(SimpleString match) {
+      return getMatch(match.toString());
+   }
+
    /**
     * Return a list of Values being added
     *
@@ -95,6 +95,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    public static final int DEFAULT_QUEUE_PREFETCH = 1000;
 
+   public static final int DEFAULT_DELIVERY_BATCH_SIZE = 1;
+
+   public static final int DEFAULT_QUEUE_PARTITIONS = 1;
+
+   public static final int DEFAULT_GROUP_BUCKETS = -1;
+
+   public static final boolean DEFAULT_GROUP_REBALANCE = false;
+
+   public static final long DEFAULT_MANAGEMENT_BROWSE_MAX_BYTES = 10L * 1024 * 1024;
+
    // Default address drop threshold, applied to address settings with BLOCK policy.  -1 means no threshold enabled.
    public static final long DEFAULT_ADDRESS_REJECT_THRESHOLD = -1;
 
@@ -172,6 +182,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
 
    private RoutingType defaultAddressRoutingType = null;
 
+   private Integer deliveryBatchSize = null;
+
+   private Integer queuePartitions = null;
+
+   private Integer groupBuckets = null;
+
+   private Boolean groupRebalance = null;
+
+   private Long managementBrowseMaxBytes = null;
+
    //from amq5
    //make it transient
    private transient Integer queuePrefetch = null;
@@ -213,6 +233,11 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       this.defaultPurgeOnNoConsumers = other.defaultPurgeOnNoConsumers;
       this.defaultQueueRoutingType = other.defaultQueueRoutingType;
       this.defaultAddressRoutingType = other.defaultAddressRoutingType;
+      this.managementBrowseMaxBytes = other.managementBrowseMaxBytes;
+      this.queuePartitions = other.queuePartitions;
+      this.deliveryBatchSize = other.deliveryBatchSize;
+      this.groupBuckets = other.groupBuckets;
+      this.groupRebalance = other.groupRebalance;
    }
 
    public AddressSettings() {
@@ -352,6 +377,51 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       return this;
    }
 
+   public int getDeliveryBatchSize() {
+      return deliveryBatchSize != null ? deliveryBatchSize : AddressSettings.DEFAULT_DELIVERY_BATCH_SIZE;
+   }
+
+   public AddressSettings setDeliveryBatchSize(final int deliveryBatchSize) {
+      this.deliveryBatchSize = deliveryBatchSize;
+      return this;
+   }
+
+   public int getQueuePartitions() {
+      return queuePartitions != null ? queuePartitions : AddressSettings.DEFAULT_QUEUE_PARTITIONS;
+   }
+
+   public AddressSettings setQueuePartitions(final int queuePartitions) {
+      this.queuePartitions = queuePartitions;
+      return this;
+   }
+
+   public int getGroupBuckets() {
+      return groupBuckets != null ? groupBuckets : AddressSettings.DEFAULT_GROUP_BUCKETS;
+   }
+
+   public AddressSettings setGroupBuckets(final int groupBuckets) {
+      this.groupBuckets = groupBuckets;
+      return this;
+   }
+
+   public boolean isGroupRebalance() {
+      return groupRebalance != null ? groupRebalance : AddressSettings.DEFAULT_GROUP_REBALANCE;
+   }
+
+   public AddressSettings setGroupRebalance(final boolean groupRebalance) {
+      this.groupRebalance = groupRebalance;
+      return this;
+   }
+
+   public long getManagementBrowseMaxBytes() {
+      return managementBrowseMaxBytes != null ? managementBrowseMaxBytes : AddressSettings.DEFAULT_MANAGEMENT_BROWSE_MAX_BYTES;
+   }
+
+   public AddressSettings setManagementBrowseMaxBytes(final long managementBrowseMaxBytes) {
+      this.managementBrowseMaxBytes = managementBrowseMaxBytes;
+      return this;
+   }
+
    public boolean isLastValueQueue() {
       return lastValueQueue != null ? lastValueQueue : AddressSettings.DEFAULT_LAST_VALUE_QUEUE;
    }
@@ -655,6 +725,21 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       if (defaultAddressRoutingType == null) {
          defaultAddressRoutingType = merged.defaultAddressRoutingType;
       }
+      if (managementBrowseMaxBytes == null) {
+         managementBrowseMaxBytes = merged.managementBrowseMaxBytes;
+      }
+      if (queuePartitions == null) {
+         queuePartitions = merged.queuePartitions;
+      }
+      if (deliveryBatchSize == null) {
+         deliveryBatchSize = merged.deliveryBatchSize;
+      }
+      if (groupBuckets == null) {
+         groupBuckets = merged.groupBuckets;
+      }
+      if (groupRebalance == null) {
+         groupRebalance = merged.groupRebalance;
+      }
    }
 
    @Override
@@ -751,6 +836,23 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       defaultQueueRoutingType = RoutingType.getType(buffer.readByte());
 
       defaultAddressRoutingType = RoutingType.getType(buffer.readByte());
+
+      if (buffer.readableBytes() > 0) {
+         deliveryBatchSize = BufferHelper.readNullableInteger(buffer);
+      }
+
+      if (buffer.readableBytes() > 0) {
+         queuePartitions = BufferHelper.readNullableInteger(buffer);
+      }
+
+      if (buffer.readableBytes() > 0) {
+         managementBrowseMaxBytes = BufferHelper.readNullableLong(buffer);
+      }
+
+      if (buffer.readableBytes() > 0) {
+         groupBuckets = BufferHelper.readNullableInteger(buffer);
+         groupRebalance = BufferHelper.readNullableBoolean(buffer);
+      }
    }
 
    @Override
@@ -788,7 +890,12 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
          BufferHelper.sizeOfNullableInteger(defaultMaxConsumers) +
          BufferHelper.sizeOfNullableBoolean(defaultPurgeOnNoConsumers) +
          DataConstants.SIZE_BYTE +
-         DataConstants.SIZE_BYTE;
+         DataConstants.SIZE_BYTE +
+         BufferHelper.sizeOfNullableLong(managementBrowseMaxBytes) +
+         BufferHelper.sizeOfNullableInteger(queuePartitions) +
+         BufferHelper.sizeOfNullableInteger(deliveryBatchSize) +
+         BufferHelper.sizeOfNullableInteger(groupBuckets) +
+         BufferHelper.sizeOfNullableBoolean(groupRebalance);
    }
 
    @Override
@@ -862,6 +969,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       buffer.writeByte(defaultQueueRoutingType == null ? -1 : defaultQueueRoutingType.getType());
 
       buffer.writeByte(defaultAddressRoutingType == null ? -1 : defaultAddressRoutingType.getType());
+
+      BufferHelper.writeNullableInteger(buffer, deliveryBatchSize);
+
+      BufferHelper.writeNullableInteger(buffer, queuePartitions);
+
+      BufferHelper.writeNullableLong(buffer, managementBrowseMaxBytes);
+
+      BufferHelper.writeNullableInteger(buffer, groupBuckets);
+
+      BufferHelper.writeNullableBoolean(buffer, groupRebalance);
    }
 
    /* (non-Javadoc)
@@ -907,6 +1024,11 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
       result = prime * result + ((defaultPurgeOnNoConsumers == null) ? 0 : defaultPurgeOnNoConsumers.hashCode());
       result = prime * result + ((defaultQueueRoutingType == null) ? 0 : defaultQueueRoutingType.hashCode());
       result = prime * result + ((defaultAddressRoutingType == null) ? 0 : defaultAddressRoutingType.hashCode());
+      result = prime * result + ((managementBrowseMaxBytes == null) ? 0 : managementBrowseMaxBytes.hashCode());
+      result = prime * result + ((queuePartitions == null) ? 0 : queuePartitions.hashCode());
+      result = prime * result + ((deliveryBatchSize == null) ? 0 : deliveryBatchSize.hashCode());
+      result = prime * result + ((groupBuckets == null) ? 0 : groupBuckets.hashCode());
+      result = prime * result + ((groupRebalance == null) ? 0 : groupRebalance.hashCode());
       return result;
    }
 
@@ -1107,6 +1229,36 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
             return false;
       } else if (!defaultAddressRoutingType.equals(other.defaultAddressRoutingType))
          return false;
+
+      if (deliveryBatchSize == null) {
+         if (other.deliveryBatchSize != null)
+            return false;
+      } else if (!deliveryBatchSize.equals(other.deliveryBatchSize))
+         return false;
+
+      if (queuePartitions == null) {
+         if (other.queuePartitions != null)
+            return false;
+      } else if (!queuePartitions.equals(other.queuePartitions))
+         return false;
+
+      if (managementBrowseMaxBytes == null) {
+         if (other.managementBrowseMaxBytes != null)
+            return false;
+      } else if (!managementBrowseMaxBytes.equals(other.managementBrowseMaxBytes))
+         return false;
+
+      if (groupBuckets == null) {
+         if (other.groupBuckets != null)
+            return false;
+      } else if (!groupBuckets.equals(other.groupBuckets))
+         return false;
+
+      if (groupRebalance == null) {
+         if (other.groupRebalance != null)
+            return false;
+      } else if (!groupRebalance.equals(other.groupRebalance))
+         return false;
       return true;
    }
 
@@ -1184,6 +1336,16 @@ public class AddressSettings implements Mergeable<AddressSettings>, Serializable
          defaultQueueRoutingType +
          ", defaultAddressRoutingType=" +
          defaultAddressRoutingType +
+         ", managementBrowseMaxBytes=" +
+         managementBrowseMaxBytes +
+         ", queuePartitions=" +
+         queuePartitions +
+         ", deliveryBatchSize=" +
+         deliveryBatchSize +
+         ", groupBuckets=" +
+         groupBuckets +
+         ", groupRebalance=" +
+         groupRebalance +
          "]";
    }
 }
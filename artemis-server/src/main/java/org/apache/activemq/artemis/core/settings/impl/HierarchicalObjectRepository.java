@@ -25,12 +25,12 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.regex.Pattern;
 
+import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.config.WildcardConfiguration;
 import org.apache.activemq.artemis.core.server.ActiveMQServerLogger;
 import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
@@ -57,6 +57,11 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
     */
    private final Map<String, Match<T>> matches = new HashMap<>();
 
+   /**
+    * the same matches, indexed by their words
+    */
+   private final MatchTrie<T> trie;
+
    /**
     * Certain values cannot be removed after installed.
     * This is because we read a few records from the main config.
@@ -78,6 +83,11 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
     */
    private final Map<String, T> cache = new ConcurrentHashMap<>();
 
+   /**
+    * a cache for the lookups made with the {@link SimpleString} addresses, so they don't have to be converted
+    */
+   private final Map<SimpleString, T> simpleStringCache = new ConcurrentHashMap<>();
+
    /**
     * Need a lock instead of using multiple {@link ConcurrentHashMap}s.
     * <p>
@@ -106,6 +116,7 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
    public HierarchicalObjectRepository(final WildcardConfiguration wildcardConfiguration) {
       this.wildcardConfiguration = wildcardConfiguration == null ? DEFAULT_WILDCARD_CONFIGURATION : wildcardConfiguration;
       this.matchComparator = new MatchComparator(this.wildcardConfiguration);
+      this.trie = new MatchTrie<>(this.wildcardConfiguration);
    }
 
    @Override
@@ -164,14 +175,15 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
    private void addMatch(final String match, final T value, final boolean immutableMatch, boolean notifyListeners) {
       lock.writeLock().lock();
       try {
-         clearCache();
-
          if (immutableMatch) {
             immutables.add(match);
          }
          Match.verify(match, wildcardConfiguration);
          Match<T> match1 = new Match<>(match, value, wildcardConfiguration);
          matches.put(match, match1);
+         trie.put(match1);
+         // only the addresses of the match have to be resolved again
+         invalidate(match1);
       } finally {
          lock.writeLock().unlock();
       }
@@ -184,7 +196,7 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
 
    @Override
    public int getCacheSize() {
-      return cache.size();
+      return cache.size() + simpleStringCache.size();
    }
 
    /**
@@ -215,6 +227,24 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
       }
    }
 
+   @Override
+   public T getMatch(final SimpleString match) {
+      T cacheResult = simpleStringCache.get(match);
+      if (cacheResult != null) {
+         return cacheResult;
+      }
+      lock.readLock().lock();
+      try {
+         T value = getMatch(match.toString());
+         if (value != null) {
+            simpleStringCache.put(match, value);
+         }
+         return value;
+      } finally {
+         lock.readLock().unlock();
+      }
+   }
+
    /**
     * merge all the possible matches, if the values implement Mergeable then a full merge is done
     *
@@ -266,12 +296,15 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          if (isImmutable) {
             logger.debug("Cannot remove match " + match + " since it came from a main config");
          } else {
-            /**
-             * clear the cache before removing the match. This will force any thread at
-             * {@link #getMatch(String)} to get the lock to recompute.
-             */
-            clearCache();
-            matches.remove(match);
+            Match<T> removed = matches.remove(match);
+            if (removed != null) {
+               trie.remove(match);
+               /**
+                * invalidate the addresses of the match while holding the write lock. This will force any thread at
+                * {@link #getMatch(String)} to get the lock to recompute them.
+                */
+               invalidate(removed);
+            }
             onChange();
          }
       } finally {
@@ -320,6 +353,7 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          clearCache();
          listeners.clear();
          matches.clear();
+         trie.clear();
       } finally {
          lock.writeLock().unlock();
       }
@@ -332,6 +366,7 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
          clearCache();
          immutables.clear();
          matches.clear();
+         trie.clear();
          for (Map.Entry<String, T> entry : entries) {
             addMatch(entry.getKey(), entry.getValue(), true, false);
          }
@@ -350,6 +385,20 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
    @Override
    public void clearCache() {
       cache.clear();
+      simpleStringCache.clear();
+   }
+
+   /**
+    * Removes from the caches the addresses {@code match} applies to, the others are resolved the same way.
+    * The addresses are first compared with the literal words the match starts with.
+    */
+   private void invalidate(final Match<T> match) {
+      String prefix = trie.literalPrefix(match.getMatch());
+      cache.keySet().removeIf(address -> address.startsWith(prefix) && match.getPattern().matcher(address).matches());
+      simpleStringCache.keySet().removeIf(address -> {
+         String stringAddress = address.toString();
+         return stringAddress.startsWith(prefix) && match.getPattern().matcher(stringAddress).matches();
+      });
    }
 
    private void onChange() {
@@ -377,13 +426,7 @@ public class HierarchicalObjectRepository<T> implements HierarchicalRepository<T
     */
    private Map<String, Match<T>> getPossibleMatches(final String match) {
       HashMap<String, Match<T>> possibleMatches = new HashMap<>();
-
-      for (Entry<String, Match<T>> entry : matches.entrySet()) {
-         Match<T> entryMatch = entry.getValue();
-         if (entryMatch.getPattern().matcher(match).matches()) {
-            possibleMatches.put(entry.getKey(), entryMatch);
-         }
-      }
+      trie.collect(match, possibleMatches);
       return possibleMatches;
    }
 
@@ -0,0 +1,283 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.settings.impl;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.activemq.artemis.core.config.WildcardConfiguration;
+
+/**
+ * Indexes {@link Match}es word by word, so the matches of an address are found walking as many nodes as the address
+ * has words, instead of running the pattern of every match against it.
+ * <p>
+ * A word is either a literal, the single word wildcard or, as the last word only, the any words wildcard. The few
+ * matches that can't be split that way (a wildcard inside a word, or a regular expression the {@link Match} pattern
+ * would honour) are kept aside and checked with their pattern.
+ * <p>
+ * This is not thread safe, {@link HierarchicalObjectRepository} guards it with its lock.
+ */
+final class MatchTrie<T> {
+
+   private static final String REGEX_CHARACTERS = "\\^$|?*+()[]{}";
+
+   private final char delimiter;
+
+   private final String singleWord;
+
+   private final String anyWords;
+
+   private final Node<T> root = new Node<>();
+
+   private final Map<String, Match<T>> unindexed = new HashMap<>();
+
+   MatchTrie(final WildcardConfiguration wildcardConfiguration) {
+      this.delimiter = wildcardConfiguration.getDelimiter();
+      this.singleWord = wildcardConfiguration.getSingleWordString();
+      this.anyWords = wildcardConfiguration.getAnyWordsString();
+   }
+
+   void put(final Match<T> match) {
+      String[] words = words(match.getMatch());
+      if (words == null) {
+         unindexed.put(match.getMatch(), match);
+         return;
+      }
+      Node<T> node = root;
+      for (String word : words) {
+         if (word.equals(anyWords)) {
+            node.addAnyWordsMatch(match);
+            return;
+         }
+         node = node.child(word, singleWord);
+      }
+      node.match = match;
+   }
+
+   void remove(final String match) {
+      if (unindexed.remove(match) != null) {
+         return;
+      }
+      String[] words = words(match);
+      if (words != null) {
+         remove(root, match, words, 0);
+      }
+   }
+
+   void clear() {
+      root.children = null;
+      root.singleWordChild = null;
+      root.match = null;
+      root.anyWordsMatches = null;
+      unindexed.clear();
+   }
+
+   /**
+    * Adds to {@code possibleMatches} every match of {@code address}, keyed by their match string.
+    */
+   void collect(final String address, final Map<String, Match<T>> possibleMatches) {
+      String[] words = split(address, delimiter);
+      collect(root, words, 0, possibleMatches);
+      if (!unindexed.isEmpty()) {
+         for (Match<T> match : unindexed.values()) {
+            if (match.getPattern().matcher(address).matches()) {
+               possibleMatches.put(match.getMatch(), match);
+            }
+         }
+      }
+   }
+
+   private void collect(final Node<T> node, final String[] words, final int depth, final Map<String, Match<T>> possibleMatches) {
+      List<Match<T>> anyWordsMatches = node.anyWordsMatches;
+      if (anyWordsMatches != null && (depth == 0 || depth == words.length || !(depth == words.length - 1 && words[depth].isEmpty()))) {
+         // any words matches the prefix alone or followed by a delimiter and something
+         for (Match<T> anyWordsMatch : anyWordsMatches) {
+            possibleMatches.put(anyWordsMatch.getMatch(), anyWordsMatch);
+         }
+      }
+      if (depth == words.length) {
+         if (node.match != null) {
+            possibleMatches.put(node.match.getMatch(), node.match);
+         }
+         return;
+      }
+      String word = words[depth];
+      if (node.children != null) {
+         Node<T> child = node.children.get(word);
+         if (child != null) {
+            collect(child, words, depth + 1, possibleMatches);
+         }
+      }
+      if (node.singleWordChild != null && !word.isEmpty()) {
+         collect(node.singleWordChild, words, depth + 1, possibleMatches);
+      }
+   }
+
+   private boolean remove(final Node<T> node, final String match, final String[] words, final int depth) {
+      String word = words[depth];
+      if (word.equals(anyWords)) {
+         node.removeAnyWordsMatch(match);
+      } else {
+         Node<T> child = word.equals(singleWord) ? node.singleWordChild : node.children == null ? null : node.children.get(word);
+         if (child == null) {
+            return false;
+         }
+         if (depth == words.length - 1) {
+            child.match = null;
+         } else if (!remove(child, match, words, depth + 1)) {
+            return false;
+         }
+         if (child.isEmpty()) {
+            if (word.equals(singleWord)) {
+               node.singleWordChild = null;
+            } else {
+               node.children.remove(word);
+            }
+         }
+      }
+      return true;
+   }
+
+   /**
+    * The words to index {@code match} with, or {@code null} if it can only be checked with its pattern.
+    */
+   private String[] words(final String match) {
+      if (match.equals(anyWords)) {
+         return new String[]{anyWords};
+      }
+      String prefix = match;
+      boolean endsWithAnyWords = match.endsWith(anyWords);
+      if (endsWithAnyWords) {
+         // the match is documented as "prefix.#" but "prefix#" is the same pattern
+         prefix = match.substring(0, match.length() - anyWords.length());
+         if (!prefix.isEmpty() && prefix.charAt(prefix.length() - 1) == delimiter) {
+            prefix = prefix.substring(0, prefix.length() - 1);
+         }
+         if (prefix.isEmpty()) {
+            return null;
+         }
+      }
+      String[] words = split(prefix, delimiter);
+      for (String word : words) {
+         if (!word.equals(singleWord) && !isLiteral(word)) {
+            return null;
+         }
+      }
+      if (endsWithAnyWords) {
+         String[] withAnyWords = new String[words.length + 1];
+         System.arraycopy(words, 0, withAnyWords, 0, words.length);
+         withAnyWords[words.length] = anyWords;
+         return withAnyWords;
+      }
+      return words;
+   }
+
+   /**
+    * The whole words {@code match} starts with, every address of the match starts with them.
+    */
+   String literalPrefix(final String match) {
+      for (int i = 0; i < match.length(); i++) {
+         if (!isLiteral(match.charAt(i))) {
+            return match.substring(0, Math.max(0, match.lastIndexOf(delimiter, i)));
+         }
+      }
+      return match;
+   }
+
+   private boolean isLiteral(final String word) {
+      for (int i = 0; i < word.length(); i++) {
+         if (!isLiteral(word.charAt(i))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private boolean isLiteral(final char c) {
+      return REGEX_CHARACTERS.indexOf(c) < 0 && singleWord.indexOf(c) < 0 && anyWords.indexOf(c) < 0;
+   }
+
+   /**
+    * Splits on every delimiter, keeping the empty words: they have to match literally too.
+    */
+   static String[] split(final String address, final char delimiter) {
+      List<String> words = null;
+      int start = 0;
+      for (int i = 0; i < address.length(); i++) {
+         if (address.charAt(i) == delimiter) {
+            if (words == null) {
+               words = new ArrayList<>();
+            }
+            words.add(address.substring(start, i));
+            start = i + 1;
+         }
+      }
+      if (words == null) {
+         return new String[]{address};
+      }
+      words.add(address.substring(start));
+      return words.toArray(new String[words.size()]);
+   }
+
+   private static final class Node<T> {
+
+      private Map<String, Node<T>> children;
+
+      private Node<T> singleWordChild;
+
+      private Match<T> match;
+
+      // "prefix.#" and "prefix#" are different matches with the same words
+      private List<Match<T>> anyWordsMatches;
+
+      Node<T> child(final String word, final String singleWord) {
+         if (word.equals(singleWord)) {
+            if (singleWordChild == null) {
+               singleWordChild = new Node<>();
+            }
+            return singleWordChild;
+         }
+         if (children == null) {
+            children = new HashMap<>();
+         }
+         return children.computeIfAbsent(word, w -> new Node<>());
+      }
+
+      void addAnyWordsMatch(final Match<T> match) {
+         removeAnyWordsMatch(match.getMatch());
+         if (anyWordsMatches == null) {
+            anyWordsMatches = new ArrayList<>(1);
+         }
+         anyWordsMatches.add(match);
+      }
+
+      void removeAnyWordsMatch(final String match) {
+         if (anyWordsMatches != null) {
+            anyWordsMatches.removeIf(anyWordsMatch -> anyWordsMatch.getMatch().equals(match));
+            if (anyWordsMatches.isEmpty()) {
+               anyWordsMatches = null;
+            }
+         }
+      }
+
+      boolean isEmpty() {
+         return match == null && anyWordsMatches == null && singleWordChild == null && (children == null || children.isEmpty());
+      }
+   }
+}
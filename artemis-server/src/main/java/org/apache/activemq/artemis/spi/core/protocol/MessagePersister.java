@@ -32,7 +32,7 @@ public class MessagePersister implements Persister<Message> {
    private static final MessagePersister theInstance = new MessagePersister();
 
    /** This will be used for reading messages */
-   private static final int MAX_PERSISTERS = 3;
+   private static final int MAX_PERSISTERS = 4;
    private static final Persister<Message>[] persisters = new Persister[MAX_PERSISTERS];
 
    static {
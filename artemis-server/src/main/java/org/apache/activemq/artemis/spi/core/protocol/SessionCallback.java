@@ -40,12 +40,27 @@ public interface SessionCallback {
     */
    boolean hasCredits(ServerConsumer consumerID);
 
+   /**
+    * Same as {@link #hasCredits(ServerConsumer)}, taking into account the messages handled by the consumer
+    * but not delivered yet, as a queue delivering in batches handles them all before delivering any.
+    */
+   default boolean hasCredits(ServerConsumer consumerID, int pendingDeliveries) {
+      return hasCredits(consumerID);
+   }
+
    /**
     * This can be used to complete certain operations outside of the lock,
     * like acks or other operations.
     */
    void afterDelivery() throws Exception;
 
+   /**
+    * Called once a batch of messages was delivered to the consumer,
+    * protocols writing the messages without flushing them can flush them here.
+    */
+   default void afterDeliveryBatch(ServerConsumer consumer) throws Exception {
+   }
+
    /**
     * Use this to updates specifics on the message after a redelivery happened.
     * Return true if there was specific logic applied on the protocol, so the ServerConsumer won't make any adjustments.
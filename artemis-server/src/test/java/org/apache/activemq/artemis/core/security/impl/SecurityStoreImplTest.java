@@ -0,0 +1,156 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.security.impl;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.security.CheckType;
+import org.apache.activemq.artemis.core.security.Role;
+import org.apache.activemq.artemis.core.security.SecurityAuth;
+import org.apache.activemq.artemis.core.settings.impl.HierarchicalObjectRepository;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.apache.activemq.artemis.spi.core.security.ActiveMQSecurityManager;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class SecurityStoreImplTest extends Assert {
+
+   private static final SimpleString ADDRESS = new SimpleString("address");
+
+   private final HierarchicalObjectRepository<Set<Role>> securityRepository = new HierarchicalObjectRepository<>();
+
+   private final CountingSecurityManager securityManager = new CountingSecurityManager();
+
+   @Test
+   public void testAuthenticationIsCached() throws Exception {
+      SecurityStoreImpl securityStore = createSecurityStore(60000, 10);
+
+      assertNull(securityStore.authenticate("user", "password", null));
+      assertNull(securityStore.authenticate("user", "password", null));
+      assertEquals(1, securityManager.authentications.get());
+
+      // a different password is never served from the cache
+      assertNull(securityStore.authenticate("user", "other", null));
+      assertEquals(2, securityManager.authentications.get());
+
+      // changing the security settings invalidates the cache
+      securityRepository.addMatch("#", Collections.<Role>emptySet());
+      assertNull(securityStore.authenticate("user", "password", null));
+      assertEquals(3, securityManager.authentications.get());
+   }
+
+   @Test
+   public void testAuthenticationCacheDisabled() throws Exception {
+      SecurityStoreImpl securityStore = createSecurityStore(60000, 0);
+
+      securityStore.authenticate("user", "password", null);
+      securityStore.authenticate("user", "password", null);
+      assertEquals(2, securityManager.authentications.get());
+   }
+
+   @Test
+   public void testAuthenticationExpires() throws Exception {
+      SecurityStoreImpl securityStore = createSecurityStore(10, 10);
+
+      securityStore.authenticate("user", "password", null);
+      Thread.sleep(50);
+      securityStore.authenticate("user", "password", null);
+      assertEquals(2, securityManager.authentications.get());
+   }
+
+   @Test
+   public void testAuthorizationIsCached() throws Exception {
+      SecurityStoreImpl securityStore = createSecurityStore(60000, 10);
+      SecurityAuth user = new Auth("user");
+
+      securityStore.check(ADDRESS, CheckType.SEND, user);
+      securityStore.check(ADDRESS, CheckType.SEND, user);
+      assertEquals(1, securityManager.authorizations.get());
+
+      securityStore.check(ADDRESS, CheckType.CONSUME, user);
+      securityStore.check(ADDRESS.concat(".other"), CheckType.SEND, user);
+      securityStore.check(ADDRESS, CheckType.SEND, new Auth("other"));
+      securityStore.check(ADDRESS, CheckType.SEND, new Auth(null));
+      securityStore.check(ADDRESS, CheckType.SEND, new Auth(null));
+      assertEquals(5, securityManager.authorizations.get());
+
+      securityRepository.addMatch("#", Collections.<Role>emptySet());
+      securityStore.check(ADDRESS, CheckType.SEND, user);
+      assertEquals(6, securityManager.authorizations.get());
+   }
+
+   @Test
+   public void testAuthorizationExpires() throws Exception {
+      SecurityStoreImpl securityStore = createSecurityStore(10, 10);
+      SecurityAuth user = new Auth("user");
+
+      securityStore.check(ADDRESS, CheckType.SEND, user);
+      Thread.sleep(50);
+      securityStore.check(ADDRESS, CheckType.SEND, user);
+      assertEquals(2, securityManager.authorizations.get());
+   }
+
+   private SecurityStoreImpl createSecurityStore(long invalidationInterval, int authenticationCacheSize) {
+      return new SecurityStoreImpl(securityRepository, securityManager, invalidationInterval, authenticationCacheSize, true, "cluster", "secret", null);
+   }
+
+   private static final class CountingSecurityManager implements ActiveMQSecurityManager {
+
+      final AtomicInteger authentications = new AtomicInteger();
+
+      final AtomicInteger authorizations = new AtomicInteger();
+
+      @Override
+      public boolean validateUser(String user, String password) {
+         authentications.incrementAndGet();
+         return true;
+      }
+
+      @Override
+      public boolean validateUserAndRole(String user, String password, Set<Role> roles, CheckType checkType) {
+         authorizations.incrementAndGet();
+         return true;
+      }
+   }
+
+   private static final class Auth implements SecurityAuth {
+
+      private final String username;
+
+      Auth(String username) {
+         this.username = username;
+      }
+
+      @Override
+      public String getUsername() {
+         return username;
+      }
+
+      @Override
+      public String getPassword() {
+         return "password";
+      }
+
+      @Override
+      public RemotingConnection getRemotingConnection() {
+         return null;
+      }
+   }
+}
@@ -0,0 +1,180 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.group.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.management.CoreNotificationType;
+import org.apache.activemq.artemis.api.core.management.ManagementHelper;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.persistence.impl.nullpm.NullStorageManager;
+import org.apache.activemq.artemis.core.server.management.Notification;
+import org.apache.activemq.artemis.core.server.management.impl.ManagementServiceImpl;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.actors.ArtemisExecutor;
+import org.apache.activemq.artemis.utils.collections.TypedProperties;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionedGroupingHandlerTest extends Assert {
+
+   private static final SimpleString LOCAL_QUEUE = SimpleString.toSimpleString("queue.node1");
+
+   private static final SimpleString REMOTE_QUEUE = SimpleString.toSimpleString("queue.node2");
+
+   private final List<Notification> notifications = new ArrayList<>();
+
+   private final List<String> records = new ArrayList<>();
+
+   private final List<Runnable> tasks = new ArrayList<>();
+
+   private PartitionedGroupingHandler handler;
+
+   @Before
+   public void setUp() throws Exception {
+      ArtemisExecutor executor = ArtemisExecutor.delegate(tasks::add);
+      ExecutorFactory executorFactory = () -> executor;
+      handler = new PartitionedGroupingHandler(executorFactory, null, new FakeManagementService(), SimpleString.toSimpleString("handler"), SimpleString.toSimpleString("queues"), new FakeStorageManager(), 1000, -1);
+      handler.onNotification(bindingAdded(LOCAL_QUEUE, 0));
+      handler.onNotification(bindingAdded(REMOTE_QUEUE, 1));
+      handler.start();
+   }
+
+   @Test
+   public void testLocalGroupsStoredInBatches() throws Exception {
+      for (int i = 0; i < 10; i++) {
+         Response response = handler.propose(new Proposal(SimpleString.toSimpleString("group" + i), LOCAL_QUEUE));
+         assertTrue(response.isAccepted());
+         assertEquals(LOCAL_QUEUE, response.getChosenClusterName());
+      }
+      // every node is told about the groups bound here
+      assertEquals(10, count(CoreNotificationType.PROPOSAL_RESPONSE));
+      assertTrue(records.isEmpty());
+
+      runTasks();
+      assertEquals(11, records.size());
+      assertEquals("commit", records.get(10));
+
+      records.clear();
+      handler.forceRemove(SimpleString.toSimpleString("group0"), LOCAL_QUEUE);
+      assertNull(handler.getProposal(SimpleString.toSimpleString("group0"), false));
+      runTasks();
+      assertEquals(2, records.size());
+      assertEquals("delete group0", records.get(0));
+   }
+
+   @Test
+   public void testRemoteGroupLeasedWithoutWaiting() throws Exception {
+      SimpleString group = SimpleString.toSimpleString("group");
+      Response response = handler.propose(new Proposal(group, REMOTE_QUEUE));
+      assertTrue(response.isAccepted());
+      assertEquals(REMOTE_QUEUE, response.getChosenClusterName());
+      assertEquals(1, count(CoreNotificationType.PROPOSAL));
+      assertSame(response, handler.propose(new Proposal(group, REMOTE_QUEUE)));
+      assertEquals(1, count(CoreNotificationType.PROPOSAL));
+
+      // the owner answers the group was already bound elsewhere
+      SimpleString otherQueue = SimpleString.toSimpleString("queue.node3");
+      handler.proposed(new Response(group, REMOTE_QUEUE, otherQueue));
+      assertEquals(otherQueue, handler.getProposal(group, false).getChosenClusterName());
+
+      runTasks();
+      assertTrue(records.isEmpty());
+   }
+
+   @Test
+   public void testOwnerAnswersWithExistingBinding() throws Exception {
+      SimpleString group = SimpleString.toSimpleString("group");
+      SimpleString otherLocalQueue = SimpleString.toSimpleString("other.node1");
+      handler.onNotification(bindingAdded(otherLocalQueue, 0));
+      handler.addGroupBinding(new GroupBinding(1, group, LOCAL_QUEUE));
+
+      // proposed by another node to a queue it doesn't own
+      assertNull(handler.receive(new Proposal(SimpleString.toSimpleString("another"), REMOTE_QUEUE), 1));
+
+      Response response = handler.receive(new Proposal(group, otherLocalQueue), 1);
+      assertFalse(response.isAccepted());
+      assertEquals(LOCAL_QUEUE, response.getChosenClusterName());
+
+      handler.onNotification(new Notification(null, CoreNotificationType.BINDING_REMOVED, clusterName(LOCAL_QUEUE)));
+      runTasks();
+      assertNull(handler.getProposal(group, false));
+      assertEquals(1, count(CoreNotificationType.UNPROPOSAL));
+      assertEquals("delete group", records.get(0));
+   }
+
+   private void runTasks() {
+      while (!tasks.isEmpty()) {
+         tasks.remove(0).run();
+      }
+   }
+
+   private int count(CoreNotificationType type) {
+      int count = 0;
+      for (Notification notification : notifications) {
+         if (notification.getType() == type) {
+            count++;
+         }
+      }
+      return count;
+   }
+
+   private static Notification bindingAdded(SimpleString clusterName, int distance) {
+      TypedProperties props = clusterName(clusterName);
+      props.putIntProperty(ManagementHelper.HDR_DISTANCE, distance);
+      return new Notification(null, CoreNotificationType.BINDING_ADDED, props);
+   }
+
+   private static TypedProperties clusterName(SimpleString clusterName) {
+      TypedProperties props = new TypedProperties();
+      props.putSimpleStringProperty(ManagementHelper.HDR_CLUSTER_NAME, clusterName);
+      return props;
+   }
+
+   private final class FakeManagementService extends ManagementServiceImpl {
+
+      FakeManagementService() {
+         super(null, new ConfigurationImpl());
+      }
+
+      @Override
+      public void sendNotification(Notification notification) {
+         notifications.add(notification);
+      }
+   }
+
+   private final class FakeStorageManager extends NullStorageManager {
+
+      @Override
+      public void addGrouping(long tx, GroupBinding groupBinding) {
+         records.add("add " + groupBinding.getGroupId());
+      }
+
+      @Override
+      public void deleteGrouping(long tx, GroupBinding groupBinding) {
+         records.add("delete " + groupBinding.getGroupId());
+      }
+
+      @Override
+      public void commitBindings(long txID) {
+         records.add("commit");
+      }
+   }
+}
@@ -20,9 +20,11 @@ import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.config.WildcardConfiguration;
 import org.apache.activemq.artemis.core.security.Role;
 import org.apache.activemq.artemis.core.settings.impl.HierarchicalObjectRepository;
+import org.apache.activemq.artemis.core.settings.impl.Match;
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
 import org.junit.Assert;
 import org.junit.Before;
@@ -253,6 +255,58 @@ public class RepositoryTest extends ActiveMQTestBase {
       assertEquals(4, called.get());
    }
 
+   @Test
+   public void testMatchesSameAddressesAsPattern() {
+      String[] matches = {"#", "a", "a.#", "a#", "a.*", "*", "*.#", "a.*.c", "a.b.#", "a..b", "a.b*", "a.(b|c)", "a.b+", "", "a.*.*.#", "*.b"};
+      String[] addresses = {"", "a", "b", "a.", ".a", "a.b", "a.c", "a.b.c", "a.x.c", "a..b", "a..", "a.bb", "a.bc", "ab", "a.b.c.d", "x.b", "a.b.", "..", "."};
+      for (String match : matches) {
+         HierarchicalRepository<String> repository = new HierarchicalObjectRepository<>();
+         repository.addMatch(match, match);
+         Match<String> pattern = new Match<>(match, match, new WildcardConfiguration());
+         for (String address : addresses) {
+            Assert.assertEquals(match + " against " + address, pattern.getPattern().matcher(address).matches() ? match : null, repository.getMatch(address));
+         }
+      }
+   }
+
+   @Test
+   public void testMatchInvalidatesItsAddressesOnly() {
+      HierarchicalRepository<String> repository = new HierarchicalObjectRepository<>();
+      repository.addMatch("a.#", "a.#");
+      repository.addMatch("b.#", "b.#");
+      Assert.assertEquals("a.#", repository.getMatch("a.x"));
+      Assert.assertEquals("b.#", repository.getMatch("b.x"));
+      Assert.assertEquals(2, repository.getCacheSize());
+
+      repository.addMatch("a.y.#", "a.y.#");
+      Assert.assertEquals(2, repository.getCacheSize());
+
+      repository.addMatch("a.*", "a.*");
+      Assert.assertEquals(1, repository.getCacheSize());
+      Assert.assertEquals("a.*", repository.getMatch("a.x"));
+
+      repository.removeMatch("a.*");
+      Assert.assertEquals(1, repository.getCacheSize());
+      Assert.assertEquals("a.#", repository.getMatch("a.x"));
+      Assert.assertEquals("b.#", repository.getMatch("b.x"));
+   }
+
+   @Test
+   public void testSimpleStringMatch() {
+      HierarchicalRepository<String> repository = new HierarchicalObjectRepository<>();
+      repository.setDefault("default");
+      repository.addMatch("a.#", "a.#");
+      SimpleString address = SimpleString.toSimpleString("a.b");
+      Assert.assertEquals("a.#", repository.getMatch(address));
+      Assert.assertEquals("default", repository.getMatch(SimpleString.toSimpleString("b")));
+
+      repository.addMatch("a.b", "a.b");
+      Assert.assertEquals("a.b", repository.getMatch(address));
+
+      repository.removeMatch("a.b");
+      Assert.assertEquals("a.#", repository.getMatch(address));
+   }
+
    @Test
    public void testIllegalMatches() {
       HierarchicalRepository<String> repository = new HierarchicalObjectRepository<>();
@@ -551,6 +551,11 @@ public class TransactionImplTest extends ActiveMQTestBase {
 
       }
 
+      @Override
+      public void addGrouping(long tx, GroupBinding groupBinding) throws Exception {
+
+      }
+
       @Override
       public void deleteGrouping(long tx, GroupBinding groupBinding) throws Exception {
 
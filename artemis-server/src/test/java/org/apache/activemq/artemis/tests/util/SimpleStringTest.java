@@ -18,6 +18,8 @@ package org.apache.activemq.artemis.tests.util;
 
 import java.util.concurrent.CountDownLatch;
 
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.utils.DataConstants;
 import org.apache.activemq.artemis.utils.RandomUtil;
@@ -334,6 +336,69 @@ public class SimpleStringTest extends Assert {
       }
    }
 
+   @Test
+   public void testByteBufPool() {
+      SimpleString.ByteBufSimpleStringPool pool = new SimpleString.ByteBufSimpleStringPool(16, 4, 32);
+      SimpleString address = new SimpleString("some.address");
+      SimpleString longString = new SimpleString("a string too long to be pooled");
+
+      ByteBuf buffer = Unpooled.buffer();
+      for (int i = 0; i < 2; i++) {
+         SimpleString.writeNullableSimpleString(buffer, address);
+         SimpleString.writeSimpleString(buffer, longString);
+         SimpleString.writeNullableSimpleString(buffer, null);
+      }
+
+      SimpleString first = SimpleString.readNullableSimpleString(buffer, pool);
+      assertEquals(address, first);
+      assertEquals(address.hashCode(), first.hashCode());
+      SimpleString firstLong = SimpleString.readSimpleString(buffer, pool);
+      assertEquals(longString, firstLong);
+      assertNull(SimpleString.readNullableSimpleString(buffer, pool));
+
+      assertSame(first, SimpleString.readNullableSimpleString(buffer, pool));
+      SimpleString secondLong = SimpleString.readSimpleString(buffer, pool);
+      assertEquals(longString, secondLong);
+      assertNotSame(firstLong, secondLong);
+      assertNull(SimpleString.readNullableSimpleString(buffer, pool));
+      assertEquals(0, buffer.readableBytes());
+   }
+
+   @Test
+   public void testByteBufPoolCollisions() throws Exception {
+      // a tiny pool, shared by a few threads: every read must still give the right string
+      final SimpleString.ByteBufSimpleStringPool pool = new SimpleString.ByteBufSimpleStringPool(4, 2, 256);
+      final SimpleString[] strings = new SimpleString[100];
+      final ByteBuf buffer = Unpooled.buffer();
+      for (int i = 0; i < strings.length; i++) {
+         strings[i] = new SimpleString("queue." + i);
+         SimpleString.writeSimpleString(buffer, strings[i]);
+      }
+
+      final int nThreads = 4;
+      final boolean[] failed = new boolean[nThreads];
+      Thread[] threads = new Thread[nThreads];
+      for (int t = 0; t < nThreads; t++) {
+         final int thread = t;
+         threads[t] = new Thread(() -> {
+            for (int repeat = 0; repeat < 100; repeat++) {
+               ByteBuf read = buffer.duplicate();
+               for (SimpleString expected : strings) {
+                  if (!expected.equals(SimpleString.readSimpleString(read, pool))) {
+                     failed[thread] = true;
+                  }
+               }
+            }
+         });
+         threads[t].start();
+      }
+
+      for (int t = 0; t < nThreads; t++) {
+         threads[t].join();
+         assertFalse(failed[t]);
+      }
+   }
+
    @Test
    public void testMultithreadHashCode() throws Exception {
       for (int repeat = 0; repeat < 10; repeat++) {
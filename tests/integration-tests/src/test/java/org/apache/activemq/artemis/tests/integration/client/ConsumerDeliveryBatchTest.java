@@ -0,0 +1,192 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.client;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.Wait;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Delivery to consumers of a queue configured with a delivery-batch-size.
+ */
+public class ConsumerDeliveryBatchTest extends ActiveMQTestBase {
+
+   private static final SimpleString ADDRESS = new SimpleString("batchAddress");
+
+   private static final int BATCH_SIZE = 50;
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+
+      server = createServer(false);
+      server.getAddressSettingsRepository().addMatch(ADDRESS.toString(), new AddressSettings().setDeliveryBatchSize(BATCH_SIZE));
+      server.start();
+
+      locator = createInVMNonHALocator();
+   }
+
+   @Test
+   public void testBatchDoesNotExceedConsumerWindow() throws Exception {
+      final int numberOfMessages = BATCH_SIZE * 4;
+
+      locator.setConsumerWindowSize(1);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+      session.createQueue(ADDRESS, ADDRESS, false);
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+      for (int i = 0; i < numberOfMessages; i++) {
+         producer.send(createTextMessage(session, "m" + i, false));
+      }
+
+      Queue queue = server.locateQueue(ADDRESS);
+
+      ClientConsumer consumer = session.createConsumer(ADDRESS);
+      session.start();
+
+      // a window of one byte takes a single message until it is consumed, whatever the size of the batch
+      Assert.assertTrue(Wait.waitFor(() -> queue.getDeliveringCount() == 1, 5000, 10));
+      Assert.assertFalse(Wait.waitFor(() -> queue.getDeliveringCount() > 1, 500, 10));
+
+      for (int i = 0; i < numberOfMessages; i++) {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull("expected message " + i, message);
+         message.acknowledge();
+         Assert.assertTrue(queue.getDeliveringCount() <= 1);
+      }
+
+      Assert.assertNull(consumer.receiveImmediate());
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessageCount() == 0, 5000, 10));
+   }
+
+   @Test
+   public void testBatchKeepsOrder() throws Exception {
+      final int numberOfMessages = BATCH_SIZE * 20 + 7;
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+      session.createQueue(ADDRESS, ADDRESS, false);
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+      for (int i = 0; i < numberOfMessages / 2; i++) {
+         ClientMessage message = createTextMessage(session, "m" + i, false);
+         message.putIntProperty("i", i);
+         producer.send(message);
+      }
+
+      ClientConsumer consumer = session.createConsumer(ADDRESS);
+      session.start();
+
+      // half of the messages were queued before the consumer, the others are sent while it consumes
+      for (int i = numberOfMessages / 2; i < numberOfMessages; i++) {
+         ClientMessage message = createTextMessage(session, "m" + i, false);
+         message.putIntProperty("i", i);
+         producer.send(message);
+      }
+
+      for (int i = 0; i < numberOfMessages; i++) {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull("expected message " + i, message);
+         Assert.assertEquals(i, message.getIntProperty("i").intValue());
+         message.acknowledge();
+      }
+
+      Assert.assertNull(consumer.receiveImmediate());
+   }
+
+   @Test
+   public void testBatchKeepsGroupsOnTheirConsumer() throws Exception {
+      final int numberOfGroups = 4;
+      final int messagesPerGroup = BATCH_SIZE * 3;
+
+      locator.setConsumerWindowSize(10 * 1024);
+
+      ClientSessionFactory sf = createSessionFactory(locator);
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+      session.createQueue(ADDRESS, ADDRESS, false);
+
+      ClientSession session1 = addClientSession(sf.createSession(false, true, true));
+      ClientSession session2 = addClientSession(sf.createSession(false, true, true));
+      ClientConsumer[] consumers = new ClientConsumer[] {session1.createConsumer(ADDRESS), session2.createConsumer(ADDRESS)};
+      session1.start();
+      session2.start();
+
+      ClientProducer producer = session.createProducer(ADDRESS);
+      for (int i = 0; i < messagesPerGroup; i++) {
+         for (int group = 0; group < numberOfGroups; group++) {
+            ClientMessage message = createTextMessage(session, "m" + i, false);
+            message.putStringProperty(Message.HDR_GROUP_ID, new SimpleString("group" + group));
+            message.putIntProperty("i", i);
+            producer.send(message);
+         }
+      }
+
+      Map<SimpleString, Integer> groupConsumer = new HashMap<>();
+      Map<SimpleString, Integer> groupSequence = new HashMap<>();
+      int received = 0;
+
+      while (received < numberOfGroups * messagesPerGroup) {
+         boolean receivedAny = false;
+         for (int c = 0; c < consumers.length; c++) {
+            ClientMessage message;
+            while ((message = consumers[c].receive(100)) != null) {
+               SimpleString group = message.getSimpleStringProperty(Message.HDR_GROUP_ID);
+
+               Integer previousConsumer = groupConsumer.putIfAbsent(group, c);
+               Assert.assertTrue(group + " was delivered to more than one consumer", previousConsumer == null || previousConsumer == c);
+
+               int sequence = groupSequence.getOrDefault(group, 0);
+               Assert.assertEquals("out of order on " + group, sequence, message.getIntProperty("i").intValue());
+               groupSequence.put(group, sequence + 1);
+
+               message.acknowledge();
+               received++;
+               receivedAny = true;
+            }
+         }
+         Assert.assertTrue("received " + received + " messages only", receivedAny);
+      }
+
+      Assert.assertEquals(numberOfGroups, groupConsumer.size());
+      for (ClientConsumer consumer : consumers) {
+         Assert.assertNull(consumer.receiveImmediate());
+      }
+   }
+}
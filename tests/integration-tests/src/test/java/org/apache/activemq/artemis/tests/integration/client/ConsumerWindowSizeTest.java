@@ -86,6 +86,78 @@ public class ConsumerWindowSizeTest extends ActiveMQTestBase {
    }
 
    // https://jira.jboss.org/jira/browse/HORNETQ-385
+   @Test
+   public void testAdaptiveWindowBalancesSlowConsumer() throws Exception {
+      ActiveMQServer server = createServer(false, isNetty());
+
+      server.start();
+
+      int fixedShare = slowConsumerShare(false);
+      int adaptiveShare = slowConsumerShare(true);
+
+      // with a fixed window the slow consumer buffers its part of the messages, the fast consumer has to wait for it
+      Assert.assertTrue("fixed=" + fixedShare + ", adaptive=" + adaptiveShare, adaptiveShare * 2 < fixedShare);
+   }
+
+   private int slowConsumerShare(final boolean adaptive) throws Exception {
+      final int numberOfMessages = 100;
+
+      ServerLocator locator = createFactory(isNetty()).setAdaptiveConsumerWindow(adaptive);
+      ClientSessionFactory sf = createSessionFactory(locator);
+
+      ClientSession session = sf.createSession(false, true, true);
+      session.createQueue(addressA, queueA, false);
+
+      final CountDownLatch latch = new CountDownLatch(numberOfMessages);
+      final AtomicInteger slowReceived = new AtomicInteger(0);
+
+      ClientSession slowSession = addClientSession(sf.createSession(false, true, true));
+      slowSession.createConsumer(queueA).setMessageHandler(new MessageHandler() {
+         @Override
+         public void onMessage(ClientMessage message) {
+            try {
+               Thread.sleep(10);
+               message.acknowledge();
+            } catch (Exception e) {
+               e.printStackTrace();
+            }
+            slowReceived.incrementAndGet();
+            latch.countDown();
+         }
+      });
+      slowSession.start();
+
+      ClientSession fastSession = addClientSession(sf.createSession(false, true, true));
+      fastSession.createConsumer(queueA).setMessageHandler(new MessageHandler() {
+         @Override
+         public void onMessage(ClientMessage message) {
+            try {
+               message.acknowledge();
+            } catch (Exception e) {
+               e.printStackTrace();
+            }
+            latch.countDown();
+         }
+      });
+      fastSession.start();
+
+      ClientProducer producer = session.createProducer(addressA);
+      for (int i = 0; i < numberOfMessages; i++) {
+         producer.send(session.createMessage(false));
+      }
+
+      Assert.assertTrue(latch.await(TIMEOUT * 10, TimeUnit.SECONDS));
+
+      slowSession.close();
+      fastSession.close();
+      session.deleteQueue(queueA);
+      session.close();
+      sf.close();
+      locator.close();
+
+      return slowReceived.get();
+   }
+
    @Test
    public void testReceiveImmediateWithZeroWindow() throws Exception {
       ActiveMQServer server = createServer(false, isNetty());
@@ -69,6 +69,34 @@ public class MessageExpirationTest extends ActiveMQTestBase {
       session.deleteQueue(queue);
    }
 
+   @Test
+   public void testExpiryDelayChangedAfterRouting() throws Exception {
+      SimpleString address = RandomUtil.randomSimpleString();
+      SimpleString queue = RandomUtil.randomSimpleString();
+
+      session.createQueue(address, queue, false);
+
+      // durable messages so the sends block until the message is routed
+      ClientProducer producer = session.createProducer(address);
+      producer.send(session.createMessage(true));
+
+      // the settings of the address are resolved again for the messages routed after the change
+      server.getAddressSettingsRepository().addMatch(address.toString(), new AddressSettings().setExpiryDelay((long) MessageExpirationTest.EXPIRATION * 10));
+      producer.send(session.createMessage(true));
+
+      session.start();
+      ClientConsumer consumer = session.createConsumer(queue);
+      ClientMessage message = consumer.receive(5000);
+      assertNotNull(message);
+      assertEquals(0, message.getExpiration());
+      message = consumer.receive(5000);
+      assertNotNull(message);
+      assertTrue(message.getExpiration() > 0);
+
+      consumer.close();
+      session.deleteQueue(queue);
+   }
+
    @Test
    public void testMessageExpiredWithoutExpiryAddressWithExpiryDelayOverride() throws Exception {
       SimpleString address = RandomUtil.randomSimpleString();
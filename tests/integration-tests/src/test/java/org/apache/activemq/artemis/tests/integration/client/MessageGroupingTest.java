@@ -19,6 +19,8 @@ package org.apache.activemq.artemis.tests.integration.client;
 import javax.transaction.xa.XAResource;
 import javax.transaction.xa.Xid;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
@@ -35,6 +37,7 @@ import org.apache.activemq.artemis.api.core.client.ServerLocator;
 import org.apache.activemq.artemis.core.config.Configuration;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.ActiveMQServers;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.core.transaction.impl.XidImpl;
 import org.apache.activemq.artemis.tests.integration.IntegrationTestLogger;
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
@@ -139,6 +142,63 @@ public class MessageGroupingTest extends ActiveMQTestBase {
       }
    }
 
+   @Test
+   public void testRebalanceGroupBuckets() throws Exception {
+      SimpleString bucketsQueue = new SimpleString("MessageGroupingTestBucketsQueue");
+      server.getAddressSettingsRepository().addMatch(bucketsQueue.toString(), new AddressSettings().setGroupBuckets(16).setGroupRebalance(true));
+
+      ClientSession session = addClientSession(clientSessionFactory.createSession(true, true, 0));
+      session.createQueue(bucketsQueue, bucketsQueue, null, false);
+      ClientProducer producer = session.createProducer(bucketsQueue);
+      ClientConsumer consumer1 = session.createConsumer(bucketsQueue);
+      session.start();
+
+      int groups = 20;
+      ArrayList<ClientMessage> unacknowledged = new ArrayList<>();
+      for (int group = 0; group < groups; group++) {
+         ClientMessage message = session.createMessage(false);
+         message.putStringProperty(Message.HDR_GROUP_ID, new SimpleString("group" + group));
+         producer.send(message);
+         ClientMessage received = consumer1.receive(5000);
+         Assert.assertNotNull(received);
+         unacknowledged.add(received);
+      }
+
+      ClientConsumer consumer2 = session.createConsumer(bucketsQueue);
+      for (int group = 0; group < groups; group++) {
+         ClientMessage message = session.createMessage(false);
+         message.putStringProperty(Message.HDR_GROUP_ID, new SimpleString("group" + group));
+         producer.send(message);
+      }
+
+      // the buckets moving to the new consumer wait for the first consumer to acknowledge their messages
+      Set<SimpleString> firstConsumerGroups = new HashSet<>();
+      ClientMessage message;
+      while ((message = consumer1.receive(500)) != null) {
+         firstConsumerGroups.add(message.getSimpleStringProperty(Message.HDR_GROUP_ID));
+         unacknowledged.add(message);
+      }
+      Assert.assertNull(consumer2.receiveImmediate());
+      Assert.assertTrue(firstConsumerGroups.size() < groups);
+
+      for (ClientMessage received : unacknowledged) {
+         received.acknowledge();
+      }
+
+      Set<SimpleString> secondConsumerGroups = new HashSet<>();
+      while ((message = consumer2.receive(1000)) != null) {
+         secondConsumerGroups.add(message.getSimpleStringProperty(Message.HDR_GROUP_ID));
+         message.acknowledge();
+      }
+      Assert.assertEquals(groups, firstConsumerGroups.size() + secondConsumerGroups.size());
+      for (SimpleString group : secondConsumerGroups) {
+         Assert.assertFalse(firstConsumerGroups.contains(group));
+      }
+
+      consumer1.close();
+      consumer2.close();
+   }
+
    private void doTestBasicGrouping() throws Exception {
       ClientProducer clientProducer = clientSession.createProducer(qName);
       ClientConsumer consumer = clientSession.createConsumer(qName);
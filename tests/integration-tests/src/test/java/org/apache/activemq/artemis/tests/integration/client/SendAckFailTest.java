@@ -632,6 +632,11 @@ public class SendAckFailTest extends ActiveMQTestBase {
          manager.addGrouping(groupBinding);
       }
 
+      @Override
+      public void addGrouping(long tx, GroupBinding groupBinding) throws Exception {
+         manager.addGrouping(tx, groupBinding);
+      }
+
       @Override
       public void deleteGrouping(long tx, GroupBinding groupBinding) throws Exception {
          manager.deleteGrouping(tx, groupBinding);
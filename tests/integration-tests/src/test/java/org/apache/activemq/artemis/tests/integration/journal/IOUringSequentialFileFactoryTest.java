@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.journal;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+
+import org.apache.activemq.artemis.core.io.SequentialFile;
+import org.apache.activemq.artemis.core.io.SequentialFileFactory;
+import org.apache.activemq.artemis.core.io.uring.IOUringSequentialFileFactory;
+import org.apache.activemq.artemis.tests.unit.core.journal.impl.SequentialFileFactoryTestBase;
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class IOUringSequentialFileFactoryTest extends SequentialFileFactoryTestBase {
+
+   @BeforeClass
+   public static void hasIOUring() {
+      org.junit.Assume.assumeTrue("Test case needs io_uring to run", IOUringSequentialFileFactory.isSupported());
+   }
+
+   protected boolean isDirect() {
+      return false;
+   }
+
+   @Override
+   protected SequentialFileFactory createFactory(String folder) {
+      return new IOUringSequentialFileFactory(new File(folder), 10).setDirect(isDirect());
+   }
+
+   @Test
+   public void testBuffer() throws Exception {
+      SequentialFile file = factory.createSequentialFile("filtetmp.log");
+      file.open();
+      ByteBuffer buff = factory.newBuffer(10);
+      Assert.assertEquals(factory.getAlignment(), buff.limit());
+      file.close();
+      factory.releaseBuffer(buff);
+   }
+
+   @Test
+   public void testSyncedWriteAndRead() throws Exception {
+      factory.setDatasync(true);
+      SequentialFile file = factory.createSequentialFile("synced.log");
+      file.open();
+      file.fill(factory.getAlignment() * 2);
+
+      ByteBuffer write = factory.newBuffer(factory.getAlignment());
+      for (int i = 0; i < write.limit(); i++) {
+         write.put((byte) 'u');
+      }
+      write.rewind();
+      // linked to a fdatasync, it only returns once the data is synced
+      file.writeDirect(write, true);
+      file.sync();
+      file.close();
+
+      file.open();
+      ByteBuffer read = factory.newBuffer(factory.getAlignment());
+      file.read(read);
+      read.rewind();
+      for (int i = 0; i < read.limit(); i++) {
+         Assert.assertEquals((byte) 'u', read.get());
+      }
+      file.close();
+      factory.releaseBuffer(read);
+   }
+}
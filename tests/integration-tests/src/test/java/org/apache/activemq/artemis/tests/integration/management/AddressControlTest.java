@@ -258,6 +258,9 @@ public class AddressControlTest extends ManagementTestBase {
       System.out.println("Address size=" + addressControl.getAddressSize());
 
       Assert.assertEquals(serverQueue.getPageSubscription().getPagingStore().getAddressSize(), addressControl.getAddressSize());
+
+      // this is the only address holding messages
+      Assert.assertEquals(100d, addressControl.getAddressMemoryShare(), 0.01);
    }
 
    @Test
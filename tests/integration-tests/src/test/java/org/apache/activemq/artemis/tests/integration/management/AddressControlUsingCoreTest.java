@@ -68,6 +68,11 @@ public class AddressControlUsingCoreTest extends AddressControlTest {
             return (long) proxy.retrieveAttributeValue("addressSize");
          }
 
+         @Override
+         public double getAddressMemoryShare() throws Exception {
+            return (double) proxy.retrieveAttributeValue("addressMemoryShare", Double.class);
+         }
+
          @Override
          public long getNumberOfMessages() throws Exception {
             return (long) proxy.retrieveAttributeValue("numberOfMessages");
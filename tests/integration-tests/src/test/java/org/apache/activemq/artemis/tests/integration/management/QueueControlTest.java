@@ -828,6 +828,80 @@ public class QueueControlTest extends ManagementTestBase {
       session.deleteQueue(queue);
    }
 
+   @Test
+   public void testListMessagesAsJSONWithOffset() throws Exception {
+      SimpleString key = new SimpleString("key");
+      SimpleString address = RandomUtil.randomSimpleString();
+      SimpleString queue = RandomUtil.randomSimpleString();
+
+      session.createQueue(address, queue, null, false);
+      QueueControl queueControl = createManagementControl(address, queue);
+
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 10; i++) {
+         ClientMessage message = session.createMessage(false);
+         message.putIntProperty(key, i);
+         message.putBooleanProperty("even", i % 2 == 0);
+         producer.send(message);
+      }
+
+      JsonArray array = JsonUtil.readJsonArray(queueControl.listMessagesAsJSON(null, 3, 4));
+      Assert.assertEquals(4, array.size());
+      for (int i = 0; i < 4; i++) {
+         Assert.assertEquals(3 + i, array.getJsonObject(i).getInt("key"));
+      }
+
+      array = JsonUtil.readJsonArray(queueControl.listMessagesAsJSON(null, 8, 4));
+      Assert.assertEquals(2, array.size());
+
+      // the offset counts matching messages only
+      array = JsonUtil.readJsonArray(queueControl.listMessagesAsJSON("even = true", 2, 10));
+      Assert.assertEquals(3, array.size());
+      Assert.assertEquals(4, array.getJsonObject(0).getInt("key"));
+
+      // never more than management-browse-page-size
+      server.getAddressSettingsRepository().addMatch(address.toString(), new AddressSettings().setManagementBrowsePageSize(2));
+      Assert.assertEquals(2, JsonUtil.readJsonArray(queueControl.listMessagesAsJSON(null, 0, 10)).size());
+      Assert.assertEquals(2, queueControl.browse(null, 0, 10).length);
+
+      // at least one message is returned even if it is larger than management-browse-max-bytes
+      server.getAddressSettingsRepository().addMatch(address.toString(), new AddressSettings().setManagementBrowseMaxBytes(1));
+      Assert.assertEquals(1, JsonUtil.readJsonArray(queueControl.listMessagesAsJSON(null, 5, 10)).size());
+
+      consumeMessages(10, session, queue);
+
+      session.deleteQueue(queue);
+   }
+
+   @Test
+   public void testBrowseWithOffset() throws Exception {
+      SimpleString key = new SimpleString("key");
+      SimpleString address = RandomUtil.randomSimpleString();
+      SimpleString queue = RandomUtil.randomSimpleString();
+
+      session.createQueue(address, queue, null, false);
+      QueueControl queueControl = createManagementControl(address, queue);
+
+      ClientProducer producer = session.createProducer(address);
+      for (int i = 0; i < 10; i++) {
+         ClientMessage message = session.createMessage(false);
+         message.putIntProperty(key, i);
+         producer.send(message);
+      }
+
+      CompositeData[] browse = queueControl.browse(null, 6, 3);
+      Assert.assertEquals(3, browse.length);
+
+      browse = queueControl.browse(null, 9, 3);
+      Assert.assertEquals(1, browse.length);
+
+      Assert.assertEquals(0, queueControl.browse(null, 10, 3).length);
+
+      consumeMessages(10, session, queue);
+
+      session.deleteQueue(queue);
+   }
+
    /**
     * Test retry - get a message from DLQ and put on original queue.
     */
@@ -240,6 +240,11 @@ public class QueueControlUsingCoreTest extends QueueControlTest {
             return (String) proxy.invokeOperation("listMessagesAsJSON", filter);
          }
 
+         @Override
+         public String listMessagesAsJSON(final String filter, final long offset, final int limit) throws Exception {
+            return (String) proxy.invokeOperation("listMessagesAsJSON", filter, offset, limit);
+         }
+
          @Override
          public Map<String, Object>[] listScheduledMessages() throws Exception {
             Object[] res = (Object[]) proxy.invokeOperation("listScheduledMessages");
@@ -391,6 +396,16 @@ public class QueueControlUsingCoreTest extends QueueControlTest {
             return compositeDatas;
          }
 
+         @Override
+         public CompositeData[] browse(String filter, long offset, int limit) throws Exception {
+            Map map = (Map) proxy.invokeOperation("browse", filter, offset, limit);
+            CompositeData[] compositeDatas = (CompositeData[]) map.get(CompositeData.class.getName());
+            if (compositeDatas == null) {
+               compositeDatas = new CompositeData[0];
+            }
+            return compositeDatas;
+         }
+
          @Override
          public String listConsumersAsJSON() throws Exception {
             return (String) proxy.invokeOperation("listConsumersAsJSON");
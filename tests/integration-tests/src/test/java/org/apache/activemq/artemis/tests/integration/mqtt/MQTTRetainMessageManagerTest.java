@@ -0,0 +1,135 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.mqtt;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTRetainMessageManager;
+import org.apache.activemq.artemis.core.protocol.mqtt.MQTTUtil;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+import org.apache.activemq.artemis.core.transaction.impl.TransactionImpl;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.Wait;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MQTTRetainMessageManagerTest extends ActiveMQTestBase {
+
+   private ActiveMQServer server;
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+
+      server = createServer(true);
+      server.start();
+   }
+
+   @Test
+   public void testRetainedMessagesReloaded() throws Exception {
+      MQTTRetainMessageManager manager = new MQTTRetainMessageManager(server);
+
+      retain(manager, "sport/tennis", false, 0);
+      retain(manager, "sport/tennis", false, 0);
+      retain(manager, "sport/football", false, 0);
+
+      Assert.assertEquals(2, manager.getRetainedMessageCount());
+
+      // the last value queue keeps one message per topic
+      Queue retainQueue = server.locateQueue(MQTTUtil.MQTT_RETAIN_STORE_ADDRESS);
+      Assert.assertTrue(Wait.waitFor(() -> retainQueue.getMessageCount() == 2));
+
+      server.stop();
+      server.start();
+
+      manager = new MQTTRetainMessageManager(server);
+
+      Queue subscription = createSubscription("sport");
+      manager.addRetainedMessagesToQueue(subscription, "sport/#");
+
+      Assert.assertEquals(2, manager.getRetainedMessageCount());
+      Assert.assertTrue(Wait.waitFor(() -> subscription.getMessageCount() == 2));
+   }
+
+   @Test
+   public void testClearedTopicRemovedFromStorage() throws Exception {
+      MQTTRetainMessageManager manager = new MQTTRetainMessageManager(server);
+
+      retain(manager, "sport/tennis", false, 0);
+      retain(manager, "sport/football", false, 0);
+      retain(manager, "sport/tennis", true, 0);
+
+      Assert.assertEquals(1, manager.getRetainedMessageCount());
+
+      // the tombstone is deleted once it replaced the retained message
+      Queue retainQueue = server.locateQueue(MQTTUtil.MQTT_RETAIN_STORE_ADDRESS);
+      Assert.assertTrue(Wait.waitFor(() -> retainQueue.getMessageCount() == 1));
+
+      server.stop();
+      server.start();
+
+      manager = new MQTTRetainMessageManager(server);
+
+      Queue subscription = createSubscription("tennis");
+      manager.addRetainedMessagesToQueue(subscription, "sport/tennis");
+
+      Assert.assertEquals(1, manager.getRetainedMessageCount());
+      Assert.assertEquals(1, server.locateQueue(MQTTUtil.MQTT_RETAIN_STORE_ADDRESS).getMessageCount());
+      Assert.assertEquals(0, subscription.getMessageCount());
+   }
+
+   @Test
+   public void testExpiredMessagesPruned() throws Exception {
+      MQTTRetainMessageManager manager = new MQTTRetainMessageManager(server);
+
+      retain(manager, "sport/tennis", false, System.currentTimeMillis() + 500);
+      retain(manager, "sport/football", false, 0);
+
+      Assert.assertEquals(2, manager.getRetainedMessageCount());
+
+      Thread.sleep(600);
+
+      Queue subscription = createSubscription("sport");
+      manager.addRetainedMessagesToQueue(subscription, "sport/#");
+
+      Assert.assertEquals(1, manager.getRetainedMessageCount());
+      Assert.assertTrue(Wait.waitFor(() -> subscription.getMessageCount() == 1));
+   }
+
+   private Queue createSubscription(String name) throws Exception {
+      SimpleString queueName = SimpleString.toSimpleString(name);
+      return server.createQueue(queueName, queueName, null, true, false);
+   }
+
+   private void retain(MQTTRetainMessageManager manager, String topic, boolean reset, long expiration) throws Exception {
+      CoreMessage message = new CoreMessage(server.getStorageManager().generateID(), 50);
+      message.setAddress(topic);
+      message.setDurable(true);
+      message.setExpiration(expiration);
+      if (!reset) {
+         message.getBodyBuffer().writeString(topic);
+      }
+
+      Transaction tx = new TransactionImpl(server.getStorageManager());
+      manager.handleRetainedMessage(message, topic, reset, tx);
+      tx.commit();
+   }
+}
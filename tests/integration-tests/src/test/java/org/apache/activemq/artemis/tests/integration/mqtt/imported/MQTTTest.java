@@ -648,6 +648,47 @@ public class MQTTTest extends MQTTTestSupport {
       }
    }
 
+   @Test(timeout = 120 * 1000)
+   public void testRetainedMessageAcrossAcceptors() throws Exception {
+      final int otherPort = 1884;
+      final String TOPIC = "TopicA";
+
+      // the server is restarted with a second acceptor, the retained messages are shared by both
+      getServer().stop();
+      getServer().getConfiguration().addAcceptorConfiguration("MQTT2", "tcp://localhost:" + otherPort + "?protocols=MQTT");
+      getServer().start();
+      getServer().waitForActivation(10, TimeUnit.SECONDS);
+
+      MQTT mqtt = createMQTTConnection("client", true);
+      MQTT otherMqtt = createMQTTConnection("otherClient", true);
+      otherMqtt.setHost("localhost", otherPort);
+
+      BlockingConnection connection = mqtt.blockingConnection();
+      connection.connect();
+      BlockingConnection otherConnection = otherMqtt.blockingConnection();
+      otherConnection.connect();
+      try {
+         connection.publish(TOPIC, "first".getBytes(), QoS.EXACTLY_ONCE, true);
+         otherConnection.subscribe(new Topic[]{new Topic(TOPIC, QoS.AT_LEAST_ONCE)});
+         Message msg = otherConnection.receive(5000, TimeUnit.MILLISECONDS);
+         assertNotNull("No retained message published through the other acceptor", msg);
+         assertEquals("first", new String(msg.getPayload()));
+         msg.ack();
+         otherConnection.unsubscribe(new String[]{TOPIC});
+
+         otherConnection.publish(TOPIC, "second".getBytes(), QoS.EXACTLY_ONCE, true);
+         connection.subscribe(new Topic[]{new Topic(TOPIC, QoS.AT_LEAST_ONCE)});
+         msg = connection.receive(5000, TimeUnit.MILLISECONDS);
+         assertNotNull("No retained message published through the other acceptor", msg);
+         assertEquals("second", new String(msg.getPayload()));
+         msg.ack();
+         assertNull(connection.receive(500, TimeUnit.MILLISECONDS));
+      } finally {
+         connection.disconnect();
+         otherConnection.disconnect();
+      }
+   }
+
    @Ignore
    @Test(timeout = 120 * 1000)
    public void testRetainedMessageOnVirtualTopics() throws Exception {
@@ -0,0 +1,210 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.openwire;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.MapMessage;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageProducer;
+import javax.jms.Queue;
+import javax.jms.Session;
+import javax.jms.TextMessage;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.ActiveMQConnection;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.TransportConfiguration;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.protocol.openwire.OpenwireMessage;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.tests.util.Wait;
+import org.apache.activemq.artemis.utils.collections.LinkedListIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+public class OpenWireNativeMessageTest extends BasicOpenWireTest {
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      this.realStore = true;
+      super.setUp();
+   }
+
+   @Override
+   protected void extraServerConfig(Configuration serverConfig) {
+      Map<String, Object> extraParams = new HashMap<>();
+      extraParams.put("nativeMessageStorage", "true");
+      serverConfig.getAcceptorConfigurations().removeIf(acceptor -> acceptor.getFactoryClassName().equals(NETTY_ACCEPTOR_FACTORY));
+      serverConfig.addAcceptorConfiguration(new TransportConfiguration(NETTY_ACCEPTOR_FACTORY, new HashMap<String, Object>(), "netty", extraParams));
+   }
+
+   @Test
+   public void testTextMessageWithProperties() throws Exception {
+      connection.start();
+      Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      Queue queue = session.createQueue(queueName);
+
+      MessageProducer producer = session.createProducer(queue);
+      TextMessage message = session.createTextMessage("hello");
+      message.setStringProperty("color", "red");
+      message.setIntProperty("count", 10);
+      message.setJMSType("greeting");
+      message.setJMSCorrelationID("correlation");
+      producer.send(message);
+
+      assertTrue(Wait.waitFor(() -> getMessageCount(queueName) == 1));
+      OpenwireMessage stored = firstMessage(queueName);
+      assertEquals("red", stored.getStringProperty("color"));
+      assertEquals(Integer.valueOf(10), stored.getIntProperty("count"));
+      assertEquals("greeting", stored.getStringProperty("JMSType"));
+      assertEquals("correlation", stored.getStringProperty("JMSCorrelationID"));
+
+      MessageConsumer consumer = session.createConsumer(queue);
+      TextMessage received = (TextMessage) consumer.receive(5000);
+      assertNotNull(received);
+      assertEquals("hello", received.getText());
+      assertEquals("red", received.getStringProperty("color"));
+      assertEquals(10, received.getIntProperty("count"));
+      assertEquals("greeting", received.getJMSType());
+      assertEquals("correlation", received.getJMSCorrelationID());
+      assertEquals(message.getJMSMessageID(), received.getJMSMessageID());
+      assertFalse(received.getJMSRedelivered());
+   }
+
+   @Test
+   public void testSelector() throws Exception {
+      connection.start();
+      Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      Queue queue = session.createQueue(queueName);
+
+      MessageProducer producer = session.createProducer(queue);
+      for (int i = 0; i < 10; i++) {
+         TextMessage message = session.createTextMessage("message " + i);
+         message.setStringProperty("color", i % 2 == 0 ? "red" : "blue");
+         producer.send(message);
+      }
+
+      MessageConsumer consumer = session.createConsumer(queue, "color = 'red'");
+      for (int i = 0; i < 10; i += 2) {
+         TextMessage received = (TextMessage) consumer.receive(5000);
+         assertNotNull(received);
+         assertEquals("message " + i, received.getText());
+      }
+      assertNull(consumer.receiveNoWait());
+   }
+
+   @Test
+   public void testCompressedMessage() throws Exception {
+      connection.setUseCompression(true);
+      connection.start();
+      Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      Queue queue = session.createQueue(queueName);
+
+      StringBuilder text = new StringBuilder();
+      for (int i = 0; i < 1000; i++) {
+         text.append("compress me ");
+      }
+
+      MessageProducer producer = session.createProducer(queue);
+      producer.send(session.createTextMessage(text.toString()));
+
+      MessageConsumer consumer = session.createConsumer(queue);
+      TextMessage received = (TextMessage) consumer.receive(5000);
+      assertNotNull(received);
+      assertEquals(text.toString(), received.getText());
+   }
+
+   @Test
+   public void testCoreConsumer() throws Exception {
+      connection.start();
+      Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      Queue queue = session.createQueue(queueName);
+
+      MessageProducer producer = session.createProducer(queue);
+      TextMessage message = session.createTextMessage("hello core");
+      message.setStringProperty("color", "red");
+      producer.send(message);
+
+      try (Connection coreConnection = coreCf.createConnection()) {
+         coreConnection.start();
+         Session coreSession = coreConnection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+         MessageConsumer consumer = coreSession.createConsumer(coreSession.createQueue(queueName));
+         TextMessage received = (TextMessage) consumer.receive(5000);
+         assertNotNull(received);
+         assertEquals("hello core", received.getText());
+         assertEquals("red", received.getStringProperty("color"));
+      }
+   }
+
+   @Test
+   public void testDurableMessagesAfterRestart() throws Exception {
+      connection.start();
+      Session session = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+      Queue queue = session.createQueue(durableQueueName);
+
+      MessageProducer producer = session.createProducer(queue);
+      producer.setDeliveryMode(DeliveryMode.PERSISTENT);
+      BytesMessage bytesMessage = session.createBytesMessage();
+      bytesMessage.writeBytes(new byte[]{1, 2, 3});
+      bytesMessage.setStringProperty("kind", "bytes");
+      producer.send(bytesMessage);
+
+      MapMessage mapMessage = session.createMapMessage();
+      mapMessage.setString("key", "value");
+      mapMessage.setLong("number", 42L);
+      producer.send(mapMessage, DeliveryMode.PERSISTENT, 7, 0);
+      connection.close();
+
+      server.stop();
+      server.start();
+
+      assertTrue(Wait.waitFor(() -> getMessageCount(durableQueueName) == 2));
+      assertEquals("bytes", firstMessage(durableQueueName).getStringProperty("kind"));
+
+      try (ActiveMQConnection restarted = (ActiveMQConnection) factory.createConnection()) {
+         restarted.start();
+         session = restarted.createSession(false, Session.AUTO_ACKNOWLEDGE);
+         MessageConsumer consumer = session.createConsumer(session.createQueue(durableQueueName));
+
+         BytesMessage receivedBytes = (BytesMessage) consumer.receive(5000);
+         assertNotNull(receivedBytes);
+         assertEquals("bytes", receivedBytes.getStringProperty("kind"));
+         assertEquals(3, receivedBytes.getBodyLength());
+         assertEquals(DeliveryMode.PERSISTENT, receivedBytes.getJMSDeliveryMode());
+
+         MapMessage receivedMap = (MapMessage) consumer.receive(5000);
+         assertNotNull(receivedMap);
+         assertEquals("value", receivedMap.getString("key"));
+         assertEquals(42L, receivedMap.getLong("number"));
+         assertEquals(7, receivedMap.getJMSPriority());
+      }
+   }
+
+   private long getMessageCount(String queue) {
+      return server.locateQueue(new SimpleString(queue)).getMessageCount();
+   }
+
+   private OpenwireMessage firstMessage(String queue) {
+      try (LinkedListIterator<MessageReference> iterator = server.locateQueue(new SimpleString(queue)).browserIterator()) {
+         return (OpenwireMessage) iterator.next().getMessage();
+      }
+   }
+}
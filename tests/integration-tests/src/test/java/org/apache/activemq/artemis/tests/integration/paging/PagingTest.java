@@ -796,6 +796,85 @@ public class PagingTest extends ActiveMQTestBase {
       server.stop();
    }
 
+   @Test
+   public void testPageAcksRestart() throws Exception {
+      internalTestPageAcksRestart(false);
+   }
+
+   @Test
+   public void testCompactPageAcksRestart() throws Exception {
+      internalTestPageAcksRestart(true);
+   }
+
+   private void internalTestPageAcksRestart(final boolean compact) throws Exception {
+      clearDataRecreateServerDirs();
+
+      Configuration config = createDefaultInVMConfig().setJournalCompactMinFiles(0).setJournalCompactPageAcks(compact);
+
+      server = createServer(true, config, PagingTest.PAGE_SIZE, PagingTest.PAGE_MAX);
+
+      server.start();
+
+      final int numberOfMessages = 20;
+      final int acked = 5;
+
+      locator = createInVMNonHALocator().setBlockOnDurableSend(true).setBlockOnAcknowledge(true).setAckBatchSize(0);
+
+      sf = createSessionFactory(locator);
+
+      ClientSession session = sf.createSession(false, true, true);
+
+      session.createQueue(PagingTest.ADDRESS, PagingTest.ADDRESS, null, true);
+
+      server.getPagingManager().getPageStore(PagingTest.ADDRESS).startPaging();
+
+      ClientProducer producer = session.createProducer(PagingTest.ADDRESS);
+
+      for (int i = 0; i < numberOfMessages; i++) {
+         ClientMessage message = session.createMessage(true);
+         message.putIntProperty("id", i);
+         producer.send(message);
+      }
+
+      ClientConsumer consumer = session.createConsumer(PagingTest.ADDRESS);
+      session.start();
+
+      for (int i = 0; i < acked; i++) {
+         ClientMessage message = consumer.receive(5000);
+         assertNotNull(message);
+         assertEquals(i, message.getIntProperty("id").intValue());
+         message.acknowledge();
+      }
+
+      session.close();
+      sf.close();
+      server.stop();
+
+      // the page is not complete, its acks are still in the journal
+      HashMap<Integer, AtomicInteger> recordsType = countJournal(config);
+      byte ackRecord = compact ? JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT : JournalRecordIds.ACKNOWLEDGE_CURSOR;
+      byte otherAckRecord = compact ? JournalRecordIds.ACKNOWLEDGE_CURSOR : JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT;
+      assertEquals(acked, recordsType.get(new Integer(ackRecord)).get());
+      assertNull(recordsType.get(new Integer(otherAckRecord)));
+
+      server.start();
+
+      sf = createSessionFactory(locator);
+      session = sf.createSession(false, true, true);
+      consumer = session.createConsumer(PagingTest.ADDRESS);
+      session.start();
+
+      for (int i = acked; i < numberOfMessages; i++) {
+         ClientMessage message = consumer.receive(5000);
+         assertNotNull(message);
+         assertEquals(i, message.getIntProperty("id").intValue());
+         message.acknowledge();
+      }
+      assertNull(consumer.receiveImmediate());
+
+      session.close();
+   }
+
    @Test
    public void testDeleteQueueRestart() throws Exception {
       clearDataRecreateServerDirs();
@@ -885,6 +964,7 @@ public class PagingTest extends ActiveMQTestBase {
       }
 
       assertNull("The system is acking page records instead of just delete data", recordsType.get(new Integer(JournalRecordIds.ACKNOWLEDGE_CURSOR)));
+      assertNull("The system is acking page records instead of just delete data", recordsType.get(new Integer(JournalRecordIds.ACKNOWLEDGE_CURSOR_COMPACT)));
 
       Pair<List<RecordInfo>, List<PreparedTransactionInfo>> journalData = loadMessageJournal(config);
 
@@ -27,6 +27,7 @@ import org.apache.activemq.artemis.api.core.client.ServerLocator;
 import org.apache.activemq.artemis.core.server.ActiveMQServer;
 import org.apache.activemq.artemis.core.server.ActiveMQServers;
 import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
 import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
 import org.apache.activemq.artemis.tests.util.Wait;
@@ -618,6 +619,62 @@ public class LVQTest extends ActiveMQTestBase {
       clientSessionTxReceives.commit();
    }
 
+   @Test
+   public void testReplacedMessagesAcknowledged() throws Exception {
+      ClientProducer producer = clientSession.createProducer(address);
+      SimpleString rh = new SimpleString("SMID1");
+      for (int i = 0; i < 100; i++) {
+         ClientMessage m = createTextMessage(clientSession, "m" + i);
+         m.putStringProperty(Message.HDR_LAST_VALUE_NAME, rh);
+         m.setDurable(true);
+         producer.send(m);
+      }
+      Queue queue = server.locateQueue(qName1);
+      Assert.assertEquals(1, getMessageCount(queue));
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessagesAcknowledged() == 99, 5000, 10));
+
+      server.stop();
+      server.start();
+
+      ClientSessionFactory sf = createSessionFactory(createNettyNonHALocator());
+      ClientSession session = addClientSession(sf.createSession(false, true, true));
+      ClientConsumer consumer = session.createConsumer(qName1);
+      session.start();
+      ClientMessage m = consumer.receive(5000);
+      Assert.assertNotNull(m);
+      m.acknowledge();
+      Assert.assertEquals("m99", m.getBodyBuffer().readString());
+      Assert.assertNull(consumer.receiveImmediate());
+   }
+
+   @Test
+   public void testLastValuesWhilePaging() throws Exception {
+      SimpleString pagedAddress = new SimpleString("LVQTestPagedAddress");
+      server.getAddressSettingsRepository().addMatch(pagedAddress.toString(), new AddressSettings().setLastValueQueue(true).setMaxSizeBytes(20 * 1024).setPageSizeBytes(10 * 1024).setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE));
+      clientSession.createQueue(pagedAddress, pagedAddress, null, true);
+
+      ClientProducer producer = clientSession.createProducer(pagedAddress);
+      for (int i = 0; i < 500; i++) {
+         ClientMessage m = createTextMessage(clientSession, "m" + i);
+         m.putStringProperty(Message.HDR_LAST_VALUE_NAME, new SimpleString("SMID" + i % 2));
+         m.setDurable(true);
+         producer.send(m);
+      }
+      Assert.assertTrue(server.getPagingManager().getPageStore(pagedAddress).isPaging());
+
+      ClientConsumer consumer = clientSession.createConsumer(pagedAddress);
+      clientSession.start();
+      ClientMessage m = consumer.receive(5000);
+      Assert.assertNotNull(m);
+      m.acknowledge();
+      Assert.assertEquals("m498", m.getBodyBuffer().readString());
+      m = consumer.receive(5000);
+      Assert.assertNotNull(m);
+      m.acknowledge();
+      Assert.assertEquals("m499", m.getBodyBuffer().readString());
+      Assert.assertNull(consumer.receiveImmediate());
+   }
+
    @Test
    public void testLargeMessage() throws Exception {
       ClientProducer producer = clientSessionTxReceives.createProducer(address);
@@ -0,0 +1,231 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.integration.server;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.impl.PartitionedQueue;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.tests.util.Wait;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PartitionedQueueTest extends ActiveMQTestBase {
+
+   private static final int PARTITIONS = 4;
+
+   private ActiveMQServer server;
+
+   private ServerLocator locator;
+
+   private ClientSessionFactory sf;
+
+   private ClientSession clientSession;
+
+   private final SimpleString address = new SimpleString("PartitionedQueueTestAddress");
+
+   private final SimpleString qName = new SimpleString("PartitionedQueueTestQ");
+
+   private final SimpleString pagingAddress = new SimpleString("PartitionedQueueTestPagingAddress");
+
+   @Test
+   public void testQueueIsPartitioned() throws Exception {
+      Queue queue = server.locateQueue(qName);
+      Assert.assertTrue(queue instanceof PartitionedQueue);
+      Assert.assertEquals(PARTITIONS, ((PartitionedQueue) queue).getPartitionCount());
+   }
+
+   @Test
+   public void testGroupOrdering() throws Exception {
+      final int groups = 5;
+      final int messages = 200;
+
+      ClientProducer producer = clientSession.createProducer(address);
+      for (int i = 0; i < messages; i++) {
+         ClientMessage message = createTextMessage(clientSession, "m" + i);
+         message.putStringProperty(ClientMessage.HDR_GROUP_ID, new SimpleString("group" + (i % groups)));
+         message.putIntProperty("sequence", i / groups);
+         producer.send(message);
+      }
+
+      ClientConsumer consumer1 = clientSession.createConsumer(qName);
+      ClientConsumer consumer2 = clientSession.createConsumer(qName);
+      clientSession.start();
+
+      Map<SimpleString, Integer> lastSequence = new HashMap<>();
+      Map<SimpleString, ClientConsumer> owners = new HashMap<>();
+      int received = 0;
+      for (ClientConsumer consumer : new ClientConsumer[]{consumer1, consumer2}) {
+         ClientMessage message;
+         while ((message = consumer.receive(500)) != null) {
+            message.acknowledge();
+            SimpleString group = message.getSimpleStringProperty(ClientMessage.HDR_GROUP_ID);
+            int sequence = message.getIntProperty("sequence");
+
+            Integer last = lastSequence.put(group, sequence);
+            Assert.assertEquals("out of order on " + group, last == null ? 0 : last + 1, sequence);
+
+            ClientConsumer owner = owners.put(group, consumer);
+            Assert.assertTrue(owner == null || owner == consumer);
+            received++;
+         }
+      }
+
+      Assert.assertEquals(messages, received);
+      Queue queue = server.locateQueue(qName);
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessageCount() == 0));
+      Assert.assertEquals(messages, queue.getMessagesAcknowledged());
+   }
+
+   @Test
+   public void testCountersAndDelete() throws Exception {
+      final int messages = 100;
+
+      ClientProducer producer = clientSession.createProducer(address);
+      for (int i = 0; i < messages; i++) {
+         producer.send(createTextMessage(clientSession, "m" + i));
+      }
+
+      Queue queue = server.locateQueue(qName);
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessageCount() == messages));
+      Assert.assertEquals(messages, queue.getMessagesAdded());
+
+      int spread = 0;
+      for (Queue partition : ((PartitionedQueue) queue).getPartitions()) {
+         if (partition.getMessageCount() > 0) {
+            spread++;
+         }
+      }
+      Assert.assertEquals(PARTITIONS, spread);
+
+      Assert.assertEquals(messages, queue.deleteAllReferences());
+      Assert.assertEquals(0L, queue.getMessageCount());
+   }
+
+   @Test
+   public void testReloadDurableMessages() throws Exception {
+      final int messages = 100;
+
+      ClientProducer producer = clientSession.createProducer(address);
+      for (int i = 0; i < messages; i++) {
+         ClientMessage message = createTextMessage(clientSession, "m" + i);
+         message.putStringProperty(ClientMessage.HDR_GROUP_ID, new SimpleString("group" + (i % 3)));
+         producer.send(message);
+      }
+
+      sf.close();
+      server.stop();
+      server.start();
+
+      Queue queue = server.locateQueue(qName);
+      Assert.assertTrue(queue instanceof PartitionedQueue);
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessageCount() == messages));
+
+      sf = createSessionFactory(locator);
+      clientSession = addClientSession(sf.createSession(false, true, true));
+      ClientConsumer consumer = clientSession.createConsumer(qName);
+      clientSession.start();
+
+      for (int i = 0; i < messages; i++) {
+         ClientMessage message = consumer.receive(5000);
+         Assert.assertNotNull(message);
+         message.acknowledge();
+      }
+      Assert.assertNull(consumer.receiveImmediate());
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessageCount() == 0));
+   }
+
+   @Test
+   public void testPagingAddressNotPartitioned() throws Exception {
+      final int groups = 5;
+      final int messages = 200;
+
+      // no max-size-bytes, the address can still page because of global-max-size
+      clientSession.createQueue(pagingAddress, pagingAddress, null, true);
+      Queue queue = server.locateQueue(pagingAddress);
+      Assert.assertFalse(queue instanceof PartitionedQueue);
+
+      PagingStore store = server.getPagingManager().getPageStore(pagingAddress);
+      store.startPaging();
+
+      ClientProducer producer = clientSession.createProducer(pagingAddress);
+      for (int i = 0; i < messages; i++) {
+         ClientMessage message = createTextMessage(clientSession, "m" + i);
+         message.putStringProperty(ClientMessage.HDR_GROUP_ID, new SimpleString("group" + (i % groups)));
+         message.putIntProperty("sequence", i / groups);
+         producer.send(message);
+      }
+      Assert.assertTrue(store.isPaging());
+
+      ClientConsumer consumer1 = clientSession.createConsumer(pagingAddress);
+      ClientConsumer consumer2 = clientSession.createConsumer(pagingAddress);
+      clientSession.start();
+
+      // depaged messages still go to the consumer of their group, in order
+      Map<SimpleString, Integer> lastSequence = new HashMap<>();
+      Map<SimpleString, ClientConsumer> owners = new HashMap<>();
+      int received = 0;
+      for (ClientConsumer consumer : new ClientConsumer[]{consumer1, consumer2}) {
+         ClientMessage message;
+         while ((message = consumer.receive(500)) != null) {
+            message.acknowledge();
+            SimpleString group = message.getSimpleStringProperty(ClientMessage.HDR_GROUP_ID);
+            int sequence = message.getIntProperty("sequence");
+
+            Integer last = lastSequence.put(group, sequence);
+            Assert.assertEquals("out of order on " + group, last == null ? 0 : last + 1, sequence);
+
+            ClientConsumer owner = owners.put(group, consumer);
+            Assert.assertTrue(owner == null || owner == consumer);
+            received++;
+         }
+      }
+
+      Assert.assertEquals(messages, received);
+      Assert.assertTrue(Wait.waitFor(() -> queue.getMessageCount() == 0));
+   }
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+
+      server = addServer(createServer(true, createDefaultInVMConfig()));
+      server.getAddressSettingsRepository().addMatch(address.toString(), new AddressSettings().setQueuePartitions(PARTITIONS).setAddressFullMessagePolicy(AddressFullMessagePolicy.BLOCK));
+      server.getAddressSettingsRepository().addMatch(pagingAddress.toString(), new AddressSettings().setQueuePartitions(PARTITIONS));
+      server.start();
+
+      locator = createInVMNonHALocator().setBlockOnAcknowledge(true).setAckBatchSize(0);
+      sf = createSessionFactory(locator);
+      clientSession = addClientSession(sf.createSession(false, true, true));
+      clientSession.createQueue(address, qName, null, true);
+   }
+}
@@ -26,14 +26,24 @@ import javax.jms.TextMessage;
 import java.io.IOException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
 import org.apache.activemq.artemis.api.core.SimpleString;
 import org.apache.activemq.artemis.core.protocol.stomp.Stomp;
+import org.apache.activemq.artemis.core.protocol.stomp.StompConnection;
+import org.apache.activemq.artemis.core.protocol.stomp.StompDecoder;
+import org.apache.activemq.artemis.core.protocol.stomp.StompFrame;
+import org.apache.activemq.artemis.core.protocol.stomp.v12.StompFrameHandlerV12;
 import org.apache.activemq.artemis.api.core.RoutingType;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
 import org.apache.activemq.artemis.tests.integration.IntegrationTestLogger;
 import org.apache.activemq.artemis.tests.integration.stomp.StompTestBase;
 import org.apache.activemq.artemis.tests.integration.stomp.util.ClientStompFrame;
@@ -2231,6 +2241,58 @@ public class StompV12Test extends StompTestBase {
       }
    }
 
+   @Test
+   public void testDecodeFramesSharingBuffers() throws Exception {
+      conn.connect(defUser, defPass);
+
+      StompConnection stompConnection = null;
+      for (RemotingConnection connection : server.getActiveMQServer().getRemotingService().getConnections()) {
+         if (connection instanceof StompConnection) {
+            stompConnection = (StompConnection) connection;
+         }
+      }
+      Assert.assertNotNull(stompConnection);
+      // a decoder of its own, so the frames are decoded but not handled
+      StompDecoder decoder = new StompFrameHandlerV12(stompConnection, null, null).getDecoder();
+
+      final int count = 100;
+      StringBuilder frames = new StringBuilder();
+      for (int i = 0; i < count; i++) {
+         frames.append("SEND\ndestination:").append(getQueueName()).append("\ncontent-type:text/plain\nmy-header:").append(i);
+         frames.append(i % 2 == 0 ? "\n" : "\r\n").append("\nbody").append(i).append("\u0000\n");
+      }
+      byte[] bytes = frames.toString().getBytes(StandardCharsets.UTF_8);
+
+      // the buffers split frames at arbitrary places
+      List<StompFrame> decoded = new ArrayList<>();
+      int[] splits = {0, 17, bytes.length / 3, bytes.length / 3 + 1, bytes.length - 5, bytes.length};
+      for (int i = 1; i < splits.length; i++) {
+         ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(Arrays.copyOfRange(bytes, splits[i - 1], splits[i]));
+         do {
+            StompFrame frame = decoder.decode(buffer);
+            if (frame == null) {
+               break;
+            }
+            decoded.add(frame);
+         }
+         while (decoder.hasBytes());
+      }
+
+      Assert.assertEquals(count, decoded.size());
+      for (int i = 0; i < count; i++) {
+         StompFrame frame = decoded.get(i);
+         Assert.assertEquals(Stomp.Commands.SEND, frame.getCommand());
+         Assert.assertEquals(getQueueName(), frame.getHeader(Stomp.Headers.Send.DESTINATION));
+         Assert.assertEquals(String.valueOf(i), frame.getHeader("my-header"));
+         Assert.assertEquals("body" + i, frame.getBody());
+      }
+
+      // repeated values of well known headers are decoded once
+      Assert.assertSame(decoded.get(0).getHeader(Stomp.Headers.Send.DESTINATION), decoded.get(count - 1).getHeader(Stomp.Headers.Send.DESTINATION));
+
+      conn.disconnect();
+   }
+
    @Test
    public void testSendAndReceiveWithEscapedCharactersInSenderId() throws Exception {
       conn.connect(defUser, defPass);
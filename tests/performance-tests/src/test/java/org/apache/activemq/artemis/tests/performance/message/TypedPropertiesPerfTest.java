@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.message;
+
+import java.lang.management.ManagementFactory;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.utils.collections.TypedProperties;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares decoding message properties into a map with the lazy decoding, when only the duplicate detection id of a
+ * message with many properties is read, and when all of them are.
+ */
+public class TypedPropertiesPerfTest {
+
+   private static final int NUMBER_OF_PROPERTIES = 25;
+
+   private static final int ITERATIONS = 1000000;
+
+   private static final SimpleString[] KEYS = new SimpleString[NUMBER_OF_PROPERTIES];
+
+   static {
+      for (int i = 0; i < NUMBER_OF_PROPERTIES; i++) {
+         KEYS[i] = new SimpleString("header-" + i);
+      }
+   }
+
+   @Test
+   public void testDecode() throws Exception {
+      TypedProperties properties = new TypedProperties();
+      properties.putSimpleStringProperty(Message.HDR_DUPLICATE_DETECTION_ID, new SimpleString("duplicate-id"));
+      for (int i = 1; i < NUMBER_OF_PROPERTIES; i++) {
+         if (i % 2 == 0) {
+            properties.putSimpleStringProperty(KEYS[i], new SimpleString("value-" + i));
+         } else {
+            properties.putLongProperty(KEYS[i], i);
+         }
+      }
+      ByteBuf encoded = Unpooled.buffer(properties.getEncodeSize());
+      properties.encode(encoded);
+
+      for (boolean lazy : new boolean[]{false, true}) {
+         for (boolean readAll : new boolean[]{false, true}) {
+            // warm up, then measure
+            decode(encoded, lazy, readAll);
+            long allocatedBefore = allocatedBytes();
+            long start = System.nanoTime();
+            decode(encoded, lazy, readAll);
+            double elapsed = (System.nanoTime() - start) / 1_000_000_000d;
+            long allocated = allocatedBefore < 0 ? -1 : allocatedBytes() - allocatedBefore;
+
+            System.out.println("lazy=" + lazy + ", readAll=" + readAll + ", decodes/sec=" + (long) (ITERATIONS / elapsed) +
+                                  (allocated < 0 ? "" : ", bytes allocated/decode=" + allocated / ITERATIONS));
+         }
+      }
+   }
+
+   private static void decode(ByteBuf encoded, boolean lazy, boolean readAll) {
+      int found = 0;
+      for (int i = 0; i < ITERATIONS; i++) {
+         TypedProperties properties = new TypedProperties();
+         properties.decode(encoded.duplicate(), lazy);
+         if (properties.getProperty(Message.HDR_DUPLICATE_DETECTION_ID) != null) {
+            found++;
+         }
+         if (readAll) {
+            for (int k = 1; k < NUMBER_OF_PROPERTIES; k++) {
+               Assert.assertNotNull(properties.getProperty(KEYS[k]));
+            }
+         }
+      }
+      Assert.assertEquals(ITERATIONS, found);
+   }
+
+   private static long allocatedBytes() {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+         return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+      return -1;
+   }
+}
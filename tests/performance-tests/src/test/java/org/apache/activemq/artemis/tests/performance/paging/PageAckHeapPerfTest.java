@@ -0,0 +1,95 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.paging;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.activemq.artemis.core.paging.cursor.PagePosition;
+import org.apache.activemq.artemis.core.paging.cursor.impl.PagePositionImpl;
+import org.apache.activemq.artemis.utils.collections.ConcurrentBitSet;
+import org.apache.activemq.artemis.utils.collections.ConcurrentHashSet;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Compares the heap used to track the ACKs of a paged topic, when every subscription acked all the messages but one
+ * on each page, so no page can be cleaned up: one position per ACK on a set as page subscriptions used to, with the
+ * removed references on a second set, against the two bit sets they use now.
+ */
+public class PageAckHeapPerfTest {
+
+   private static final int NUMBER_OF_MESSAGES = 1_000_000;
+
+   private static final int MESSAGES_PER_PAGE = 1000;
+
+   private static final int NUMBER_OF_SUBSCRIPTIONS = 100;
+
+   @Test
+   public void testHeapPerSubscription() {
+      // the positions could take several GB for every subscription, they are measured on one and multiplied
+      long before = usedHeap();
+      List<Object> positionSets = new ArrayList<>();
+      for (int page = 0; page < NUMBER_OF_MESSAGES / MESSAGES_PER_PAGE; page++) {
+         Set<PagePosition> acks = Collections.synchronizedSet(new LinkedHashSet<PagePosition>());
+         Set<PagePosition> removed = new ConcurrentHashSet<>();
+         for (int message = 1; message < MESSAGES_PER_PAGE; message++) {
+            PagePosition position = new PagePositionImpl(page, message);
+            acks.add(position);
+            removed.add(position);
+         }
+         positionSets.add(acks);
+         positionSets.add(removed);
+      }
+      long positionsHeap = usedHeap() - before;
+      Assert.assertEquals(2 * NUMBER_OF_MESSAGES / MESSAGES_PER_PAGE, positionSets.size());
+      positionSets = null;
+
+      before = usedHeap();
+      List<ConcurrentBitSet> bitSets = new ArrayList<>();
+      for (int subscription = 0; subscription < NUMBER_OF_SUBSCRIPTIONS; subscription++) {
+         for (int page = 0; page < NUMBER_OF_MESSAGES / MESSAGES_PER_PAGE; page++) {
+            ConcurrentBitSet acks = new ConcurrentBitSet(MESSAGES_PER_PAGE);
+            ConcurrentBitSet removed = new ConcurrentBitSet(MESSAGES_PER_PAGE);
+            for (int message = 1; message < MESSAGES_PER_PAGE; message++) {
+               acks.set(message);
+               removed.set(message);
+            }
+            bitSets.add(acks);
+            bitSets.add(removed);
+         }
+      }
+      long bitSetsHeap = usedHeap() - before;
+      Assert.assertEquals(2 * NUMBER_OF_SUBSCRIPTIONS * NUMBER_OF_MESSAGES / MESSAGES_PER_PAGE, bitSets.size());
+
+      System.out.println(NUMBER_OF_MESSAGES + " messages, " + NUMBER_OF_SUBSCRIPTIONS + " subscriptions: positions = " +
+                            (positionsHeap * NUMBER_OF_SUBSCRIPTIONS / (1024 * 1024)) + " MB, bit sets = " +
+                            (bitSetsHeap / (1024 * 1024)) + " MB");
+      Assert.assertTrue(bitSetsHeap < positionsHeap * NUMBER_OF_SUBSCRIPTIONS);
+   }
+
+   private static long usedHeap() {
+      for (int i = 0; i < 3; i++) {
+         System.gc();
+      }
+      Runtime runtime = Runtime.getRuntime();
+      return runtime.totalMemory() - runtime.freeMemory();
+   }
+}
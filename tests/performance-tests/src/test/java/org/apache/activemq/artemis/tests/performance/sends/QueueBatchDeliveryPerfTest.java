@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.sends;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.api.core.client.ClientConsumer;
+import org.apache.activemq.artemis.api.core.client.ClientMessage;
+import org.apache.activemq.artemis.api.core.client.ClientProducer;
+import org.apache.activemq.artemis.api.core.client.ClientSession;
+import org.apache.activemq.artemis.api.core.client.ClientSessionFactory;
+import org.apache.activemq.artemis.api.core.client.ServerLocator;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Measures how fast a queue drains to 1, 8 and 64 consumers, delivering one message per consumer turn
+ * and with delivery batches.
+ */
+public class QueueBatchDeliveryPerfTest extends ActiveMQTestBase {
+
+   private static final int NUMBER_OF_MESSAGES = 200000;
+
+   private static final int BATCH_SIZE = 32;
+
+   private static final SimpleString ADDRESS = new SimpleString("batch-delivery");
+
+   @Test
+   public void testDeliverOneByOne() throws Exception {
+      measure(1);
+   }
+
+   @Test
+   public void testDeliverInBatches() throws Exception {
+      measure(BATCH_SIZE);
+   }
+
+   private void measure(int deliveryBatchSize) throws Exception {
+      ActiveMQServer server = createServer(false, createDefaultInVMConfig());
+      server.getAddressSettingsRepository().addMatch(ADDRESS.toString(), new AddressSettings().setDeliveryBatchSize(deliveryBatchSize));
+      server.start();
+
+      ServerLocator locator = createInVMNonHALocator().setBlockOnNonDurableSend(false).setConsumerWindowSize(1024 * 1024);
+      ClientSessionFactory factory = createSessionFactory(locator);
+
+      for (int consumers : new int[]{1, 8, 64}) {
+         SimpleString queueName = ADDRESS.concat("." + consumers);
+         double messagesPerSecond = drain(factory, queueName, consumers);
+         System.out.println("deliveryBatchSize=" + deliveryBatchSize + ", consumers=" + consumers + ", msgs/sec= " + messagesPerSecond);
+      }
+   }
+
+   private double drain(ClientSessionFactory factory, SimpleString queueName, int numberOfConsumers) throws Exception {
+      ClientSession session = addClientSession(factory.createSession(true, true));
+      session.createQueue(ADDRESS, RoutingType.ANYCAST, queueName, false);
+
+      // fill the queue first, so only the delivery is measured
+      ClientProducer producer = session.createProducer(ADDRESS);
+      for (int i = 0; i < NUMBER_OF_MESSAGES; i++) {
+         ClientMessage message = session.createMessage(false);
+         message.getBodyBuffer().writeBytes(new byte[100]);
+         producer.send(message);
+      }
+
+      CountDownLatch received = new CountDownLatch(NUMBER_OF_MESSAGES);
+      List<ClientSession> sessions = new ArrayList<>();
+      for (int i = 0; i < numberOfConsumers; i++) {
+         ClientSession consumerSession = addClientSession(factory.createSession(true, true, 0));
+         ClientConsumer consumer = consumerSession.createConsumer(queueName);
+         consumer.setMessageHandler(message -> {
+            try {
+               message.acknowledge();
+            } catch (Exception e) {
+               e.printStackTrace();
+            }
+            received.countDown();
+         });
+         sessions.add(consumerSession);
+      }
+
+      long start = System.currentTimeMillis();
+      for (ClientSession consumerSession : sessions) {
+         consumerSession.start();
+      }
+      Assert.assertTrue(received.await(5, TimeUnit.MINUTES));
+      double elapsed = (System.currentTimeMillis() - start) / 1000d;
+
+      for (ClientSession consumerSession : sessions) {
+         consumerSession.close();
+      }
+      session.deleteQueue(queueName);
+      session.close();
+
+      return NUMBER_OF_MESSAGES / elapsed;
+   }
+}
@@ -0,0 +1,94 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.sends;
+
+import java.lang.management.ManagementFactory;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.RoutingType;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.postoffice.PostOffice;
+import org.apache.activemq.artemis.core.postoffice.RoutingStatus;
+import org.apache.activemq.artemis.core.server.ActiveMQServer;
+import org.apache.activemq.artemis.core.server.Queue;
+import org.apache.activemq.artemis.core.server.RoutingContext;
+import org.apache.activemq.artemis.core.server.impl.RoutingContextImpl;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Measures the bytes allocated by the post office to route a non durable message to a queue without a filter, with
+ * the routing context reused the way a session does.
+ * The message reference itself is part of the measure, the message is not.
+ */
+public class RoutingAllocationPerfTest extends ActiveMQTestBase {
+
+   private static final int BATCH_SIZE = 10000;
+
+   private static final int WARMUP_BATCHES = 20;
+
+   private static final int BATCHES = 50;
+
+   @Test
+   public void testRouteAllocations() throws Exception {
+      ActiveMQServer server = createServer(false);
+      server.start();
+
+      SimpleString address = SimpleString.toSimpleString("routingPerf");
+      Queue queue = server.createQueue(address, RoutingType.ANYCAST, address, null, false, false);
+      PostOffice postOffice = server.getPostOffice();
+      RoutingContext context = new RoutingContextImpl(null);
+
+      long allocated = 0;
+      long elapsed = 0;
+      for (int batch = 0; batch < WARMUP_BATCHES + BATCHES; batch++) {
+         Message[] messages = new Message[BATCH_SIZE];
+         for (int i = 0; i < BATCH_SIZE; i++) {
+            CoreMessage message = new CoreMessage(server.getStorageManager().generateID(), 50);
+            message.setAddress(address);
+            message.setDurable(false);
+            messages[i] = message;
+         }
+
+         long allocatedBefore = allocatedBytes();
+         long start = System.nanoTime();
+         for (Message message : messages) {
+            Assert.assertEquals(RoutingStatus.OK, postOffice.route(message, context, false));
+            context.clear();
+         }
+         if (batch >= WARMUP_BATCHES) {
+            elapsed += System.nanoTime() - start;
+            allocated += allocatedBefore < 0 ? 0 : allocatedBytes() - allocatedBefore;
+         }
+
+         queue.deleteAllReferences();
+      }
+
+      long routes = (long) BATCHES * BATCH_SIZE;
+      System.out.println("routes/sec=" + (routes * 1_000_000_000L / elapsed) +
+                            (allocatedBytes() < 0 ? "" : ", bytes allocated/route=" + allocated / routes));
+   }
+
+   private static long allocatedBytes() {
+      if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean) {
+         return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).getThreadAllocatedBytes(Thread.currentThread().getId());
+      }
+      return -1;
+   }
+}
@@ -0,0 +1,93 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.performance.stomp;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.core.protocol.stomp.StompConnection;
+import org.apache.activemq.artemis.core.protocol.stomp.StompDecoder;
+import org.apache.activemq.artemis.core.protocol.stomp.StompFrame;
+import org.apache.activemq.artemis.core.protocol.stomp.v12.StompFrameHandlerV12;
+import org.apache.activemq.artemis.spi.core.protocol.RemotingConnection;
+import org.apache.activemq.artemis.tests.integration.stomp.StompTestBase;
+import org.apache.activemq.artemis.tests.integration.stomp.util.StompClientConnection;
+import org.apache.activemq.artemis.tests.integration.stomp.util.StompClientConnectionFactory;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Measures how fast small SEND frames are decoded, whether each one arrives in a buffer of its own or many of them
+ * share the same buffer, as web clients batching frames do.
+ */
+public class StompDecoderPerfTest extends StompTestBase {
+
+   private static final int NUMBER_OF_FRAMES = 1000000;
+
+   @Test
+   public void testDecode() throws Exception {
+      StompClientConnection conn = StompClientConnectionFactory.createClientConnection("1.2", hostname, port);
+      conn.connect(defUser, defPass);
+
+      StompConnection stompConnection = null;
+      for (RemotingConnection connection : server.getActiveMQServer().getRemotingService().getConnections()) {
+         if (connection instanceof StompConnection) {
+            stompConnection = (StompConnection) connection;
+         }
+      }
+      Assert.assertNotNull(stompConnection);
+
+      byte[] frame = ("SEND\ndestination:" + getQueuePrefix() + getQueueName() + "\ncontent-type:text/plain\n" +
+         "receipt:1234\npersistent:true\n\nHello World\u0000\n").getBytes(StandardCharsets.UTF_8);
+
+      for (int framesPerBuffer : new int[]{1, 10, 100, 1000}) {
+         StompDecoder decoder = new StompFrameHandlerV12(stompConnection, null, null).getDecoder();
+
+         byte[] bytes = new byte[frame.length * framesPerBuffer];
+         for (int i = 0; i < framesPerBuffer; i++) {
+            System.arraycopy(frame, 0, bytes, i * frame.length, frame.length);
+         }
+
+         // warm up, then measure
+         decode(decoder, bytes, framesPerBuffer);
+         long start = System.nanoTime();
+         decode(decoder, bytes, framesPerBuffer);
+         double elapsed = (System.nanoTime() - start) / 1_000_000_000d;
+
+         System.out.println("framesPerBuffer=" + framesPerBuffer + ", frames/sec=" + (long) (NUMBER_OF_FRAMES / elapsed));
+      }
+
+      conn.disconnect();
+   }
+
+   private static void decode(StompDecoder decoder, byte[] bytes, int framesPerBuffer) throws Exception {
+      int decoded = 0;
+      for (int i = 0; i < NUMBER_OF_FRAMES / framesPerBuffer; i++) {
+         ActiveMQBuffer buffer = ActiveMQBuffers.wrappedBuffer(bytes);
+         do {
+            StompFrame frame = decoder.decode(buffer);
+            if (frame == null) {
+               break;
+            }
+            decoded++;
+         }
+         while (decoder.hasBytes());
+      }
+      Assert.assertEquals(NUMBER_OF_FRAMES, decoded);
+   }
+}
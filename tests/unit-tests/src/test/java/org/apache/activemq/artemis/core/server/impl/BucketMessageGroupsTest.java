@@ -0,0 +1,158 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.core.server.impl;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.message.impl.CoreMessage;
+import org.apache.activemq.artemis.core.server.MessageReference;
+import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakeConsumer;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class BucketMessageGroupsTest extends Assert {
+
+   private static final int GROUPS = 1000;
+
+   @Test
+   public void testGroupsShareBuckets() {
+      MessageGroups groups = MessageGroups.create(4, false);
+      FakeConsumer consumer = new FakeConsumer();
+      groups.put(SimpleString.toSimpleString("group"), consumer);
+      assertSame(consumer, groups.get(SimpleString.toSimpleString("group")));
+
+      int bound = 0;
+      for (int i = 0; i < GROUPS; i++) {
+         if (groups.get(SimpleString.toSimpleString("group" + i)) == consumer) {
+            bound++;
+         }
+      }
+      // about a quarter of the other groups share the bucket
+      assertTrue(bound > GROUPS / 8 && bound < GROUPS / 2);
+
+      groups.removeConsumer(consumer);
+      assertNull(groups.get(SimpleString.toSimpleString("group")));
+   }
+
+   @Test
+   public void testRebalanceOnConsumerAdded() {
+      MessageGroups groups = MessageGroups.create(64, true);
+      FakeConsumer first = new FakeConsumer();
+      for (int i = 0; i < GROUPS; i++) {
+         groups.put(SimpleString.toSimpleString("group" + i), first);
+      }
+
+      FakeConsumer second = new FakeConsumer();
+      groups.addConsumer(second, 2);
+      assertTrue(groups.isMoving());
+
+      int held = 0;
+      for (int i = 0; i < GROUPS; i++) {
+         // nothing in flight, the moving buckets are found drained as soon as they are looked up
+         if (groups.isHeld(SimpleString.toSimpleString("group" + i))) {
+            held++;
+         }
+      }
+      assertTrue(groups.completeMoves());
+      assertFalse(groups.isMoving());
+
+      int moved = 0;
+      for (int i = 0; i < GROUPS; i++) {
+         SimpleString groupID = SimpleString.toSimpleString("group" + i);
+         assertFalse(groups.isHeld(groupID));
+         if (groups.get(groupID) == second) {
+            moved++;
+         }
+      }
+      assertEquals(held, moved);
+      assertTrue(moved > GROUPS / 4 && moved < GROUPS * 3 / 4);
+   }
+
+   @Test
+   public void testBucketHeldUntilDrained() {
+      MessageGroups groups = MessageGroups.create(2, true);
+      // a group on each bucket, the first bucket is the one moving
+      SimpleString movingGroup = groupOnBucket(0);
+      SimpleString stayingGroup = groupOnBucket(1);
+      FakeConsumer first = new FakeConsumer();
+      groups.put(movingGroup, first);
+      groups.put(stayingGroup, first);
+      first.getReferences().add(reference(1, movingGroup));
+
+      FakeConsumer second = new FakeConsumer();
+      groups.addConsumer(second, 2);
+      assertFalse(groups.isHeld(stayingGroup));
+      assertTrue(groups.isHeld(movingGroup));
+      assertSame(first, groups.get(movingGroup));
+      assertFalse(groups.completeMoves());
+
+      // still in flight, the queue looks at the held messages again all the same
+      groups.deliveriesChanged();
+      assertTrue(groups.completeMoves());
+      assertTrue(groups.isHeld(movingGroup));
+      assertFalse(groups.completeMoves());
+
+      first.clearReferences();
+      // not checked again until a delivery is acknowledged or cancelled
+      assertTrue(groups.isHeld(movingGroup));
+      groups.deliveriesChanged();
+      // drained, held until the queue starts over
+      assertTrue(groups.isHeld(movingGroup));
+      assertSame(first, groups.get(movingGroup));
+      assertTrue(groups.completeMoves());
+
+      assertFalse(groups.isHeld(movingGroup));
+      assertSame(second, groups.get(movingGroup));
+      assertSame(first, groups.get(stayingGroup));
+      assertFalse(groups.isMoving());
+      assertFalse(groups.completeMoves());
+   }
+
+   @Test
+   public void testMoveCancelledWhenConsumerRemoved() {
+      MessageGroups groups = MessageGroups.create(2, true);
+      SimpleString movingGroup = groupOnBucket(0);
+      FakeConsumer first = new FakeConsumer();
+      groups.put(movingGroup, first);
+      groups.put(groupOnBucket(1), first);
+      first.getReferences().add(reference(1, movingGroup));
+
+      FakeConsumer second = new FakeConsumer();
+      groups.addConsumer(second, 2);
+      assertTrue(groups.isHeld(movingGroup));
+
+      groups.removeConsumer(second);
+      assertFalse(groups.isMoving());
+      assertFalse(groups.isHeld(movingGroup));
+      assertSame(first, groups.get(movingGroup));
+   }
+
+   private static SimpleString groupOnBucket(int bucket) {
+      for (int i = 0; ; i++) {
+         SimpleString groupID = SimpleString.toSimpleString("group" + i);
+         if ((groupID.hashCode() & Integer.MAX_VALUE) % 2 == bucket) {
+            return groupID;
+         }
+      }
+   }
+
+   private static MessageReference reference(long id, SimpleString groupID) {
+      CoreMessage message = new CoreMessage(id, 50);
+      message.putStringProperty(Message.HDR_GROUP_ID, groupID);
+      return new MessageReferenceImpl(message, null);
+   }
+}
@@ -0,0 +1,100 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.core.paging.impl;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.impl.PagingPressureGovernor;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.tests.unit.util.FakePagingStore;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class PagingPressureGovernorTest extends ActiveMQTestBase {
+
+   @Test
+   public void testNothingPagedUnderThreshold() {
+      PagingPressureGovernor governor = new PagingPressureGovernor(1000, 50);
+      FakePagingStore cold = store("cold", AddressFullMessagePolicy.PAGE, 400);
+      List<PagingStore> stores = Arrays.asList(cold);
+
+      Assert.assertTrue(governor.evaluate(stores, 400, 0).isEmpty());
+      Assert.assertTrue(governor.evaluate(stores, 500, 1000).isEmpty());
+      Assert.assertFalse(cold.isPaging());
+   }
+
+   @Test
+   public void testColdestPagedFirst() {
+      PagingPressureGovernor governor = new PagingPressureGovernor(1000, 50);
+      FakePagingStore hot = store("hot", AddressFullMessagePolicy.PAGE, 200);
+      FakePagingStore slow = store("slow", AddressFullMessagePolicy.PAGE, 200);
+      FakePagingStore cold = store("cold", AddressFullMessagePolicy.PAGE, 200);
+      FakePagingStore blocking = store("blocking", AddressFullMessagePolicy.BLOCK, 100);
+      List<PagingStore> stores = Arrays.asList(hot, slow, cold, blocking);
+
+      Assert.assertTrue(governor.evaluate(stores, 0, 0).isEmpty());
+
+      // one second later: hot released a lot, slow a little, cold nothing
+      hot.release(1000);
+      slow.release(10);
+      // pressure = (700 - 500) / (1000 - 500) = 0.4, the paging addresses must hold 280 bytes
+      List<PagingStore> started = governor.evaluate(stores, 700, 1000);
+
+      Assert.assertEquals(2, started.size());
+      Assert.assertEquals(cold.getStoreName(), started.get(0).getStoreName());
+      Assert.assertEquals(slow.getStoreName(), started.get(1).getStoreName());
+      Assert.assertTrue(cold.isPaging());
+      Assert.assertTrue(slow.isPaging());
+      Assert.assertFalse(hot.isPaging());
+      Assert.assertFalse(blocking.isPaging());
+
+      // the addresses already paging count
+      Assert.assertTrue(governor.evaluate(stores, 700, 2000).isEmpty());
+      Assert.assertFalse(hot.isPaging());
+
+      // at global-max-size every address pages
+      hot.release(1000);
+      started = governor.evaluate(stores, 1000, 3000);
+      Assert.assertEquals(1, started.size());
+      Assert.assertTrue(hot.isPaging());
+   }
+
+   @Test
+   public void testOldestBacklogFirst() {
+      PagingPressureGovernor governor = new PagingPressureGovernor(1000, 50);
+      FakePagingStore older = store("older", AddressFullMessagePolicy.PAGE, 300);
+      FakePagingStore newer = store("newer", AddressFullMessagePolicy.PAGE, 300);
+      List<PagingStore> stores = Arrays.asList(newer, older);
+
+      // neither releases anything, but older has been holding its memory for longer
+      governor.evaluate(Arrays.asList(older), 0, 0);
+      governor.evaluate(stores, 0, 1000);
+
+      // pressure = (600 - 500) / (1000 - 500) = 0.2, one address is enough
+      List<PagingStore> started = governor.evaluate(stores, 600, 2000);
+      Assert.assertEquals(1, started.size());
+      Assert.assertEquals(older.getStoreName(), started.get(0).getStoreName());
+   }
+
+   private static FakePagingStore store(String name, AddressFullMessagePolicy policy, long size) {
+      return new FakePagingStore(new SimpleString(name), policy, size);
+   }
+}
@@ -19,6 +19,7 @@ package org.apache.activemq.artemis.tests.unit.core.paging.impl;
 import java.io.File;
 import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
@@ -242,6 +243,52 @@ public class PagingStoreImplTest extends ActiveMQTestBase {
 
    }
 
+   @Test
+   public void testNextPageCreatedInAdvance() throws Exception {
+      FakeSequentialFileFactory factory = new FakeSequentialFileFactory();
+
+      PagingStoreFactory storeFactory = new FakeStoreFactory(factory);
+
+      AddressSettings addressSettings = new AddressSettings().setAddressFullMessagePolicy(AddressFullMessagePolicy.PAGE);
+
+      PagingStoreImpl storeImpl = new PagingStoreImpl(PagingStoreImplTest.destinationTestName, null, 100, createMockManager(), createStorageManagerMock(), factory, storeFactory, PagingStoreImplTest.destinationTestName, addressSettings, getExecutorFactory().getExecutor(), true);
+
+      storeImpl.start();
+
+      storeImpl.startPaging();
+
+      storeImpl.flushExecutors();
+
+      Assert.assertEquals(1, factory.listFiles("page").size());
+      Assert.assertEquals(Collections.singletonList("000000002.page.tmp"), factory.listFiles("tmp"));
+
+      storeImpl.forceAnotherPage();
+
+      Assert.assertEquals(2, storeImpl.getCurrentPage().getPageId());
+      Assert.assertEquals(2, factory.listFiles("page").size());
+
+      storeImpl.flushExecutors();
+
+      Assert.assertEquals(Collections.singletonList("000000003.page.tmp"), factory.listFiles("tmp"));
+
+      // a store that wasn't stopped leaves the next page behind
+      storeImpl = new PagingStoreImpl(PagingStoreImplTest.destinationTestName, null, 100, createMockManager(), createStorageManagerMock(), factory, storeFactory, PagingStoreImplTest.destinationTestName, addressSettings, getExecutorFactory().getExecutor(), true);
+
+      storeImpl.start();
+
+      Assert.assertEquals(2, storeImpl.getNumberOfPages());
+      Assert.assertEquals(2, storeImpl.getCurrentPage().getPageId());
+
+      storeImpl.flushExecutors();
+
+      Assert.assertEquals(Collections.singletonList("000000003.page.tmp"), factory.listFiles("tmp"));
+
+      storeImpl.stop();
+
+      Assert.assertTrue(factory.listFiles("tmp").isEmpty());
+      Assert.assertEquals(2, factory.listFiles("page").size());
+   }
+
    @Test
    public void testDepageMultiplePages() throws Exception {
       SequentialFileFactory factory = new FakeSequentialFileFactory();
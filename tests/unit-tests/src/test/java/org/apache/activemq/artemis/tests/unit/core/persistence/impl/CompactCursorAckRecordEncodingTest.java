@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.core.persistence.impl;
+
+import org.apache.activemq.artemis.api.core.ActiveMQBuffer;
+import org.apache.activemq.artemis.api.core.ActiveMQBuffers;
+import org.apache.activemq.artemis.core.paging.cursor.impl.PagePositionImpl;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CompactCursorAckRecordEncoding;
+import org.apache.activemq.artemis.core.persistence.impl.journal.codec.CursorAckRecordEncoding;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.junit.Assert;
+import org.junit.Test;
+
+public class CompactCursorAckRecordEncodingTest extends ActiveMQTestBase {
+
+   @Test
+   public void testEncodeDecode() {
+      long[][] values = {{1, 1, 0}, {12, 300, 1234}, {Long.MAX_VALUE, Long.MAX_VALUE, Integer.MAX_VALUE}, {5, 7, -1}, {0, 0, Integer.MIN_VALUE}};
+      for (long[] value : values) {
+         CompactCursorAckRecordEncoding encoding = new CompactCursorAckRecordEncoding(value[0], new PagePositionImpl(value[1], (int) value[2]));
+         ActiveMQBuffer buffer = ActiveMQBuffers.fixedBuffer(encoding.getEncodeSize());
+         encoding.encode(buffer);
+         Assert.assertEquals(encoding.getEncodeSize(), buffer.writerIndex());
+
+         CursorAckRecordEncoding decoded = new CompactCursorAckRecordEncoding();
+         decoded.decode(buffer);
+         Assert.assertEquals(value[0], decoded.queueID);
+         Assert.assertEquals(value[1], decoded.position.getPageNr());
+         Assert.assertEquals((int) value[2], decoded.position.getMessageNr());
+         Assert.assertEquals(0, buffer.readableBytes());
+      }
+   }
+
+   @Test
+   public void testSmallerThanFixedEncoding() {
+      PagePositionImpl position = new PagePositionImpl(1500, 900);
+      Assert.assertEquals(5, new CompactCursorAckRecordEncoding(10, position).getEncodeSize());
+      Assert.assertEquals(20, new CursorAckRecordEncoding(10, position).getEncodeSize());
+   }
+}
@@ -0,0 +1,298 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.core.persistence.impl;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.ha.ReplicatedPolicyConfiguration;
+import org.apache.activemq.artemis.core.journal.Journal;
+import org.apache.activemq.artemis.core.journal.PreparedTransactionInfo;
+import org.apache.activemq.artemis.core.journal.RecordInfo;
+import org.apache.activemq.artemis.core.journal.impl.JournalImpl;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalRecordIds;
+import org.apache.activemq.artemis.core.persistence.impl.journal.JournalStorageManager;
+import org.apache.activemq.artemis.core.persistence.impl.journal.StripedJournal;
+import org.apache.activemq.artemis.tests.unit.core.journal.impl.fakes.FakeSequentialFileFactory;
+import org.apache.activemq.artemis.tests.util.ActiveMQTestBase;
+import org.apache.activemq.artemis.utils.ActiveMQThreadFactory;
+import org.apache.activemq.artemis.utils.ExecutorFactory;
+import org.apache.activemq.artemis.utils.actors.OrderedExecutorFactory;
+import org.apache.activemq.artemis.utils.critical.EmptyCriticalAnalyzer;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StripedJournalTest extends ActiveMQTestBase {
+
+   private static final byte RECORD_TYPE = 1;
+
+   private FakeSequentialFileFactory[] factories;
+
+   private JournalImpl[] stripes;
+
+   private StripedJournal journal;
+
+   private final List<RecordInfo> records = new ArrayList<>();
+
+   private final List<PreparedTransactionInfo> transactions = new ArrayList<>();
+
+   @Override
+   @Before
+   public void setUp() throws Exception {
+      super.setUp();
+
+      factories = new FakeSequentialFileFactory[4];
+      for (int i = 0; i < factories.length; i++) {
+         factories[i] = new FakeSequentialFileFactory(1, true);
+      }
+   }
+
+   @Override
+   @After
+   public void tearDown() throws Exception {
+      if (journal != null) {
+         journal.stop();
+      }
+
+      super.tearDown();
+   }
+
+   @Test
+   public void testRecordsSpreadByID() throws Exception {
+      startJournal(2);
+
+      for (long id = 1; id <= 10; id++) {
+         journal.appendAddRecord(id, RECORD_TYPE, new byte[]{(byte) id}, true);
+      }
+      journal.appendUpdateRecord(3, RECORD_TYPE, new byte[]{33}, true);
+      journal.appendDeleteRecord(4, true);
+      journal.flush();
+
+      Assert.assertEquals(4, stripes[0].getNumberOfRecords());
+      Assert.assertEquals(5, stripes[1].getNumberOfRecords());
+
+      startJournal(2);
+
+      Assert.assertEquals(10, records.size());
+      Assert.assertTrue(transactions.isEmpty());
+
+      // merged in the order of the IDs, the update after its add
+      long previousID = 0;
+      for (RecordInfo record : records) {
+         Assert.assertTrue(record.id >= previousID);
+         Assert.assertNotEquals(4, record.id);
+         previousID = record.id;
+      }
+   }
+
+   @Test
+   public void testTransactionSpanningStripes() throws Exception {
+      startJournal(3);
+
+      journal.appendAddRecordTransactional(100, 1, RECORD_TYPE, new byte[]{1});
+      journal.appendAddRecordTransactional(100, 2, RECORD_TYPE, new byte[]{2});
+      journal.appendAddRecordTransactional(100, 3, RECORD_TYPE, new byte[]{3});
+      journal.appendCommitRecord(100, true);
+      journal.flush();
+
+      // the decision is deleted once the stripes committed
+      Assert.assertEquals(1, stripes[0].getNumberOfRecords());
+      Assert.assertEquals(1, stripes[1].getNumberOfRecords());
+      Assert.assertEquals(1, stripes[2].getNumberOfRecords());
+
+      startJournal(3);
+
+      Assert.assertEquals(3, records.size());
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testTransactionSpanningStripesRollback() throws Exception {
+      startJournal(2);
+
+      journal.appendAddRecordTransactional(100, 1, RECORD_TYPE, new byte[]{1});
+      journal.appendAddRecordTransactional(100, 2, RECORD_TYPE, new byte[]{2});
+      journal.appendRollbackRecord(100, true);
+
+      startJournal(2);
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testXATransactionSpanningStripes() throws Exception {
+      startJournal(2);
+
+      journal.appendAddRecordTransactional(100, 1, RECORD_TYPE, new byte[]{1});
+      journal.appendAddRecordTransactional(100, 2, RECORD_TYPE, new byte[]{2});
+      journal.appendPrepareRecord(100, new byte[]{7}, true);
+
+      startJournal(2);
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertEquals(1, transactions.size());
+      Assert.assertEquals(2, transactions.get(0).getRecords().size());
+
+      journal.appendCommitRecord(100, true);
+
+      startJournal(2);
+
+      Assert.assertEquals(2, records.size());
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testPreparedWithoutDecisionRolledBack() throws Exception {
+      startJournal(2);
+
+      // the broker stopped after the stripes were prepared
+      stripes[0].appendAddRecordTransactional(100, 2, RECORD_TYPE, new byte[]{2});
+      stripes[1].appendAddRecordTransactional(100, 1, RECORD_TYPE, new byte[]{1});
+      stripes[0].appendPrepareRecord(100, new byte[0], true);
+      stripes[1].appendPrepareRecord(100, new byte[0], true);
+
+      startJournal(2);
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertTrue(transactions.isEmpty());
+
+      startJournal(2);
+
+      Assert.assertTrue(records.isEmpty());
+      Assert.assertTrue(transactions.isEmpty());
+   }
+
+   @Test
+   public void testPreparedWithDecisionCommitted() throws Exception {
+      startJournal(2);
+
+      // the broker stopped after the decision was stored, before the second stripe committed
+      stripes[0].appendAddRecordTransactional(100, 2, RECORD_TYPE, new byte[]{2});
+      stripes[1].appendAddRecordTransactional(100, 1, RECORD_TYPE, new byte[]{1});
+      stripes[0].appendPrepareRecord(100, new byte[0], true);
+      stripes[1].appendPrepareRecord(100, new byte[0], true);
+      stripes[0].appendAddRecord(100, JournalRecordIds.STRIPED_TX_COMMIT, new byte[8], true);
+      stripes[0].appendCommitRecord(100, true);
+
+      startJournal(2);
+
+      Assert.assertEquals(2, records.size());
+      Assert.assertEquals(1, records.get(0).id);
+      Assert.assertEquals(2, records.get(1).id);
+      Assert.assertTrue(transactions.isEmpty());
+
+      journal.flush();
+
+      // the decision was deleted on the first reload
+      Assert.assertEquals(2, stripes[0].getNumberOfRecords() + stripes[1].getNumberOfRecords());
+
+      startJournal(2);
+
+      Assert.assertEquals(2, records.size());
+   }
+
+   @Test
+   public void testChangingTheNumberOfStripes() throws Exception {
+      startJournal(1);
+
+      for (long id = 1; id <= 4; id++) {
+         journal.appendAddRecord(id, RECORD_TYPE, new byte[]{(byte) id}, true);
+      }
+
+      startJournal(4);
+
+      Assert.assertEquals(4, records.size());
+
+      // the records are still on the first stripe
+      journal.appendUpdateRecord(1, RECORD_TYPE, new byte[]{11}, true);
+      journal.appendDeleteRecord(2, true);
+      journal.appendUpdateRecordTransactional(100, 3, RECORD_TYPE, new byte[]{33});
+      journal.appendDeleteRecordTransactional(100, 4);
+      journal.appendCommitRecord(100, true);
+      journal.appendAddRecord(5, RECORD_TYPE, new byte[]{5}, true);
+      journal.flush();
+
+      Assert.assertEquals(2, stripes[0].getNumberOfRecords());
+      Assert.assertEquals(1, stripes[1].getNumberOfRecords());
+
+      startJournal(4);
+
+      // 1, 3 and 5 with the updates of 1 and 3
+      Assert.assertEquals(5, records.size());
+   }
+
+   @Test
+   public void testReplicationNotSupported() throws Exception {
+      startJournal(2);
+
+      try {
+         journal.loadSyncOnly(Journal.JournalState.SYNCING);
+         Assert.fail("a striped journal can't be synchronized with a backup");
+      } catch (IllegalStateException expected) {
+      }
+
+      try {
+         journal.createFilesForBackupSync(new long[]{1});
+         Assert.fail("a striped journal can't be synchronized from a live server");
+      } catch (IllegalStateException expected) {
+      }
+   }
+
+   @Test
+   public void testReplicatedServerRefusesStripesWithData() throws Exception {
+      Configuration configuration = createDefaultInVMConfig().setJournalStripes(1).setHAPolicyConfiguration(new ReplicatedPolicyConfiguration());
+      File stripe = configuration.getJournalStripeLocation(2);
+      Assert.assertTrue(stripe.mkdirs());
+      Assert.assertTrue(new File(stripe, "activemq-data-1.amq").createNewFile());
+
+      ExecutorService executor = Executors.newSingleThreadExecutor(ActiveMQThreadFactory.defaultThreadFactory());
+      try {
+         ExecutorFactory executorFactory = new OrderedExecutorFactory(executor);
+         new JournalStorageManager(configuration, EmptyCriticalAnalyzer.getInstance(), executorFactory, executorFactory);
+         Assert.fail("the messages of the stripes after the first one would be ignored");
+      } catch (IllegalStateException expected) {
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private void startJournal(int numberOfStripes) throws Exception {
+      if (journal != null) {
+         journal.stop();
+      }
+
+      stripes = new JournalImpl[numberOfStripes];
+      for (int i = 0; i < numberOfStripes; i++) {
+         stripes[i] = new JournalImpl(10 * 1024, 2, 2, 0, 0, factories[i], "tt", "tt", 1);
+      }
+
+      journal = new StripedJournal((Journal[]) stripes);
+      journal.start();
+
+      records.clear();
+      transactions.clear();
+
+      journal.load(records, transactions, null);
+   }
+}
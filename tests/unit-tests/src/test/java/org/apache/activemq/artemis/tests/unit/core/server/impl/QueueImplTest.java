@@ -42,7 +42,9 @@ import org.apache.activemq.artemis.core.server.HandleStatus;
 import org.apache.activemq.artemis.core.server.MessageReference;
 import org.apache.activemq.artemis.core.server.Queue;
 import org.apache.activemq.artemis.core.server.impl.QueueImpl;
+import org.apache.activemq.artemis.core.settings.HierarchicalRepository;
 import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.core.settings.impl.HierarchicalObjectRepository;
 import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakeConsumer;
 import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakeFilter;
 import org.apache.activemq.artemis.tests.unit.core.server.impl.fakes.FakePostOffice;
@@ -1289,6 +1291,73 @@ public class QueueImplTest extends ActiveMQTestBase {
       }
    }
 
+   @Test
+   public void testHeldGroupDeliveredInOrderOnceMoved() throws Exception {
+      HierarchicalRepository<AddressSettings> addressSettings = new HierarchicalObjectRepository<>();
+      addressSettings.setDefault(new AddressSettings().setGroupBuckets(2).setGroupRebalance(true));
+      QueueImpl queue = new QueueImpl(1, QueueImplTest.address1, QueueImplTest.queue1, null, null, false, true, false,
+                                      scheduledExecutor, new FakePostOffice(), null, addressSettings,
+                                      ArtemisExecutor.delegate(executor), null, null);
+
+      // a group on each bucket, the first bucket is the one moving to the second consumer
+      SimpleString movingGroup = groupOnBucket(0, 2);
+      SimpleString stayingGroup = groupOnBucket(1, 2);
+
+      FakeConsumer first = new FakeConsumer();
+      queue.addConsumer(first);
+
+      MessageReference inFlight = generateGroupReference(queue, 0, movingGroup);
+      queue.addTail(inFlight);
+      queue.addTail(generateGroupReference(queue, 1, stayingGroup));
+      queue.deliverNow();
+      Assert.assertEquals(2, first.getReferences().size());
+
+      FakeConsumer second = new FakeConsumer();
+      queue.addConsumer(second);
+
+      List<MessageReference> held = new ArrayList<>();
+      for (int i = 2; i < 5; i++) {
+         MessageReference ref = generateGroupReference(queue, i, movingGroup);
+         held.add(ref);
+         queue.addTail(ref);
+      }
+      queue.addTail(generateGroupReference(queue, 5, stayingGroup));
+      queue.deliverNow();
+
+      // the moving group is held while its first message is in flight, the other one is still delivered
+      Assert.assertEquals(3, first.getReferences().size());
+      Assert.assertTrue(second.getReferences().isEmpty());
+      Assert.assertEquals(held.size(), getMessageCount(queue) - queue.getDeliveringCount());
+
+      first.getReferences().remove(inFlight);
+      queue.acknowledge(inFlight);
+
+      // the messages skipped while the group was held are delivered to its new consumer, in order
+      for (MessageReference ref : held) {
+         Assert.assertSame(ref, second.waitForNextReference(5000));
+      }
+      Assert.assertEquals(2, first.getReferences().size());
+
+      MessageReference next = generateGroupReference(queue, 6, movingGroup);
+      queue.addTail(next);
+      Assert.assertSame(next, second.waitForNextReference(5000));
+   }
+
+   private MessageReference generateGroupReference(final Queue queue, final long id, final SimpleString groupID) {
+      MessageReference ref = generateReference(queue, id);
+      ref.getMessage().putStringProperty(Message.HDR_GROUP_ID, groupID);
+      return ref;
+   }
+
+   private static SimpleString groupOnBucket(final int bucket, final int buckets) {
+      for (int i = 0; ; i++) {
+         SimpleString groupID = SimpleString.toSimpleString("group" + i);
+         if ((groupID.hashCode() & Integer.MAX_VALUE) % buckets == bucket) {
+            return groupID;
+         }
+      }
+   }
+
    private QueueImpl getNonDurableQueue() {
       return getQueue(QueueImplTest.queue1, false, false, null);
    }
@@ -16,7 +16,7 @@
  */
 package org.apache.activemq.artemis.tests.unit.core.server.impl.fakes;
 
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -152,9 +152,12 @@ public class FakeConsumer implements Consumer {
       //To change body of implemented methods use File | Settings | File Templates.
    }
 
+   /**
+    * The references handled and not taken or cleared yet.
+    */
    @Override
-   public List<MessageReference> getDeliveringMessages() {
-      return Collections.emptyList();
+   public synchronized List<MessageReference> getDeliveringMessages() {
+      return new ArrayList<>(references);
    }
 
 }
@@ -0,0 +1,287 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements. See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License. You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.apache.activemq.artemis.tests.unit.util;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.locks.ReentrantReadWriteLock.ReadLock;
+
+import org.apache.activemq.artemis.api.core.Message;
+import org.apache.activemq.artemis.api.core.SimpleString;
+import org.apache.activemq.artemis.core.paging.PagingManager;
+import org.apache.activemq.artemis.core.paging.PagingStore;
+import org.apache.activemq.artemis.core.paging.cursor.PageCursorProvider;
+import org.apache.activemq.artemis.core.paging.impl.Page;
+import org.apache.activemq.artemis.core.replication.ReplicationManager;
+import org.apache.activemq.artemis.core.server.RouteContextList;
+import org.apache.activemq.artemis.core.settings.impl.AddressFullMessagePolicy;
+import org.apache.activemq.artemis.core.settings.impl.AddressSettings;
+import org.apache.activemq.artemis.core.transaction.Transaction;
+
+/**
+ * A started paging store that only keeps its sizes and whether it is paging, it never writes any page.
+ */
+public class FakePagingStore implements PagingStore {
+
+   private final SimpleString address;
+
+   private final AddressFullMessagePolicy addressFullMessagePolicy;
+
+   private long addressSize;
+
+   private long releasedSize;
+
+   private boolean paging;
+
+   public FakePagingStore(final SimpleString address,
+                          final AddressFullMessagePolicy addressFullMessagePolicy,
+                          final long addressSize) {
+      this.address = address;
+      this.addressFullMessagePolicy = addressFullMessagePolicy;
+      this.addressSize = addressSize;
+   }
+
+   /**
+    * Pretends the consumers of the address released some memory, as reported by {@link #getReleasedSize()}.
+    */
+   public void release(final long size) {
+      releasedSize += size;
+   }
+
+   @Override
+   public SimpleString getAddress() {
+      return address;
+   }
+
+   @Override
+   public int getNumberOfPages() {
+      return 0;
+   }
+
+   @Override
+   public int getCurrentWritingPage() {
+      return 0;
+   }
+
+   @Override
+   public SimpleString getStoreName() {
+      return address;
+   }
+
+   @Override
+   public File getFolder() {
+      return null;
+   }
+
+   @Override
+   public AddressFullMessagePolicy getAddressFullMessagePolicy() {
+      return addressFullMessagePolicy;
+   }
+
+   @Override
+   public long getFirstPage() {
+      return 0;
+   }
+
+   @Override
+   public long getPageSizeBytes() {
+      return 0;
+   }
+
+   @Override
+   public long getAddressSize() {
+      return addressSize;
+   }
+
+   @Override
+   public long getReleasedSize() {
+      return releasedSize;
+   }
+
+   @Override
+   public long getMaxSize() {
+      return -1;
+   }
+
+   @Override
+   public void applySetting(final AddressSettings addressSettings) {
+   }
+
+   @Override
+   public boolean isPaging() {
+      return paging;
+   }
+
+   @Override
+   public void sync() throws Exception {
+   }
+
+   @Override
+   public void ioSync() throws Exception {
+   }
+
+   @Override
+   public boolean page(final Message message,
+                       final Transaction tx,
+                       final RouteContextList listCtx,
+                       final ReadLock readLock) throws Exception {
+      return false;
+   }
+
+   @Override
+   public Page createPage(final int page) throws Exception {
+      return null;
+   }
+
+   @Override
+   public boolean checkPageFileExists(final int page) throws Exception {
+      return false;
+   }
+
+   @Override
+   public PagingManager getPagingManager() {
+      return null;
+   }
+
+   @Override
+   public PageCursorProvider getCursorProvider() {
+      return null;
+   }
+
+   @Override
+   public void processReload() throws Exception {
+   }
+
+   @Override
+   public Page depage() throws Exception {
+      return null;
+   }
+
+   @Override
+   public void forceAnotherPage() throws Exception {
+   }
+
+   @Override
+   public Page getCurrentPage() {
+      return null;
+   }
+
+   @Override
+   public boolean startPaging() throws Exception {
+      if (paging) {
+         return false;
+      }
+      paging = true;
+      return true;
+   }
+
+   @Override
+   public void stopPaging() throws Exception {
+      paging = false;
+   }
+
+   @Override
+   public void addSize(final int size) {
+      addressSize += size;
+   }
+
+   @Override
+   public boolean checkMemory(final Runnable runnable) {
+      runnable.run();
+      return true;
+   }
+
+   @Override
+   public boolean isFull() {
+      return false;
+   }
+
+   @Override
+   public boolean isRejectingMessages() {
+      return false;
+   }
+
+   @Override
+   public boolean checkReleasedMemory() {
+      return true;
+   }
+
+   @Override
+   public boolean lock(final long timeout) {
+      return true;
+   }
+
+   @Override
+   public void unlock() {
+   }
+
+   @Override
+   public void flushExecutors() {
+   }
+
+   @Override
+   public Collection<Integer> getCurrentIds() throws Exception {
+      return Collections.emptyList();
+   }
+
+   @Override
+   public void sendPages(final ReplicationManager replicator, final Collection<Integer> pageIds) throws Exception {
+   }
+
+   @Override
+   public void disableCleanup() {
+   }
+
+   @Override
+   public void enableCleanup() {
+   }
+
+   @Override
+   public void durableUp(final Message message, final int durableCount) {
+   }
+
+   @Override
+   public void durableDown(final Message message, final int durableCount) {
+   }
+
+   @Override
+   public void nonDurableUp(final Message message, final int nonDurableCount) {
+   }
+
+   @Override
+   public void nonDurableDown(final Message message, final int nonDurableCount) {
+   }
+
+   @Override
+   public void start() throws Exception {
+   }
+
+   @Override
+   public void stop() throws Exception {
+   }
+
+   @Override
+   public boolean isStarted() {
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "FakePagingStore[" + address + "]";
+   }
+}